@@ -0,0 +1,96 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.distributions.LognormalDistr;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the stochastic utilization models of many VMs, queried at every scheduling
+ * interval: {@link UtilizationModelStochastic}, which keeps a random generator and the history of
+ * every VM, against {@link UtilizationModelCounterStochastic}, which keeps no state.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StochasticUtilizationBenchmark {
+
+	/** The model: history, counter or lognormal (counter with a lognormal shape). */
+	@Param({ "history", "counter", "lognormal" })
+	public String model;
+
+	/** The number of VMs. */
+	@Param({ "100000" })
+	public int vms;
+
+	/** The utilization models of the VMs. */
+	private UtilizationModel[] models;
+
+	/** The index of the next VM to query. */
+	private int next;
+
+	/** The time of the queries. */
+	private double time;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		models = new UtilizationModel[vms];
+		for (int i = 0; i < vms; i++) {
+			if (model.equals("history")) {
+				models[i] = new UtilizationModelStochastic(i);
+			} else if (model.equals("counter")) {
+				models[i] = new UtilizationModelCounterStochastic(42, i, Constants.SCHEDULING_INTERVAL);
+			} else {
+				UtilizationModelCounterStochastic lognormal = new UtilizationModelCounterStochastic(
+						42,
+						i,
+						Constants.SCHEDULING_INTERVAL,
+						new LognormalDistr(0.1, 0.5));
+				lognormal.setScale(0.2);
+				models[i] = lognormal;
+			}
+		}
+		next = 0;
+		time = 0;
+	}
+
+	/**
+	 * Queries the utilization of the next VM, and moves to the next interval after the last VM.
+	 *
+	 * @return the utilization
+	 */
+	@Benchmark
+	public double getUtilization() {
+		if (++next == vms) {
+			next = 0;
+			time += Constants.SCHEDULING_INTERVAL;
+		}
+		return models[next].getUtilization(time);
+	}
+
+}
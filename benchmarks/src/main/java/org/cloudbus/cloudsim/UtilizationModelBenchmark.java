@@ -0,0 +1,81 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link UtilizationModelPlanetLabInMemory#getUtilization(double)}, queried at the
+ * scheduling interval boundaries and in between, as the cloudlet schedulers do.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UtilizationModelBenchmark {
+
+	/** The number of query times. */
+	private static final int TIMES = 4096;
+
+	/** The utilization model. */
+	private UtilizationModelPlanetLabInMemory model;
+
+	/** The query times. */
+	private double[] times;
+
+	/** The index of the next query time. */
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Random random = new Random(42);
+		File folder = SyntheticWorkload.createTempFolder("cloudsim-trace");
+		File trace = new File(folder, "trace");
+		SyntheticWorkload.writeTrace(trace, SyntheticWorkload.createTrace(random, Constants.MAXSIZE - 1));
+		model = new UtilizationModelPlanetLabInMemory(trace.getPath(), Constants.SCHEDULING_INTERVAL);
+		SyntheticWorkload.deleteFolder(folder);
+
+		times = new double[TIMES];
+		double limit = (Constants.MAXSIZE - 2) * Constants.SCHEDULING_INTERVAL;
+		for (int i = 0; i < TIMES; i++) {
+			if (i % 4 == 0) {
+				times[i] = random.nextInt(Constants.MAXSIZE - 1) * Constants.SCHEDULING_INTERVAL;
+			} else {
+				times[i] = random.nextDouble() * limit;
+			}
+		}
+	}
+
+	@Benchmark
+	public double getUtilization() {
+		next = (next + 1) % TIMES;
+		return model.getUtilization(times[next]);
+	}
+
+}
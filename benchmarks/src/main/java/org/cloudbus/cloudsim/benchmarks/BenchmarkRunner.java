@@ -0,0 +1,35 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner runs the benchmarks selected on the command line, with the usual JMH options,
+ * and always adds the GC profiler so that the allocation rate (gc.alloc.rate and
+ * gc.alloc.rate.norm, in bytes per operation) is reported next to the throughput.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		Options commandLine = new CommandLineOptions(args);
+		Options options = new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,269 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVm;
+
+/**
+ * SyntheticWorkload generates the inputs of the benchmarks: hosts, VMs, PlanetLab-like utilization
+ * traces, energy prices and network topologies. Everything is derived from a seed, so the
+ * benchmarks are reproducible and do not depend on the traces shipped under examples/workload.
+ */
+public class SyntheticWorkload {
+
+	/** The name of the synthetic PlanetLab workload inside the generated input folder. */
+	public static final String PLANETLAB_WORKLOAD = "planetlab/synthetic";
+
+	/**
+	 * Initialises CloudSim without logging and redirects the output files of the simulator to a
+	 * sink, so that the benchmarks measure the simulation and not the file system.
+	 */
+	public static void initSimulation() {
+		Log.disable();
+		redirectOutputFiles();
+		CloudSim.init(1, Calendar.getInstance(), false);
+	}
+
+	/**
+	 * Redirects the output files written by the simulator to a sink.
+	 */
+	public static void redirectOutputFiles() {
+		Constants.sla_file = createSink();
+		Constants.overload_file = createSink();
+		Constants.migration_file = createSink();
+		Constants.crash_file = createSink();
+		Constants.active_nodes_file = createSink();
+		Constants.nominal_hosts_file = createSink();
+		Constants.vm_map_file = createSink();
+
+		String nullPath = new File("/dev/null").exists() ? "/dev/null" : "NUL";
+		Constants.HistoricalInfoPath = nullPath;
+		Constants.HostUtilInfoPath = nullPath;
+	}
+
+	/**
+	 * Creates a print writer that discards everything written to it.
+	 *
+	 * @return the print writer
+	 */
+	private static PrintWriter createSink() {
+		return new PrintWriter(new OutputStream() {
+
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		});
+	}
+
+	/**
+	 * Creates the hosts, with the same configuration as the experiments.
+	 *
+	 * @param hostsNumber the hosts number
+	 * @return the host list
+	 */
+	public static List<PowerHost> createHosts(int hostsNumber) {
+		return Helper.createHostList(hostsNumber);
+	}
+
+	/**
+	 * Creates VMs requesting a random share of a host.
+	 *
+	 * @param vmsNumber the vms number
+	 * @param seed the seed
+	 * @return the vm list
+	 */
+	public static List<Vm> createVms(int vmsNumber, long seed) {
+		Random random = new Random(seed);
+		List<Vm> vms = new ArrayList<Vm>();
+		for (int i = 0; i < vmsNumber; i++) {
+			double mips = (0.05 + 0.3 * random.nextDouble()) * Constants.CPU;
+			int ram = 256 + random.nextInt(2048);
+			vms.add(new PowerVm(
+					i,
+					0,
+					mips,
+					1,
+					ram,
+					Constants.VM_BW,
+					Constants.VM_SIZE,
+					1,
+					"Xen",
+					new CloudletSchedulerDynamicWorkload(mips, 1),
+					Constants.SCHEDULING_INTERVAL,
+					1,
+					0.0126 / 3600,
+					random.nextInt(3)));
+		}
+		return vms;
+	}
+
+	/**
+	 * Creates a CPU utilization trace as a bounded random walk, similar to the PlanetLab traces.
+	 *
+	 * @param random the random generator
+	 * @param length the number of samples
+	 * @return the trace, with values between 0 and 1
+	 */
+	public static double[] createTrace(Random random, int length) {
+		double[] trace = new double[length];
+		double utilization = random.nextDouble() * 0.5;
+		for (int i = 0; i < length; i++) {
+			utilization += random.nextGaussian() * 0.05;
+			utilization = Math.min(1, Math.max(0, utilization));
+			trace[i] = utilization;
+		}
+		return trace;
+	}
+
+	/**
+	 * Writes a trace file in the PlanetLab format, one utilization value per line.
+	 *
+	 * @param file the file
+	 * @param trace the trace
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void writeTrace(File file, double[] trace) throws IOException {
+		PrintWriter writer = new PrintWriter(file);
+		try {
+			for (double value : trace) {
+				writer.println(String.format(Locale.US, "%.10f", value));
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Creates an input folder for the PlanetLab runner: one trace per VM under
+	 * {@link #PLANETLAB_WORKLOAD}, the VM events file and the energy price file.
+	 *
+	 * @param vmsNumber the vms number
+	 * @param seed the seed
+	 * @return the input folder
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static File createPlanetLabInput(int vmsNumber, long seed) throws IOException {
+		Random random = new Random(seed);
+		File inputFolder = createTempFolder("cloudsim-planetlab");
+		File workloadFolder = new File(inputFolder, PLANETLAB_WORKLOAD);
+		workloadFolder.mkdirs();
+
+		for (int i = 0; i < vmsNumber; i++) {
+			writeTrace(
+					new File(workloadFolder, String.format("vm%06d", i)),
+					createTrace(random, Constants.MAXSIZE - 1));
+		}
+
+		PrintWriter events = new PrintWriter(new File(inputFolder, "vm_events_1425"));
+		try {
+			for (int i = 0; i < vmsNumber; i++) {
+				events.println(String.format(
+						Locale.US,
+						"%d %.5f %.6f 9.0",
+						100000000000L + i,
+						0.03125 * (1 + random.nextInt(8)),
+						0.001 + 0.03 * random.nextDouble()));
+			}
+		} finally {
+			events.close();
+		}
+
+		PrintWriter prices = new PrintWriter(new File(inputFolder, Constants.energyFilename));
+		try {
+			for (int i = 0; i < Constants.MAXSIZE; i++) {
+				prices.println(String.format(Locale.US, "%.10e", 2.5e-8 * (1 + 0.3 * Math.sin(i * Math.PI / 144))));
+			}
+		} finally {
+			prices.close();
+		}
+
+		return inputFolder;
+	}
+
+	/**
+	 * Creates a random connected topology as an adjacency matrix of link delays, where 0 means
+	 * that there is no link.
+	 *
+	 * @param nodes the number of nodes
+	 * @param degree the average number of links per node
+	 * @param seed the seed
+	 * @return the adjacency matrix
+	 */
+	public static float[][] createTopology(int nodes, int degree, long seed) {
+		Random random = new Random(seed);
+		float[][] adjacency = new float[nodes][nodes];
+		// a ring keeps the graph connected, the other links are random
+		for (int i = 0; i < nodes; i++) {
+			int j = (i + 1) % nodes;
+			adjacency[i][j] = adjacency[j][i] = 1 + random.nextInt(10);
+		}
+		for (int n = 0; n < nodes * (degree - 2) / 2; n++) {
+			int i = random.nextInt(nodes);
+			int j = random.nextInt(nodes);
+			if (i != j) {
+				adjacency[i][j] = adjacency[j][i] = 1 + random.nextInt(10);
+			}
+		}
+		return adjacency;
+	}
+
+	/**
+	 * Creates a temporary folder.
+	 *
+	 * @param prefix the prefix
+	 * @return the folder
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static File createTempFolder(String prefix) throws IOException {
+		File folder = File.createTempFile(prefix, "");
+		if (!folder.delete() || !folder.mkdirs()) {
+			throw new IOException("Cannot create the folder " + folder);
+		}
+		return folder;
+	}
+
+	/**
+	 * Deletes a folder and its content.
+	 *
+	 * @param folder the folder
+	 */
+	public static void deleteFolder(File folder) {
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				deleteFolder(file);
+			}
+		}
+		folder.delete();
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the event lifecycle of the kernel: a simulation of pairs of entities exchanging
+ * messages, with and without the {@link EventPool}. The gc.alloc.rate.norm of the GC profiler
+ * gives the bytes allocated per simulation.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EventPoolBenchmark {
+
+	/**
+	 * An entity that sends back every message to its peer, until a number of rounds.
+	 */
+	private static class PingPong extends SimEntity {
+
+		/** The peer, or null if the peer starts the exchange. */
+		private PingPong peer;
+
+		/** The number of rounds. */
+		private final int rounds;
+
+		/**
+		 * Creates a PingPong entity.
+		 *
+		 * @param name the name
+		 * @param rounds the number of rounds
+		 */
+		PingPong(String name, int rounds) {
+			super(name);
+			this.rounds = rounds;
+		}
+
+		@Override
+		public void startEntity() {
+			if (peer != null) {
+				send(peer.getId(), 1, CloudSimTags.EXPERIMENT, Integer.valueOf(0));
+			}
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			int round = (Integer) ev.getData();
+			if (round < rounds) {
+				send(ev.getSource(), 1, CloudSimTags.EXPERIMENT, Integer.valueOf(round + 1));
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+	/**
+	 * The parameters of the simulation.
+	 */
+	@State(Scope.Thread)
+	public static class SimulationState {
+
+		/** The capacity of the event pool, 0 to disable it. */
+		@Param({ "0", "4096" })
+		public int poolCapacity;
+
+		/** The number of pairs of entities. */
+		@Param({ "100" })
+		public int pairs;
+
+		/** The number of messages exchanged by every pair. */
+		@Param({ "1000" })
+		public int rounds;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			EventPool.setCapacity(poolCapacity);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			EventPool.setCapacity(EventPool.DEFAULT_CAPACITY);
+		}
+
+	}
+
+	/**
+	 * Runs the simulation.
+	 *
+	 * @param state the state
+	 * @return the simulation end time
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public double pingPong(SimulationState state) {
+		SyntheticWorkload.initSimulation();
+		for (int i = 0; i < state.pairs; i++) {
+			PingPong ping = new PingPong("Ping_" + i, state.rounds);
+			PingPong pong = new PingPong("Pong_" + i, state.rounds);
+			ping.peer = pong;
+		}
+		return CloudSim.startSimulation();
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the future event queue: the add/poll cycle of the event loop, and
+ * {@link CloudSim#cancelAll(int, org.cloudbus.cloudsim.core.predicates.Predicate)}, which scans the
+ * whole queue.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FutureQueueBenchmark {
+
+	/** The number of entities sending events. */
+	private static final int SOURCES = 16;
+
+	/**
+	 * A standalone queue holding a constant number of pending events.
+	 */
+	@State(Scope.Thread)
+	public static class QueueState {
+
+		/** The number of pending events. */
+		@Param({ "1000", "100000" })
+		public int size;
+
+		/** The queue. */
+		private FutureQueue queue;
+
+		/** The random generator of the event delays. */
+		private Random random;
+
+		/** The time of the last polled event. */
+		private double clock;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			random = new Random(42);
+			queue = new FutureQueue();
+			clock = 0;
+			for (int i = 0; i < size; i++) {
+				queue.addEvent(createEvent(random.nextDouble() * 300));
+			}
+		}
+
+		/**
+		 * Creates an event at the given delay from the last polled event.
+		 *
+		 * @param delay the delay
+		 * @return the event
+		 */
+		private SimEvent createEvent(double delay) {
+			int source = random.nextInt(SOURCES);
+			return new SimEvent(SimEvent.SEND, clock + delay, source, 0, source % 8, null);
+		}
+
+	}
+
+	/**
+	 * The queue of the simulation, refilled before each cancellation.
+	 */
+	@State(Scope.Thread)
+	public static class SimulationState {
+
+		/** The number of pending events. */
+		@Param({ "1000", "100000" })
+		public int size;
+
+		/** The random generator of the event delays. */
+		private Random random;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			SyntheticWorkload.initSimulation();
+			random = new Random(42);
+		}
+
+		@Setup(Level.Invocation)
+		public void fill() {
+			CloudSim.future.clear();
+			for (int i = 0; i < size; i++) {
+				CloudSim.send(i % SOURCES, 0, random.nextDouble() * 300, i % 8, null);
+			}
+		}
+
+	}
+
+	/**
+	 * Adds an event and removes the first one, keeping the queue size constant.
+	 *
+	 * @param state the state
+	 * @return the polled event
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public SimEvent addPoll(QueueState state) {
+		state.queue.addEvent(state.createEvent(state.random.nextDouble() * 300));
+		SimEvent first = state.queue.iterator().next();
+		state.queue.remove(first);
+		state.clock = first.eventTime();
+		return first;
+	}
+
+	/**
+	 * Cancels the events of one source and one tag.
+	 *
+	 * @param state the state
+	 * @return true, if some event was cancelled
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public boolean cancelAll(SimulationState state) {
+		return CloudSim.cancelAll(1, new PredicateType(1));
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.examples.power.planetlab;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Macro benchmark of a full simulated day of the PlanetLab experiment (THR/MU, threshold 0.8) on a
+ * synthetic workload with the given number of VMs and the usual number of hosts.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PlanetLabRunnerBenchmark {
+
+	/** The number of VMs. */
+	@Param({ "100", "1000" })
+	public int vms;
+
+	/** The generated input folder. */
+	private File inputFolder;
+
+	/** The output folder. */
+	private File outputFolder;
+
+	/** The standard output, which the simulator floods. */
+	private PrintStream standardOutput;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		inputFolder = SyntheticWorkload.createPlanetLabInput(vms, 42);
+		outputFolder = SyntheticWorkload.createTempFolder("cloudsim-output");
+		standardOutput = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+	}
+
+	@Setup(Level.Invocation)
+	public void reset() {
+		SyntheticWorkload.redirectOutputFiles();
+		Constants.energy_prices.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.setOut(standardOutput);
+		SyntheticWorkload.deleteFolder(inputFolder);
+		SyntheticWorkload.deleteFolder(outputFolder);
+	}
+
+	@Benchmark
+	public PlanetLabRunner simulateOneDay() {
+		return new PlanetLabRunner(
+				false,
+				false,
+				inputFolder.getPath(),
+				outputFolder.getPath(),
+				SyntheticWorkload.PLANETLAB_WORKLOAD,
+				"thr",
+				"mu",
+				"0.8");
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the shortest paths of a BRITE topology: the all-pairs shortest paths computed by
+ * {@link FloydWarshall_Float}, and the on-demand rows computed by {@link DijkstraDelayCache_Float}.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FloydWarshallBenchmark {
+
+	/** The number of nodes. */
+	@Param({ "64", "256", "512" })
+	public int nodes;
+
+	/** The number of source nodes queried by the on-demand benchmark. */
+	private static final int SOURCES = 16;
+
+	/** The adjacency matrix. */
+	private float[][] adjacency;
+
+	/** The graph. */
+	private TopologicalGraph graph;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		adjacency = SyntheticWorkload.createTopology(nodes, 4, 42);
+		graph = new TopologicalGraph();
+		for (int i = 0; i < nodes; i++) {
+			graph.addNode(new TopologicalNode(i));
+		}
+		for (int i = 0; i < nodes; i++) {
+			for (int j = i + 1; j < nodes; j++) {
+				if (adjacency[i][j] != 0) {
+					graph.addLink(new TopologicalLink(i, j, adjacency[i][j], 1));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public float[][] allPairsShortestPaths() {
+		FloydWarshall_Float floydWarshall = new FloydWarshall_Float();
+		floydWarshall.initialize(nodes);
+		return floydWarshall.allPairsShortestPaths(adjacency);
+	}
+
+	@Benchmark
+	public float dijkstraRows() {
+		DijkstraDelayCache_Float delayCache = new DijkstraDelayCache_Float(graph, false, SOURCES);
+		float delay = 0;
+		for (int i = 0; i < SOURCES; i++) {
+			delay += delayCache.getDelay(i * nodes / SOURCES, nodes - 1);
+		}
+		return delay;
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the host search of one VM placement, with the utilization-based search and with
+ * the frequency-aware search, on a half loaded datacenter.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlacementBenchmark {
+
+	/** The number of hosts. */
+	@Param({ "100", "1000", "10000" })
+	public int hosts;
+
+	/** The allocation policy. */
+	private PowerVmAllocationPolicyMigrationAbstract policy;
+
+	/** The vms to place, used in turn. */
+	private List<Vm> vms;
+
+	/** The index of the next vm to place. */
+	private int next;
+
+	/** The excluded hosts. */
+	private final Set<Host> excludedHosts = Collections.emptySet();
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		SyntheticWorkload.initSimulation();
+		List<PowerHost> hostList = SyntheticWorkload.createHosts(hosts);
+		policy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList,
+				new PowerVmSelectionPolicyMinimumUtilization(),
+				0.8);
+		Helper.createDatacenter("Datacenter", PowerDatacenter.class, hostList, policy);
+
+		// every other host runs a VM
+		List<Vm> running = SyntheticWorkload.createVms(hosts / 2, 1);
+		for (int i = 0; i < running.size(); i++) {
+			hostList.get(2 * i).vmCreate(running.get(i));
+		}
+
+		vms = SyntheticWorkload.createVms(64, 2);
+		next = 0;
+	}
+
+	/**
+	 * Gets the next vm to place.
+	 *
+	 * @return the vm
+	 */
+	private Vm nextVm() {
+		next = (next + 1) % vms.size();
+		return vms.get(next);
+	}
+
+	@Benchmark
+	public PowerHost findHostForVm() {
+		return policy.findHostForVm(nextVm(), excludedHosts);
+	}
+
+	@Benchmark
+	public PowerHost frequencyAwarePlacement() {
+		return policy.frequencyAwarePlacement(nextVm(), excludedHosts);
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the per-interval energy and SLA accounting of {@link PowerDatacenter#updateCost()}.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UpdateCostBenchmark {
+
+	/** The number of hosts. */
+	@Param({ "100", "1000" })
+	public int hosts;
+
+	/** The number of VMs per host. */
+	@Param({ "1", "4" })
+	public int vmsPerHost;
+
+	/** The datacenter. */
+	private PowerDatacenter datacenter;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		SyntheticWorkload.initSimulation();
+		List<PowerHost> hostList = SyntheticWorkload.createHosts(hosts);
+		PowerVmAllocationPolicyMigrationAbstract policy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList,
+				new PowerVmSelectionPolicyMinimumUtilization(),
+				0.8);
+		datacenter = (PowerDatacenter) Helper.createDatacenter("Datacenter", PowerDatacenter.class, hostList, policy);
+
+		List<Vm> vms = SyntheticWorkload.createVms(hosts * vmsPerHost, 1);
+		for (int i = 0; i < vms.size(); i++) {
+			hostList.get(i % hosts).vmCreate(vms.get(i));
+		}
+	}
+
+	@Benchmark
+	public double updateCost() {
+		datacenter.updateCost();
+		return datacenter.getMyPower();
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.benchmarks.SyntheticWorkload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the statistics used by the overload detection policies: the LOESS estimates of the
+ * local regression policies, the MAD and the IQR, over utilization histories of the given length.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MathUtilBenchmark {
+
+	/** The length of the utilization history. */
+	@Param({ "10", "30", "100" })
+	public int length;
+
+	/** The utilization history. */
+	private double[] history;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		history = SyntheticWorkload.createTrace(new Random(42), length);
+	}
+
+	@Benchmark
+	public double[] loess() {
+		return MathUtil.getLoessParameterEstimates(history);
+	}
+
+	@Benchmark
+	public double[] robustLoess() {
+		return MathUtil.getRobustLoessParameterEstimates(history);
+	}
+
+	@Benchmark
+	public double mad() {
+		return MathUtil.mad(history);
+	}
+
+	/**
+	 * The IQR sorts its argument, so each call works on a copy, as the IQR policy does.
+	 *
+	 * @return the iqr
+	 */
+	@Benchmark
+	public double iqr() {
+		return MathUtil.iqr(history.clone());
+	}
+
+}
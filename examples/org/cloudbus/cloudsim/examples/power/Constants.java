@@ -36,6 +36,8 @@ public class Constants {
 	public final static boolean ENABLE_OUTPUT = true;
 	public final static boolean OUTPUT_CSV    = false;
 	public final static boolean multiDatacenter = false;
+	// Pick the datacenter from its summary before searching its hosts (multiDatacenter only)
+	public final static boolean HIERARCHICAL_PLACEMENT = false;
 //	public final static boolean max = true;
 	public final static boolean max = false;
 	
@@ -55,6 +57,11 @@ public class Constants {
 	public final static double TIME_SLOT = SCHEDULING_INTERVAL/k;
 	public final static double SIMULATION_LIMIT = 86000;
 	public final static int MAXSIZE = (int)(SIMULATION_LIMIT/SCHEDULING_INTERVAL) + 2; // Max length of energy price file and utilization reading
+	public final static int TRACE_PAGE_SIZE = 0; // Samples per page of the paged utilization traces, 0 to read the traces in memory
+	public final static double TRACE_INTERVAL = 300; // Interval of the samples of the utilization traces
+	public static double CHECKPOINT_TIME = -1; // Time at which the runners save a checkpoint and continue from the saved copy, negative to disable
+	public static String CHECKPOINT_FILE = "checkpoint.bin"; // File of the checkpoint saved at CHECKPOINT_TIME
+	public final static int TRACE_RESAMPLING = -1; // TraceResampler method resampling the traces to SCHEDULING_INTERVAL, -1 to use the samples as they are
 
 	public final static int CLOUDLET_LENGTH	= 2500 * (int) SIMULATION_LIMIT;
 	public final static int CLOUDLET_PES	= 1;
@@ -128,6 +135,21 @@ public class Constants {
 	
 
 	public static double ENERGY_PRICE = 4.2e-8;
+
+	/**
+	 * The VM pricing classes: the cores (of the 4 of a node), the RAM in MB and the price per second
+	 * of every class, the last row being the default class.
+	 */
+	public final static double[][] VM_PRICING_TABLE = {
+		{ 2, 512, 0.0062 / 3600 },
+		{ 2, 1024, 0.0124 / 3600 },
+		{ 2, 2048, 0.0248 / 3600 },
+		{ 2, 4096, 0.0496 / 3600 },
+		{ 2, 8192, 0.0992 / 3600 },
+		{ 4, 16384, 0.1984 / 3600 },
+		{ 8, 32768, 0.3968 / 3600 },
+		{ Double.MAX_VALUE, Double.MAX_VALUE, 0.896 / 3600 } // Default case
+	};
 	public final static double vmClass[] = { 1.0, 1.0, 1.0, 1.0 };
 	
 	
@@ -23,14 +23,13 @@ import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
-import org.cloudbus.cloudsim.HostStateHistoryEntry;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.StateHistory;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
-import org.cloudbus.cloudsim.VmStateHistoryEntry;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
 import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
 import org.cloudbus.cloudsim.power.PowerHost;
@@ -42,6 +41,7 @@ import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.PhaseProfiler;
 
 /**
  * The Class Helper.
@@ -155,18 +155,7 @@ public class Helper {
             int cpu = 4;
             price = 0.0062/3600;
 
-		    double[][] pricingTable = {
-		    	    {2, 512, 0.0062/3600},
-		    	    {2, 1024, 0.0124/3600},
-		    	    {2, 2048, 0.0248/3600},
-		    	    {2, 4096, 0.0496/3600},
-		    	    {2, 8192, 0.0992/3600},
-		    	    {4, 16384, 0.1984/3600},
-		    	    {8, 32768, 0.3968/3600},
-		    	    {Double.MAX_VALUE, Double.MAX_VALUE, 0.896/3600} // Default case
-		    	};
-
-	    	for (double[] row : pricingTable) {
+	    	for (double[] row : Constants.VM_PRICING_TABLE) {
 	    	    if (Math.ceil(intArray[1] * cpu) <= row[0] && intArray[2] * ram1 < row[1]) {
 	    	        price = row[2];
 	    	        break;
@@ -352,16 +341,8 @@ public class Helper {
 	public static List<Double> getTimesBeforeHostShutdown(List<Host> hosts) {
 		List<Double> timeBeforeShutdown = new LinkedList<Double>();
 		for (Host host : hosts) {
-			boolean previousIsActive = true;
-			double lastTimeSwitchedOn = 0;
-			for (HostStateHistoryEntry entry : ((HostDynamicWorkload) host).getStateHistory()) {
-				if (previousIsActive == true && entry.isActive() == false) {
-					timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
-				}
-				if (previousIsActive == false && entry.isActive() == true) {
-					lastTimeSwitchedOn = entry.getTime();
-				}
-				previousIsActive = entry.isActive();
+			for (double time : ((HostDynamicWorkload) host).getStateHistoryStore().getFlagPeriods()) {
+				timeBeforeShutdown.add(time);
 			}
 		}
 		return timeBeforeShutdown;
@@ -376,16 +357,8 @@ public class Helper {
 	public static List<Double> getTimesBeforeVmMigration(List<Vm> vms) {
 		List<Double> timeBeforeVmMigration = new LinkedList<Double>();
 		for (Vm vm : vms) {
-			boolean previousIsInMigration = false;
-			double lastTimeMigrationFinished = 0;
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousIsInMigration == true && entry.isInMigration() == false) {
-					timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
-				}
-				if (previousIsInMigration == false && entry.isInMigration() == true) {
-					lastTimeMigrationFinished = entry.getTime();
-				}
-				previousIsInMigration = entry.isInMigration();
+			for (double time : vm.getStateHistoryStore().getFlagPeriods()) {
+				timeBeforeVmMigration.add(time);
 			}
 		}
 		return timeBeforeVmMigration;
@@ -531,22 +504,14 @@ public class Helper {
 				PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy = (PowerVmAllocationPolicyMigrationAbstract) datacenter
 						.getVmAllocationPolicy();
 
-				double executionTimeVmSelectionMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryVmSelection());
-				double executionTimeVmSelectionStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryVmSelection());
-				double executionTimeHostSelectionMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryHostSelection());
-				double executionTimeHostSelectionStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryHostSelection());
-				double executionTimeVmReallocationMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryVmReallocation());
-				double executionTimeVmReallocationStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryVmReallocation());
-				double executionTimeTotalMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryTotal());
-				double executionTimeTotalStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryTotal());
+				double executionTimeVmSelectionMean = PhaseProfiler.getMean(PhaseProfiler.VM_SELECTION);
+				double executionTimeVmSelectionStDev = PhaseProfiler.getStDev(PhaseProfiler.VM_SELECTION);
+				double executionTimeHostSelectionMean = PhaseProfiler.getMean(PhaseProfiler.HOST_SELECTION);
+				double executionTimeHostSelectionStDev = PhaseProfiler.getStDev(PhaseProfiler.HOST_SELECTION);
+				double executionTimeVmReallocationMean = PhaseProfiler.getMean(PhaseProfiler.VM_REALLOCATION);
+				double executionTimeVmReallocationStDev = PhaseProfiler.getStDev(PhaseProfiler.VM_REALLOCATION);
+				double executionTimeTotalMean = PhaseProfiler.getMean(PhaseProfiler.OPTIMIZE_TOTAL);
+				double executionTimeTotalStDev = PhaseProfiler.getStDev(PhaseProfiler.OPTIMIZE_TOTAL);
 
 				data.append(String.format("%.5f", executionTimeVmSelectionMean) + delimeter);
 				data.append(String.format("%.5f", executionTimeVmSelectionStDev) + delimeter);
@@ -630,25 +595,14 @@ public class Helper {
 					stDevTimeBeforeVmMigration));
 
 			if (datacenter.getVmAllocationPolicy() instanceof PowerVmAllocationPolicyMigrationAbstract) {
-				PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy = (PowerVmAllocationPolicyMigrationAbstract) datacenter
-						.getVmAllocationPolicy();
-
-				double executionTimeVmSelectionMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryVmSelection());
-				double executionTimeVmSelectionStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryVmSelection());
-				double executionTimeHostSelectionMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryHostSelection());
-				double executionTimeHostSelectionStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryHostSelection());
-				double executionTimeVmReallocationMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryVmReallocation());
-				double executionTimeVmReallocationStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryVmReallocation());
-				double executionTimeTotalMean = MathUtil.mean(vmAllocationPolicy
-						.getExecutionTimeHistoryTotal());
-				double executionTimeTotalStDev = MathUtil.stDev(vmAllocationPolicy
-						.getExecutionTimeHistoryTotal());
+				double executionTimeVmSelectionMean = PhaseProfiler.getMean(PhaseProfiler.VM_SELECTION);
+				double executionTimeVmSelectionStDev = PhaseProfiler.getStDev(PhaseProfiler.VM_SELECTION);
+				double executionTimeHostSelectionMean = PhaseProfiler.getMean(PhaseProfiler.HOST_SELECTION);
+				double executionTimeHostSelectionStDev = PhaseProfiler.getStDev(PhaseProfiler.HOST_SELECTION);
+				double executionTimeVmReallocationMean = PhaseProfiler.getMean(PhaseProfiler.VM_REALLOCATION);
+				double executionTimeVmReallocationStDev = PhaseProfiler.getStDev(PhaseProfiler.VM_REALLOCATION);
+				double executionTimeTotalMean = PhaseProfiler.getMean(PhaseProfiler.OPTIMIZE_TOTAL);
+				double executionTimeTotalStDev = PhaseProfiler.getStDev(PhaseProfiler.OPTIMIZE_TOTAL);
 
 				Log.printLine(String.format(
 						"Execution time - VM selection mean: %.5f sec",
@@ -673,6 +627,9 @@ public class Helper {
 						.format("Execution time - total stDev: %.5f sec", executionTimeTotalStDev));
 			}
 			Log.printLine();
+			Log.printLine("Phase profile:");
+			Log.print(PhaseProfiler.getSummary());
+			Log.printLine();
 		}
 		
 		Log.setDisabled(true);
@@ -710,26 +667,9 @@ public class Helper {
 		double totalTime = 0;
 
 		for (Host _host : hosts) {
-			HostDynamicWorkload host = (HostDynamicWorkload) _host;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-			boolean previousIsActive = true;
-
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
-				if (previousTime != -1 && previousIsActive) {
-					double timeDiff = entry.getTime() - previousTime;
-					totalTime += timeDiff;
-					if (previousAllocated < previousRequested) {
-						slaViolationTimePerHost += timeDiff;
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsActive = entry.isActive();
-			}
+			StateHistory history = ((HostDynamicWorkload) _host).getStateHistoryStore();
+			totalTime += history.getFlaggedTime();
+			slaViolationTimePerHost += history.getFlaggedViolationTime();
 		}
 
 		return slaViolationTimePerHost / totalTime;
@@ -746,24 +686,9 @@ public class Helper {
 		double totalTime = 0;
 
 		for (Host _host : hosts) {
-			HostDynamicWorkload host = (HostDynamicWorkload) _host;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
-				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
-					totalTime += timeDiff;
-					if (previousAllocated < previousRequested) {
-						slaViolationTimePerHost += timeDiff;
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-			}
+			StateHistory history = ((HostDynamicWorkload) _host).getStateHistoryStore();
+			totalTime += history.getTotalTime();
+			slaViolationTimePerHost += history.getViolationTime();
 		}
 
 		return slaViolationTimePerHost / totalTime;
@@ -777,51 +702,26 @@ public class Helper {
 	 */
 	protected static Map<String, Double> getSlaMetrics(List<Vm> vms) {
 		Map<String, Double> metrics = new HashMap<String, Double>();
-		List<Double> slaViolation = new LinkedList<Double>();
+		double slaViolationSum = 0;
+		int slaViolationCount = 0;
 		double totalAllocated = 0;
 		double totalRequested = 0;
 		double totalUnderAllocatedDueToMigration = 0;
 
 		for (Vm vm : vms) {
-			double vmTotalAllocated = 0;
-			double vmTotalRequested = 0;
-			double vmUnderAllocatedDueToMigration = 0;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-			boolean previousIsInMigration = false;
-
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
-					vmTotalAllocated += previousAllocated * timeDiff;
-					vmTotalRequested += previousRequested * timeDiff;
-
-					if (previousAllocated < previousRequested) {
-						slaViolation.add((previousRequested - previousAllocated) / previousRequested);
-						if (previousIsInMigration) {
-							vmUnderAllocatedDueToMigration += (previousRequested - previousAllocated)
-									* timeDiff;
-						}
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsInMigration = entry.isInMigration();
-			}
-
-			totalAllocated += vmTotalAllocated;
-			totalRequested += vmTotalRequested;
-			totalUnderAllocatedDueToMigration += vmUnderAllocatedDueToMigration;
+			StateHistory history = vm.getStateHistoryStore();
+			slaViolationSum += history.getViolationSum();
+			slaViolationCount += history.getViolationCount();
+			totalAllocated += history.getTotalAllocatedMips();
+			totalRequested += history.getTotalRequestedMips();
+			totalUnderAllocatedDueToMigration += history.getFlaggedUnderAllocatedMips();
 		}
 
 		metrics.put("overall", (totalRequested - totalAllocated) / totalRequested);
-		if (slaViolation.isEmpty()) {
+		if (slaViolationCount == 0) {
 			metrics.put("average", 0.);
 		} else {
-			metrics.put("average", MathUtil.mean(slaViolation));
+			metrics.put("average", slaViolationSum / slaViolationCount);
 		}
 		metrics.put("underallocated_migration", totalUnderAllocatedDueToMigration / totalRequested);
 
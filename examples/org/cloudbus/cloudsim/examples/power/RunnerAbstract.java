@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintWriter;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -19,10 +20,12 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationCheckpoint;
 
 import org.cloudbus.cloudsim.examples.power.demo.PowerVmAllocationPolicyDemoA;
 import org.cloudbus.cloudsim.examples.power.demo.PowerVmSelectionPolicyDemoS;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerDatacenterSummary;
 import org.cloudbus.cloudsim.power.PowerHost;
 import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
 import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationInterQuartileRange;
@@ -41,6 +44,7 @@ import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyRandomSelection;
 import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyNodeIndependantNominal;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumCost;
 import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationWorkloadHistory;
+import org.cloudbus.cloudsim.util.PhaseProfiler;
 
 /**
  * The Class RunnerAbstract.
@@ -172,6 +176,9 @@ public abstract class RunnerAbstract {
 					+ getExperimentName(workload, vmAllocationPolicy, vmSelectionPolicy, parameter) + ".txt");
 			file.createNewFile();
 			Log.setOutput(new FileOutputStream(file));
+
+			PhaseProfiler.setIntervalOutput(new PrintWriter(new FileOutputStream(outputFolder + "/log/"
+					+ getExperimentName(workload, vmAllocationPolicy, vmSelectionPolicy, parameter) + "_phases.txt")));
 		}
 	}
 
@@ -205,6 +212,14 @@ public abstract class RunnerAbstract {
 						hostList_multi,
 						vmAllocationPolicy);
 
+				// Two-level placement: datacenters are picked from their summaries first
+				if (Constants.HIERARCHICAL_PLACEMENT
+						&& vmAllocationPolicy instanceof PowerVmAllocationPolicyMigrationAbstract) {
+					PowerVmAllocationPolicyMigrationAbstract policy = (PowerVmAllocationPolicyMigrationAbstract) vmAllocationPolicy;
+					policy.addDatacenterSummary(createDatacenterSummary(policy, datacenter, hostList));
+					policy.addDatacenterSummary(createDatacenterSummary(policy, datacenter_multi, hostList_multi));
+				}
+
 				hostList.addAll(hostList_multi);
 			}
 			
@@ -215,6 +230,9 @@ public abstract class RunnerAbstract {
 			broker.submitCloudletList(cloudletList);
 
 			CloudSim.terminateSimulation(Constants.SIMULATION_LIMIT);
+			if (Constants.CHECKPOINT_TIME >= 0) {
+				datacenter = continueFromCheckpoint(datacenter);
+			}
 			double lastClock = CloudSim.startSimulation();
 
 			List<Cloudlet> newList = broker.getCloudletReceivedList();
@@ -266,6 +284,49 @@ public abstract class RunnerAbstract {
 	//     return datacenters;
 	// }
 
+	/**
+	 * Runs the simulation to Constants.CHECKPOINT_TIME, saves a checkpoint to
+	 * Constants.CHECKPOINT_FILE and loads it back, so that the rest of the run continues from the
+	 * restored copy. The broker, VM and host lists are pointed to the restored objects.
+	 * 
+	 * @param datacenter the datacenter
+	 * @return the restored datacenter
+	 * @throws IOException if the checkpoint cannot be written or read
+	 */
+	protected PowerDatacenter continueFromCheckpoint(PowerDatacenter datacenter) throws IOException {
+		CloudSim.runUntil(Constants.CHECKPOINT_TIME);
+		CloudSim.checkpoint().save(Constants.CHECKPOINT_FILE);
+		CloudSim.restore(SimulationCheckpoint.load(Constants.CHECKPOINT_FILE));
+		Log.printLine("Continuing from the checkpoint saved at " + CloudSim.clock());
+
+		broker = (DatacenterBroker) CloudSim.getEntity(broker.getId());
+		vmList = broker.getVmList();
+		PowerDatacenter restored = (PowerDatacenter) CloudSim.getEntity(datacenter.getId());
+		hostList = restored.getHostList();
+		return restored;
+	}
+
+	/**
+	 * Creates the summary of a datacenter for the hierarchical placement. The summary follows the
+	 * current energy price, takes its green fraction from the brown-powered hosts of the policy
+	 * and uses the SLA migration penalty as the inter-datacenter migration cost.
+	 * 
+	 * @param policy the vm allocation policy
+	 * @param datacenter the datacenter
+	 * @param hosts the hosts of the datacenter
+	 * @return the datacenter summary
+	 */
+	protected PowerDatacenterSummary createDatacenterSummary(
+			PowerVmAllocationPolicyMigrationAbstract policy,
+			PowerDatacenter datacenter,
+			List<PowerHost> hosts) {
+		PowerDatacenterSummary summary = new PowerDatacenterSummary(datacenter.getId(), new ArrayList<PowerHost>(hosts));
+		summary.setEnergyPrice(-1);
+		summary.setGreenFraction(policy.getGreenFraction(hosts));
+		summary.setMigrationCost(-1);
+		return summary;
+	}
+
 	/**
 	 * Gets the experiment name.
 	 * 
@@ -11,6 +11,8 @@ import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
 import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabPaged;
+import org.cloudbus.cloudsim.UtilizationModelResampled;
 import org.cloudbus.cloudsim.examples.power.Constants;
 
 /**
@@ -52,15 +54,30 @@ public class PlanetLabHelper {
 		for (int i = 0; i < files.length; i++) {
 			Cloudlet cloudlet = null;
 			try {
+				UtilizationModel utilizationModel;
+				if (Constants.TRACE_PAGE_SIZE > 0) {
+					utilizationModel = new UtilizationModelPlanetLabPaged(
+							files[i].getAbsolutePath(),
+							Constants.SCHEDULING_INTERVAL,
+							Constants.TRACE_PAGE_SIZE);
+				} else if (Constants.TRACE_RESAMPLING >= 0) {
+					utilizationModel = new UtilizationModelResampled(
+							files[i].getAbsolutePath(),
+							Constants.TRACE_INTERVAL,
+							Constants.SCHEDULING_INTERVAL,
+							Constants.TRACE_RESAMPLING);
+				} else {
+					utilizationModel = new UtilizationModelPlanetLabInMemory(
+							files[i].getAbsolutePath(),
+							Constants.SCHEDULING_INTERVAL);
+				}
 				cloudlet = new Cloudlet(
 						i,
 						Constants.CLOUDLET_LENGTH,
 						Constants.CLOUDLET_PES,
 						fileSize,
 						outputSize,
-						new UtilizationModelPlanetLabInMemory(
-								files[i].getAbsolutePath(),
-								Constants.SCHEDULING_INTERVAL), utilizationModelNull, utilizationModelNull);
+						utilizationModel, utilizationModelNull, utilizationModelNull);
 			} catch (Exception e) {
 				e.printStackTrace();
 				System.exit(0);
@@ -0,0 +1,46 @@
+package org.cloudbus.cloudsim.examples.power.planetlab;
+
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.examples.power.Constants;
+
+/**
+ * The same simulation as {@link ThrMu}, except that the run is saved to a checkpoint file half way
+ * through, loaded back and continued from the restored copy. The results must be the same as the
+ * ones of an uninterrupted ThrMu run.
+ * 
+ * The remaining configuration parameters are in the Constants and PlanetLabConstants classes.
+ */
+public class ThrMuCheckpoint {
+
+	/**
+	 * The main method.
+	 * 
+	 * @param args the arguments
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void main(String[] args) throws IOException {
+		boolean enableOutput = true;
+		boolean outputToFile = false;
+		String inputFolder = NonPowerAware.class.getClassLoader().getResource("workload/planetlab").getPath();
+		String outputFolder = "output";
+		String workload = "1000_1425"; // PlanetLab workload
+		String vmAllocationPolicy = "thr"; // Static Threshold (THR) VM allocation policy
+		String vmSelectionPolicy = "mu"; // Minimum Utilization (MU) VM selection policy
+		String parameter = "0.8"; // the static utilization threshold
+
+		Constants.CHECKPOINT_TIME = Constants.SIMULATION_LIMIT / 2;
+		Constants.CHECKPOINT_FILE = outputFolder + "/checkpoint.bin";
+
+		new PlanetLabRunner(
+				enableOutput,
+				outputToFile,
+				inputFolder,
+				outputFolder,
+				workload,
+				vmAllocationPolicy,
+				vmSelectionPolicy,
+				parameter);
+	}
+
+}
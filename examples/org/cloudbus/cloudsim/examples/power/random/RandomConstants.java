@@ -20,4 +20,12 @@ public class RandomConstants {
 
 	public final static long CLOUDLET_UTILIZATION_SEED = 1;
 
+	public final static int SYNTHETIC_NUMBER_OF_VMS = 300;
+
+	public final static double SYNTHETIC_MEAN_INTER_ARRIVAL = 288; // about NUMBER_OF_VMS VMs alive with 4-hour lifetimes
+
+	public final static int SYNTHETIC_PARTITIONS = 4;
+
+	public final static double ARRIVAL_WINDOW = 600; // look-ahead window of the broker on the arrivals
+
 }
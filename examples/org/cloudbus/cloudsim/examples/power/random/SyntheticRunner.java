@@ -0,0 +1,104 @@
+package org.cloudbus.cloudsim.examples.power.random;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.examples.power.RunnerAbstract;
+import org.cloudbus.cloudsim.examples.power.random.SyntheticWorkloadGenerator.SyntheticVm;
+
+/**
+ * The example runner for the synthetic workload: the VMs are not created up front, they arrive and
+ * depart during the simulation as generated by a {@link SyntheticWorkloadGenerator}, which the
+ * broker reads through its look-ahead window. The VMs taken by the broker are kept in the VM list
+ * for the results.
+ */
+public class SyntheticRunner extends RunnerAbstract {
+
+	/**
+	 * @param enableOutput
+	 * @param outputToFile
+	 * @param inputFolder
+	 * @param outputFolder
+	 * @param workload
+	 * @param vmAllocationPolicy
+	 * @param vmSelectionPolicy
+	 * @param parameter
+	 */
+	public SyntheticRunner(
+			boolean enableOutput,
+			boolean outputToFile,
+			String inputFolder,
+			String outputFolder,
+			String workload,
+			String vmAllocationPolicy,
+			String vmSelectionPolicy,
+			String parameter) {
+		super(
+				enableOutput,
+				outputToFile,
+				inputFolder,
+				outputFolder,
+				workload,
+				vmAllocationPolicy,
+				vmSelectionPolicy,
+				parameter);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.cloudbus.cloudsim.examples.power.RunnerAbstract#init(java.lang.String)
+	 */
+	@Override
+	protected void init(String inputFolder, String myfolder) {
+		try {
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			broker = Helper.createBroker();
+			int brokerId = broker.getId();
+
+			cloudletList = new ArrayList<Cloudlet>();
+			vmList = new ArrayList<Vm>();
+			hostList = Helper.createHostList(RandomConstants.NUMBER_OF_HOSTS);
+
+			SyntheticWorkloadGenerator generator = new SyntheticWorkloadGenerator(
+					RandomConstants.CLOUDLET_UTILIZATION_SEED,
+					brokerId,
+					RandomConstants.SYNTHETIC_NUMBER_OF_VMS,
+					RandomConstants.SYNTHETIC_PARTITIONS);
+			generator.setMeanInterArrivalTime(RandomConstants.SYNTHETIC_MEAN_INTER_ARRIVAL);
+			final Iterator<SyntheticVm> arrivals = generator.iterator();
+			// the VMs are kept for the results as the broker takes them
+			broker.submitArrivals(new Iterator<SyntheticVm>() {
+
+				@Override
+				public boolean hasNext() {
+					return arrivals.hasNext();
+				}
+
+				@Override
+				public SyntheticVm next() {
+					SyntheticVm arrival = arrivals.next();
+					vmList.add(arrival.getVm());
+					return arrival;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			}, RandomConstants.ARRIVAL_WINDOW);
+		} catch (Exception e) {
+			e.printStackTrace();
+			Log.printLine("The simulation has been terminated due to an unexpected error");
+			System.exit(0);
+		}
+	}
+
+}
@@ -0,0 +1,487 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.examples.power.random;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelCounterStochastic;
+import org.cloudbus.cloudsim.UtilizationModelNull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmArrival;
+import org.cloudbus.cloudsim.distributions.CounterBasedRandom;
+import org.cloudbus.cloudsim.distributions.ExponentialDistr;
+import org.cloudbus.cloudsim.distributions.LomaxDistribution;
+import org.cloudbus.cloudsim.distributions.UniformTransform;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.power.PowerVm;
+
+/**
+ * SyntheticWorkloadGenerator describes a population of VMs and emits them, with their cloudlets,
+ * as a lazy stream instead of building the whole list like {@link RandomHelper}. The population
+ * is described by:
+ * <ul>
+ * <li>the mix of VM sizes, as weights over the pricing classes of
+ * {@link Constants#VM_PRICING_TABLE}, the workload class and the SLA weight of the VMs being
+ * uniform as in {@link org.cloudbus.cloudsim.examples.power.Helper#createVmList};</li>
+ * <li>the arrival process, a Poisson process with {@link ExponentialDistr} inter-arrival times;</li>
+ * <li>the lifetimes, from a distribution such as {@link LomaxDistribution} or
+ * {@link org.cloudbus.cloudsim.distributions.ParetoDistr};</li>
+ * <li>the utilization of the cloudlets, a {@link UtilizationModelCounterStochastic} with a shape
+ * and a diurnal envelope.</li>
+ * </ul>
+ * <p>
+ * The VMs are split in partitions: the partition p has the VMs p, p + P, p + 2P, ... where P is
+ * the number of partitions, and arrives as a Poisson process with the rate of the population
+ * divided by P, so the partitions together form the arrival process of the population. Every
+ * random variate of a VM is drawn by the {@link CounterBasedRandom} generator from the seed and
+ * the VM id, so a partition is deterministic, does not depend on the other partitions, and the
+ * partitions can be generated in parallel. {@link #iterator()} merges the partitions by arrival
+ * time, and can be submitted to a broker with
+ * {@link org.cloudbus.cloudsim.DatacenterBroker#submitArrivals(Iterator, double)}.
+ */
+public class SyntheticWorkloadGenerator implements Iterable<SyntheticWorkloadGenerator.SyntheticVm> {
+
+	/** The number of cores of a node, the CPU of the pricing classes being in cores. */
+	private static final double NODE_CORES = 4;
+
+	/** The counter of the inter-arrival time of a VM. */
+	private static final int ARRIVAL = 0;
+
+	/** The counter of the lifetime of a VM. */
+	private static final int LIFETIME = 1;
+
+	/** The counter of the pricing class of a VM. */
+	private static final int SIZE = 2;
+
+	/** The counter of the workload class and the SLA weight of a VM. */
+	private static final int CLASS = 3;
+
+	/** The seed. */
+	private final long seed;
+
+	/** The seed of the utilization models, derived from the seed. */
+	private final long utilizationSeed;
+
+	/** The broker id. */
+	private final int brokerId;
+
+	/** The number of VMs. */
+	private final int vmsNumber;
+
+	/** The number of partitions. */
+	private final int partitions;
+
+	/** The inter-arrival times of a partition. */
+	private ExponentialDistr interArrival;
+
+	/** The distribution of the lifetimes. */
+	private UniformTransform lifetime;
+
+	/** The cumulative weights of the pricing classes, the last one being 1. */
+	private double[] sizeWeights;
+
+	/** The shape of the utilization, or null for the uniform distribution. */
+	private UniformTransform utilizationShape;
+
+	/** The scale of the utilization. */
+	private double utilizationScale;
+
+	/** The amplitude of the diurnal envelope. */
+	private double diurnalAmplitude;
+
+	/** The time of the peak of the diurnal envelope. */
+	private double diurnalPeakTime;
+
+	/** The period of the diurnal envelope. */
+	private double diurnalPeriod;
+
+	/** The utilization model of the RAM and the bandwidth of the cloudlets. */
+	private final UtilizationModel utilizationModelNull;
+
+	/**
+	 * SyntheticVm is a generated VM, with its cloudlet, its arrival time and its lifetime.
+	 */
+	public static class SyntheticVm extends VmArrival {
+
+		/**
+		 * Creates a generated VM.
+		 * 
+		 * @param vm the vm
+		 * @param cloudlet the cloudlet
+		 * @param arrivalTime the arrival time
+		 * @param lifetime the lifetime
+		 */
+		public SyntheticVm(Vm vm, Cloudlet cloudlet, double arrivalTime, double lifetime) {
+			super(vm, cloudlet, arrivalTime, lifetime);
+		}
+
+	}
+
+	/**
+	 * Creates a generator with the default population: one VM arriving every minute, lifetimes of
+	 * 4 hours on average with a Lomax tail, the pricing classes that fit in a node in equal parts,
+	 * and uniform utilization.
+	 * 
+	 * @param seed the seed
+	 * @param brokerId the broker id
+	 * @param vmsNumber the number of VMs
+	 * @param partitions the number of partitions
+	 */
+	public SyntheticWorkloadGenerator(long seed, int brokerId, int vmsNumber, int partitions) {
+		if (vmsNumber < 0 || partitions <= 0) {
+			throw new IllegalArgumentException("Invalid number of VMs or partitions");
+		}
+		this.seed = seed;
+		utilizationSeed = CounterBasedRandom.nextLong(seed, -1, 0);
+		this.brokerId = brokerId;
+		this.vmsNumber = vmsNumber;
+		this.partitions = partitions;
+		utilizationModelNull = new UtilizationModelNull();
+		setMeanInterArrivalTime(60);
+		setLifetimeDistribution(new LomaxDistribution(2, 4 * 3600, 4 * 3600));
+		double[] weights = new double[Constants.VM_PRICING_TABLE.length - 1];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = Constants.VM_PRICING_TABLE[i][0] <= NODE_CORES ? 1 : 0;
+		}
+		setSizeWeights(weights);
+		setUtilizationShape(null, 1);
+		setDiurnalEnvelope(0, 0, 24 * 3600);
+	}
+
+	/**
+	 * Sets the mean time between the arrivals of two VMs of the population.
+	 * 
+	 * @param mean the mean inter-arrival time
+	 */
+	public void setMeanInterArrivalTime(double mean) {
+		interArrival = new ExponentialDistr(mean * partitions);
+	}
+
+	/**
+	 * Sets the distribution of the lifetimes of the VMs.
+	 * 
+	 * @param lifetime the distribution, e.g., a LomaxDistribution or a ParetoDistr
+	 */
+	public void setLifetimeDistribution(UniformTransform lifetime) {
+		this.lifetime = lifetime;
+	}
+
+	/**
+	 * Sets the mix of VM sizes: the weights of the pricing classes of
+	 * {@link Constants#VM_PRICING_TABLE}, without the default class.
+	 * 
+	 * @param weights the weights of the classes
+	 */
+	public void setSizeWeights(double[] weights) {
+		if (weights.length != Constants.VM_PRICING_TABLE.length - 1) {
+			throw new IllegalArgumentException("One weight per pricing class is needed");
+		}
+		double total = 0;
+		for (double weight : weights) {
+			total += weight;
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("The weights must have a positive sum");
+		}
+		sizeWeights = new double[weights.length];
+		double sum = 0;
+		for (int i = 0; i < weights.length; i++) {
+			sum += weights[i];
+			sizeWeights[i] = sum / total;
+		}
+		sizeWeights[weights.length - 1] = 1;
+	}
+
+	/**
+	 * Sets the shape of the utilization of the cloudlets.
+	 * 
+	 * @param shape the distribution of the utilization, or null for the uniform distribution
+	 * @param scale the scale of the samples
+	 */
+	public void setUtilizationShape(UniformTransform shape, double scale) {
+		utilizationShape = shape;
+		utilizationScale = scale;
+	}
+
+	/**
+	 * Sets the diurnal envelope of the utilization of the cloudlets.
+	 * 
+	 * @param amplitude the amplitude, in [0, 1], 0 for no envelope
+	 * @param peakTime the time of the peak
+	 * @param period the period
+	 */
+	public void setDiurnalEnvelope(double amplitude, double peakTime, double period) {
+		diurnalAmplitude = amplitude;
+		diurnalPeakTime = peakTime;
+		diurnalPeriod = period;
+	}
+
+	/**
+	 * Gets the number of partitions.
+	 * 
+	 * @return the number of partitions
+	 */
+	public int getNumberOfPartitions() {
+		return partitions;
+	}
+
+	/**
+	 * Gets the number of VMs of a partition.
+	 * 
+	 * @param partition the partition
+	 * @return the number of VMs
+	 */
+	public int getPartitionSize(int partition) {
+		return vmsNumber / partitions + (partition < vmsNumber % partitions ? 1 : 0);
+	}
+
+	/**
+	 * Gets the VMs of a partition, lazily generated in arrival order.
+	 * 
+	 * @param partition the partition
+	 * @return the VMs
+	 */
+	public Iterator<SyntheticVm> partition(final int partition) {
+		if (partition < 0 || partition >= partitions) {
+			throw new IllegalArgumentException("Invalid partition: " + partition);
+		}
+		return new Iterator<SyntheticVm>() {
+
+			/** The number of VMs generated. */
+			private int count;
+
+			/** The arrival time of the last VM. */
+			private double clock;
+
+			@Override
+			public boolean hasNext() {
+				return count < getPartitionSize(partition);
+			}
+
+			@Override
+			public SyntheticVm next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int vmId = partition + count++ * partitions;
+				clock += interArrival.transform(CounterBasedRandom.nextDouble(seed, vmId, ARRIVAL), 0);
+				return createVm(vmId, clock);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+	}
+
+	/**
+	 * Gets all the VMs, lazily generated in arrival order: the partitions merged by arrival time,
+	 * then by VM id.
+	 * 
+	 * @return the VMs
+	 */
+	@Override
+	public Iterator<SyntheticVm> iterator() {
+		final PriorityQueue<PartitionHead> heads = new PriorityQueue<PartitionHead>(partitions);
+		for (int p = 0; p < partitions; p++) {
+			PartitionHead head = new PartitionHead(partition(p));
+			if (head.vm != null) {
+				heads.add(head);
+			}
+		}
+		return new Iterator<SyntheticVm>() {
+
+			@Override
+			public boolean hasNext() {
+				return !heads.isEmpty();
+			}
+
+			@Override
+			public SyntheticVm next() {
+				PartitionHead head = heads.poll();
+				if (head == null) {
+					throw new NoSuchElementException();
+				}
+				SyntheticVm vm = head.vm;
+				if (head.advance()) {
+					heads.add(head);
+				}
+				return vm;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+	}
+
+	/**
+	 * Generates all the partitions in parallel, one task per partition.
+	 * 
+	 * @param executor the executor running the tasks
+	 * @return the VMs of every partition, in arrival order
+	 * @throws InterruptedException if interrupted while waiting for the tasks
+	 * @throws ExecutionException if a task failed
+	 */
+	public List<List<SyntheticVm>> generatePartitions(ExecutorService executor)
+			throws InterruptedException,
+			ExecutionException {
+		List<Future<List<SyntheticVm>>> futures = new ArrayList<Future<List<SyntheticVm>>>();
+		for (int p = 0; p < partitions; p++) {
+			final int partition = p;
+			futures.add(executor.submit(new Callable<List<SyntheticVm>>() {
+
+				@Override
+				public List<SyntheticVm> call() {
+					List<SyntheticVm> vms = new ArrayList<SyntheticVm>(getPartitionSize(partition));
+					Iterator<SyntheticVm> iterator = partition(partition);
+					while (iterator.hasNext()) {
+						vms.add(iterator.next());
+					}
+					return vms;
+				}
+
+			}));
+		}
+		List<List<SyntheticVm>> result = new ArrayList<List<SyntheticVm>>();
+		for (Future<List<SyntheticVm>> future : futures) {
+			result.add(future.get());
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a VM and its cloudlet.
+	 * 
+	 * @param vmId the vm id
+	 * @param arrivalTime the arrival time
+	 * @return the generated VM
+	 */
+	protected SyntheticVm createVm(int vmId, double arrivalTime) {
+		double u = CounterBasedRandom.nextDouble(seed, vmId, SIZE);
+		int size = 0;
+		while (sizeWeights[size] < u) {
+			size++;
+		}
+		double[] row = Constants.VM_PRICING_TABLE[size];
+		double mips = row[0] / NODE_CORES * Constants.CPU;
+
+		long bits = CounterBasedRandom.nextLong(seed, vmId, LIFETIME);
+		double vmLifetime = lifetime.transform(
+				CounterBasedRandom.toDouble(bits),
+				CounterBasedRandom.toDouble(CounterBasedRandom.next(bits)));
+
+		bits = CounterBasedRandom.nextLong(seed, vmId, CLASS);
+		int vmClass = (int) (CounterBasedRandom.toDouble(bits) * Constants.CLASSES);
+		double sig = (int) (CounterBasedRandom.toDouble(CounterBasedRandom.next(bits)) * 3) + 1;
+
+		Vm vm = new PowerVm(
+				vmId,
+				brokerId,
+				mips,
+				1,
+				(int) row[1],
+				Constants.VM_BW,
+				Constants.VM_SIZE,
+				1,
+				"Xen",
+				new CloudletSchedulerDynamicWorkload(mips, 1),
+				Constants.SCHEDULING_INTERVAL,
+				sig,
+				row[2],
+				vmClass);
+
+		UtilizationModelCounterStochastic utilizationModel = new UtilizationModelCounterStochastic(
+				utilizationSeed,
+				vmId,
+				Constants.SCHEDULING_INTERVAL,
+				utilizationShape);
+		utilizationModel.setScale(utilizationScale);
+		if (diurnalAmplitude > 0) {
+			utilizationModel.setDiurnalEnvelope(diurnalAmplitude, diurnalPeakTime, diurnalPeriod);
+		}
+		Cloudlet cloudlet = new Cloudlet(
+				vmId,
+				Math.max(1, (long) (vmLifetime * mips)),
+				Constants.CLOUDLET_PES,
+				300,
+				300,
+				utilizationModel,
+				utilizationModelNull,
+				utilizationModelNull);
+		cloudlet.setUserId(brokerId);
+		cloudlet.setVmId(vmId);
+
+		return new SyntheticVm(vm, cloudlet, arrivalTime, vmLifetime);
+	}
+
+	/**
+	 * PartitionHead is the next VM of a partition, in the merge of the partitions.
+	 */
+	private static class PartitionHead implements Comparable<PartitionHead> {
+
+		/** The VMs of the partition. */
+		private final Iterator<SyntheticVm> iterator;
+
+		/** The next VM, or null if there is none. */
+		private SyntheticVm vm;
+
+		/**
+		 * Creates the head of a partition.
+		 * 
+		 * @param iterator the VMs of the partition
+		 */
+		PartitionHead(Iterator<SyntheticVm> iterator) {
+			this.iterator = iterator;
+			advance();
+		}
+
+		/**
+		 * Moves to the next VM of the partition.
+		 * 
+		 * @return true if there is a next VM
+		 */
+		boolean advance() {
+			vm = iterator.hasNext() ? iterator.next() : null;
+			return vm != null;
+		}
+
+		@Override
+		public int compareTo(PartitionHead other) {
+			int result = Double.compare(vm.getArrivalTime(), other.vm.getArrivalTime());
+			return result != 0 ? result : Integer.compare(vm.getVm().getId(), other.vm.getVm().getId());
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+package org.cloudbus.cloudsim.examples.power.random;
+
+import java.io.IOException;
+
+/**
+ * A simulation of a heterogeneous power aware data center that applies the Static Threshold (THR)
+ * VM allocation policy and Minimum Utilization (MU) VM selection policy to a synthetic workload,
+ * whose VMs arrive and depart during the simulation.
+ * 
+ * The remaining configuration parameters are in the Constants and RandomConstants classes.
+ */
+public class ThrMuSynthetic {
+
+	/**
+	 * The main method.
+	 * 
+	 * @param args the arguments
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void main(String[] args) throws IOException {
+		boolean enableOutput = true;
+		boolean outputToFile = false;
+		String inputFolder = "";
+		String outputFolder = "";
+		String workload = "synthetic"; // Synthetic workload
+		String vmAllocationPolicy = "thr"; // Static Threshold (THR) VM allocation policy
+		String vmSelectionPolicy = "mu"; // Minimum Utilization (MU) VM selection policy
+		String parameter = "0.8"; // the static utilization threshold
+
+		new SyntheticRunner(
+				enableOutput,
+				outputToFile,
+				inputFolder,
+				outputFolder,
+				workload,
+				vmAllocationPolicy,
+				vmSelectionPolicy,
+				parameter);
+	}
+
+}
@@ -22,6 +22,7 @@ import org.cloudbus.cloudsim.examples.power.Constants;
 
 
 import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.util.PhaseProfiler;
 
 /**
  * Datacenter class is a CloudResource whose hostList are virtualized. It deals with processing of
@@ -36,6 +37,8 @@ import org.cloudbus.cloudsim.power.PowerHost;
  */
 public class Datacenter extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The characteristics. */
 	private DatacenterCharacteristics characteristics;
 
@@ -57,6 +60,12 @@ public class Datacenter extends SimEntity {
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
+	/** The time of the last update of the datacenter, or -1 if it was never updated. */
+	private double lastUpdateTime = -1;
+
+	/** The index of the last scheduling interval whose phases ran, or -1 if none. */
+	private long lastInterval = -1;
+
 	/**
 	 * Allocates a new PowerDatacenter object.
 	 * 
@@ -220,6 +229,18 @@ public class Datacenter extends SimEntity {
 				processVmCreate(ev, true);
 				break;
 
+			case CloudSimTags.VM_CREATE_BATCH:
+				processVmCreateBatch(ev, false);
+				break;
+
+			case CloudSimTags.VM_CREATE_BATCH_ACK:
+				processVmCreateBatch(ev, true);
+				break;
+
+			case CloudSimTags.VM_ARRIVAL_CREATE_ACK:
+				processArrivalVmCreate(ev);
+				break;
+
 			case CloudSimTags.VM_DESTROY:
 				processVmDestroy(ev, false);
 				break;
@@ -262,41 +283,29 @@ public class Datacenter extends SimEntity {
 
 			case CloudSimTags.VM_DATACENTER_EVENT:
 				
-				
+				// the updates requested for the same time are merged into the first one
+				if (CloudSim.clock() == lastUpdateTime) {
+					PhaseProfiler.increment(PhaseProfiler.COALESCED_UPDATES);
+					break;
+				}
+				lastUpdateTime = CloudSim.clock();
 
 				if (Constants.VARIANT_ENERGY == 1) {
 					int pos = (int)CloudSim.clock() / (int)Constants.SCHEDULING_INTERVAL;
 					Constants.ENERGY_PRICE = Constants.energy_prices.get(pos);
 				}
 				
-				if (Constants.MY_POLICIES == 1)
-                    configureDatacenter();
-				else if (Constants.DVFS == 1)
-                    setPerfConf();
-
-				estimateRequests();
-
-				if (CloudSim.clock() > 400)
-					updateCost();
-				
-				System.out.println();
-				System.out.println("initial");
-
-				
-				vmInitialization();
-				
-				for (Vm vm : getVmList()) {
-						vm.set_vm_normalized_req_previous(vm.getTotalUtilizationOfCpu(CloudSim.clock() - Constants.SCHEDULING_INTERVAL));
-//						System.out.println("first" + vm.getId() + " " +  vm.get_vm_normalized_req_previous() + "-" + CloudSim.clock());
+				if (isIntervalBoundary()) {
+					lastInterval = getInterval();
+					updateInterval();
 				}
 				
-				vmHistory();
-				
-				if (Constants.MY_POLICIES == 1)
-					setOptimalPoint();
-				
+				PhaseProfiler.start(PhaseProfiler.CLOUDLET_PROCESSING);
 				updateCloudletProcessing();
+				PhaseProfiler.end(PhaseProfiler.CLOUDLET_PROCESSING);
+				PhaseProfiler.start(PhaseProfiler.CLOUDLET_COMPLETION);
 				checkCloudletCompletion();
+				PhaseProfiler.end(PhaseProfiler.CLOUDLET_COMPLETION);
 				
 /*				if (Constants.MY_POLICIES == 1)
 					configureDatacenter();
@@ -314,6 +323,70 @@ public class Datacenter extends SimEntity {
 		}
 	}
 	
+	/**
+	 * Checks whether the current time is a scheduling interval boundary: the first update of a
+	 * scheduling interval, whatever the time of the updates before it. The updates requested in
+	 * between, as the ones of the cloudlet completions, only process the cloudlets.
+	 * 
+	 * @return true if the interval-level phases are due
+	 */
+	protected boolean isIntervalBoundary() {
+		return getSchedulingInterval() <= 0 || getInterval() > lastInterval;
+	}
+
+	/**
+	 * Gets the index of the scheduling interval of the current time. A time just before a boundary,
+	 * by less than the minimum time between events, belongs to the next interval.
+	 * 
+	 * @return the index of the interval
+	 */
+	protected long getInterval() {
+		return (long) Math.floor((CloudSim.clock() + CloudSim.getMinTimeBetweenEvents()) / getSchedulingInterval());
+	}
+
+	/**
+	 * Runs the interval-level phases of an update: configures the datacenter, estimates the
+	 * requests of the VMs, updates the cost, initializes the VMs for the interval, records their
+	 * history and sets the operating points of the hosts.
+	 */
+	protected void updateInterval() {
+		PhaseProfiler.start(PhaseProfiler.CONFIGURE);
+		if (Constants.MY_POLICIES == 1)
+            configureDatacenter();
+		else if (Constants.DVFS == 1)
+            setPerfConf();
+		PhaseProfiler.end(PhaseProfiler.CONFIGURE);
+
+		PhaseProfiler.start(PhaseProfiler.ESTIMATE);
+		estimateRequests();
+		PhaseProfiler.end(PhaseProfiler.ESTIMATE);
+
+		if (CloudSim.clock() > 400) {
+			PhaseProfiler.start(PhaseProfiler.UPDATE_COST);
+			updateCost();
+			PhaseProfiler.end(PhaseProfiler.UPDATE_COST);
+		}
+		
+		PhaseProfiler.start(PhaseProfiler.VM_INITIALIZATION);
+		vmInitialization();
+		
+		for (Vm vm : getVmList()) {
+				vm.set_vm_normalized_req_previous(vm.getTotalUtilizationOfCpu(CloudSim.clock() - Constants.SCHEDULING_INTERVAL));
+//				System.out.println("first" + vm.getId() + " " +  vm.get_vm_normalized_req_previous() + "-" + CloudSim.clock());
+		}
+		PhaseProfiler.end(PhaseProfiler.VM_INITIALIZATION);
+		
+		PhaseProfiler.start(PhaseProfiler.VM_HISTORY);
+		vmHistory();
+		PhaseProfiler.end(PhaseProfiler.VM_HISTORY);
+		
+		if (Constants.MY_POLICIES == 1) {
+			PhaseProfiler.start(PhaseProfiler.OPTIMAL_POINT);
+			setOptimalPoint();
+			PhaseProfiler.end(PhaseProfiler.OPTIMAL_POINT);
+		}
+	}
+	
 	protected void vmHistory () {
 		
 	}
@@ -708,7 +781,8 @@ public class Datacenter extends SimEntity {
 		if (ack) {
 			int[] data = new int[3];
 
-			data[0] = vm.getHost().getDatacenter().getId();
+			// the vm has no host if it could not be allocated
+			data[0] = getId();
 			data[1] = vm.getId();
 
 			if (result) {
@@ -720,18 +794,78 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (result) {
-			getVmList().add(vm);
+			addCreatedVm(vm);
+		}
+		
+		//vm.setMips(3300);
+
+	}
+
+	/**
+	 * Process the event for an User/Broker who wants to create the VM of an arrival of its
+	 * workload in this PowerDatacenter, whose cloudlets are submitted after its creation. The VM is
+	 * created and acknowledged as for a VM_CREATE_ACK.
+	 * 
+	 * @param ev a Sim_event object, with the VM
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processArrivalVmCreate(SimEvent ev) {
+		processVmCreate(ev, true);
+	}
 
-			if (vm.isBeingInstantiated()) {
-				vm.setBeingInstantiated(false);
+	/**
+	 * Process the event for an User/Broker who wants to create a batch of VMs in this
+	 * PowerDatacenter. The hosts of the whole batch are allocated at once by the
+	 * VmAllocationPolicy, and this PowerDatacenter may then send the status of all the VMs back in
+	 * one acknowledgement: its id, followed by the id and the status of every VM.
+	 * 
+	 * @param ev a Sim_event object, with the list of VMs
+	 * @param ack the ack
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmCreateBatch(SimEvent ev, boolean ack) {
+		@SuppressWarnings("unchecked")
+		List<Vm> vms = (List<Vm>) ev.getData();
+
+		getVmAllocationPolicy().allocateHostsForVms(vms);
+
+		int[] data = new int[1 + 2 * vms.size()];
+		data[0] = getId();
+		for (int i = 0; i < vms.size(); i++) {
+			Vm vm = vms.get(i);
+			boolean result = getVmAllocationPolicy().getHost(vm) != null;
+
+			data[1 + 2 * i] = vm.getId();
+			if (result) {
+				data[2 + 2 * i] = CloudSimTags.TRUE;
+				addCreatedVm(vm);
+			} else {
+				data[2 + 2 * i] = CloudSimTags.FALSE;
 			}
+		}
 
-			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
-					.getAllocatedMipsForVm(vm));
+		if (ack) {
+			send(ev.getSource(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_BATCH_ACK, data);
+		}
+	}
+
+	/**
+	 * Adds a VM whose host was just allocated to the VMs of this PowerDatacenter, and starts its
+	 * processing.
+	 * 
+	 * @param vm the vm
+	 */
+	protected void addCreatedVm(Vm vm) {
+		getVmList().add(vm);
+
+		if (vm.isBeingInstantiated()) {
+			vm.setBeingInstantiated(false);
 		}
-		
-		//vm.setMips(3300);
 
+		vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
+				.getAllocatedMipsForVm(vm));
 	}
 
 	/**
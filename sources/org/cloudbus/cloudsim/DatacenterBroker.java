@@ -9,7 +9,7 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -20,10 +20,18 @@ import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.lists.CloudletList;
 import org.cloudbus.cloudsim.lists.VmList;
+import org.cloudbus.cloudsim.util.IdMap;
 
 /**
  * DatacentreBroker represents a broker acting on behalf of a user. It hides VM management, as vm
  * creation, sumbission of cloudlets to this VMs and destruction of VMs.
+ * <p>
+ * Besides the VMs and cloudlets submitted as lists, which are created when the simulation starts,
+ * the broker takes a workload of VMs that arrive and depart during the simulation, as an iterator
+ * of {@link VmArrival} in arrival order (see {@link #submitArrivals(Iterator, double)}). The
+ * arrivals are taken from the iterator as they enter a look-ahead window, each VM is created at its
+ * arrival time with its cloudlet, and destroyed at its departure time, so the broker only keeps the
+ * VMs that are alive and the arrivals of the window.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -31,6 +39,8 @@ import org.cloudbus.cloudsim.lists.VmList;
  */
 public class DatacenterBroker extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The vm list. */
 	protected List<? extends Vm> vmList;
 
@@ -70,6 +80,21 @@ public class DatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** The arrivals of the workload not taken yet, in arrival order, or null if there is none. */
+	protected Iterator<? extends VmArrival> arrivals;
+
+	/** The next arrival, taken from the arrivals but beyond the look-ahead window, or null. */
+	protected VmArrival nextArrival;
+
+	/** The look-ahead window of the arrivals. */
+	protected double arrivalWindow;
+
+	/** The arrivals scheduled, or waiting for the creation of their VM, by vm id. */
+	protected Map<Integer, VmArrival> pendingArrivals;
+
+	/** The arrivals whose VM is created, by vm id. */
+	protected Map<Integer, VmArrival> liveArrivals;
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -95,8 +120,10 @@ public class DatacenterBroker extends SimEntity {
 
 		setDatacenterIdsList(new LinkedList<Integer>());
 		setDatacenterRequestedIdsList(new ArrayList<Integer>());
-		setVmsToDatacentersMap(new HashMap<Integer, Integer>());
-		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+		setVmsToDatacentersMap(new IdMap<Integer>());
+		setDatacenterCharacteristicsList(new IdMap<DatacenterCharacteristics>());
+		setPendingArrivals(new IdMap<VmArrival>());
+		setLiveArrivals(new IdMap<VmArrival>());
 	}
 
 	/**
@@ -122,6 +149,23 @@ public class DatacenterBroker extends SimEntity {
 		getCloudletList().addAll(list);
 	}
 
+	/**
+	 * This method is used to send to the broker a workload of VMs arriving during the simulation.
+	 * The arrivals are taken from the iterator when their arrival time gets within the look-ahead
+	 * window of the simulation clock, so the iterator can generate or read them lazily.
+	 * 
+	 * @param arrivals the arrivals, in arrival order
+	 * @param window the look-ahead window
+	 * @pre arrivals != null
+	 * @pre window >= 0
+	 * @post $none
+	 */
+	public void submitArrivals(Iterator<? extends VmArrival> arrivals, double window) {
+		this.arrivals = arrivals;
+		arrivalWindow = window;
+		nextArrival = null;
+	}
+
 	/**
 	 * Specifies that a given cloudlet must run in a specific virtual machine.
 	 * 
@@ -157,10 +201,22 @@ public class DatacenterBroker extends SimEntity {
 			case CloudSimTags.VM_CREATE_ACK:
 				processVmCreate(ev);
 				break;
+			// VM batch creation answer
+			case CloudSimTags.VM_CREATE_BATCH_ACK:
+				processVmCreateBatch(ev);
+				break;
 			// A finished cloudlet returned
 			case CloudSimTags.CLOUDLET_RETURN:
 				processCloudletReturn(ev);
 				break;
+			// A VM of the workload arrives
+			case CloudSimTags.VM_ARRIVAL:
+				processVmArrival(ev);
+				break;
+			// A VM of the workload departs
+			case CloudSimTags.VM_DEPARTURE:
+				processVmDeparture(ev);
+				break;
 			// if the simulation finishes
 			case CloudSimTags.END_OF_SIMULATION:
 				shutdownEntity();
@@ -186,6 +242,9 @@ public class DatacenterBroker extends SimEntity {
 		if (getDatacenterCharacteristicsList().size() == getDatacenterIdsList().size()) {
 			setDatacenterRequestedIdsList(new ArrayList<Integer>());
 			createVmsInDatacenter(getDatacenterIdsList().get(0));
+			if (arrivals != null) {
+				scheduleArrivals();
+			}
 		}
 	}
 
@@ -198,7 +257,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void processResourceCharacteristicsRequest(SimEvent ev) {
 		setDatacenterIdsList(CloudSim.getCloudResourceList());
-		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+		setDatacenterCharacteristicsList(new IdMap<DatacenterCharacteristics>());
 
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloud Resource List received with "
 				+ getDatacenterIdsList().size() + " resource(s)");
@@ -217,9 +276,39 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void processVmCreate(SimEvent ev) {
 		int[] data = (int[]) ev.getData();
-		int datacenterId = data[0];
-		int vmId = data[1];
-		int result = data[2];
+		processVmCreate(data[0], data[1], data[2]);
+	}
+
+	/**
+	 * Process the ack received due to a request for the creation of a batch of VMs: the id of the
+	 * datacenter, followed by the id and the result of every VM.
+	 * 
+	 * @param ev a SimEvent object
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmCreateBatch(SimEvent ev) {
+		int[] data = (int[]) ev.getData();
+		for (int i = 1; i < data.length; i += 2) {
+			processVmCreate(data[0], data[i], data[i + 1]);
+		}
+	}
+
+	/**
+	 * Process the result of the creation of a VM.
+	 * 
+	 * @param datacenterId the id of the datacenter
+	 * @param vmId the id of the VM
+	 * @param result {@link CloudSimTags#TRUE} if the VM was created
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void processVmCreate(int datacenterId, int vmId, int result) {
+		VmArrival arrival = getPendingArrivals().remove(vmId);
+		if (arrival != null) {
+			processArrivalVmCreate(arrival, datacenterId, result == CloudSimTags.TRUE);
+			return;
+		}
 
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
@@ -278,7 +367,8 @@ public class DatacenterBroker extends SimEntity {
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
 				+ " received");
 		cloudletsSubmitted--;
-		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
+		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && !hasPendingArrivals()) {
+			// all cloudlets executed
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
 			finishExecution();
@@ -293,6 +383,174 @@ public class DatacenterBroker extends SimEntity {
 		}
 	}
 
+	/**
+	 * Process the arrival of a VM of the workload, or the entry of the next arrivals in the
+	 * look-ahead window.
+	 * 
+	 * @param ev a SimEvent object, with the arrival, or with no data for the look-ahead window
+	 * @pre ev != $null
+	 * @post $none
+	 */
+	protected void processVmArrival(SimEvent ev) {
+		VmArrival arrival = (VmArrival) ev.getData();
+		if (arrival == null) {
+			scheduleArrivals();
+			return;
+		}
+		createArrivalVm(arrival, getDatacenterIdsList().get(0));
+	}
+
+	/**
+	 * Takes the arrivals within the look-ahead window from the workload and schedules them, then
+	 * schedules the entry of the next arrival in the window.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void scheduleArrivals() {
+		if (nextArrival == null && arrivals.hasNext()) {
+			nextArrival = arrivals.next();
+		}
+		while (nextArrival != null && nextArrival.getArrivalTime() <= CloudSim.clock() + arrivalWindow) {
+			getPendingArrivals().put(nextArrival.getVm().getId(), nextArrival);
+			schedule(
+					getId(),
+					Math.max(0, nextArrival.getArrivalTime() - CloudSim.clock()),
+					CloudSimTags.VM_ARRIVAL,
+					nextArrival);
+			nextArrival = arrivals.hasNext() ? arrivals.next() : null;
+		}
+		if (nextArrival != null) {
+			schedule(
+					getId(),
+					nextArrival.getArrivalTime() - arrivalWindow - CloudSim.clock(),
+					CloudSimTags.VM_ARRIVAL);
+		}
+	}
+
+	/**
+	 * Checks whether some arrivals of the workload have not been created yet.
+	 * 
+	 * @return true if some arrivals are not taken, scheduled or waiting for their VM creation
+	 */
+	protected boolean hasPendingArrivals() {
+		return arrivals != null
+				&& (nextArrival != null || arrivals.hasNext() || !getPendingArrivals().isEmpty());
+	}
+
+	/**
+	 * Checks whether a VM belongs to an arrival of the workload whose creation has been requested
+	 * or scheduled but not acknowledged yet.
+	 * 
+	 * @param vmId the vm id
+	 * @return true if the VM is created for an arrival
+	 */
+	public boolean isPendingArrival(int vmId) {
+		return getPendingArrivals().containsKey(vmId);
+	}
+
+	/**
+	 * Requests the creation of the VM of an arrival in a datacenter.
+	 * 
+	 * @param arrival the arrival
+	 * @param datacenterId the datacenter id
+	 * @pre arrival != $null
+	 * @post $none
+	 */
+	protected void createArrivalVm(VmArrival arrival, int datacenterId) {
+		Vm vm = arrival.getVm();
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
+				+ " in " + CloudSim.getEntityName(datacenterId) + " with datacenterId #" + datacenterId);
+		getPendingArrivals().put(vm.getId(), arrival);
+		sendNow(datacenterId, CloudSimTags.VM_ARRIVAL_CREATE_ACK, vm);
+	}
+
+	/**
+	 * Process the ack of the creation of the VM of an arrival: submits its cloudlet and schedules
+	 * its departure, or tries the next datacenter.
+	 * 
+	 * @param arrival the arrival
+	 * @param datacenterId the datacenter id
+	 * @param created whether the VM has been created
+	 * @pre arrival != $null
+	 * @post $none
+	 */
+	protected void processArrivalVmCreate(VmArrival arrival, int datacenterId, boolean created) {
+		Vm vm = arrival.getVm();
+		if (!created) {
+			int next = getDatacenterIdsList().indexOf(datacenterId) + 1;
+			if (next < getDatacenterIdsList().size()) {
+				createArrivalVm(arrival, getDatacenterIdsList().get(next));
+			} else {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vm.getId()
+						+ " failed in all the datacenters");
+				// the arrival is dropped, it may have been the last one the broker waited for
+				if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && !hasPendingArrivals()) {
+					Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
+					clearDatacenters();
+					finishExecution();
+				}
+			}
+			return;
+		}
+
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vm.getId()
+				+ " has been created in Datacenter #" + datacenterId);
+		getVmsToDatacentersMap().put(vm.getId(), datacenterId);
+		getVmList().add(vm);
+		getVmsCreatedList().add(vm);
+		getLiveArrivals().put(vm.getId(), arrival);
+
+		Cloudlet cloudlet = arrival.getCloudlet();
+		if (cloudlet != null) {
+			cloudlet.setVmId(vm.getId());
+			sendNow(datacenterId, CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			cloudletsSubmitted++;
+			getCloudletSubmittedList().add(cloudlet);
+		}
+
+		if (arrival.getDepartureTime() < Double.POSITIVE_INFINITY) {
+			schedule(
+					getId(),
+					Math.max(0, arrival.getDepartureTime() - CloudSim.clock()),
+					CloudSimTags.VM_DEPARTURE,
+					arrival);
+		}
+	}
+
+	/**
+	 * Process the departure of a VM of the workload: destroys the VM, with its cloudlet if it has
+	 * not finished, and forgets them.
+	 * 
+	 * @param ev a SimEvent object, with the arrival
+	 * @pre ev != $null
+	 * @post $none
+	 */
+	protected void processVmDeparture(SimEvent ev) {
+		VmArrival arrival = (VmArrival) ev.getData();
+		Vm vm = arrival.getVm();
+		if (getLiveArrivals().remove(vm.getId()) == null) { // already destroyed
+			return;
+		}
+
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": Destroying VM #" + vm.getId());
+		sendNow(getVmsToDatacentersMap().remove(vm.getId()), CloudSimTags.VM_DESTROY, vm);
+		getVmList().remove(vm);
+		getVmsCreatedList().remove(vm);
+
+		Cloudlet cloudlet = arrival.getCloudlet();
+		if (cloudlet != null && getCloudletSubmittedList().remove(cloudlet)
+				&& cloudlet.getCloudletStatus() != Cloudlet.SUCCESS) {
+			// the cloudlet is dropped with the VM, and will not return
+			cloudletsSubmitted--;
+			if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && !hasPendingArrivals()) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
+				clearDatacenters();
+				finishExecution();
+			}
+		}
+	}
+
 	/**
 	 * Overrides this method when making a new and different type of Broker. This method is called
 	 * by {@link #body()} for incoming unknown tags.
@@ -319,8 +577,8 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void createVmsInDatacenter(int datacenterId) {
-		// send as much vms as possible for this datacenter before trying the next one
-		int requestedVms = 0;
+		// send as much vms as possible for this datacenter before trying the next one, in one batch
+		List<Vm> requestedVms = new ArrayList<Vm>();
 		String datacenterName = CloudSim.getEntityName(datacenterId);
 		for (Vm vm : getVmList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
@@ -330,14 +588,16 @@ public class DatacenterBroker extends SimEntity {
 //						+ " in " + datacenterName);
 				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
 				+ " in " + datacenterName + " with datacenterId #" + datacenterId);
-				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
-				requestedVms++;
+				requestedVms.add(vm);
 			}
 		}
+		if (!requestedVms.isEmpty()) {
+			sendNow(datacenterId, CloudSimTags.VM_CREATE_BATCH_ACK, requestedVms);
+		}
 
 		getDatacenterRequestedIdsList().add(datacenterId);
 
-		setVmsRequested(requestedVms);
+		setVmsRequested(requestedVms.size());
 		setVmsAcks(0);
 	}
 
@@ -391,6 +651,7 @@ public class DatacenterBroker extends SimEntity {
 		}
 
 		getVmsCreatedList().clear();
+		getLiveArrivals().clear();
 	}
 
 	/**
@@ -661,4 +922,40 @@ public class DatacenterBroker extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * Gets the arrivals scheduled, or waiting for the creation of their VM.
+	 * 
+	 * @return the pending arrivals, by vm id
+	 */
+	protected Map<Integer, VmArrival> getPendingArrivals() {
+		return pendingArrivals;
+	}
+
+	/**
+	 * Sets the arrivals scheduled, or waiting for the creation of their VM.
+	 * 
+	 * @param pendingArrivals the pending arrivals, by vm id
+	 */
+	protected void setPendingArrivals(Map<Integer, VmArrival> pendingArrivals) {
+		this.pendingArrivals = pendingArrivals;
+	}
+
+	/**
+	 * Gets the arrivals whose VM is created.
+	 * 
+	 * @return the live arrivals, by vm id
+	 */
+	protected Map<Integer, VmArrival> getLiveArrivals() {
+		return liveArrivals;
+	}
+
+	/**
+	 * Sets the arrivals whose VM is created.
+	 * 
+	 * @param liveArrivals the live arrivals, by vm id
+	 */
+	protected void setLiveArrivals(Map<Integer, VmArrival> liveArrivals) {
+		this.liveArrivals = liveArrivals;
+	}
+
 }
@@ -20,25 +20,15 @@ import org.cloudbus.cloudsim.power.PowerHost;
  * @author Bowen Sun
  */
 public class GlobalDatacenterBroker extends DatacenterBroker {
+
+	private static final long serialVersionUID = 1L;
 	
 	private List<PowerDatacenter> datacenterlist;
 	
-	private HashMap<Integer, List<PowerHost>> datacenterHostsMap;
-	
     public GlobalDatacenterBroker(String name) throws Exception {
         super(name);
 //        datacenterlist = new ArrayList<PowerDatacenter>();
 //        setDatacenterList(new ArrayList<PowerDatacenter>());
-        this.datacenterHostsMap = new HashMap<>();
-    }
-    
-    public void setDatacenterHostsMap(int datacenterid, List<PowerHost> hostlist) {
-    	datacenterHostsMap.put(datacenterid, hostlist);
-    }
-
-    // Method to get a user's age by their name
-    public List<PowerHost> getDatacenterHostsMap(int datacenterid) {
-        return datacenterHostsMap.get(datacenterid);
     }
     
     /**
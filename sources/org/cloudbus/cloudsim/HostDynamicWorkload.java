@@ -21,8 +21,8 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -40,14 +40,16 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  */
 public class HostDynamicWorkload extends Host {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The utilization mips. */
 	private double utilizationMips;
 
 	/** The previous utilization mips. */
 	private double previousUtilizationMips;
 
-	/** The state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<HostStateHistoryEntry>();
+	/** The state history, with the active flag. */
+	private final StateHistory stateHistory = new StateHistory(true);
 
 
 	/**
@@ -84,13 +86,7 @@ public class HostDynamicWorkload extends Host {
 		double hostTotalRequestedMips = 0;
 		double penalty = 0;
 
-		for (Vm vm : getVmList()) {
-			getVmScheduler().deallocatePesForVm(vm);
-		}
-
-		for (Vm vm : getVmList()) {
-			getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips());
-		}
+		getVmScheduler().reallocatePesForVms(getVmList());
 		
 		// CSV Header for History
 	    String AllocationHistoryHeader = String.join(",",
@@ -470,11 +466,40 @@ public class HostDynamicWorkload extends Host {
 	}
 
 	/**
-	 * Gets the state history.
+	 * Gets the state history: a read-only view of the entries retained by the state history store.
 	 * 
 	 * @return the state history
 	 */
 	public List<HostStateHistoryEntry> getStateHistory() {
+		return new AbstractList<HostStateHistoryEntry>() {
+
+			@Override
+			public HostStateHistoryEntry get(int index) {
+				if (index < 0 || index >= size()) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+				}
+				return new HostStateHistoryEntry(
+						stateHistory.getTime(index),
+						stateHistory.getAllocatedMips(index),
+						stateHistory.getRequestedMips(index),
+						stateHistory.getFlag(index));
+			}
+
+			@Override
+			public int size() {
+				return stateHistory.size();
+			}
+
+		};
+	}
+
+	/**
+	 * Gets the state history store, with the SLA metrics of the host. Its flag is whether the host
+	 * is active.
+	 * 
+	 * @return the state history store
+	 */
+	public StateHistory getStateHistoryStore() {
 		return stateHistory;
 	}
 
@@ -489,20 +514,7 @@ public class HostDynamicWorkload extends Host {
 	public
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
-
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		stateHistory.add(time, 0, allocatedMips, requestedMips, isActive);
 	}
 
 }
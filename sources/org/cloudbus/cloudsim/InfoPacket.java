@@ -39,6 +39,8 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
  */
 public class InfoPacket implements Packet {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The packet name. */
 	private final String name;
 
@@ -14,6 +14,7 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
+import org.cloudbus.cloudsim.network.DijkstraDelayCache_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
@@ -29,6 +30,13 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  * Nevertheless, each CloudSim entity must be mapped to one (and only one) BRITE node to allow
  * proper work of the network simulation. Each BRITE node can be mapped to only one entity at a
  * time.
+ * <p>
+ * The delays are computed lazily: links added with {@link #addLink(int, int, double, double)}
+ * only mark the delays as outdated when they add nodes, so a topology built link by link computes
+ * its shortest paths once, at the first query. A link added between known nodes, or a decreased
+ * latency, updates the current delays incrementally. Topologies with more nodes than
+ * {@link #getMaxMatrixNodes()} do not use the dense delay and bandwidth matrices; their delays are
+ * computed on demand by Dijkstra and cached per source node.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -42,8 +50,16 @@ public class NetworkTopology {
 
 	protected static DelayMatrix_Float delayMatrix = null;
 
+	protected static DijkstraDelayCache_Float delayCache = null;
+
 	protected static double[][] bwMatrix = null;
 
+	protected static boolean matricesOutdated = false;
+
+	private static int maxMatrixNodes = 1024;
+
+	private static int delayCacheSize = 256;
+
 	protected static TopologicalGraph graph = null;
 
 	protected static Map<Integer, Integer> map = null;
@@ -75,18 +91,74 @@ public class NetworkTopology {
 	}
 
 	/**
-	 * Generates the matrices used internally to set latency and bandwidth between elements
+	 * Generates the matrices used internally to set latency and bandwidth between elements. Large
+	 * topologies get a delay cache instead, and no bandwidth matrix.
 	 */
 	private static void generateMatrices() {
-		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
-
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+		if (graph.getNumberOfNodes() > maxMatrixNodes) {
+			// computes the delays on demand
+			delayMatrix = null;
+			bwMatrix = null;
+			delayCache = new DijkstraDelayCache_Float(graph, false, delayCacheSize);
+		} else {
+			delayCache = null;
+
+			// creates the delay matrix
+			delayMatrix = new DelayMatrix_Float(graph, false);
+
+			// creates the bw matrix
+			bwMatrix = createBwMatrix(graph, false);
+		}
 
+		matricesOutdated = false;
 		networkEnabled = true;
 	}
 
+	/**
+	 * Updates the delays and the bandwidth after a link was added or its latency changed. If the
+	 * delays cannot be updated incrementally, they are marked as outdated.
+	 * 
+	 * @param src index of the link's source node
+	 * @param dest index of the link's destination node
+	 * @param bw link's bandwidth
+	 * @param lat link's latency
+	 * @param previousLat latency of the link before the change, Float.MAX_VALUE for a new link
+	 */
+	private static void updateLink(int src, int dest, float bw, float lat, float previousLat) {
+		if (matricesOutdated || (delayMatrix == null && delayCache == null)) {
+			matricesOutdated = true;
+		} else if (delayCache != null) {
+			delayCache.setLinkDelay(src, dest, lat);
+		} else if (lat != 0 && lat <= previousLat) {
+			delayMatrix.decreaseLinkDelay(src, dest, lat, false);
+			bwMatrix[src][dest] = bw;
+			bwMatrix[dest][src] = bw;
+		} else {
+			// some paths may be longer now
+			matricesOutdated = true;
+		}
+	}
+
+	/**
+	 * Finds the link that defines the latency between two nodes, which is the last one added
+	 * 
+	 * @param src index of the first node
+	 * @param dest index of the second node
+	 * @return the link, or null if the nodes are not linked
+	 */
+	private static TopologicalLink findLink(int src, int dest) {
+		TopologicalLink link = null;
+		Iterator<TopologicalLink> iter = graph.getLinkIterator();
+		while (iter.hasNext()) {
+			TopologicalLink edge = iter.next();
+			if ((edge.getSrcNodeID() == src && edge.getDestNodeID() == dest)
+					|| (edge.getSrcNodeID() == dest && edge.getDestNodeID() == src)) {
+				link = edge;
+			}
+		}
+		return link;
+	}
+
 	/**
 	 * Adds a new link in the network topology
 	 * 
@@ -113,21 +185,66 @@ public class NetworkTopology {
 			graph.addNode(new TopologicalNode(nextIdx));
 			map.put(srcId, nextIdx);
 			nextIdx++;
+			matricesOutdated = true;
 		}
 
 		if (!map.containsKey(destId)) {
 			graph.addNode(new TopologicalNode(nextIdx));
 			map.put(destId, nextIdx);
 			nextIdx++;
+			matricesOutdated = true;
+		}
+
+		int src = map.get(srcId);
+		int dest = map.get(destId);
+
+		// the previous latency is only needed to update current delays
+		float previousLat = Float.MAX_VALUE;
+		if (!matricesOutdated && delayMatrix != null) {
+			TopologicalLink previous = findLink(src, dest);
+			if (previous != null) {
+				previousLat = previous.getLinkDelay();
+			}
 		}
 
 		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
+		graph.addLink(new TopologicalLink(src, dest, (float) lat, (float) bw));
 
-		generateMatrices();
+		// the delays are computed at the next query if they cannot be updated
+		updateLink(src, dest, (float) bw, (float) lat, previousLat);
+		networkEnabled = true;
 
 	}
 
+	/**
+	 * Changes the latency of the link between two entities
+	 * 
+	 * @param srcId ID of the link's source
+	 * @param destId ID of the link's destination
+	 * @param lat link's new latency
+	 * @pre srcId > 0
+	 * @pre destId > 0
+	 * @post $none
+	 */
+	public static void setLinkLatency(int srcId, int destId, double lat) {
+		if (map == null || !map.containsKey(srcId) || !map.containsKey(destId)) {
+			Log.printLine("Error in network update. No link between " + srcId + " and " + destId + ".");
+			return;
+		}
+
+		int src = map.get(srcId);
+		int dest = map.get(destId);
+		TopologicalLink link = findLink(src, dest);
+		if (link == null) {
+			Log.printLine("Error in network update. No link between " + srcId + " and " + destId + ".");
+			return;
+		}
+
+		float previousLat = link.getLinkDelay();
+		link.setLinkDelay((float) lat);
+		updateLink(src, dest, link.getLinkBw(), (float) lat, previousLat);
+	}
+
 	/**
 	 * Creates the matrix containiing the available bandiwdth beteen two nodes
 	 * 
@@ -221,8 +338,17 @@ public class NetworkTopology {
 	public static double getDelay(int srcID, int destID) {
 		if (networkEnabled) {
 			try {
+				if (matricesOutdated) {
+					generateMatrices();
+				}
+
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				double delay;
+				if (delayCache != null) {
+					delay = delayCache.getDelay(map.get(srcID), map.get(destID));
+				} else {
+					delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				}
 
 				return delay;
 			} catch (Exception e) {
@@ -245,4 +371,43 @@ public class NetworkTopology {
 		return networkEnabled;
 	}
 
+	/**
+	 * Gets the maximum number of nodes for which the dense delay and bandwidth matrices are used.
+	 * 
+	 * @return the maximum number of nodes
+	 */
+	public static int getMaxMatrixNodes() {
+		return maxMatrixNodes;
+	}
+
+	/**
+	 * Sets the maximum number of nodes for which the dense delay and bandwidth matrices are used.
+	 * Larger topologies compute their delays on demand.
+	 * 
+	 * @param maxMatrixNodes the maximum number of nodes
+	 */
+	public static void setMaxMatrixNodes(int maxMatrixNodes) {
+		NetworkTopology.maxMatrixNodes = maxMatrixNodes;
+		matricesOutdated = graph != null;
+	}
+
+	/**
+	 * Gets the number of source nodes whose delays are cached when they are computed on demand.
+	 * 
+	 * @return the cache size
+	 */
+	public static int getDelayCacheSize() {
+		return delayCacheSize;
+	}
+
+	/**
+	 * Sets the number of source nodes whose delays are cached when they are computed on demand.
+	 * 
+	 * @param delayCacheSize the cache size
+	 */
+	public static void setDelayCacheSize(int delayCacheSize) {
+		NetworkTopology.delayCacheSize = delayCacheSize;
+		matricesOutdated = graph != null;
+	}
+
 }
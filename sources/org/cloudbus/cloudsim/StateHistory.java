@@ -0,0 +1,436 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * StateHistory is the state history of a VM or a host: the time, penalty, allocated and requested
+ * MIPS of every interval, and a flag, which is whether the host is active or whether the VM is in
+ * migration. The entries are stored by column, in primitive chunks that double in size, instead of
+ * one object per entry. An entry at the same time as the last one replaces it.
+ * <p>
+ * The history also aggregates the SLA metrics online, as the entries are added: the time with
+ * allocated MIPS below the requested MIPS, the integrals of the allocated and requested MIPS, and
+ * the durations of the periods with the flag set. The metrics only need the last entry, so the
+ * retention of the entries can be switched off with {@link #setRetained(boolean)} for long
+ * simulations.
+ * <p>
+ * An interval goes from an entry to the next one and has the state of its first entry, so an entry
+ * is aggregated when the next entry, at a later time, is added.
+ */
+public class StateHistory implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The length of the first chunk, as a power of 2. */
+	private static final int FIRST_CHUNK_BITS = 4;
+
+	/** Whether the new entries are retained. */
+	private static boolean retained = true;
+
+	/** The times, by chunk. */
+	private double[][] times;
+
+	/** The penalties, by chunk, or null for the chunks without penalty. */
+	private double[][] penalties;
+
+	/** The allocated MIPS, by chunk. */
+	private double[][] allocatedMips;
+
+	/** The requested MIPS, by chunk. */
+	private double[][] requestedMips;
+
+	/** The flags of the entries. */
+	private final BitSet flags;
+
+	/** The number of entries retained. */
+	private int size;
+
+	/** Whether there is a last entry, not aggregated yet. */
+	private boolean hasLast;
+
+	/** The time of the last entry. */
+	private double lastTime;
+
+	/** The allocated MIPS of the last entry. */
+	private double lastAllocated;
+
+	/** The requested MIPS of the last entry. */
+	private double lastRequested;
+
+	/** The flag of the last entry. */
+	private boolean lastFlag;
+
+	/** The flag of the last aggregated entry, or the initial flag. */
+	private boolean previousFlag;
+
+	/** The time at which the flag was last set. */
+	private double flagSetTime;
+
+	/** The durations of the periods with the flag set, which ended. */
+	private double[] flagPeriods;
+
+	/** The number of periods with the flag set, which ended. */
+	private int flagPeriodCount;
+
+	/** The time of all the intervals. */
+	private double totalTime;
+
+	/** The time of the intervals with the flag set. */
+	private double flaggedTime;
+
+	/** The time of the intervals with allocated MIPS below the requested MIPS. */
+	private double violationTime;
+
+	/** The time of the intervals with the flag set and allocated MIPS below the requested MIPS. */
+	private double flaggedViolationTime;
+
+	/** The integral of the allocated MIPS over time. */
+	private double totalAllocatedMips;
+
+	/** The integral of the requested MIPS over time. */
+	private double totalRequestedMips;
+
+	/** The integral of the MIPS not allocated over the intervals with the flag set. */
+	private double flaggedUnderAllocatedMips;
+
+	/** The sum of the relative MIPS not allocated of the intervals with a violation. */
+	private double violationSum;
+
+	/** The number of intervals with a violation. */
+	private int violationCount;
+
+	/**
+	 * Creates an empty history.
+	 *
+	 * @param initialFlag the flag before the first entry: true for hosts, which are active at the
+	 *            start, false for VMs, which are not in migration
+	 */
+	public StateHistory(boolean initialFlag) {
+		times = new double[0][];
+		penalties = new double[0][];
+		allocatedMips = new double[0][];
+		requestedMips = new double[0][];
+		flags = new BitSet();
+		flagPeriods = new double[4];
+		previousFlag = initialFlag;
+	}
+
+	/**
+	 * Sets whether the new entries are retained. Without retention, the history only keeps the
+	 * aggregated metrics and the last entry.
+	 *
+	 * @param retained true to retain the entries
+	 */
+	public static void setRetained(boolean retained) {
+		StateHistory.retained = retained;
+	}
+
+	/**
+	 * Checks whether the new entries are retained.
+	 *
+	 * @return true, if the entries are retained
+	 */
+	public static boolean isRetained() {
+		return retained;
+	}
+
+	/**
+	 * Adds an entry, or replaces the last one if it is at the same time.
+	 *
+	 * @param time the time
+	 * @param penalty the penalty
+	 * @param allocated the allocated mips
+	 * @param requested the requested mips
+	 * @param flag the flag: whether the host is active or the VM is in migration
+	 */
+	public void add(double time, double penalty, double allocated, double requested, boolean flag) {
+		if (hasLast && lastTime == time) {
+			if (size > 0 && getTime(size - 1) == time) {
+				set(size - 1, time, penalty, allocated, requested, flag);
+			}
+		} else {
+			if (hasLast) {
+				aggregate(time);
+			}
+			if (retained) {
+				set(size++, time, penalty, allocated, requested, flag);
+			}
+		}
+		hasLast = true;
+		lastTime = time;
+		lastAllocated = allocated;
+		lastRequested = requested;
+		lastFlag = flag;
+	}
+
+	/**
+	 * Gets the number of entries retained.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the time of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the time
+	 */
+	public double getTime(int index) {
+		return times[chunk(index)][offset(index)];
+	}
+
+	/**
+	 * Gets the penalty of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the penalty
+	 */
+	public double getPenalty(int index) {
+		double[] chunk = penalties[chunk(index)];
+		return chunk == null ? 0 : chunk[offset(index)];
+	}
+
+	/**
+	 * Gets the allocated MIPS of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the allocated mips
+	 */
+	public double getAllocatedMips(int index) {
+		return allocatedMips[chunk(index)][offset(index)];
+	}
+
+	/**
+	 * Gets the requested MIPS of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the requested mips
+	 */
+	public double getRequestedMips(int index) {
+		return requestedMips[chunk(index)][offset(index)];
+	}
+
+	/**
+	 * Gets the flag of an entry: whether the host is active or the VM is in migration.
+	 *
+	 * @param index the index of the entry
+	 * @return the flag
+	 */
+	public boolean getFlag(int index) {
+		return flags.get(index);
+	}
+
+	/**
+	 * Gets the time of all the intervals.
+	 *
+	 * @return the time
+	 */
+	public double getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Gets the time of the intervals with the flag set: the active time of a host.
+	 *
+	 * @return the time
+	 */
+	public double getFlaggedTime() {
+		return flaggedTime;
+	}
+
+	/**
+	 * Gets the time of the intervals with allocated MIPS below the requested MIPS.
+	 *
+	 * @return the time
+	 */
+	public double getViolationTime() {
+		return violationTime;
+	}
+
+	/**
+	 * Gets the time of the intervals with the flag set and allocated MIPS below the requested MIPS:
+	 * the SLA violation time of a host while active.
+	 *
+	 * @return the time
+	 */
+	public double getFlaggedViolationTime() {
+		return flaggedViolationTime;
+	}
+
+	/**
+	 * Gets the integral of the allocated MIPS over time.
+	 *
+	 * @return the total allocated mips
+	 */
+	public double getTotalAllocatedMips() {
+		return totalAllocatedMips;
+	}
+
+	/**
+	 * Gets the integral of the requested MIPS over time.
+	 *
+	 * @return the total requested mips
+	 */
+	public double getTotalRequestedMips() {
+		return totalRequestedMips;
+	}
+
+	/**
+	 * Gets the integral of the MIPS not allocated over the intervals with the flag set: the
+	 * performance degradation of a VM due to migration.
+	 *
+	 * @return the under allocated mips
+	 */
+	public double getFlaggedUnderAllocatedMips() {
+		return flaggedUnderAllocatedMips;
+	}
+
+	/**
+	 * Gets the sum of the relative MIPS not allocated, (requested - allocated) / requested, of the
+	 * intervals with a violation.
+	 *
+	 * @return the sum
+	 */
+	public double getViolationSum() {
+		return violationSum;
+	}
+
+	/**
+	 * Gets the number of intervals with allocated MIPS below the requested MIPS.
+	 *
+	 * @return the number of intervals
+	 */
+	public int getViolationCount() {
+		return violationCount;
+	}
+
+	/**
+	 * Gets the durations of the periods with the flag set that ended, up to the last entry: the
+	 * times before the shutdowns of a host, or the times of the migrations of a VM.
+	 *
+	 * @return the durations
+	 */
+	public double[] getFlagPeriods() {
+		if (hasLast && previousFlag && !lastFlag) {
+			double[] periods = Arrays.copyOf(flagPeriods, flagPeriodCount + 1);
+			periods[flagPeriodCount] = lastTime - flagSetTime;
+			return periods;
+		}
+		return Arrays.copyOf(flagPeriods, flagPeriodCount);
+	}
+
+	/**
+	 * Aggregates the last entry, whose interval ends at the time of the next entry.
+	 *
+	 * @param time the time of the next entry
+	 */
+	private void aggregate(double time) {
+		if (previousFlag && !lastFlag) {
+			if (flagPeriodCount == flagPeriods.length) {
+				flagPeriods = Arrays.copyOf(flagPeriods, 2 * flagPeriodCount);
+			}
+			flagPeriods[flagPeriodCount++] = lastTime - flagSetTime;
+		}
+		if (!previousFlag && lastFlag) {
+			flagSetTime = lastTime;
+		}
+		previousFlag = lastFlag;
+
+		double timeDiff = time - lastTime;
+		boolean violation = lastAllocated < lastRequested;
+		totalTime += timeDiff;
+		totalAllocatedMips += lastAllocated * timeDiff;
+		totalRequestedMips += lastRequested * timeDiff;
+		if (violation) {
+			violationTime += timeDiff;
+			violationSum += (lastRequested - lastAllocated) / lastRequested;
+			violationCount++;
+		}
+		if (lastFlag) {
+			flaggedTime += timeDiff;
+			if (violation) {
+				flaggedViolationTime += timeDiff;
+				flaggedUnderAllocatedMips += (lastRequested - lastAllocated) * timeDiff;
+			}
+		}
+	}
+
+	/**
+	 * Sets the columns of an entry, adding a chunk if needed.
+	 *
+	 * @param index the index of the entry
+	 * @param time the time
+	 * @param penalty the penalty
+	 * @param allocated the allocated mips
+	 * @param requested the requested mips
+	 * @param flag the flag
+	 */
+	private void set(int index, double time, double penalty, double allocated, double requested, boolean flag) {
+		int chunk = chunk(index);
+		if (chunk == times.length) {
+			int length = 1 << (chunk + FIRST_CHUNK_BITS);
+			times = Arrays.copyOf(times, chunk + 1);
+			penalties = Arrays.copyOf(penalties, chunk + 1);
+			allocatedMips = Arrays.copyOf(allocatedMips, chunk + 1);
+			requestedMips = Arrays.copyOf(requestedMips, chunk + 1);
+			times[chunk] = new double[length];
+			allocatedMips[chunk] = new double[length];
+			requestedMips[chunk] = new double[length];
+		}
+		int offset = offset(index);
+		times[chunk][offset] = time;
+		if (penalty != 0 && penalties[chunk] == null) {
+			penalties[chunk] = new double[times[chunk].length];
+		}
+		if (penalties[chunk] != null) {
+			penalties[chunk][offset] = penalty;
+		}
+		allocatedMips[chunk][offset] = allocated;
+		requestedMips[chunk][offset] = requested;
+		flags.set(index, flag);
+	}
+
+	/**
+	 * Gets the chunk of an entry: the chunk k holds the 2^(k+4) entries from 2^(k+4) - 16.
+	 *
+	 * @param index the index of the entry
+	 * @return the chunk
+	 */
+	private static int chunk(int index) {
+		return 31 - Integer.numberOfLeadingZeros(index + (1 << FIRST_CHUNK_BITS)) - FIRST_CHUNK_BITS;
+	}
+
+	/**
+	 * Gets the offset of an entry in its chunk.
+	 *
+	 * @param index the index of the entry
+	 * @return the offset
+	 */
+	private static int offset(int index) {
+		int position = index + (1 << FIRST_CHUNK_BITS);
+		return position - Integer.highestOneBit(position);
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.distributions.CounterBasedRandom;
+import org.cloudbus.cloudsim.distributions.UniformTransform;
+
+/**
+ * The UtilizationModelCounterStochastic class implements a model, according to which a Cloudlet
+ * generates random CPU utilization every time bucket, like {@link UtilizationModelStochastic}, but
+ * without random generator state or history. The utilization of a bucket is drawn by the
+ * {@link CounterBasedRandom} generator from the key (seed, stream, bucket), where the stream is
+ * typically the id of the VM. The utilization of a time is thus the same in any call order and
+ * thread, and the model keeps no map of the past times, so it scales to any number of VMs and
+ * simulated time.
+ * <p>
+ * The utilization is uniform in (0, 1), or shaped by a distribution such as
+ * {@link org.cloudbus.cloudsim.distributions.LognormalDistr},
+ * {@link org.cloudbus.cloudsim.distributions.ParetoDistr} or
+ * {@link org.cloudbus.cloudsim.distributions.WeibullDistr}. It can be modulated by a diurnal
+ * envelope, and it is bounded to [0, 1]. The samples can be scaled to the utilization range, e.g.,
+ * for a lognormal distribution, whose parameters must be positive.
+ */
+public class UtilizationModelCounterStochastic implements UtilizationModel {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The seed. */
+	private final long seed;
+
+	/** The stream, e.g., the id of the VM. */
+	private final long stream;
+
+	/** The length of the time buckets. */
+	private final double bucketLength;
+
+	/** The distribution of the utilization, or null for the uniform distribution. */
+	private final UniformTransform distribution;
+
+	/** The scale of the samples. */
+	private double scale;
+
+	/** The amplitude of the diurnal envelope, 0 for no envelope. */
+	private double amplitude;
+
+	/** The time of the peak of the diurnal envelope. */
+	private double peakTime;
+
+	/** The period of the diurnal envelope. */
+	private double period;
+
+	/**
+	 * Instantiates a new counter-based stochastic utilization model with uniform utilization.
+	 * 
+	 * @param seed the seed
+	 * @param stream the stream, e.g., the id of the VM
+	 * @param bucketLength the length of the time buckets, e.g., the scheduling interval
+	 */
+	public UtilizationModelCounterStochastic(long seed, long stream, double bucketLength) {
+		this(seed, stream, bucketLength, null);
+	}
+
+	/**
+	 * Instantiates a new counter-based stochastic utilization model with shaped utilization.
+	 * 
+	 * @param seed the seed
+	 * @param stream the stream, e.g., the id of the VM
+	 * @param bucketLength the length of the time buckets, e.g., the scheduling interval
+	 * @param distribution the distribution of the utilization, or null for the uniform distribution
+	 */
+	public UtilizationModelCounterStochastic(
+			long seed,
+			long stream,
+			double bucketLength,
+			UniformTransform distribution) {
+		if (bucketLength <= 0) {
+			throw new IllegalArgumentException("The bucket length must be greater than 0.0");
+		}
+		this.seed = seed;
+		this.stream = stream;
+		this.bucketLength = bucketLength;
+		this.distribution = distribution;
+		scale = 1;
+		period = 24 * 3600;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		long bucket = (long) Math.floor(time / bucketLength);
+		long bits = CounterBasedRandom.nextLong(seed, stream, bucket);
+		double utilization = CounterBasedRandom.toDouble(bits);
+		if (distribution != null) {
+			utilization = distribution.transform(
+					utilization,
+					CounterBasedRandom.toDouble(CounterBasedRandom.next(bits)));
+		}
+		utilization *= scale;
+		if (amplitude > 0) {
+			utilization *= getEnvelope(bucket * bucketLength);
+		}
+		return Math.max(0, Math.min(1, utilization));
+	}
+
+	/**
+	 * Sets the scale of the samples, which multiplies them before the envelope.
+	 * 
+	 * @param scale the scale
+	 */
+	public void setScale(double scale) {
+		this.scale = scale;
+	}
+
+	/**
+	 * Gets the scale of the samples.
+	 * 
+	 * @return the scale
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Sets the diurnal envelope, which scales the utilization by 1 + amplitude * cos(2 * pi * (time
+	 * - peakTime) / period), taken at the start of the bucket.
+	 * 
+	 * @param amplitude the amplitude, in [0, 1], 0 for no envelope
+	 * @param peakTime the time of the peak
+	 * @param period the period, e.g., a day
+	 */
+	public void setDiurnalEnvelope(double amplitude, double peakTime, double period) {
+		if (amplitude < 0 || amplitude > 1) {
+			throw new IllegalArgumentException("The amplitude must be in [0, 1]");
+		}
+		if (period <= 0) {
+			throw new IllegalArgumentException("The period must be greater than 0.0");
+		}
+		this.amplitude = amplitude;
+		this.peakTime = peakTime;
+		this.period = period;
+	}
+
+	/**
+	 * Gets the diurnal envelope at a time.
+	 * 
+	 * @param time the time
+	 * @return the scaling factor of the utilization
+	 */
+	public double getEnvelope(double time) {
+		return 1 + amplitude * Math.cos(2 * Math.PI * (time - peakTime) / period);
+	}
+
+	/**
+	 * Gets the seed.
+	 * 
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the stream.
+	 * 
+	 * @return the stream
+	 */
+	public long getStream() {
+		return stream;
+	}
+
+	/**
+	 * Gets the length of the time buckets.
+	 * 
+	 * @return the bucket length
+	 */
+	public double getBucketLength() {
+		return bucketLength;
+	}
+
+	/**
+	 * Gets the distribution of the utilization.
+	 * 
+	 * @return the distribution, or null for the uniform distribution
+	 */
+	public UniformTransform getDistribution() {
+		return distribution;
+	}
+
+}
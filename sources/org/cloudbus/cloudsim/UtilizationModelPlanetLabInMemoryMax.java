@@ -5,6 +5,8 @@ import java.io.FileReader;
 import java.io.IOException;
 
 public class UtilizationModelPlanetLabInMemoryMax implements UtilizationModel {
+
+	private static final long serialVersionUID = 1L;
 	
 	/** The scheduling interval. */
 	private double schedulingInterval;
@@ -0,0 +1,335 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * UtilizationModelPlanetLabPaged is the utilization model of {@link UtilizationModelPlanetLabInMemory}
+ * (one sample per line, interpolated between the samples), for traces too long to be kept in
+ * memory. The trace is read by pages of samples: only the page of the simulation clock is kept,
+ * and the next page is read ahead on a background I/O thread, shared by all the models, as soon as
+ * the clock enters a page, so the memory does not depend on the length of the trace or of the
+ * simulation. Past the end of the trace, the utilization stays at its last sample.
+ * <p>
+ * The byte offset of every page read is kept, so a page before the current one is read again
+ * directly if the utilization of a past time is asked.
+ */
+public class UtilizationModelPlanetLabPaged implements UtilizationModel {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The default number of samples of a page: a day of 5-minute samples. */
+	public static final int DEFAULT_PAGE_SIZE = 288;
+
+	/** The thread reading the next pages ahead. */
+	private static ExecutorService prefetcher;
+
+	/** The path of the trace. */
+	private final String inputPath;
+
+	/** The scheduling interval. */
+	private final double schedulingInterval;
+
+	/** The number of samples of a page. */
+	private final int pageSize;
+
+	/** The byte offsets of the pages, known for the pages up to the one after the last read. */
+	private long[] pageOffsets;
+
+	/** The number of pages whose offset is known. */
+	private int knownPages;
+
+	/** The number of samples of the trace, or -1 while its end has not been read. */
+	private long samples = -1;
+
+	/** The last sample of the trace, once its end has been read. */
+	private double lastSample;
+
+	/** The current page. */
+	private int pageIndex = -1;
+
+	/**
+	 * The samples of the current page, followed by the first sample of the next page. It is read
+	 * again after a deserialization.
+	 */
+	private transient double[] page;
+
+	/** The next page, read ahead, or null. */
+	private transient Future<double[]> nextPage;
+
+	/**
+	 * Instantiates a new paged utilization model PlanetLab.
+	 * 
+	 * @param inputPath the input path
+	 * @param schedulingInterval the interval of the samples
+	 * @param pageSize the number of samples of a page
+	 */
+	public UtilizationModelPlanetLabPaged(String inputPath, double schedulingInterval, int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("The page size must be positive");
+		}
+		this.inputPath = inputPath;
+		this.schedulingInterval = schedulingInterval;
+		this.pageSize = pageSize;
+		pageOffsets = new long[4];
+		knownPages = 1;
+	}
+
+	/**
+	 * Instantiates a new paged utilization model PlanetLab, with pages of a day of 5-minute samples.
+	 * 
+	 * @param inputPath the input path
+	 * @param schedulingInterval the interval of the samples
+	 */
+	public UtilizationModelPlanetLabPaged(String inputPath, double schedulingInterval) {
+		this(inputPath, schedulingInterval, DEFAULT_PAGE_SIZE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		if (time % getSchedulingInterval() == 0) {
+			return getSample((int) time / (int) getSchedulingInterval());
+		}
+		int time1 = (int) Math.floor(time / getSchedulingInterval());
+		int time2 = (int) Math.ceil(time / getSchedulingInterval());
+		double utilization1 = getSample(time1);
+		double utilization2 = getSample(time2);
+		double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
+		return utilization1 + delta * (time - time1 * getSchedulingInterval());
+	}
+
+	/**
+	 * Gets a sample of the trace, moving to its page if needed.
+	 * 
+	 * @param index the index of the sample
+	 * @return the sample
+	 */
+	protected double getSample(int index) {
+		int pageNumber = index / pageSize;
+		int offset = index % pageSize;
+		if (pageNumber != pageIndex || page == null) {
+			// the first sample of the next page is kept with the current page
+			if (page != null && pageNumber == pageIndex + 1 && offset == 0) {
+				return page[pageSize];
+			}
+			moveToPage(pageNumber);
+		}
+		return page[offset];
+	}
+
+	/**
+	 * Makes a page the current page, taking it from the page read ahead if it is the next one, and
+	 * starts reading the page after it.
+	 * 
+	 * @param pageNumber the page
+	 */
+	private void moveToPage(int pageNumber) {
+		try {
+			if (nextPage != null && pageNumber == pageIndex + 1) {
+				page = nextPage.get();
+			} else {
+				if (nextPage != null) {
+					nextPage.get();
+				}
+				page = readPage(pageNumber);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while reading " + inputPath, e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Cannot read " + inputPath, e.getCause());
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read " + inputPath, e);
+		}
+		pageIndex = pageNumber;
+		nextPage = null;
+		if (samples < 0 || (long) (pageNumber + 1) * pageSize < samples) {
+			final int next = pageNumber + 1;
+			nextPage = getPrefetcher().submit(new Callable<double[]>() {
+
+				@Override
+				public double[] call() throws IOException {
+					return readPage(next);
+				}
+
+			});
+		}
+	}
+
+	/**
+	 * Serializes the model. The page read ahead records its offset while being read, so the model
+	 * is written under the same lock as the reads.
+	 * 
+	 * @param out the output stream
+	 * @throws IOException if an I/O error occurs
+	 */
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+	}
+
+	/**
+	 * Reads a page of the trace, from the offset of the last known page before it if its own offset
+	 * is not known yet, and records the offsets of the pages read on the way.
+	 * 
+	 * @param pageNumber the page
+	 * @return the samples of the page, followed by the first sample of the next page
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private synchronized double[] readPage(int pageNumber) throws IOException {
+		int start = Math.min(pageNumber, knownPages - 1);
+		double[] samplesRead = new double[pageSize + 1];
+		InputStream input = new BufferedInputStream(new FileInputStream(inputPath), 1 << 14);
+		try {
+			long position = pageOffsets[start];
+			skipFully(input, position);
+			long index = (long) start * pageSize;
+			long last = (long) pageNumber * pageSize + pageSize;
+			StringBuilder line = new StringBuilder();
+			int count = 0;
+			while (index <= last) {
+				line.setLength(0);
+				int c;
+				while ((c = input.read()) != -1 && c != '\n') {
+					position++;
+					if (c != '\r') {
+						line.append((char) c);
+					}
+				}
+				if (c == '\n') {
+					position++;
+				}
+				if (line.length() == 0 && c == -1) {
+					samples = index;
+					break;
+				}
+				double sample = Double.valueOf(line.toString().trim());
+				lastSample = sample;
+				if (index >= (long) pageNumber * pageSize) {
+					samplesRead[count++] = sample;
+				}
+				index++;
+				if (index % pageSize == 0) {
+					recordPageOffset((int) (index / pageSize), position);
+				}
+				if (c == -1) {
+					samples = index;
+					break;
+				}
+			}
+			if (count == 0) {
+				// past the end of the trace
+				Arrays.fill(samplesRead, lastSample);
+			} else {
+				Arrays.fill(samplesRead, count, samplesRead.length, samplesRead[count - 1]);
+			}
+		} finally {
+			input.close();
+		}
+		return samplesRead;
+	}
+
+	/**
+	 * Records the offset of a page, if it is the first one not known.
+	 * 
+	 * @param pageNumber the page
+	 * @param offset the offset
+	 */
+	private void recordPageOffset(int pageNumber, long offset) {
+		if (pageNumber != knownPages) {
+			return;
+		}
+		if (knownPages == pageOffsets.length) {
+			pageOffsets = Arrays.copyOf(pageOffsets, 2 * knownPages);
+		}
+		pageOffsets[knownPages++] = offset;
+	}
+
+	/**
+	 * Skips bytes of a stream.
+	 * 
+	 * @param input the stream
+	 * @param bytes the number of bytes
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void skipFully(InputStream input, long bytes) throws IOException {
+		while (bytes > 0) {
+			long skipped = input.skip(bytes);
+			if (skipped <= 0) {
+				throw new IOException("Unexpected end of the trace");
+			}
+			bytes -= skipped;
+		}
+	}
+
+	/**
+	 * Gets the thread reading the next pages ahead, a daemon thread so it does not keep the JVM
+	 * alive after the simulation.
+	 * 
+	 * @return the prefetcher
+	 */
+	private static synchronized ExecutorService getPrefetcher() {
+		if (prefetcher == null) {
+			prefetcher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "trace-prefetcher");
+					thread.setDaemon(true);
+					return thread;
+				}
+
+			});
+		}
+		return prefetcher;
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 * 
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+	/**
+	 * Gets the number of samples of a page.
+	 * 
+	 * @return the page size
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.util.TraceResampler;
+
+/**
+ * UtilizationModelResampled is a utilization trace resampled to the scheduling interval of the
+ * simulation (see {@link TraceResampler}), and interpolated linearly between its samples as
+ * {@link UtilizationModelPlanetLabInMemory}. The interpolation is precomputed: the utilization in
+ * the interval i is intercepts[i] + slopes[i] * time, so a lookup is one index computation and one
+ * multiply-add. Past the end of the trace, the utilization stays at its last sample.
+ */
+public class UtilizationModelResampled implements UtilizationModel {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The scheduling interval. */
+	private final double schedulingInterval;
+
+	/** The slope of the utilization in every interval. */
+	private final double[] slopes;
+
+	/** The intercept of the utilization in every interval. */
+	private final double[] intercepts;
+
+	/**
+	 * Instantiates a new utilization model from the samples of a trace at the scheduling interval.
+	 * 
+	 * @param samples the samples
+	 * @param schedulingInterval the scheduling interval
+	 */
+	public UtilizationModelResampled(double[] samples, double schedulingInterval) {
+		if (samples.length == 0) {
+			throw new IllegalArgumentException("The trace is empty");
+		}
+		this.schedulingInterval = schedulingInterval;
+		int n = samples.length;
+		slopes = new double[n];
+		intercepts = new double[n];
+		for (int i = 0; i < n - 1; i++) {
+			slopes[i] = (samples[i + 1] - samples[i]) / schedulingInterval;
+			intercepts[i] = samples[i] - slopes[i] * i * schedulingInterval;
+		}
+		intercepts[n - 1] = samples[n - 1];
+	}
+
+	/**
+	 * Instantiates a new utilization model from a trace with one sample per line, resampled from
+	 * its interval to the scheduling interval.
+	 * 
+	 * @param inputPath the input path
+	 * @param traceInterval the interval of the samples of the trace
+	 * @param schedulingInterval the scheduling interval
+	 * @param method the resampling method, see {@link TraceResampler}
+	 * @throws NumberFormatException the number format exception
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public UtilizationModelResampled(String inputPath, double traceInterval, double schedulingInterval, int method)
+			throws NumberFormatException,
+			IOException {
+		this(TraceResampler.resample(
+				TraceResampler.read(inputPath, 0),
+				traceInterval,
+				schedulingInterval,
+				method), schedulingInterval);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		int i = (int) (time / schedulingInterval);
+		if (i >= slopes.length) {
+			i = slopes.length - 1;
+		} else if (i < 0) {
+			i = 0;
+		}
+		return intercepts[i] + slopes[i] * time;
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 * 
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+	/**
+	 * Gets the number of samples.
+	 * 
+	 * @return the number of samples
+	 */
+	public int getNumberOfSamples() {
+		return slopes.length;
+	}
+
+}
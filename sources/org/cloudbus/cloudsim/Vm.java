@@ -16,11 +16,15 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.util.IdMap;
 
 /**
  * Vm represents a VM: it runs inside a Host, sharing hostList with other VMs. It processes
@@ -31,7 +35,9 @@ import org.cloudbus.cloudsim.examples.power.Constants;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 1.0
  */
-public class Vm {
+public class Vm implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The id. */
 	private int id;
@@ -42,6 +48,12 @@ public class Vm {
 	/** The uid. */
 	private String uid;
 
+	/** The slot of the uid. */
+	private int slot;
+
+	/** The slots given in the current simulation. */
+	private static Slots slots = new Slots();
+
 	/** The size. */
 	private long size;
 
@@ -84,8 +96,8 @@ public class Vm {
 	/** The VM is being instantiated. */
 	private boolean beingInstantiated;
 
-	/** The mips allocation history. */
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<VmStateHistoryEntry>();
+	/** The mips allocation history, with the in migration flag. */
+	private final StateHistory stateHistory = new StateHistory(false);
 	
 	private double rate;
 	
@@ -318,6 +330,7 @@ public class Vm {
 	 */
 	public void setUid(String uid) {
 		this.uid = uid;
+		slot = getSlot(uid);
 	}
 
 	/**
@@ -340,6 +353,107 @@ public class Vm {
 		return userId + "-" + vmId;
 	}
 
+	/**
+	 * Gets the slot of the VM: a dense integer identifying its uid, which the provisioners use to
+	 * index their allocations in arrays instead of hashing the uid.
+	 * 
+	 * @return the slot
+	 */
+	public int getSlot() {
+		return slot;
+	}
+
+	/**
+	 * Gets the slot of a uid. The same uid always has the same slot, so the VMs with the same uid
+	 * share their allocations, as they do when the allocations are keyed by uid.
+	 * 
+	 * @param uid the uid
+	 * @return the slot
+	 */
+	public static synchronized int getSlot(String uid) {
+		Integer slot = slots.uidSlots.get(uid);
+		if (slot == null) {
+			slot = slots.slotUids.size();
+			slots.uidSlots.put(uid, slot);
+			slots.slotUids.add(uid);
+		}
+		return slot;
+	}
+
+	/**
+	 * Gets the slot of the uid of a VM, without building the uid once it was looked up.
+	 * 
+	 * @param userId the user id
+	 * @param vmId the vm id
+	 * @return the slot
+	 */
+	public static synchronized int getSlot(int userId, int vmId) {
+		IdMap<Integer> vmSlots = slots.userSlots.get(userId);
+		if (vmSlots == null) {
+			vmSlots = new IdMap<Integer>();
+			slots.userSlots.put(userId, vmSlots);
+		}
+		Integer slot = vmSlots.get(vmId);
+		if (slot == null) {
+			slot = getSlot(getUid(userId, vmId));
+			vmSlots.put(vmId, slot);
+		}
+		return slot;
+	}
+
+	/**
+	 * Gets the uid of a slot.
+	 * 
+	 * @param slot the slot
+	 * @return the uid
+	 */
+	public static synchronized String getSlotUid(int slot) {
+		return slots.slotUids.get(slot);
+	}
+
+	/**
+	 * Gets the slots given in the current simulation.
+	 * 
+	 * @return the slots
+	 */
+	public static synchronized Slots getSlots() {
+		return slots;
+	}
+
+	/**
+	 * Sets the slots of the current simulation, e.g., the ones of a restored checkpoint.
+	 * 
+	 * @param slots the slots
+	 */
+	public static synchronized void setSlots(Slots slots) {
+		Vm.slots = slots;
+	}
+
+	/**
+	 * Forgets the slots given so far. It is called when a new simulation is initialised.
+	 */
+	public static synchronized void resetSlots() {
+		slots = new Slots();
+	}
+
+	/**
+	 * The slots given to the uids of the VMs of one simulation.
+	 */
+	public static class Slots implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The slots of all the uids given so far. */
+		private final Map<String, Integer> uidSlots = new HashMap<String, Integer>();
+
+		/** The uids of all the slots given so far, by slot. */
+		private final List<String> slotUids = new ArrayList<String>();
+
+		/** The slots of the uids looked up by user id and VM id, by user id and VM id. */
+		private final IdMap<IdMap<Integer>> userSlots = new IdMap<IdMap<Integer>>();
+
+	}
+
 	/**
 	 * Gets the id.
 	 * 
@@ -648,11 +762,41 @@ public class Vm {
 	}
 
 	/**
-	 * Gets the state history.
+	 * Gets the state history: a read-only view of the entries retained by the state history store.
 	 * 
 	 * @return the state history
 	 */
 	public List<VmStateHistoryEntry> getStateHistory() {
+		return new AbstractList<VmStateHistoryEntry>() {
+
+			@Override
+			public VmStateHistoryEntry get(int index) {
+				if (index < 0 || index >= size()) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+				}
+				return new VmStateHistoryEntry(
+						stateHistory.getTime(index),
+						stateHistory.getPenalty(index),
+						stateHistory.getAllocatedMips(index),
+						stateHistory.getRequestedMips(index),
+						stateHistory.getFlag(index));
+			}
+
+			@Override
+			public int size() {
+				return stateHistory.size();
+			}
+
+		};
+	}
+
+	/**
+	 * Gets the state history store, with the SLA metrics of the VM. Its flag is whether the VM is
+	 * in migration.
+	 * 
+	 * @return the state history store
+	 */
+	public StateHistory getStateHistoryStore() {
 		return stateHistory;
 	}
 
@@ -670,20 +814,7 @@ public class Vm {
 			double allocatedMips,
 			double requestedMips,
 			boolean isInMigration) {
-		VmStateHistoryEntry newState = new VmStateHistoryEntry(
-				time,
-				penalty,
-				allocatedMips,
-				requestedMips,
-				isInMigration);
-		if (!getStateHistory().isEmpty()) {
-			VmStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		stateHistory.add(time, penalty, allocatedMips, requestedMips, isInMigration);
 	}
 	
 	public void setRate (double rate) {
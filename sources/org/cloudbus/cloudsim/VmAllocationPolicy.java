@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 
@@ -22,7 +23,9 @@ import org.cloudbus.cloudsim.power.PowerHost;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 1.0
  */
-public abstract class VmAllocationPolicy {
+public abstract class VmAllocationPolicy implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The host list. */
 	private List<? extends Host> hostList;
@@ -62,6 +65,24 @@ public abstract class VmAllocationPolicy {
 	 */
 	public abstract boolean allocateHostForVm(Vm vm, Host host);
 
+	/**
+	 * Allocates hosts for a batch of VMs, created together. The VMs are allocated one by one, in
+	 * the order of the batch; the policies placing the whole batch at once override this method.
+	 * The host of every VM is then given by {@link #getHost(Vm)}.
+	 * 
+	 * @param vms the VMs
+	 * @return $true if all the VMs were allocated; $false otherwise
+	 * @pre vms != null
+	 * @post $none
+	 */
+	public boolean allocateHostsForVms(List<? extends Vm> vms) {
+		boolean result = true;
+		for (Vm vm : vms) {
+			result &= allocateHostForVm(vm);
+		}
+		return result;
+	}
+
 	/**
 	 * Optimize allocation of the VMs according to current utilization.
 	 * 
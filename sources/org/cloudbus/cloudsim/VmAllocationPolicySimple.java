@@ -25,6 +25,8 @@ import org.cloudbus.cloudsim.core.CloudSim;
  */
 public class VmAllocationPolicySimple extends VmAllocationPolicy {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The vm table. */
 	private Map<String, Host> vmTable;
 
@@ -50,7 +52,7 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 
 		}
 
-		setVmTable(new HashMap<String, Host>());
+		setVmTable(new VmHostTable());
 		setUsedPes(new HashMap<String, Integer>());
 	}
 
@@ -133,7 +135,7 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	 */
 	@Override
 	public Host getHost(Vm vm) {
-		return getVmTable().get(vm.getUid());
+		return VmHostTable.getHost(getVmTable(), vm);
 	}
 
 	/**
@@ -147,7 +149,7 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	 */
 	@Override
 	public Host getHost(int vmId, int userId) {
-		return getVmTable().get(Vm.getUid(userId, vmId));
+		return VmHostTable.getHost(getVmTable(), vmId, userId);
 	}
 
 	/**
@@ -0,0 +1,102 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+/**
+ * VmArrival is a VM of a workload that arrives during the simulation, with the cloudlet running
+ * on it, its arrival time and its lifetime. The arrivals of a workload are submitted to a
+ * {@link DatacenterBroker} as an iterator in arrival order (see
+ * {@link DatacenterBroker#submitArrivals(java.util.Iterator, double)}), so that the VMs are only
+ * created, and kept by the broker, while they are alive.
+ */
+public class VmArrival {
+
+	/** The VM. */
+	private final Vm vm;
+
+	/** The cloudlet, or null. */
+	private final Cloudlet cloudlet;
+
+	/** The arrival time. */
+	private final double arrivalTime;
+
+	/** The lifetime. */
+	private final double lifetime;
+
+	/**
+	 * Creates an arrival.
+	 * 
+	 * @param vm the vm
+	 * @param cloudlet the cloudlet bound to the vm, or null if there is none
+	 * @param arrivalTime the arrival time
+	 * @param lifetime the lifetime, or {@link Double#POSITIVE_INFINITY} if the VM is not destroyed
+	 *            before the end of the simulation
+	 */
+	public VmArrival(Vm vm, Cloudlet cloudlet, double arrivalTime, double lifetime) {
+		this.vm = vm;
+		this.cloudlet = cloudlet;
+		this.arrivalTime = arrivalTime;
+		this.lifetime = lifetime;
+	}
+
+	/**
+	 * Gets the VM.
+	 * 
+	 * @return the vm
+	 */
+	public Vm getVm() {
+		return vm;
+	}
+
+	/**
+	 * Gets the cloudlet, bound to the VM.
+	 * 
+	 * @return the cloudlet, or null if there is none
+	 */
+	public Cloudlet getCloudlet() {
+		return cloudlet;
+	}
+
+	/**
+	 * Gets the arrival time.
+	 * 
+	 * @return the arrival time
+	 */
+	public double getArrivalTime() {
+		return arrivalTime;
+	}
+
+	/**
+	 * Gets the lifetime.
+	 * 
+	 * @return the lifetime
+	 */
+	public double getLifetime() {
+		return lifetime;
+	}
+
+	/**
+	 * Gets the departure time, when the VM is destroyed.
+	 * 
+	 * @return the departure time, or {@link Double#POSITIVE_INFINITY}
+	 */
+	public double getDepartureTime() {
+		return arrivalTime + lifetime;
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.util.IdMap;
+
+/**
+ * VmHostTable is the vm table of the VM allocation policies: the hosts of the VMs, by VM uid. The
+ * table also keeps the hosts by VM slot (see {@link Vm#getSlot()}), so that
+ * {@link VmAllocationPolicy#getHost(Vm)} and {@link VmAllocationPolicy#getHost(int, int)} look the
+ * host up in an array, without building or hashing the uid of the VM.
+ */
+public class VmHostTable extends AbstractMap<String, Host> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The hosts, by VM uid. */
+	private final Map<String, Host> hosts;
+
+	/** The hosts, by VM slot. */
+	private final IdMap<Host> slotHosts;
+
+	/**
+	 * Creates an empty table.
+	 */
+	public VmHostTable() {
+		hosts = new HashMap<String, Host>();
+		slotHosts = new IdMap<Host>();
+	}
+
+	/**
+	 * Gets the host of a VM.
+	 *
+	 * @param vm the vm
+	 * @return the host, or $null if the VM is not in the table
+	 */
+	public Host getHost(Vm vm) {
+		return slotHosts.get(vm.getSlot());
+	}
+
+	/**
+	 * Gets the host of a VM.
+	 *
+	 * @param vmId the vm id
+	 * @param userId the user id
+	 * @return the host, or $null if the VM is not in the table
+	 */
+	public Host getHost(int vmId, int userId) {
+		return slotHosts.get(Vm.getSlot(userId, vmId));
+	}
+
+	/**
+	 * Gets the host of a VM from a vm table, by slot if the table is a VmHostTable.
+	 *
+	 * @param vmTable the vm table
+	 * @param vm the vm
+	 * @return the host, or $null if the VM is not in the table
+	 */
+	public static Host getHost(Map<String, Host> vmTable, Vm vm) {
+		if (vmTable instanceof VmHostTable) {
+			return ((VmHostTable) vmTable).getHost(vm);
+		}
+		return vmTable.get(vm.getUid());
+	}
+
+	/**
+	 * Gets the host of a VM from a vm table, by slot if the table is a VmHostTable.
+	 *
+	 * @param vmTable the vm table
+	 * @param vmId the vm id
+	 * @param userId the user id
+	 * @return the host, or $null if the VM is not in the table
+	 */
+	public static Host getHost(Map<String, Host> vmTable, int vmId, int userId) {
+		if (vmTable instanceof VmHostTable) {
+			return ((VmHostTable) vmTable).getHost(vmId, userId);
+		}
+		return vmTable.get(Vm.getUid(userId, vmId));
+	}
+
+	@Override
+	public Host get(Object key) {
+		return hosts.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return hosts.containsKey(key);
+	}
+
+	@Override
+	public Host put(String uid, Host host) {
+		slotHosts.put(Vm.getSlot(uid), host);
+		return hosts.put(uid, host);
+	}
+
+	@Override
+	public Host remove(Object key) {
+		if (!hosts.containsKey(key)) {
+			return null;
+		}
+		slotHosts.remove(Vm.getSlot((String) key));
+		return hosts.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		hosts.clear();
+		slotHosts.clear();
+	}
+
+	@Override
+	public int size() {
+		return hosts.size();
+	}
+
+	@Override
+	public Set<Map.Entry<String, Host>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Host>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, Host>> iterator() {
+				final Iterator<Map.Entry<String, Host>> iterator = hosts.entrySet().iterator();
+				return new Iterator<Map.Entry<String, Host>>() {
+
+					/** The last entry returned. */
+					private Map.Entry<String, Host> last;
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Map.Entry<String, Host> next() {
+						last = iterator.next();
+						return new SimpleEntry<String, Host>(last) {
+
+							private static final long serialVersionUID = 1L;
+
+							@Override
+							public Host setValue(Host host) {
+								super.setValue(host);
+								return put(getKey(), host);
+							}
+
+						};
+					}
+
+					@Override
+					public void remove() {
+						iterator.remove();
+						slotHosts.remove(Vm.getSlot(last.getKey()));
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return hosts.size();
+			}
+
+		};
+	}
+
+}
@@ -7,6 +7,7 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -22,7 +23,9 @@ import org.cloudbus.cloudsim.lists.PeList;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 1.0
  */
-public abstract class VmScheduler {
+public abstract class VmScheduler implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The peList. */
 	private List<? extends Pe> peList;
@@ -78,6 +81,24 @@ public abstract class VmScheduler {
 	 */
 	public abstract void deallocatePesForVm(Vm vm);
 
+	/**
+	 * Reallocates the PEs of VMs at their current requested MIPS: releases the PEs of all the VMs,
+	 * then allocates them again in order. The schedulers can override it to update all the
+	 * allocations at once.
+	 * 
+	 * @param vms the vms
+	 * @pre $none
+	 * @post $none
+	 */
+	public void reallocatePesForVms(List<? extends Vm> vms) {
+		for (Vm vm : vms) {
+			deallocatePesForVm(vm);
+		}
+		for (Vm vm : vms) {
+			allocatePesForVm(vm, vm.getCurrentRequestedMips());
+		}
+	}
+
 	/**
 	 * Releases PEs allocated to all the VMs.
 	 * 
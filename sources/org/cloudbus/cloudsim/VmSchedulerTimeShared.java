@@ -8,6 +8,7 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -16,6 +17,7 @@ import java.util.Map;
 
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.PeProvisioner;
+import org.cloudbus.cloudsim.util.SlotTable;
 
 /**
  * VmSchedulerTimeShared is a VMM allocation policy that allocates one or more Pe to a VM, and
@@ -28,8 +30,16 @@ import org.cloudbus.cloudsim.provisioners.PeProvisioner;
  */
 public class VmSchedulerTimeShared extends VmScheduler {
 
-	/** The mips map requested. */
-	private Map<String, List<Double>> mipsMapRequested;
+	private static final long serialVersionUID = 1L;
+
+	/** The indexes of the VMs with requested MIPS, by slot. */
+	private final SlotTable requestedSlots;
+
+	/** The uids of the VMs with requested MIPS, by index. */
+	private final List<String> requestedUids;
+
+	/** The MIPS requested by the VMs, by index. */
+	private final List<List<Double>> requestedMips;
 
 	/** The pes in use. */
 	private int pesInUse;
@@ -41,7 +51,9 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	public VmSchedulerTimeShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setMipsMapRequested(new HashMap<String, List<Double>>());
+		requestedSlots = new SlotTable();
+		requestedUids = new ArrayList<String>();
+		requestedMips = new ArrayList<List<Double>>();
 	}
 
 	/*
@@ -90,7 +102,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			return false;
 		}
 
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
+		putMipsRequested(vmUid, mipsShareRequested);
 		setPesInUse(getPesInUse() + mipsShareRequested.size());
 
 		if (getVmsMigratingIn().contains(vmUid)) {
@@ -132,17 +144,18 @@ public class VmSchedulerTimeShared extends VmScheduler {
 
 		for (Map.Entry<String, List<Double>> entry : getMipsMap().entrySet()) {
 			String vmUid = entry.getKey();
+			int vmSlot = Vm.getSlot(vmUid);
 			getPeMap().put(vmUid, new LinkedList<Pe>());
 
 			for (double mips : entry.getValue()) {
 				while (mips >= 0.1) {
 					if (availableMips >= mips) {
-						peProvisioner.allocateMipsForVm(vmUid, mips);
+						peProvisioner.allocateMipsForVm(vmSlot, mips);
 						getPeMap().get(vmUid).add(pe);
 						availableMips -= mips;
 						break;
 					} else {
-						peProvisioner.allocateMipsForVm(vmUid, availableMips);
+						peProvisioner.allocateMipsForVm(vmSlot, availableMips);
 						getPeMap().get(vmUid).add(pe);
 						mips -= availableMips;
 						if (mips <= 0.1) {
@@ -167,7 +180,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	@Override
 	public void deallocatePesForVm(Vm vm) {
-		getMipsMapRequested().remove(vm.getUid());
+		removeMipsRequested(vm);
 		setPesInUse(0);
 		getMipsMap().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
@@ -176,8 +189,10 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			pe.getPeProvisioner().deallocateMipsForVm(vm);
 		}
 
-		for (Map.Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
-			allocatePesForVm(entry.getKey(), entry.getValue());
+		for (int index = 0; index < getMipsRequestedCapacity(); index++) {
+			if (getMipsRequestedUid(index) != null) {
+				allocatePesForVm(getMipsRequestedUid(index), getMipsRequested(index));
+			}
 		}
 
 		updatePeProvisioning();
@@ -192,7 +207,9 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	@Override
 	public void deallocatePesForAllVms() {
 		super.deallocatePesForAllVms();
-		getMipsMapRequested().clear();
+		requestedSlots.clear();
+		requestedUids.clear();
+		requestedMips.clear();
 		setPesInUse(0);
 	}
 
@@ -226,21 +243,104 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	}
 
 	/**
-	 * Gets the mips map requested.
+	 * Gets the mips map requested: a copy of the MIPS requested by every VM, by uid.
 	 * 
 	 * @return the mips map requested
 	 */
 	protected Map<String, List<Double>> getMipsMapRequested() {
-		return mipsMapRequested;
+		Map<String, List<Double>> mipsMapRequested = new HashMap<String, List<Double>>();
+		for (int index = 0; index < getMipsRequestedCapacity(); index++) {
+			if (getMipsRequestedUid(index) != null) {
+				mipsMapRequested.put(getMipsRequestedUid(index), getMipsRequested(index));
+			}
+		}
+		return Collections.unmodifiableMap(mipsMapRequested);
 	}
 
 	/**
-	 * Sets the mips map requested.
+	 * Sets the mips map requested, replacing the MIPS requested by every VM.
 	 * 
 	 * @param mipsMapRequested the mips map requested
 	 */
 	protected void setMipsMapRequested(Map<String, List<Double>> mipsMapRequested) {
-		this.mipsMapRequested = mipsMapRequested;
+		requestedSlots.clear();
+		requestedUids.clear();
+		requestedMips.clear();
+		for (Map.Entry<String, List<Double>> entry : mipsMapRequested.entrySet()) {
+			putMipsRequested(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Sets the MIPS requested by a VM.
+	 * 
+	 * @param vmUid the vm uid
+	 * @param mipsShareRequested the mips share requested
+	 * @return the index of the VM
+	 */
+	protected int putMipsRequested(String vmUid, List<Double> mipsShareRequested) {
+		int index = requestedSlots.add(Vm.getSlot(vmUid));
+		if (index == requestedUids.size()) {
+			requestedUids.add(vmUid);
+			requestedMips.add(mipsShareRequested);
+		} else {
+			requestedUids.set(index, vmUid);
+			requestedMips.set(index, mipsShareRequested);
+		}
+		return index;
+	}
+
+	/**
+	 * Removes the MIPS requested by a VM.
+	 * 
+	 * @param vm the vm
+	 * @return the index of the VM, or -1 if the VM had no requested MIPS
+	 */
+	protected int removeMipsRequested(Vm vm) {
+		int index = requestedSlots.remove(vm.getSlot());
+		if (index >= 0) {
+			requestedMips.set(index, null);
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the number of VMs with requested MIPS.
+	 * 
+	 * @return the number of VMs
+	 */
+	protected int getMipsRequestedSize() {
+		return requestedSlots.size();
+	}
+
+	/**
+	 * Gets the number of indexes of the requested MIPS: the VMs with requested MIPS have an index
+	 * below it.
+	 * 
+	 * @return the number of indexes
+	 */
+	protected int getMipsRequestedCapacity() {
+		return requestedSlots.capacity();
+	}
+
+	/**
+	 * Gets the uid of the VM with requested MIPS at an index.
+	 * 
+	 * @param index the index
+	 * @return the vm uid, or null if no VM has the index
+	 */
+	protected String getMipsRequestedUid(int index) {
+		return requestedSlots.slotAt(index) >= 0 ? requestedUids.get(index) : null;
+	}
+
+	/**
+	 * Gets the MIPS requested by the VM at an index.
+	 * 
+	 * @param index the index
+	 * @return the mips share requested
+	 */
+	protected List<Double> getMipsRequested(int index) {
+		return requestedMips.get(index);
 	}
 
 }
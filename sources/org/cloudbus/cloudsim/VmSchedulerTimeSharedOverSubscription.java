@@ -8,10 +8,14 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.lists.PeList;
 
@@ -26,6 +30,14 @@ import org.cloudbus.cloudsim.lists.PeList;
  */
 public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared {
 
+	private static final long serialVersionUID = 1L;
+
+	/** The MIPS required by every VM in {@link #reallocatePesForVms(List)}, by requested index. */
+	private double[] requiredMips = new double[0];
+
+	/** The requested index of every VM in {@link #reallocatePesForVms(List)}, in order. */
+	private int[] vmIndexes = new int[0];
+
 	/**
 	 * Instantiates a new vm scheduler time shared over subscription.
 	 * 
@@ -63,7 +75,7 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 			}
 		}
 
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
+		putMipsRequested(vmUid, mipsShareRequested);
 		setPesInUse(getPesInUse() + mipsShareRequested.size());
 
 		if (getVmsMigratingIn().contains(vmUid)) {
@@ -93,6 +105,161 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		return true;
 	}
 
+	/**
+	 * Reallocates the PEs of VMs at their current requested MIPS in a single pass. The capped
+	 * requests are summed once, and if they exceed the capacity of the host, the shares of all the
+	 * VMs are scaled by the same factor, as in {@link #redistributeMipsDueToOverSubscription()}. The
+	 * allocations are the same as when the VMs are deallocated and allocated one at a time, but the
+	 * MIPS are not redistributed at every VM.
+	 * 
+	 * @param vms the vms
+	 */
+	@Override
+	public void reallocatePesForVms(List<? extends Vm> vms) {
+		if (vms.isEmpty()) {
+			return;
+		}
+		for (Vm vm : vms) {
+			removeMipsRequested(vm);
+		}
+		double totalMips = PeList.getTotalMips(getPeList());
+		getMipsMap().clear();
+		setAvailableMips(totalMips);
+		setPesInUse(0);
+
+		if (getMipsRequestedSize() > 0) {
+			// the VMs that are not reallocated keep their shares first
+			for (int index = 0; index < getMipsRequestedCapacity(); index++) {
+				if (getMipsRequestedUid(index) != null) {
+					allocatePesForVm(getMipsRequestedUid(index), getMipsRequested(index));
+				}
+			}
+			for (Vm vm : vms) {
+				allocatePesForVm(vm, vm.getCurrentRequestedMips());
+			}
+			return;
+		}
+
+		Set<String> migratingIn = getVmsMigratingIn().isEmpty() ? Collections.<String> emptySet()
+				: new HashSet<String>(getVmsMigratingIn());
+		Set<String> migratingOut = new HashSet<String>(getVmsMigratingOut());
+		double peMips = getPeCapacity();
+		double availableMips = totalMips;
+		boolean overSubscribed = false;
+		int pesInUse = 0;
+		if (vmIndexes.length < vms.size()) {
+			vmIndexes = new int[vms.size()];
+		}
+
+		for (int i = 0; i < vms.size(); i++) {
+			Vm vm = vms.get(i);
+			String vmUid = vm.getUid();
+			if (vm.isInMigration()) {
+				if (!migratingIn.contains(vmUid) && migratingOut.add(vmUid)) {
+					getVmsMigratingOut().add(vmUid);
+				}
+			} else if (migratingOut.remove(vmUid)) {
+				getVmsMigratingOut().remove(vmUid);
+			}
+
+			List<Double> mipsShareRequested = vm.getCurrentRequestedMips();
+			int index = putMipsRequested(vmUid, mipsShareRequested);
+			vmIndexes[i] = index;
+			pesInUse += mipsShareRequested.size();
+
+			double requiredMipsByThisVm = 0;
+			for (Double mips : mipsShareRequested) {
+				requiredMipsByThisVm += Math.min(mips, peMips);
+			}
+			if (migratingIn.contains(vmUid)) {
+				// the destination host only experience 10% of the migrating VM's MIPS
+				requiredMipsByThisVm *= 0.1;
+			}
+			if (index >= requiredMips.length) {
+				requiredMips = Arrays.copyOf(requiredMips, Math.max(2 * requiredMips.length, index + 1));
+			}
+			requiredMips[index] = requiredMipsByThisVm;
+
+			// the VMs are allocated in order until one does not fit, then all of them are scaled
+			if (!overSubscribed && availableMips >= requiredMipsByThisVm) {
+				availableMips -= requiredMipsByThisVm;
+			} else {
+				overSubscribed = true;
+			}
+		}
+		setPesInUse(pesInUse);
+
+		if (!overSubscribed) {
+			for (int i = 0; i < vms.size(); i++) {
+				String vmUid = vms.get(i).getUid();
+				getMipsMap().put(vmUid, getMipsShare(vmUid, getMipsRequested(vmIndexes[i]), migratingIn,
+						migratingOut, 1, false));
+			}
+			setAvailableMips(availableMips);
+		} else {
+			double totalRequiredMipsByAllVms = 0;
+			for (int index = 0; index < getMipsRequestedCapacity(); index++) {
+				if (getMipsRequestedUid(index) != null) {
+					totalRequiredMipsByAllVms += requiredMips[index];
+				}
+			}
+			double scalingFactor = totalMips / totalRequiredMipsByAllVms;
+			for (int index = 0; index < getMipsRequestedCapacity(); index++) {
+				String vmUid = getMipsRequestedUid(index);
+				if (vmUid != null) {
+					getMipsMap().put(vmUid, getMipsShare(vmUid, getMipsRequested(index), migratingIn,
+							migratingOut, scalingFactor, true));
+				}
+			}
+			// As the host is oversubscribed, there no more available MIPS
+			setAvailableMips(0);
+		}
+
+		updatePeProvisioning();
+	}
+
+	/**
+	 * Gets the MIPS allocated to a VM, from its capped requested MIPS.
+	 * 
+	 * @param vmUid the vm uid
+	 * @param mipsShareRequested the mips share requested
+	 * @param migratingIn the VMs migrating in
+	 * @param migratingOut the VMs migrating out
+	 * @param scalingFactor the scaling factor of the oversubscribed host, or 1
+	 * @param scaled true if the host is oversubscribed
+	 * @return the mips share allocated
+	 */
+	private List<Double> getMipsShare(
+			String vmUid,
+			List<Double> mipsShareRequested,
+			Set<String> migratingIn,
+			Set<String> migratingOut,
+			double scalingFactor,
+			boolean scaled) {
+		double peMips = getPeCapacity();
+		List<Double> mipsShareAllocated = new ArrayList<Double>(mipsShareRequested.size());
+		for (Double requested : mipsShareRequested) {
+			double mips = Math.min(requested, peMips);
+			if (migratingOut.contains(vmUid)) {
+				if (scaled) {
+					mips *= scalingFactor;
+				}
+				// performance degradation due to migration = 10% MIPS
+				mips *= 0.9;
+			} else if (migratingIn.contains(vmUid)) {
+				// the destination host only experiences 10% of the migrating VM's MIPS
+				mips *= 0.1;
+				if (scaled) {
+					mips *= scalingFactor;
+				}
+			} else if (scaled) {
+				mips *= scalingFactor;
+			}
+			mipsShareAllocated.add(scaled ? Math.floor(mips) : mips);
+		}
+		return mipsShareAllocated;
+	}
+
 	/**
 	 * This method recalculates distribution of MIPs among VMs considering eventual shortage of MIPS
 	 * compared to the amount requested by VMs.
@@ -103,11 +270,14 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		double totalRequiredMipsByAllVms = 0;
 
 		Map<String, List<Double>> mipsMapCapped = new HashMap<String, List<Double>>();
-		for (Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
+		for (int index = 0; index < getMipsRequestedCapacity(); index++) {
+			String vmId = getMipsRequestedUid(index);
+			if (vmId == null) {
+				continue;
+			}
 
 			double requiredMipsByThisVm = 0.0;
-			String vmId = entry.getKey();
-			List<Double> mipsShareRequested = entry.getValue();
+			List<Double> mipsShareRequested = getMipsRequested(index);
 			List<Double> mipsShareRequestedCapped = new ArrayList<Double>();
 			double peMips = getPeCapacity();
 			for (Double mips : mipsShareRequested) {
@@ -122,7 +292,7 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 
 			mipsMapCapped.put(vmId, mipsShareRequestedCapped);
 
-			if (getVmsMigratingIn().contains(entry.getKey())) {
+			if (getVmsMigratingIn().contains(vmId)) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				requiredMipsByThisVm *= 0.1;
 			}
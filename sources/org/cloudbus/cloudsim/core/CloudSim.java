@@ -8,7 +8,9 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -18,9 +20,15 @@ import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
+import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 import org.cloudbus.cloudsim.core.predicates.PredicateAny;
 import org.cloudbus.cloudsim.core.predicates.PredicateNone;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.network.datacenter.NetDatacenterBroker;
+import org.cloudbus.cloudsim.network.datacenter.NetworkConstants;
+import org.cloudbus.cloudsim.util.PhaseProfiler;
 
 /**
  * This class extends the CloudSimCore to enable network simulation in CloudSim. Also, it disables
@@ -316,6 +324,12 @@ public class CloudSim {
 	/** The deferred event queue. */
 	protected static DeferredQueue deferred;
 
+	/**
+	 * The ids of the runnable entities that may have events to handle: the destinations of the
+	 * deferred events and the entities whose wait or hold ended.
+	 */
+	private static BitSet runnable;
+
 	/** The simulation clock. */
 	private static double clock;
 
@@ -348,9 +362,13 @@ public class CloudSim {
 		entitiesByName = new LinkedHashMap<String, SimEntity>();
 		future = new FutureQueue();
 		deferred = new DeferredQueue();
+		runnable = new BitSet();
 		waitPredicates = new HashMap<Integer, Predicate>();
 		clock = 0;
 		running = false;
+		PhaseProfiler.setIntervalLength(Constants.SCHEDULING_INTERVAL);
+		PhaseProfiler.reset();
+		Vm.resetSlots();
 	}
 
 	// The two standard predicates
@@ -474,7 +492,7 @@ public class CloudSim {
 		SimEvent evt;
 		if (running) {
 			// Post an event to make this entity
-			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			evt = EventPool.obtain(SimEvent.CREATE, clock, 1, 0, 0, e);
 			future.addEvent(evt);
 		}
 		if (e.getId() == -1) { // Only add once!
@@ -507,17 +525,10 @@ public class CloudSim {
 	 * @return true, if successful otherwise
 	 */
 	public static boolean runClockTick() {
-		SimEntity ent;
 		boolean queue_empty;
 		
-		int entities_size = entities.size();
-
-		for (int i = 0; i < entities_size; i++) {
-			ent = entities.get(i);
-			if (ent.getState() == SimEntity.RUNNABLE) {
-				ent.run();
-			}
-		}
+		PhaseProfiler.start(PhaseProfiler.EVENT_LOOP);
+		runEntities();
 				
 		// If there are more future events then deal with them
 		if (future.size() > 0) {
@@ -525,8 +536,11 @@ public class CloudSim {
 			Iterator<SimEvent> fit = future.iterator();
 			queue_empty = false;
 			SimEvent first = fit.next();
+			// the first event may be recycled below, so its time is kept
+			double time = first.eventTime();
 			processEvent(first);
 			future.remove(first);
+			releaseKernelEvent(first);
 
 			fit = future.iterator();
 
@@ -534,7 +548,7 @@ public class CloudSim {
 			boolean trymore = fit.hasNext();
 			while (trymore) {
 				SimEvent next = fit.next();
-				if (next.eventTime() == first.eventTime()) {
+				if (next.eventTime() == time) {
 					processEvent(next);
 					toRemove.add(next);
 					trymore = fit.hasNext();
@@ -544,6 +558,10 @@ public class CloudSim {
 			}
 
 			future.removeAll(toRemove);
+			// recycled only once out of the queue, a recycled event gets a new sort key
+			for (SimEvent event : toRemove) {
+				releaseKernelEvent(event);
+			}
 
 		} else {
 			queue_empty = true;
@@ -551,9 +569,28 @@ public class CloudSim {
 			printMessage("Simulation: No more future events");
 		}
 
+		PhaseProfiler.end(PhaseProfiler.EVENT_LOOP);
+		PhaseProfiler.advance(clock);
 		return queue_empty;
 	}
 
+	/**
+	 * Lets the runnable entities handle their deferred events. Only the entities marked in the
+	 * runnable set are visited, in the order of their ids; an entity that is not runnable anymore
+	 * is marked again when its wait or hold ends.
+	 */
+	private static void runEntities() {
+		SimEntity ent;
+
+		for (int i = runnable.nextSetBit(0); i >= 0; i = runnable.nextSetBit(i + 1)) {
+			runnable.clear(i);
+			ent = entities.get(i);
+			if (ent.getState() == SimEntity.RUNNABLE) {
+				ent.run();
+			}
+		}
+	}
+
 	/**
 	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
 	 */
@@ -568,7 +605,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void hold(int src, long delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		SimEvent e = EventPool.obtain(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
 		future.addEvent(e);
 		entities.get(src).setState(SimEntity.HOLDING);
 	}
@@ -580,7 +617,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void pause(int src, double delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		SimEvent e = EventPool.obtain(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
 		future.addEvent(e);
 		entities.get(src).setState(SimEntity.HOLDING);
 	}
@@ -599,7 +636,7 @@ public class CloudSim {
 			throw new IllegalArgumentException("Send delay can't be negative.");
 		}
 
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		SimEvent e = EventPool.obtain(SimEvent.SEND, clock + delay, src, dest, tag, data);
 		future.addEvent(e);
 	}
 
@@ -617,7 +654,7 @@ public class CloudSim {
 			throw new IllegalArgumentException("Send delay can't be negative.");
 		}
 
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		SimEvent e = EventPool.obtain(SimEvent.SEND, clock + delay, src, dest, tag, data);
 		future.addEventFirst(e);
 	}
 
@@ -645,12 +682,15 @@ public class CloudSim {
 	 * @return the int
 	 */
 	public static int waiting(int d, Predicate p) {
+		if (p == SIM_ANY) {
+			return deferred.size(d);
+		}
 		int count = 0;
 		SimEvent event;
-		Iterator<SimEvent> iterator = deferred.iterator();
+		Iterator<SimEvent> iterator = deferred.iterator(d);
 		while (iterator.hasNext()) {
 			event = iterator.next();
-			if ((event.getDestination() == d) && (p.match(event))) {
+			if (p.match(event)) {
 				count++;
 			}
 		}
@@ -665,16 +705,16 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent select(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
+		SimEvent ev;
+		Iterator<SimEvent> iterator = deferred.iterator(src);
 		while (iterator.hasNext()) {
 			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
+			if (p.match(ev)) {
 				iterator.remove();
-				break;
+				return ev;
 			}
 		}
-		return ev;
+		return null;
 	}
 
 	/**
@@ -685,15 +725,15 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent findFirstDeferred(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
+		SimEvent ev;
+		Iterator<SimEvent> iterator = deferred.iterator(src);
 		while (iterator.hasNext()) {
 			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				break;
+			if (p.match(ev)) {
+				return ev;
 			}
 		}
-		return ev;
+		return null;
 	}
 
 	/**
@@ -733,6 +773,7 @@ public class CloudSim {
 			ev = iter.next();
 			if (ev.getSource() == src && p.match(ev)) {
 				iter.remove();
+				EventPool.release(ev);
 			}
 		}
 		return previousSize < future.size();
@@ -742,6 +783,18 @@ public class CloudSim {
 	// Private internal methods
 	//
 
+	/**
+	 * Releases a processed event of the kernel to the {@link EventPool}. The sent events are
+	 * released by their destination, once processed.
+	 * 
+	 * @param e the event
+	 */
+	private static void releaseKernelEvent(SimEvent e) {
+		if (e.getType() == SimEvent.HOLD_DONE || e.getType() == SimEvent.CREATE) {
+			EventPool.release(e);
+		}
+	}
+
 	/**
 	 * Processes an event.
 	 * 
@@ -750,6 +803,7 @@ public class CloudSim {
 	private static void processEvent(SimEvent e) {
 		int dest, src;
 		SimEntity dest_ent;
+		PhaseProfiler.increment(PhaseProfiler.EVENTS);
 		// Update the system's clock
 		if (e.eventTime() < clock) {
 			throw new IllegalArgumentException("Past event detected.");
@@ -778,7 +832,8 @@ public class CloudSim {
 						Integer destObj = Integer.valueOf(dest);
 						Predicate p = waitPredicates.get(destObj);
 						if ((p == null) || (tag == 9999) || (p.match(e))) {
-							dest_ent.setEventBuffer((SimEvent) e.clone());
+							// no copy: the event is released to the pool only after it is processed
+							dest_ent.setEventBuffer(e);
 							dest_ent.setState(SimEntity.RUNNABLE);
 							waitPredicates.remove(destObj);
 						} else {
@@ -787,6 +842,7 @@ public class CloudSim {
 					} else {
 						deferred.addEvent(e);
 					}
+					runnable.set(dest);
 				}
 				break;
 
@@ -796,6 +852,7 @@ public class CloudSim {
 					throw new IllegalArgumentException("Null entity holding.");
 				} else {
 					entities.get(src).setState(SimEntity.RUNNABLE);
+					runnable.set(src);
 				}
 				break;
 
@@ -914,6 +971,117 @@ public class CloudSim {
 		return clock;
 	}
 
+	/**
+	 * Runs the simulation until all the events up to the given time have been processed, without
+	 * finishing it. The simulation can then be checkpointed and continued with
+	 * {@link #startSimulation()}.
+	 * 
+	 * @param time the simulation time to run to
+	 * @return the clock after the last processed event
+	 */
+	public static double runUntil(double time) {
+		if (!running) {
+			runStart();
+		}
+		while (!abruptTerminate) {
+			// the deferred events may add new events before the next one in the queue
+			runEntities();
+			if (future.size() == 0) {
+				break;
+			}
+			double next = future.iterator().next().eventTime();
+			if (next > time || (terminateAt > 0.0 && next > terminateAt)) {
+				break;
+			}
+			runClockTick();
+		}
+		return clock;
+	}
+
+	/**
+	 * Takes a checkpoint of the whole simulation state. It should be called between clock ticks,
+	 * e.g. after {@link #runUntil(double)}. The outputs of the simulation, as the files of the
+	 * power examples' Constants and the interval output of the PhaseProfiler, are not part of the
+	 * checkpoint: a restored simulation writes to the outputs set at that time. The BRITE network
+	 * topology is not captured either, so a simulation using it cannot be checkpointed.
+	 * 
+	 * @return the checkpoint
+	 * @throws IOException if some object of the simulation is not serializable
+	 * @throws IllegalStateException if the simulation uses the BRITE network topology
+	 */
+	public static SimulationCheckpoint checkpoint() throws IOException {
+		if (NetworkTopology.isNetworkEnabled()) {
+			throw new IllegalStateException("The network topology cannot be checkpointed.");
+		}
+		SimulationCheckpoint.State state = new SimulationCheckpoint.State();
+		state.clock = clock;
+		state.running = running;
+		state.cisId = cisId;
+		state.shutdownId = shutdownId;
+		state.cis = cis;
+		state.traceFlag = traceFlag;
+		state.calendar = calendar;
+		state.terminateAt = terminateAt;
+		state.minTimeBetweenEvents = minTimeBetweenEvents;
+		state.pauseAt = pauseAt;
+		state.entities = entities;
+		state.entitiesByName = entitiesByName;
+		state.future = future;
+		state.deferred = deferred;
+		state.runnable = runnable;
+		state.waitPredicates = waitPredicates;
+		state.energyPrice = Constants.ENERGY_PRICE;
+		state.energyPrices = Constants.energy_prices;
+		state.vmSlots = Vm.getSlots();
+		state.linkDC = NetDatacenterBroker.linkDC;
+		state.cachedCloudlet = NetDatacenterBroker.cachedcloudlet;
+		state.currentCloudletId = NetworkConstants.currentCloudletId;
+		state.currentAppId = NetworkConstants.currentAppId;
+		state.iteration = NetworkConstants.iteration;
+		state.totalDataTransfer = NetworkConstants.totaldatatransfer;
+		state.profile = PhaseProfiler.snapshot();
+		return SimulationCheckpoint.create(state);
+	}
+
+	/**
+	 * Replaces the current simulation state with a fresh copy of the checkpointed one. The same
+	 * checkpoint can be restored any number of times to run alternative branches.
+	 * 
+	 * @param checkpoint the checkpoint
+	 * @throws IOException if the checkpoint cannot be read
+	 */
+	public static void restore(SimulationCheckpoint checkpoint) throws IOException {
+		SimulationCheckpoint.State state = checkpoint.readState();
+		clock = state.clock;
+		running = state.running;
+		cisId = state.cisId;
+		shutdownId = state.shutdownId;
+		cis = state.cis;
+		traceFlag = state.traceFlag;
+		calendar = state.calendar;
+		terminateAt = state.terminateAt;
+		minTimeBetweenEvents = state.minTimeBetweenEvents;
+		pauseAt = state.pauseAt;
+		entities = state.entities;
+		entitiesByName = state.entitiesByName;
+		future = state.future;
+		deferred = state.deferred;
+		runnable = state.runnable;
+		waitPredicates = state.waitPredicates;
+		paused = false;
+		abruptTerminate = false;
+		Constants.ENERGY_PRICE = state.energyPrice;
+		Constants.energy_prices = state.energyPrices;
+		Vm.setSlots(state.vmSlots);
+		NetDatacenterBroker.linkDC = state.linkDC;
+		NetDatacenterBroker.cachedcloudlet = state.cachedCloudlet;
+		NetworkConstants.currentCloudletId = state.currentCloudletId;
+		NetworkConstants.currentAppId = state.currentAppId;
+		NetworkConstants.iteration = state.iteration;
+		NetworkConstants.totaldatatransfer = state.totalDataTransfer;
+		PhaseProfiler.restore(state.profile);
+	}
+
 	/**
 	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
 	 * in user simulations.
@@ -938,6 +1106,7 @@ public class CloudSim {
 		entitiesByName = null;
 		future = null;
 		deferred = null;
+		runnable = null;
 		clock = 0L;
 		running = false;
 
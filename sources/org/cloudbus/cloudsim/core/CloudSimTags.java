@@ -264,6 +264,50 @@ public class CloudSimTags {
 	public static final int Network_Event_Host = BASE + 47;
 
 	public static final int NextCycle = BASE + 48;
+
+	/**
+	 * Denotes an internal event of the flow-level network of a NetworkDatacenter, generated when a
+	 * flow finishes or is delivered
+	 */
+	public static final int Network_Event_Flow = BASE + 49;
+
+	/**
+	 * Denotes an event of the workflow engine of a NetworkDatacenter, generated when an execution
+	 * stage ends or a host has stages ready to progress
+	 */
+	public static final int Network_Event_Stage = BASE + 50;
+
+	/**
+	 * Denotes an internal event of a Broker, generated when a VM of its workload arrives, or when
+	 * the next arrivals enter the look-ahead window
+	 */
+	public static final int VM_ARRIVAL = BASE + 51;
+
+	/**
+	 * Denotes an internal event of a Broker, generated when a VM of its workload departs and is
+	 * destroyed
+	 */
+	public static final int VM_DEPARTURE = BASE + 52;
+
+	/**
+	 * Denotes a request to create a batch of VMs in a Datacentre, placed together by its
+	 * VmAllocationPolicy
+	 */
+	public static final int VM_CREATE_BATCH = BASE + 53;
+
+	/**
+	 * Denotes a request to create a batch of VMs in a Datacentre, with one acknowledgement for the
+	 * whole batch sent by the Datacentre
+	 */
+	public static final int VM_CREATE_BATCH_ACK = BASE + 54;
+
+	/**
+	 * Denotes a request to create the VM of an arrival of a workload in a Datacentre, whose
+	 * cloudlets are submitted after its creation, with acknowledgement information sent by the
+	 * Datacentre as for {@link #VM_CREATE_ACK}
+	 */
+	public static final int VM_ARRIVAL_CREATE_ACK = BASE + 55;
+
 	/**
 	 * Denotes a request to migrate a new VM crossing Datacenter
 	 */
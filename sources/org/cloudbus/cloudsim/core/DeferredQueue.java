@@ -8,27 +8,35 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 
+import org.cloudbus.cloudsim.util.IdMap;
+
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
+ * This class implements the deferred event queue used by {@link Simulation}. The events are kept
+ * in one linked list per destination entity, in temporal order, so that an entity selects its
+ * events without going through the events of the other entities.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
  * @see SimEvent
  */
-public class DeferredQueue {
+public class DeferredQueue implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/** The events, by destination. */
+	private final IdMap<LinkedList<SimEvent>> lists = new IdMap<LinkedList<SimEvent>>();
 
-	/** The max time. */
-	private double maxTime = -1;
+	/** The number of events. */
+	private int size;
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
@@ -37,12 +45,18 @@ public class DeferredQueue {
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
+		LinkedList<SimEvent> list = lists.get(newEvent.getDestination());
+		if (list == null) {
+			list = new LinkedList<SimEvent>();
+			lists.put(newEvent.getDestination(), list);
+		}
+		size++;
+
 		// The event has to be inserted as the last of all events
 		// with the same event_time(). Yes, this matters.
 		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
+		if (list.isEmpty() || eventTime >= list.getLast().eventTime()) {
 			list.add(newEvent);
-			maxTime = eventTime;
 			return;
 		}
 
@@ -61,12 +75,73 @@ public class DeferredQueue {
 	}
 
 	/**
-	 * Returns an iterator to the events in the queue.
+	 * Returns an iterator to the events in the queue, by destination, and in temporal order for
+	 * each destination.
 	 * 
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+		List<Integer> destinations = new ArrayList<Integer>(lists.keySet());
+		Collections.sort(destinations);
+		final Iterator<Integer> destinationIterator = destinations.iterator();
+		return new Iterator<SimEvent>() {
+
+			/** The iterator of the current destination. */
+			private Iterator<SimEvent> current = Collections.<SimEvent> emptyList().iterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!current.hasNext() && destinationIterator.hasNext()) {
+					current = iterator(destinationIterator.next());
+				}
+				return current.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				hasNext();
+				return current.next();
+			}
+
+			@Override
+			public void remove() {
+				current.remove();
+			}
+
+		};
+	}
+
+	/**
+	 * Returns an iterator to the events of a destination entity, in temporal order.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @return the iterator
+	 */
+	public Iterator<SimEvent> iterator(int destination) {
+		LinkedList<SimEvent> list = lists.get(destination);
+		if (list == null) {
+			return Collections.<SimEvent> emptyList().iterator();
+		}
+		final Iterator<SimEvent> iterator = list.iterator();
+		return new Iterator<SimEvent>() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				size--;
+			}
+
+		};
 	}
 
 	/**
@@ -75,14 +150,26 @@ public class DeferredQueue {
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
-		return list.size();
+		return size;
+	}
+
+	/**
+	 * Returns the number of events of a destination entity.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @return the number of events of the entity
+	 */
+	public int size(int destination) {
+		LinkedList<SimEvent> list = lists.get(destination);
+		return list == null ? 0 : list.size();
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		lists.clear();
+		size = 0;
 	}
 
-}
\ No newline at end of file
+}
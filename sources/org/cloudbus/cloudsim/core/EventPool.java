@@ -0,0 +1,131 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+
+/**
+ * EventPool recycles the {@link SimEvent}s of the simulation kernel. An event sent between
+ * entities is released to the pool by {@link SimEntity#run()} once the
+ * {@link SimEntity#processEvent(SimEvent)} method of its destination returns, and the hold and
+ * create events are released once the kernel has processed them. The next events are then taken
+ * from the pool instead of being allocated.
+ * <p>
+ * An entity must therefore not keep a reference to an event after processing it: it must keep the
+ * data of the event instead. A simulation whose entities keep their events can disable the pool
+ * with {@link #setCapacity(int)}.
+ */
+public class EventPool {
+
+	/** The default number of free events kept. */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/** The free events. */
+	private static SimEvent[] free = new SimEvent[64];
+
+	/** The number of free events. */
+	private static int size;
+
+	/** The maximum number of free events kept, 0 if the pool is disabled. */
+	private static int capacity = DEFAULT_CAPACITY;
+
+	/** The number of events allocated. */
+	private static long allocations;
+
+	/** The number of events taken from the pool. */
+	private static long reuses;
+
+	/**
+	 * Gets an event, from the pool if it has a free one.
+	 * 
+	 * @param evtype the internal event type
+	 * @param time the time of the event
+	 * @param src the source entity
+	 * @param dest the destination entity
+	 * @param tag the user-defined tag
+	 * @param data the data of the event
+	 * @return the event
+	 */
+	static SimEvent obtain(int evtype, double time, int src, int dest, int tag, Object data) {
+		if (size > 0) {
+			reuses++;
+			SimEvent event = free[--size];
+			free[size] = null;
+			return event.init(evtype, time, src, dest, tag, data);
+		}
+		allocations++;
+		return new SimEvent(evtype, time, src, dest, tag, data);
+	}
+
+	/**
+	 * Releases an event to the pool. The event must not be used anymore; releasing it twice has no
+	 * effect.
+	 * 
+	 * @param event the event
+	 */
+	static void release(SimEvent event) {
+		if (size >= capacity || !event.free()) {
+			return;
+		}
+		if (size == free.length) {
+			free = Arrays.copyOf(free, Math.min(2 * size, capacity));
+		}
+		free[size++] = event;
+	}
+
+	/**
+	 * Sets the maximum number of free events kept. With 0, the events are not recycled.
+	 * 
+	 * @param capacity the number of events
+	 */
+	public static void setCapacity(int capacity) {
+		EventPool.capacity = Math.max(0, capacity);
+		if (size > EventPool.capacity) {
+			Arrays.fill(free, EventPool.capacity, size, null);
+			size = EventPool.capacity;
+		}
+	}
+
+	/**
+	 * Gets the maximum number of free events kept.
+	 * 
+	 * @return the number of events
+	 */
+	public static int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of events allocated by the pool.
+	 * 
+	 * @return the number of events
+	 */
+	public static long getNumberOfAllocations() {
+		return allocations;
+	}
+
+	/**
+	 * Gets the number of events taken from the pool instead of being allocated.
+	 * 
+	 * @return the number of events
+	 */
+	public static long getNumberOfReuses() {
+		return reuses;
+	}
+
+}
@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
+
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
@@ -28,7 +30,9 @@ import org.cloudbus.cloudsim.core.predicates.Predicate;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public abstract class SimEntity implements Cloneable {
+public abstract class SimEntity implements Cloneable, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The name. */
 	private String name;
@@ -387,7 +391,8 @@ public abstract class SimEntity implements Cloneable {
 
 	/**
 	 * This method is invoked by the {@link Simulation} class whenever there is an event in the
-	 * deferred queue, which needs to be processed by the entity.
+	 * deferred queue, which needs to be processed by the entity. The event is recycled by the
+	 * {@link EventPool} once the method returns, so the entity must keep its data, not the event.
 	 * 
 	 * @param ev the event to be processed by the entity
 	 */
@@ -404,6 +409,7 @@ public abstract class SimEntity implements Cloneable {
 
 		while (ev != null) {
 			processEvent(ev);
+			EventPool.release(ev);
 			if (state != RUNNABLE) {
 				break;
 			}
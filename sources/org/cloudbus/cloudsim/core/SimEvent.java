@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
+
 /**
  * This class represents a simulation event which is passed between the entities in the simulation.
  * 
@@ -15,13 +17,15 @@ package org.cloudbus.cloudsim.core;
  * @see Simulation
  * @see SimEntity
  */
-public class SimEvent implements Cloneable, Comparable<SimEvent> {
+public class SimEvent implements Cloneable, Comparable<SimEvent>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** internal event type **/
-	private final int etype;
+	private int etype;
 
 	/** time at which event should occur **/
-	private final double time;
+	private double time;
 
 	/** time that the event was removed from the queue for service **/
 	private double endWaitingTime;
@@ -33,13 +37,16 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	private int entDst;
 
 	/** the user defined type of the event **/
-	private final int tag;
+	private int tag;
 
 	/** any data the event is carrying **/
-	private final Object data;
+	private Object data;
 
 	private long serial = -1;
 
+	/** whether the event is free in the {@link EventPool} **/
+	private boolean pooled;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -82,6 +89,38 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		data = null;
 	}
 
+	/**
+	 * Sets all the fields of an event taken from the {@link EventPool}.
+	 * 
+	 * @return the event
+	 */
+	SimEvent init(int evtype, double time, int src, int dest, int tag, Object edata) {
+		etype = evtype;
+		this.time = time;
+		endWaitingTime = -1.0;
+		entSrc = src;
+		entDst = dest;
+		this.tag = tag;
+		data = edata;
+		serial = -1;
+		pooled = false;
+		return this;
+	}
+
+	/**
+	 * Marks the event as free in the {@link EventPool}, or checks whether it already is.
+	 * 
+	 * @return false if the event was already free
+	 */
+	boolean free() {
+		if (pooled) {
+			return false;
+		}
+		pooled = true;
+		data = null;
+		return true;
+	}
+
 	protected void setSerial(long serial) {
 		this.serial = serial;
 	}
@@ -0,0 +1,267 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.network.datacenter.NetworkDatacenter;
+import org.cloudbus.cloudsim.util.PhaseProfiler;
+
+/**
+ * SimulationCheckpoint is a compact binary snapshot of a whole simulation: the clock, the future
+ * and deferred event queues, the wait predicates and every entity together with everything it
+ * references (datacenters, hosts, VMs with their allocation and history, brokers, cost
+ * accumulators), plus the mutable static state of the models (energy price, VM slots, network
+ * counters, the datacenter linked to the network brokers and the PhaseProfiler statistics). A
+ * checkpoint is taken with {@link CloudSim#checkpoint()} and restored with
+ * {@link CloudSim#restore(SimulationCheckpoint)}. Every restore builds a fresh copy of the state,
+ * so the same checkpoint can be restored several times to run what-if branches from a shared
+ * prefix.
+ * <p>
+ * The outputs are not captured: the PrintWriters of the power examples' Constants and the interval
+ * output of the PhaseProfiler keep what was written before the restore, so the branches should be
+ * given their own outputs before they are restored. The static BRITE {@link
+ * org.cloudbus.cloudsim.NetworkTopology} is not captured either, and a simulation using it is
+ * rejected by {@link CloudSim#checkpoint()}.
+ * </p>
+ *
+ * @see CloudSim#runUntil(double)
+ */
+public class SimulationCheckpoint {
+
+	/** The magic number at the beginning of a checkpoint file. */
+	private static final int MAGIC = 0x43534350;
+
+	/** The simulation clock at which the checkpoint was taken. */
+	private final double clock;
+
+	/** The compressed serialized state. */
+	private final byte[] data;
+
+	/**
+	 * Instantiates a new checkpoint.
+	 *
+	 * @param clock the simulation clock
+	 * @param data the compressed serialized state
+	 */
+	private SimulationCheckpoint(double clock, byte[] data) {
+		this.clock = clock;
+		this.data = data;
+	}
+
+	/**
+	 * Serializes the given state.
+	 *
+	 * @param state the state
+	 * @return the checkpoint
+	 * @throws IOException if some object of the state is not serializable
+	 */
+	static SimulationCheckpoint create(State state) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(bytes));
+		try {
+			out.writeObject(state);
+		} finally {
+			out.close();
+		}
+		return new SimulationCheckpoint(state.clock, bytes.toByteArray());
+	}
+
+	/**
+	 * Deserializes a new copy of the state.
+	 *
+	 * @return the state
+	 * @throws IOException if the checkpoint is corrupted
+	 */
+	State readState() throws IOException {
+		ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(data)));
+		try {
+			return (State) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Checkpoint refers to an unknown class: " + e.getMessage());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes the checkpoint to a stream.
+	 *
+	 * @param output the output stream
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeTo(OutputStream output) throws IOException {
+		DataOutputStream out = new DataOutputStream(output);
+		out.writeInt(MAGIC);
+		out.writeDouble(clock);
+		out.writeInt(data.length);
+		out.write(data);
+		out.flush();
+	}
+
+	/**
+	 * Reads a checkpoint from a stream.
+	 *
+	 * @param input the input stream
+	 * @return the checkpoint
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static SimulationCheckpoint readFrom(InputStream input) throws IOException {
+		DataInputStream in = new DataInputStream(input);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a simulation checkpoint.");
+		}
+		double clock = in.readDouble();
+		byte[] data = new byte[in.readInt()];
+		in.readFully(data);
+		return new SimulationCheckpoint(clock, data);
+	}
+
+	/**
+	 * Saves the checkpoint to a file.
+	 *
+	 * @param path the file path
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void save(String path) throws IOException {
+		OutputStream output = new FileOutputStream(path);
+		try {
+			writeTo(output);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Loads a checkpoint from a file.
+	 *
+	 * @param path the file path
+	 * @return the checkpoint
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static SimulationCheckpoint load(String path) throws IOException {
+		InputStream input = new FileInputStream(path);
+		try {
+			return readFrom(input);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Gets the simulation clock at which the checkpoint was taken.
+	 *
+	 * @return the clock
+	 */
+	public double getClock() {
+		return clock;
+	}
+
+	/**
+	 * Gets the size of the compressed state in bytes.
+	 *
+	 * @return the size
+	 */
+	public int getSize() {
+		return data.length;
+	}
+
+	/**
+	 * The static state of {@link CloudSim} and of the simulation parameters that change while the
+	 * simulation runs. The entities are reached through the entity list, everything else they use
+	 * is serialized along with them.
+	 */
+	static class State implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		double clock;
+
+		boolean running;
+
+		int cisId;
+
+		int shutdownId;
+
+		CloudInformationService cis;
+
+		boolean traceFlag;
+
+		Calendar calendar;
+
+		double terminateAt;
+
+		double minTimeBetweenEvents;
+
+		long pauseAt;
+
+		List<SimEntity> entities;
+
+		Map<String, SimEntity> entitiesByName;
+
+		FutureQueue future;
+
+		DeferredQueue deferred;
+
+		BitSet runnable;
+
+		Map<Integer, Predicate> waitPredicates;
+
+		double energyPrice;
+
+		ArrayList<Double> energyPrices;
+
+		Vm.Slots vmSlots;
+
+		NetworkDatacenter linkDC;
+
+		int cachedCloudlet;
+
+		int currentCloudletId;
+
+		int currentAppId;
+
+		int iteration;
+
+		int totalDataTransfer;
+
+		PhaseProfiler.Snapshot profile;
+
+	}
+
+}
@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim.core.predicates;
 
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.util.IdMap;
 
 /**
  * A predicate to select events with specific tags.
@@ -20,6 +21,11 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class PredicateType extends Predicate {
 
+	private static final long serialVersionUID = 1L;
+
+	/** The shared predicates of the single tags, by tag. */
+	private static final IdMap<PredicateType> byTag = new IdMap<PredicateType>();
+
 	/** The tags. */
 	private final int[] tags;
 
@@ -41,6 +47,22 @@ public class PredicateType extends Predicate {
 		this.tags = tags.clone();
 	}
 
+	/**
+	 * Gets the predicate that selects the events with a tag. The predicates are immutable, so a
+	 * single instance per tag is shared instead of creating one at every call.
+	 * 
+	 * @param tag an event tag value
+	 * @return the predicate
+	 */
+	public static synchronized PredicateType of(int tag) {
+		PredicateType predicate = byTag.get(tag);
+		if (predicate == null) {
+			predicate = new PredicateType(tag);
+			byTag.put(tag, predicate);
+		}
+		return predicate;
+	}
+
 	/**
 	 * The match function called by <code>Sim_system</code>, not used directly by the user.
 	 * 
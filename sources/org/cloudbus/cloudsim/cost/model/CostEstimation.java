@@ -12,12 +12,16 @@
 
 package org.cloudbus.cloudsim.cost.model;
 
+import java.io.Serializable;
+
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.examples.power.Constants;
 import org.cloudbus.cloudsim.power.PowerHost;
 
-public abstract class CostEstimation{
+public abstract class CostEstimation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/*
 	 * (non-Javadoc)
@@ -12,10 +12,12 @@
 
 package org.cloudbus.cloudsim.cost.model;
 
+import java.io.Serializable;
+
 import org.cloudbus.cloudsim.Vm;
 
 
-public interface CostModel {
+public interface CostModel extends Serializable {
 
 	/**
 	 * Get SLA cost due to Migrations, Server overloads or Server crashes.
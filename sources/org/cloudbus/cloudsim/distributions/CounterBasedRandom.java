@@ -0,0 +1,95 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.distributions;
+
+/**
+ * CounterBasedRandom is a stateless random number generator: a variate is a hash of its key, a
+ * seed, a stream and a counter, mixed by the SplitMix64 finalizer. The same key always gives the
+ * same variate, whatever the order of the calls and the thread, and no generator state is stored,
+ * so any number of streams (e.g., one per VM) cost nothing until sampled.
+ */
+public final class CounterBasedRandom {
+
+	/** The golden ratio increment of SplitMix64. */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Not instantiable.
+	 */
+	private CounterBasedRandom() {
+	}
+
+	/**
+	 * Gets the 64 random bits of a key.
+	 * 
+	 * @param seed the seed
+	 * @param stream the stream, e.g., the id of a VM
+	 * @param counter the counter, e.g., a time bucket
+	 * @return the bits
+	 */
+	public static long nextLong(long seed, long stream, long counter) {
+		long z = mix(seed + GOLDEN_GAMMA);
+		z = mix(z ^ (stream + GOLDEN_GAMMA));
+		return mix(z ^ (counter * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Gets the uniform variate of a key, in the open interval (0, 1).
+	 * 
+	 * @param seed the seed
+	 * @param stream the stream, e.g., the id of a VM
+	 * @param counter the counter, e.g., a time bucket
+	 * @return the variate
+	 */
+	public static double nextDouble(long seed, long stream, long counter) {
+		return toDouble(nextLong(seed, stream, counter));
+	}
+
+	/**
+	 * Gets a uniform variate in the open interval (0, 1) from 64 random bits.
+	 * 
+	 * @param bits the bits
+	 * @return the variate
+	 */
+	public static double toDouble(long bits) {
+		return ((bits >>> 11) + 0.5) * 0x1.0p-53;
+	}
+
+	/**
+	 * Gets 64 other random bits from random bits: the next variate of the same key.
+	 * 
+	 * @param bits the bits
+	 * @return the other bits
+	 */
+	public static long next(long bits) {
+		return mix(bits + GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Mixes the bits of a value, with the finalizer of SplitMix64.
+	 * 
+	 * @param z the value
+	 * @return the mixed value
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -16,7 +16,9 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class ExponentialDistr implements ContinuousDistribution {
+public class ExponentialDistr implements ContinuousDistribution, UniformTransform {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The num gen. */
 	private final Random numGen;
@@ -61,4 +63,13 @@ public class ExponentialDistr implements ContinuousDistribution {
 		return -mean * Math.log(numGen.nextDouble());
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.distributions.UniformTransform#transform(double, double)
+	 */
+	@Override
+	public double transform(double u1, double u2) {
+		return -mean * Math.log(u1);
+	}
+
 }
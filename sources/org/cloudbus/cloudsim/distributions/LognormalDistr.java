@@ -16,7 +16,9 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class LognormalDistr implements ContinuousDistribution {
+public class LognormalDistr implements ContinuousDistribution, UniformTransform {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The num gen. */
 	private final Random numGen;
@@ -74,4 +76,14 @@ public class LognormalDistr implements ContinuousDistribution {
 		return Math.pow(Math.E, mean + dev * n);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.distributions.UniformTransform#transform(double, double)
+	 */
+	@Override
+	public double transform(double u1, double u2) {
+		double n = Math.sqrt(-2 * Math.log(u1)) * Math.sin(2 * Math.PI * u2);
+		return Math.pow(Math.E, mean + dev * n);
+	}
+
 }
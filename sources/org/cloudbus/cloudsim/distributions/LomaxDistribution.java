@@ -18,6 +18,8 @@ import java.util.Random;
  */
 public class LomaxDistribution extends ParetoDistr implements ContinuousDistribution {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The shift. */
 	private final double shift;
 
@@ -65,4 +67,13 @@ public class LomaxDistribution extends ParetoDistr implements ContinuousDistribu
 		return super.sample() - shift;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.distributions.ParetoDistr#transform(double, double)
+	 */
+	@Override
+	public double transform(double u1, double u2) {
+		return super.transform(u1, u2) - shift;
+	}
+
 }
@@ -17,7 +17,9 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class ParetoDistr implements ContinuousDistribution {
+public class ParetoDistr implements ContinuousDistribution, UniformTransform {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The num gen. */
 	private final Random numGen;
@@ -70,4 +72,13 @@ public class ParetoDistr implements ContinuousDistribution {
 		return location / Math.pow(numGen.nextDouble(), 1 / shape);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.distributions.UniformTransform#transform(double, double)
+	 */
+	@Override
+	public double transform(double u1, double u2) {
+		return location / Math.pow(u1, 1 / shape);
+	}
+
 }
@@ -0,0 +1,38 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.distributions;
+
+import java.io.Serializable;
+
+/**
+ * Interface to be implemented by a distribution that can be sampled from uniform variates given by
+ * the caller, instead of its own random number generator. A stateless generator, such as
+ * {@link CounterBasedRandom}, then gives the same sample for the same key, in any order.
+ */
+public interface UniformTransform extends Serializable {
+
+	/**
+	 * Transforms uniform variates into a sample of the distribution.
+	 * 
+	 * @param u1 a uniform variate in (0, 1)
+	 * @param u2 another uniform variate in (0, 1), ignored by the distributions that need one
+	 * @return the sample
+	 */
+	double transform(double u1, double u2);
+
+}
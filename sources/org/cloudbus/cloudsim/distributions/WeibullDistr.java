@@ -17,7 +17,9 @@ import java.util.Random;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public class WeibullDistr implements ContinuousDistribution {
+public class WeibullDistr implements ContinuousDistribution, UniformTransform {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The num gen. */
 	private final Random numGen;
@@ -70,4 +72,13 @@ public class WeibullDistr implements ContinuousDistribution {
 		return beta * Math.pow(-Math.log(numGen.nextDouble()), 1 / alpha);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.distributions.UniformTransform#transform(double, double)
+	 */
+	@Override
+	public double transform(double u1, double u2) {
+		return beta * Math.pow(-Math.log(u1), 1 / alpha);
+	}
+
 }
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.failures.model;
 
+import java.io.Serializable;
 import java.util.Random;
 
 import org.cloudbus.cloudsim.examples.power.Constants;
@@ -27,7 +28,9 @@ import org.cloudbus.cloudsim.power.PowerHost;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
-public class HostFailure {
+public class HostFailure implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public static final double maxRange = 1.0;
 	public static final double minRange = 0.0;
@@ -11,11 +11,14 @@ package org.cloudbus.cloudsim.lists;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.RandomAccess;
 
 import org.cloudbus.cloudsim.Cloudlet;
 
 /**
- * CloudletList is a collection of operations on lists of Cloudlets.
+ * CloudletList is a collection of operations on lists of Cloudlets. The cloudlets are looked up by
+ * id at the position of the id first, as the ids of the cloudlets of a list are usually their
+ * positions.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
@@ -30,6 +33,10 @@ public class CloudletList {
 	 * @return the by id
 	 */
 	public static <T extends Cloudlet> T getById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof RandomAccess && id >= 0 && id < cloudletList.size()
+				&& cloudletList.get(id).getCloudletId() == id) {
+			return cloudletList.get(id);
+		}
 		for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
 				return cloudlet;
@@ -45,6 +52,10 @@ public class CloudletList {
 	 * @return - the position of the cloudlet with that id, or -1 otherwise.
 	 */
 	public static <T extends Cloudlet> int getPositionById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof RandomAccess && id >= 0 && id < cloudletList.size()
+				&& cloudletList.get(id).getCloudletId() == id) {
+			return id;
+		}
 		int i = 0 ;
 	        for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
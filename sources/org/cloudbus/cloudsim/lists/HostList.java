@@ -9,11 +9,13 @@
 package org.cloudbus.cloudsim.lists;
 
 import java.util.List;
+import java.util.RandomAccess;
 
 import org.cloudbus.cloudsim.Host;
 
 /**
- * HostList is a collection of operations on lists of hosts.
+ * HostList is a collection of operations on lists of hosts. The hosts are looked up by id at the
+ * position of the id first, as the ids of the hosts of a datacenter are usually their positions.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
@@ -32,6 +34,10 @@ public class HostList {
 	 * @post $none
 	 */
 	public static <T extends Host> T getById(List<T> hostList, int id) {
+		if (hostList instanceof RandomAccess && id >= 0 && id < hostList.size()
+				&& hostList.get(id).getId() == id) {
+			return hostList.get(id);
+		}
 		for (T host : hostList) {
 			if (host.getId() == id) {
 				return host;
@@ -9,11 +9,13 @@
 package org.cloudbus.cloudsim.lists;
 
 import java.util.List;
+import java.util.RandomAccess;
 
 import org.cloudbus.cloudsim.Vm;
 
 /**
- * VmList is a collection of operations on lists of VMs.
+ * VmList is a collection of operations on lists of VMs. The VMs are looked up by id at the
+ * position of the id first, as the ids of the VMs of a list are usually their positions.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
@@ -30,6 +32,10 @@ public class VmList {
 	 * @post $none
 	 */
 	public static <T extends Vm> T getById(List<T> vmList, int id) {
+		if (vmList instanceof RandomAccess && id >= 0 && id < vmList.size()
+				&& vmList.get(id).getId() == id) {
+			return vmList.get(id);
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id) {
 				return vm;
@@ -49,6 +55,10 @@ public class VmList {
 	 * @post $none
 	 */
 	public static <T extends Vm> T getByIdAndUserId(List<T> vmList, int id, int userId) {
+		if (vmList instanceof RandomAccess && id >= 0 && id < vmList.size()
+				&& vmList.get(id).getId() == id && vmList.get(id).getUserId() == userId) {
+			return vmList.get(id);
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id && vm.getUserId() == userId) {
 				return vm;
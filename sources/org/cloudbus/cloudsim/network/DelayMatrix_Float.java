@@ -64,6 +64,65 @@ public class DelayMatrix_Float {
 		return mDelayMatrix[srcID][destID];
 	}
 
+	/**
+	 * updates the delays after a link was added or the delay of a link decreased, in O(n^2) instead
+	 * of recomputing all pairs shortest paths. A path can only become shorter by using the new
+	 * link, so every pair is relaxed through it. An increased delay cannot be handled this way and
+	 * needs a new matrix.
+	 * 
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the new delay of the link
+	 * @param directed true if the matrix is directed, false otherwise
+	 */
+	public void decreaseLinkDelay(int srcID, int destID, float delay, boolean directed) {
+		relaxLink(srcID, destID, delay);
+
+		if (!directed) {
+			relaxLink(destID, srcID, delay);
+		}
+	}
+
+	/**
+	 * relaxes every pair of nodes through the given directed link
+	 * 
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link
+	 */
+	private void relaxLink(int srcID, int destID, float delay) {
+		if (srcID == destID || mDelayMatrix[srcID][destID] <= delay) {
+			// the link does not shorten any path
+			return;
+		}
+
+		float[] fromDest = mDelayMatrix[destID];
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			float toSrc = row == srcID ? 0 : mDelayMatrix[row][srcID];
+			if (toSrc == Float.MAX_VALUE) {
+				continue;
+			}
+
+			float[] fromRow = mDelayMatrix[row];
+			for (int col = 0; col < mTotalNodeNum; ++col) {
+				if (row == col) {
+					continue;
+				}
+				float candidate = toSrc + delay + (col == destID ? 0 : fromDest[col]);
+				if (candidate < fromRow[col]) {
+					fromRow[col] = candidate;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of nodes in the distance-aware-topology
+	 */
+	public int getNumberOfNodes() {
+		return mTotalNodeNum;
+	}
+
 	/**
 	 * creates all internal necessary network-distance structures from the given graph for
 	 * similarity we assume all kommunikation-distances are symmetrical thus leads to an undirected
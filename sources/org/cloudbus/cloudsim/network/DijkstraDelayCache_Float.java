@@ -0,0 +1,396 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class computes the delays of a large sparse topology on demand. Instead of the dense
+ * all-pairs matrix of {@link DelayMatrix_Float}, it keeps the adjacency lists of the graph and runs
+ * Dijkstra from a source node the first time a delay from that node is requested. The resulting
+ * rows of delays are kept in a least recently used cache, so the memory is bounded by the cache
+ * size times the number of nodes.
+ * <p>
+ * As in {@link DelayMatrix_Float}, the last link between two nodes defines their link delay, and a
+ * link with delay 0 means that the nodes are not connected. Adding a link or decreasing its delay
+ * updates the cached rows incrementally, while increasing the delay of a link clears the cache.
+ */
+public class DijkstraDelayCache_Float {
+
+	/**
+	 * number of nodes in the distance-aware-topology
+	 */
+	protected int mTotalNodeNum = 0;
+
+	/**
+	 * true if the links are directed
+	 */
+	private final boolean directed;
+
+	/**
+	 * maximum number of cached rows
+	 */
+	private final int cacheSize;
+
+	/**
+	 * neighbours of every node
+	 */
+	private int[][] neighbours;
+
+	/**
+	 * delays of the links to the neighbours of every node
+	 */
+	private float[][] linkDelays;
+
+	/**
+	 * number of neighbours of every node
+	 */
+	private int[] degrees;
+
+	/**
+	 * cached rows of delays, by source node, in access order
+	 */
+	private final Map<Integer, float[]> rows;
+
+	/**
+	 * binary heap of the nodes to visit, ordered by their delay in the current row
+	 */
+	private int[] heap;
+
+	/**
+	 * position of every node in the heap, or -1 if it is not in the heap
+	 */
+	private int[] heapPosition;
+
+	/**
+	 * number of nodes in the heap
+	 */
+	private int heapSize;
+
+	/**
+	 * creates the adjacency lists of the given graph
+	 *
+	 * @param graph the topological graph as source-information
+	 * @param directed true if the links are directed, false otherwise
+	 * @param cacheSize the maximum number of cached rows
+	 */
+	public DijkstraDelayCache_Float(TopologicalGraph graph, boolean directed, final int cacheSize) {
+		this.directed = directed;
+		this.cacheSize = cacheSize;
+		rows = new LinkedHashMap<Integer, float[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+				return size() > cacheSize;
+			}
+		};
+
+		mTotalNodeNum = graph.getNumberOfNodes();
+		neighbours = new int[mTotalNodeNum][];
+		linkDelays = new float[mTotalNodeNum][];
+		degrees = new int[mTotalNodeNum];
+		heap = new int[mTotalNodeNum];
+		heapPosition = new int[mTotalNodeNum];
+		Arrays.fill(heapPosition, -1);
+
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			putLink(edge.getSrcNodeID(), edge.getDestNodeID(), edge.getLinkDelay());
+		}
+	}
+
+	/**
+	 * @param srcID the id of the source-node
+	 * @param destID the id of the destination-node
+	 * @return the delay-count between the given two nodes
+	 */
+	public float getDelay(int srcID, int destID) {
+		// check the nodeIDs against internal array-boundarys
+		if (srcID >= mTotalNodeNum || destID >= mTotalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+
+		if (srcID == destID) {
+			return 0;
+		}
+
+		float[] row = rows.get(srcID);
+		if (row == null && !directed) {
+			// the delays are symmetrical, the row of the destination is as good
+			float[] destRow = rows.get(destID);
+			if (destRow != null) {
+				return destRow[srcID];
+			}
+		}
+		if (row == null) {
+			row = computeRow(srcID);
+			rows.put(srcID, row);
+		}
+		return row[destID];
+	}
+
+	/**
+	 * sets the delay of the link between two nodes, adding the link if it does not exist, and
+	 * updates the cached rows
+	 *
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link, 0 to remove it
+	 */
+	public void setLinkDelay(int srcID, int destID, float delay) {
+		float previous = putLink(srcID, destID, delay);
+
+		if (delay == 0 || delay > previous) {
+			// some paths may be longer now, they cannot be updated incrementally
+			rows.clear();
+			return;
+		}
+
+		for (float[] row : rows.values()) {
+			relaxLink(row, srcID, destID, delay);
+			if (!directed) {
+				relaxLink(row, destID, srcID, delay);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of nodes in the distance-aware-topology
+	 */
+	public int getNumberOfNodes() {
+		return mTotalNodeNum;
+	}
+
+	/**
+	 * @return the maximum number of cached rows
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @return the number of cached rows
+	 */
+	public int getNumberOfCachedRows() {
+		return rows.size();
+	}
+
+	/**
+	 * sets the delay of a link in the adjacency lists, in both directions if the graph is
+	 * undirected
+	 *
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link, 0 to remove it
+	 * @return the previous delay of the link, or Float.MAX_VALUE if there was no link
+	 */
+	private float putLink(int srcID, int destID, float delay) {
+		float previous = putNeighbour(srcID, destID, delay);
+
+		if (!directed) {
+			previous = Math.min(previous, putNeighbour(destID, srcID, delay));
+		}
+		return previous;
+	}
+
+	/**
+	 * sets the delay of a directed link in the adjacency list of its source
+	 *
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link, 0 to remove it
+	 * @return the previous delay of the link, or Float.MAX_VALUE if there was no link
+	 */
+	private float putNeighbour(int srcID, int destID, float delay) {
+		int[] nodes = neighbours[srcID];
+		int degree = degrees[srcID];
+
+		for (int i = 0; i < degree; i++) {
+			if (nodes[i] == destID) {
+				float previous = linkDelays[srcID][i];
+				if (delay == 0) {
+					// remove the link, moving the last one in its place
+					nodes[i] = nodes[degree - 1];
+					linkDelays[srcID][i] = linkDelays[srcID][degree - 1];
+					degrees[srcID]--;
+				} else {
+					linkDelays[srcID][i] = delay;
+				}
+				return previous;
+			}
+		}
+
+		if (delay == 0) {
+			return Float.MAX_VALUE;
+		}
+
+		if (nodes == null) {
+			nodes = neighbours[srcID] = new int[4];
+			linkDelays[srcID] = new float[4];
+		} else if (degree == nodes.length) {
+			nodes = neighbours[srcID] = Arrays.copyOf(nodes, 2 * degree);
+			linkDelays[srcID] = Arrays.copyOf(linkDelays[srcID], 2 * degree);
+		}
+		nodes[degree] = destID;
+		linkDelays[srcID][degree] = delay;
+		degrees[srcID]++;
+		return Float.MAX_VALUE;
+	}
+
+	/**
+	 * computes the delays from a node to all the other nodes with Dijkstra
+	 *
+	 * @param srcID the id of the source-node
+	 * @return the row of delays, Float.MAX_VALUE for the unreachable nodes
+	 */
+	private float[] computeRow(int srcID) {
+		float[] row = new float[mTotalNodeNum];
+		Arrays.fill(row, Float.MAX_VALUE);
+		row[srcID] = 0;
+		offer(row, srcID);
+		propagate(row);
+		return row;
+	}
+
+	/**
+	 * updates a row of delays after the delay of a link decreased, visiting only the nodes whose
+	 * delay decreases
+	 *
+	 * @param row the row of delays
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link
+	 */
+	private void relaxLink(float[] row, int srcID, int destID, float delay) {
+		if (row[srcID] == Float.MAX_VALUE || row[srcID] + delay >= row[destID]) {
+			return;
+		}
+		row[destID] = row[srcID] + delay;
+		offer(row, destID);
+		propagate(row);
+	}
+
+	/**
+	 * visits the nodes in the heap in order of delay, relaxing their links
+	 *
+	 * @param row the row of delays
+	 */
+	private void propagate(float[] row) {
+		while (heapSize > 0) {
+			int node = poll(row);
+			int[] nodes = neighbours[node];
+			float[] delays = linkDelays[node];
+			for (int i = 0; i < degrees[node]; i++) {
+				float candidate = row[node] + delays[i];
+				if (candidate < row[nodes[i]]) {
+					row[nodes[i]] = candidate;
+					offer(row, nodes[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * adds a node to the heap, or moves it up if its delay decreased
+	 *
+	 * @param row the row of delays
+	 * @param node the node
+	 */
+	private void offer(float[] row, int node) {
+		int position = heapPosition[node];
+		if (position == -1) {
+			position = heapSize++;
+			heap[position] = node;
+			heapPosition[node] = position;
+		}
+		siftUp(row, position);
+	}
+
+	/**
+	 * removes the node with the smallest delay from the heap
+	 *
+	 * @param row the row of delays
+	 * @return the node
+	 */
+	private int poll(float[] row) {
+		int node = heap[0];
+		heapPosition[node] = -1;
+		heapSize--;
+		if (heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapPosition[heap[0]] = 0;
+			siftDown(row, 0);
+		}
+		return node;
+	}
+
+	/**
+	 * moves the node at the given position up the heap
+	 *
+	 * @param row the row of delays
+	 * @param position the position
+	 */
+	private void siftUp(float[] row, int position) {
+		int node = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (row[heap[parent]] <= row[node]) {
+				break;
+			}
+			heap[position] = heap[parent];
+			heapPosition[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = node;
+		heapPosition[node] = position;
+	}
+
+	/**
+	 * moves the node at the given position down the heap
+	 *
+	 * @param row the row of delays
+	 * @param position the position
+	 */
+	private void siftDown(float[] row, int position) {
+		int node = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && row[heap[child + 1]] < row[heap[child]]) {
+				child++;
+			}
+			if (row[node] <= row[heap[child]]) {
+				break;
+			}
+			heap[position] = heap[child];
+			heapPosition[heap[position]] = position;
+			position = child;
+		}
+		heap[position] = node;
+		heapPosition[node] = position;
+	}
+
+}
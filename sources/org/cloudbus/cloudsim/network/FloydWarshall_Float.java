@@ -32,14 +32,14 @@ public class FloydWarshall_Float {
 	// private float[][] adjMatrix;
 
 	/**
-	 * Matrices used in dynamic programming
+	 * Delay matrix, updated in place while iterating over k
 	 */
-	private float[][] Dk, Dk_minus_one;
+	private float[][] Dk;
 
 	/**
-	 * Matrices used in dynamic programming
+	 * Predecessor matrix, updated in place while iterating over k
 	 */
-	private int[][] Pk, Pk_minus_one;
+	private int[][] Pk;
 
 	/**
 	 * initialization matrix
@@ -49,40 +49,40 @@ public class FloydWarshall_Float {
 	public void initialize(int numVertices) {
 		this.numVertices = numVertices;
 
-		// Initialize Dk matrices.
+		// Initialize Dk matrix.
 		Dk = new float[numVertices][];
-		Dk_minus_one = new float[numVertices][];
 		for (int i = 0; i < numVertices; i++) {
 			Dk[i] = new float[numVertices];
-			Dk_minus_one[i] = new float[numVertices];
 		}
 
-		// Initialize Pk matrices.
+		// Initialize Pk matrix.
 		Pk = new int[numVertices][];
-		Pk_minus_one = new int[numVertices][];
 		for (int i = 0; i < numVertices; i++) {
 			Pk[i] = new int[numVertices];
-			Pk_minus_one[i] = new int[numVertices];
 		}
 
 	}
 
 	/**
-	 * calculates all pairs delay
+	 * calculates all pairs delay. The matrices are updated in place: row k and column k do not
+	 * change while iterating over k, so D_k can overwrite D_k-1 without the copy passes.
 	 * 
 	 * @param adjMatrix original delay matrix
 	 * @return all pairs delay matrix
 	 */
 	public float[][] allPairsShortestPaths(float[][] adjMatrix) {
-		// Dk_minus_one = weights when k = -1
+		// Dk = weights when k = -1
 		for (int i = 0; i < numVertices; i++) {
 			for (int j = 0; j < numVertices; j++) {
-				if (adjMatrix[i][j] != 0) {
-					Dk_minus_one[i][j] = adjMatrix[i][j];
-					Pk_minus_one[i][j] = i;
+				if (i == j) {
+					Dk[i][j] = 0;
+					Pk[i][j] = -1;
+				} else if (adjMatrix[i][j] != 0) {
+					Dk[i][j] = adjMatrix[i][j];
+					Pk[i][j] = i;
 				} else {
-					Dk_minus_one[i][j] = Float.MAX_VALUE;
-					Pk_minus_one[i][j] = -1;
+					Dk[i][j] = Float.MAX_VALUE;
+					Pk[i][j] = -1;
 				}
 				// NOTE: we have set the value to infinity and will exploit
 				// this to avoid a comparison.
@@ -90,41 +90,30 @@ public class FloydWarshall_Float {
 		}
 
 		// Now iterate over k.
-
 		for (int k = 0; k < numVertices; k++) {
+			float[] Dk_k = Dk[k];
+			int[] Pk_k = Pk[k];
 
 			// Compute Dk[i][j], for each i,j
-
 			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					if (i != j) {
-
-						// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
-						if (Dk_minus_one[i][j] <= Dk_minus_one[i][k] + Dk_minus_one[k][j]) {
-							Dk[i][j] = Dk_minus_one[i][j];
-							Pk[i][j] = Pk_minus_one[i][j];
-						} else {
-							Dk[i][j] = Dk_minus_one[i][k] + Dk_minus_one[k][j];
-							Pk[i][j] = Pk_minus_one[k][j];
-						}
-					} else {
-						Pk[i][j] = -1;
-					}
+				float d_ik = Dk[i][k];
+				if (i == k || d_ik == Float.MAX_VALUE) {
+					// no path through k can be shorter
+					continue;
 				}
-			}
-
-			// Now store current Dk into D_k-1
-			for (int i = 0; i < numVertices; i++) {
+				float[] Dk_i = Dk[i];
+				int[] Pk_i = Pk[i];
 				for (int j = 0; j < numVertices; j++) {
-					Dk_minus_one[i][j] = Dk[i][j];
-					Pk_minus_one[i][j] = Pk[i][j];
+					// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
+					if (i != j && Dk_i[j] > d_ik + Dk_k[j]) {
+						Dk_i[j] = d_ik + Dk_k[j];
+						Pk_i[j] = Pk_k[j];
+					}
 				}
 			}
-
 		} // end-outermost-for
 
 		return Dk;
-
 	}
 
 	/**
@@ -0,0 +1,327 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Host;
+
+/**
+ * DatacenterTopologyBuilder creates the switches of multi-tier datacenter networks, k-ary fat-trees
+ * and leaf-spine fabrics, connects the hosts of a {@link NetworkDatacenter} to them and compiles
+ * the {@link RoutingTable} of every switch. Routing tables can also be compiled for a network
+ * whose switches were connected by hand, as long as the uplinks and downlinks of the switches
+ * describe the links.
+ */
+public class DatacenterTopologyBuilder {
+
+	/**
+	 * Creates a k-ary fat-tree: k pods of k/2 edge and k/2 aggregate switches, and (k/2)^2 core
+	 * switches. Every edge switch connects k/2 hosts and all the aggregate switches of its pod, and
+	 * the j-th aggregate switch of every pod connects the j-th group of k/2 core switches. The hosts
+	 * of the datacenter are connected to the edge switches in order, and the routing tables are
+	 * compiled.
+	 *
+	 * @param dc the datacenter
+	 * @param k the number of ports of the switches, an even number
+	 * @throws IllegalArgumentException if k is not even or the datacenter has more than k^3/4
+	 *         hosts
+	 */
+	public static void buildFatTree(NetworkDatacenter dc, int k) {
+		if (k < 2 || k % 2 != 0) {
+			throw new IllegalArgumentException("The number of ports of a fat-tree must be even, got " + k);
+		}
+		int half = k / 2;
+		List<Host> hosts = dc.getHostList();
+		if (hosts.size() > k * half * half) {
+			throw new IllegalArgumentException("A " + k + "-ary fat-tree connects at most " + k * half * half
+					+ " hosts, the datacenter has " + hosts.size());
+		}
+
+		RootSwitch[] cores = new RootSwitch[half * half];
+		for (int i = 0; i < cores.length; i++) {
+			cores[i] = new RootSwitch("Core" + i, NetworkConstants.ROOT_LEVEL, dc);
+			cores[i].numport = k;
+			dc.Switchlist.put(cores[i].getId(), cores[i]);
+		}
+
+		EdgeSwitch[] edges = new EdgeSwitch[k * half];
+		for (int pod = 0; pod < k; pod++) {
+			AggregateSwitch[] aggs = new AggregateSwitch[half];
+			for (int j = 0; j < half; j++) {
+				aggs[j] = new AggregateSwitch("Agg" + pod + "_" + j, NetworkConstants.Agg_LEVEL, dc);
+				aggs[j].numport = k;
+				dc.Switchlist.put(aggs[j].getId(), aggs[j]);
+				for (int c = 0; c < half; c++) {
+					connect(aggs[j], cores[j * half + c]);
+				}
+			}
+			for (int j = 0; j < half; j++) {
+				EdgeSwitch edge = new EdgeSwitch("Edge" + pod + "_" + j, NetworkConstants.EDGE_LEVEL, dc);
+				edge.numport = k;
+				dc.Switchlist.put(edge.getId(), edge);
+				for (AggregateSwitch agg : aggs) {
+					connect(edge, agg);
+				}
+				edges[pod * half + j] = edge;
+			}
+		}
+
+		for (int i = 0; i < hosts.size(); i++) {
+			attachHost(edges[i / half], (NetworkHost) hosts.get(i));
+		}
+
+		compileRoutingTables(dc);
+	}
+
+	/**
+	 * Creates a leaf-spine fabric: every leaf (edge) switch connects to every spine switch, and the
+	 * hosts of the datacenter are spread in order over the leaves. The spines are aggregate
+	 * switches without uplinks. The routing tables are compiled.
+	 *
+	 * @param dc the datacenter
+	 * @param leaves the number of leaf switches
+	 * @param spines the number of spine switches
+	 */
+	public static void buildLeafSpine(NetworkDatacenter dc, int leaves, int spines) {
+		if (leaves < 1 || spines < 1) {
+			throw new IllegalArgumentException("A leaf-spine fabric needs at least one leaf and one spine");
+		}
+		List<Host> hosts = dc.getHostList();
+		int hostsPerLeaf = (hosts.size() + leaves - 1) / leaves;
+
+		AggregateSwitch[] spineSwitches = new AggregateSwitch[spines];
+		for (int i = 0; i < spines; i++) {
+			spineSwitches[i] = new AggregateSwitch("Spine" + i, NetworkConstants.Agg_LEVEL, dc);
+			spineSwitches[i].numport = leaves;
+			dc.Switchlist.put(spineSwitches[i].getId(), spineSwitches[i]);
+		}
+
+		EdgeSwitch[] leafSwitches = new EdgeSwitch[leaves];
+		for (int i = 0; i < leaves; i++) {
+			leafSwitches[i] = new EdgeSwitch("Leaf" + i, NetworkConstants.EDGE_LEVEL, dc);
+			leafSwitches[i].numport = hostsPerLeaf + spines;
+			dc.Switchlist.put(leafSwitches[i].getId(), leafSwitches[i]);
+			for (AggregateSwitch spine : spineSwitches) {
+				connect(leafSwitches[i], spine);
+			}
+		}
+
+		for (int i = 0; i < hosts.size(); i++) {
+			attachHost(leafSwitches[i / hostsPerLeaf], (NetworkHost) hosts.get(i));
+		}
+
+		compileRoutingTables(dc);
+	}
+
+	/**
+	 * Compiles the routing tables of all the switches of a datacenter. The distance in hops from
+	 * every switch to every edge switch is computed with a breadth-first search over the links,
+	 * and the ports of a switch towards an edge switch are the links to the neighbours one hop
+	 * closer to it.
+	 *
+	 * @param dc the datacenter
+	 */
+	public static void compileRoutingTables(NetworkDatacenter dc) {
+		List<Switch> switches = new ArrayList<Switch>(dc.Switchlist.values());
+		Collections.sort(switches, new Comparator<Switch>() {
+
+			@Override
+			public int compare(Switch a, Switch b) {
+				return Integer.compare(a.getId(), b.getId());
+			}
+		});
+
+		int n = switches.size();
+		Map<Integer, Integer> index = new HashMap<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			index.put(switches.get(i).getId(), i);
+		}
+
+		// the links of every switch
+		List<List<Switch>> neighbours = new ArrayList<List<Switch>>();
+		List<List<Boolean>> directions = new ArrayList<List<Boolean>>();
+		for (int i = 0; i < n; i++) {
+			neighbours.add(new ArrayList<Switch>());
+			directions.add(new ArrayList<Boolean>());
+		}
+		for (int i = 0; i < n; i++) {
+			Switch sw = switches.get(i);
+			if (sw.uplinkswitches != null) {
+				for (Switch up : sw.uplinkswitches) {
+					addLink(neighbours, directions, i, sw, index.get(up.getId()), up);
+				}
+			}
+			if (sw.downlinkswitches != null) {
+				for (Switch down : sw.downlinkswitches) {
+					addLink(neighbours, directions, index.get(down.getId()), down, i, sw);
+				}
+			}
+		}
+
+		// the edge switches and their hosts
+		List<Integer> edges = new ArrayList<Integer>();
+		int maxHostId = -1;
+		for (int i = 0; i < n; i++) {
+			Switch sw = switches.get(i);
+			if (sw.level == NetworkConstants.EDGE_LEVEL) {
+				edges.add(i);
+				if (sw.hostlist != null) {
+					for (int hostId : sw.hostlist.keySet()) {
+						maxHostId = Math.max(maxHostId, hostId);
+					}
+				}
+			}
+		}
+		int[] hostEdge = new int[maxHostId + 1];
+		Arrays.fill(hostEdge, -1);
+		int[] edgeIndex = new int[n];
+		Arrays.fill(edgeIndex, -1);
+		for (int e = 0; e < edges.size(); e++) {
+			Switch sw = switches.get(edges.get(e));
+			edgeIndex[edges.get(e)] = e;
+			if (sw.hostlist != null) {
+				for (int hostId : sw.hostlist.keySet()) {
+					hostEdge[hostId] = e;
+				}
+			}
+		}
+
+		// the distance of every switch to every edge switch
+		int[][] distance = new int[edges.size()][];
+		int[] queue = new int[n];
+		for (int e = 0; e < edges.size(); e++) {
+			int[] dist = new int[n];
+			Arrays.fill(dist, -1);
+			int head = 0;
+			int tail = 0;
+			dist[edges.get(e)] = 0;
+			queue[tail++] = edges.get(e);
+			while (head < tail) {
+				int i = queue[head++];
+				for (Switch next : neighbours.get(i)) {
+					int j = index.get(next.getId());
+					if (dist[j] == -1) {
+						dist[j] = dist[i] + 1;
+						queue[tail++] = j;
+					}
+				}
+			}
+			distance[e] = dist;
+		}
+
+		for (int i = 0; i < n; i++) {
+			List<Switch> ports = neighbours.get(i);
+			int[] portIndex = new int[ports.size()];
+			boolean[] uplinks = new boolean[ports.size()];
+			for (int p = 0; p < ports.size(); p++) {
+				portIndex[p] = index.get(ports.get(p).getId());
+				uplinks[p] = directions.get(i).get(p);
+			}
+
+			int[] offsets = new int[edges.size() + 1];
+			int[] portSets = new int[edges.size() * Math.max(ports.size(), 1)];
+			int size = 0;
+			for (int e = 0; e < edges.size(); e++) {
+				offsets[e] = size;
+				int dist = distance[e][i];
+				if (dist > 0) {
+					for (int p = 0; p < ports.size(); p++) {
+						if (distance[e][portIndex[p]] == dist - 1) {
+							portSets[size++] = p;
+						}
+					}
+				}
+			}
+			offsets[edges.size()] = size;
+
+			Switch sw = switches.get(i);
+			sw.routingTable = new RoutingTable(
+					hostEdge,
+					edgeIndex[i],
+					ports.toArray(new Switch[ports.size()]),
+					uplinks,
+					offsets,
+					Arrays.copyOf(portSets, size),
+					sw.getId() * 0x9E3779B9);
+		}
+	}
+
+	/**
+	 * Connects a switch to an upper level switch.
+	 *
+	 * @param down the lower switch
+	 * @param up the upper switch
+	 */
+	protected static void connect(Switch down, Switch up) {
+		down.uplinkswitches.add(up);
+		up.downlinkswitches.add(down);
+	}
+
+	/**
+	 * Connects a host to an edge switch.
+	 *
+	 * @param edge the edge switch
+	 * @param host the host
+	 */
+	protected static void attachHost(EdgeSwitch edge, NetworkHost host) {
+		host.bandwidth = NetworkConstants.BandWidthEdgeHost;
+		host.sw = edge;
+		edge.hostlist.put(host.getId(), host);
+		edge.dc.HostToSwitchid.put(host.getId(), edge.getId());
+		List<NetworkHost> hslist = edge.fintimelistHost.get(0D);
+		if (hslist == null) {
+			hslist = new ArrayList<NetworkHost>();
+			edge.fintimelistHost.put(0D, hslist);
+		}
+		hslist.add(host);
+	}
+
+	/**
+	 * Adds a link between a switch and an upper level switch, once, in both directions.
+	 *
+	 * @param neighbours the neighbours of every switch
+	 * @param directions whether every link of a switch is an uplink
+	 * @param down the index of the lower switch
+	 * @param downSwitch the lower switch
+	 * @param up the index of the upper switch
+	 * @param upSwitch the upper switch
+	 */
+	private static void addLink(
+			List<List<Switch>> neighbours,
+			List<List<Boolean>> directions,
+			int down,
+			Switch downSwitch,
+			int up,
+			Switch upSwitch) {
+		if (neighbours.get(down).contains(upSwitch)) {
+			return;
+		}
+		neighbours.get(down).add(upSwitch);
+		directions.get(down).add(true);
+		neighbours.get(up).add(downSwitch);
+		directions.get(up).add(false);
+	}
+
+}
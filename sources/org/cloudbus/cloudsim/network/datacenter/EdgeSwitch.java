@@ -34,6 +34,8 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  */
 public class EdgeSwitch extends Switch {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor for Edge Switch We have to specify switches that are connected to its downlink
 	 * and uplink ports, and corresponding bandwidths. In this switch downlink ports are connected
@@ -70,8 +72,11 @@ public class EdgeSwitch extends Switch {
 		// int src=ev.getSource();
 		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
+		CloudSim.cancelAll(getId(), PredicateType.of(CloudSimTags.Network_Event_send));
 		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
+		if (routepacket(hspkt)) {
+			return;
+		}
 
 		// packet is recieved from host
 		// packet is to be sent to aggregate level or to another host in the same level
@@ -152,6 +157,8 @@ public class EdgeSwitch extends Switch {
 			}
 		}
 
+		forwardtrains();
+
 		// or to switch at next level.
 		// clear the list
 
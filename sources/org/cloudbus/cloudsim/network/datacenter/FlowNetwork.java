@@ -0,0 +1,500 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.lists.VmList;
+import org.cloudbus.cloudsim.util.IdMap;
+
+/**
+ * FlowNetwork is a flow-level (fluid) model of the network of a {@link NetworkDatacenter}. Instead
+ * of forwarding every packet through the switches, each packet sent between two hosts becomes a
+ * flow along the links of its route. The bandwidth of every link is shared max-min fairly among
+ * the flows crossing it, and the rates and completion times are recomputed only when a flow starts
+ * or finishes, so the number of events depends on the number of flows and not on the number of
+ * packets and hops.
+ * <p>
+ * A flow is delivered to the receiving VM after its last byte has crossed the route and the
+ * switching delays of the traversed switches have elapsed. As in the packet model, transferring
+ * <tt>data</tt> over a link of bandwidth <tt>bw</tt> takes <tt>1000 * data / bw</tt>.
+ */
+public class FlowNetwork implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The remaining data below which a flow is considered transferred. */
+	private static final double EPSILON = 1e-9;
+
+	/**
+	 * A directed link of the network, shared by the flows routed through it.
+	 */
+	public static class Link implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The capacity of the link, in data per second. */
+		double capacity;
+
+		/** The flows crossing the link. */
+		final List<Flow> flows = new ArrayList<Flow>();
+
+		/** The capacity not yet given to flows while the rates are computed. */
+		double remaining;
+
+		/** The number of flows without a rate while the rates are computed. */
+		int unfrozen;
+
+		/**
+		 * Creates a link.
+		 *
+		 * @param bandwidth the bandwidth of the link
+		 */
+		Link(double bandwidth) {
+			capacity = bandwidth / 1000;
+		}
+
+		/**
+		 * Gets the capacity of the link.
+		 *
+		 * @return the capacity, in data per second
+		 */
+		public double getCapacity() {
+			return capacity;
+		}
+
+		/**
+		 * Gets the number of flows crossing the link.
+		 *
+		 * @return the number of flows
+		 */
+		public int getNumberOfFlows() {
+			return flows.size();
+		}
+
+	}
+
+	/**
+	 * A transfer of one packet between two hosts.
+	 */
+	public static class Flow implements Serializable, Comparable<Flow> {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The packet. */
+		final HostPacket pkt;
+
+		/** The links of the route. */
+		final Link[] path;
+
+		/** The switching delay of the route. */
+		final double latency;
+
+		/** The data not yet transferred. */
+		double remaining;
+
+		/** The current rate, in data per second. */
+		double rate;
+
+		/** The time when the last byte is transferred at the current rate. */
+		double finishTime;
+
+		/** The time when the packet reaches the receiving host. */
+		double deliveryTime;
+
+		/** Whether the rate of the flow is fixed while the rates are computed. */
+		boolean frozen;
+
+		/**
+		 * Creates a flow.
+		 *
+		 * @param pkt the packet
+		 * @param path the links of the route
+		 * @param latency the switching delay of the route
+		 */
+		Flow(HostPacket pkt, Link[] path, double latency) {
+			this.pkt = pkt;
+			this.path = path;
+			this.latency = latency;
+			remaining = pkt.data;
+		}
+
+		/**
+		 * Gets the current rate of the flow.
+		 *
+		 * @return the rate, in data per second
+		 */
+		public double getRate() {
+			return rate;
+		}
+
+		@Override
+		public int compareTo(Flow other) {
+			return Double.compare(deliveryTime, other.deliveryTime);
+		}
+
+	}
+
+	/** The datacenter. */
+	private final NetworkDatacenter dc;
+
+	/** The links, by source and destination node. */
+	private final Map<Long, Link> links = new HashMap<Long, Link>();
+
+	/** The flows being transferred. */
+	private final List<Flow> flows = new ArrayList<Flow>();
+
+	/** The transferred flows waiting for the switching delay, by delivery time. */
+	private final PriorityQueue<Flow> deliveries = new PriorityQueue<Flow>();
+
+	/** The hosts of the datacenter, by id. */
+	private IdMap<NetworkHost> hosts;
+
+	/** The time until which the flows have progressed. */
+	private double lastUpdateTime;
+
+	/** The time of the earliest pending flow event. */
+	private double scheduledTime = Double.MAX_VALUE;
+
+	/**
+	 * Creates the flow network of a datacenter.
+	 *
+	 * @param dc the datacenter
+	 */
+	public FlowNetwork(NetworkDatacenter dc) {
+		this.dc = dc;
+	}
+
+	/**
+	 * Starts the transfer of a packet from its sending host to the host of its receiving VM.
+	 *
+	 * @param hspkt the packet
+	 */
+	public void startFlow(NetworkPacket hspkt) {
+		double currentTime = CloudSim.clock();
+		progress(currentTime);
+
+		NetworkHost src = getHost(hspkt.senderhostid);
+		NetworkHost dest = getHost(hspkt.recieverhostid);
+
+		List<Link> path = new ArrayList<Link>();
+		double latency = src.sw.routingTable != null ? route(hspkt, src, dest, path) : route(src, dest, path);
+		Flow flow = new Flow(hspkt.pkt, path.toArray(new Link[path.size()]), latency);
+		for (Link link : flow.path) {
+			link.flows.add(flow);
+		}
+		flows.add(flow);
+
+		allocateRates(currentTime);
+		scheduleNextEvent(currentTime);
+	}
+
+	/**
+	 * Processes a flow event: the flows transferred by now are moved to the delivery queue, the
+	 * delivered packets are handed to their receiving VMs, and the rates are recomputed if some
+	 * flow finished.
+	 *
+	 * @return true if some packet was delivered
+	 */
+	public boolean update() {
+		double currentTime = CloudSim.clock();
+		if (currentTime >= scheduledTime) {
+			scheduledTime = Double.MAX_VALUE;
+		}
+
+		boolean finished = progress(currentTime);
+		if (finished) {
+			allocateRates(currentTime);
+		}
+
+		boolean delivered = false;
+		while (!deliveries.isEmpty() && deliveries.peek().deliveryTime <= currentTime) {
+			deliver(deliveries.poll());
+			delivered = true;
+		}
+
+		scheduleNextEvent(currentTime);
+		return delivered;
+	}
+
+	/**
+	 * Gets the number of flows being transferred.
+	 *
+	 * @return the number of flows
+	 */
+	public int getNumberOfFlows() {
+		return flows.size();
+	}
+
+	/**
+	 * Gets the links of the network, by source and destination node.
+	 *
+	 * @return the links
+	 */
+	public Map<Long, Link> getLinks() {
+		return links;
+	}
+
+	/**
+	 * Computes the route between two hosts through the switch tree: up from the edge switch of
+	 * the sender to the lowest switch shared with the receiver, then down to the receiver.
+	 *
+	 * @param src the sending host
+	 * @param dest the receiving host
+	 * @param path the list where the links of the route are added
+	 * @return the switching delay of the route
+	 */
+	protected double route(NetworkHost src, NetworkHost dest, List<Link> path) {
+		Switch up = src.sw;
+		Switch down = dest.sw;
+		List<Link> downPath = new ArrayList<Link>();
+
+		path.add(getLink(hostNode(src), up.getId(), src.bandwidth));
+		downPath.add(getLink(down.getId(), hostNode(dest), down.downlinkbandwidth));
+		double latency = up.switching_delay;
+
+		while (up != down) {
+			if (up.uplinkswitches == null || up.uplinkswitches.isEmpty() || down.uplinkswitches == null
+					|| down.uplinkswitches.isEmpty()) {
+				throw new IllegalArgumentException("No route from host #" + src.getId() + " to host #"
+						+ dest.getId());
+			}
+			// ASSUMPTION EACH switch is connected to one switch of the upper level
+			Switch upParent = up.uplinkswitches.get(0);
+			Switch downParent = down.uplinkswitches.get(0);
+			path.add(getLink(up.getId(), upParent.getId(), up.uplinkbandwidth));
+			downPath.add(0, getLink(downParent.getId(), down.getId(), downParent.downlinkbandwidth));
+			latency += upParent.switching_delay + down.latency;
+			up = upParent;
+			down = downParent;
+		}
+
+		path.addAll(downPath);
+		return latency;
+	}
+
+	/**
+	 * Computes the route between two hosts with the routing tables of the switches, choosing the
+	 * same equal-cost path as the packet model for the flow of the packet.
+	 *
+	 * @param hspkt the packet
+	 * @param src the sending host
+	 * @param dest the receiving host
+	 * @param path the list where the links of the route are added
+	 * @return the switching delay of the route
+	 */
+	protected double route(NetworkPacket hspkt, NetworkHost src, NetworkHost dest, List<Link> path) {
+		int flowHash = RoutingTable.flowHash(hspkt.sendervmid, hspkt.recievervmid);
+		Switch sw = src.sw;
+		path.add(getLink(hostNode(src), sw.getId(), src.bandwidth));
+		double latency = sw.switching_delay;
+
+		while (true) {
+			int port = sw.routingTable.getPort(dest.getId(), flowHash);
+			if (port == RoutingTable.LOCAL) {
+				path.add(getLink(sw.getId(), hostNode(dest), sw.downlinkbandwidth));
+				return latency;
+			}
+			if (port == RoutingTable.NO_ROUTE) {
+				throw new IllegalArgumentException("No route from host #" + src.getId() + " to host #"
+						+ dest.getId());
+			}
+			Switch next = sw.routingTable.getSwitch(port);
+			if (sw.routingTable.isUplink(port)) {
+				path.add(getLink(sw.getId(), next.getId(), sw.uplinkbandwidth));
+				latency += next.switching_delay;
+			} else {
+				path.add(getLink(sw.getId(), next.getId(), sw.downlinkbandwidth));
+				latency += next.latency;
+			}
+			sw = next;
+		}
+	}
+
+	/**
+	 * Gets the link between two nodes, creating it the first time.
+	 *
+	 * @param from the source node
+	 * @param to the destination node
+	 * @param bandwidth the bandwidth of the link
+	 * @return the link
+	 */
+	protected Link getLink(int from, int to, double bandwidth) {
+		long key = ((long) from << 32) | (to & 0xffffffffL);
+		Link link = links.get(key);
+		if (link == null) {
+			link = new Link(bandwidth);
+			links.put(key, link);
+		}
+		return link;
+	}
+
+	/**
+	 * Gets the node of a host. Switches are identified by their entity id and hosts by negative
+	 * numbers, so that they do not collide.
+	 *
+	 * @param host the host
+	 * @return the node
+	 */
+	protected static int hostNode(Host host) {
+		return -host.getId() - 1;
+	}
+
+	/**
+	 * Gets a host of the datacenter.
+	 *
+	 * @param id the host id
+	 * @return the host
+	 */
+	private NetworkHost getHost(int id) {
+		if (hosts == null) {
+			hosts = new IdMap<NetworkHost>();
+			for (Host host : dc.getHostList()) {
+				hosts.put(host.getId(), (NetworkHost) host);
+			}
+		}
+		return hosts.get(id);
+	}
+
+	/**
+	 * Advances the flows to the given time and moves the transferred ones to the delivery queue.
+	 *
+	 * @param currentTime the current time
+	 * @return true if some flow finished
+	 */
+	private boolean progress(double currentTime) {
+		double elapsed = currentTime - lastUpdateTime;
+		lastUpdateTime = currentTime;
+		boolean finished = false;
+
+		for (int i = flows.size() - 1; i >= 0; i--) {
+			Flow flow = flows.get(i);
+			flow.remaining -= flow.rate * elapsed;
+			if (flow.remaining <= EPSILON || flow.finishTime <= currentTime) {
+				for (Link link : flow.path) {
+					link.flows.remove(flow);
+				}
+				flows.set(i, flows.get(flows.size() - 1));
+				flows.remove(flows.size() - 1);
+				flow.remaining = 0;
+				flow.deliveryTime = currentTime + flow.latency;
+				deliveries.add(flow);
+				finished = true;
+			}
+		}
+		return finished;
+	}
+
+	/**
+	 * Computes the max-min fair rates of the flows by progressive filling: the link with the
+	 * smallest fair share is the bottleneck of its flows, which get that share; their rates are
+	 * removed from the other links of their routes and the next bottleneck is searched.
+	 *
+	 * @param currentTime the current time
+	 */
+	private void allocateRates(double currentTime) {
+		List<Link> active = new ArrayList<Link>();
+		for (Link link : links.values()) {
+			if (!link.flows.isEmpty()) {
+				link.remaining = link.capacity;
+				link.unfrozen = link.flows.size();
+				active.add(link);
+			}
+		}
+		for (Flow flow : flows) {
+			flow.frozen = false;
+		}
+
+		int left = flows.size();
+		while (left > 0) {
+			Link bottleneck = null;
+			double share = Double.MAX_VALUE;
+			for (Link link : active) {
+				if (link.unfrozen > 0 && link.remaining / link.unfrozen < share) {
+					share = link.remaining / link.unfrozen;
+					bottleneck = link;
+				}
+			}
+			if (bottleneck == null) {
+				break;
+			}
+
+			share = Math.max(share, 0);
+			for (Flow flow : bottleneck.flows) {
+				if (!flow.frozen) {
+					flow.frozen = true;
+					flow.rate = share;
+					left--;
+					for (Link link : flow.path) {
+						link.remaining -= share;
+						link.unfrozen--;
+					}
+				}
+			}
+		}
+
+		for (Flow flow : flows) {
+			flow.finishTime = flow.rate > 0 ? currentTime + flow.remaining / flow.rate : Double.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Schedules a flow event for the next flow to finish or to be delivered, unless an earlier
+	 * event is already pending. Stale events are harmless, so they are not cancelled.
+	 *
+	 * @param currentTime the current time
+	 */
+	private void scheduleNextEvent(double currentTime) {
+		double next = Double.MAX_VALUE;
+		for (Flow flow : flows) {
+			next = Math.min(next, flow.finishTime);
+		}
+		if (!deliveries.isEmpty()) {
+			next = Math.min(next, deliveries.peek().deliveryTime);
+		}
+
+		if (next != Double.MAX_VALUE && next < scheduledTime) {
+			scheduledTime = next;
+			dc.schedule(dc.getId(), Math.max(next - currentTime, 0), CloudSimTags.Network_Event_Flow);
+		}
+	}
+
+	/**
+	 * Hands a delivered packet to its receiving VM.
+	 *
+	 * @param flow the flow
+	 */
+	private void deliver(Flow flow) {
+		Vm vm = VmList.getById(dc.getVmList(), flow.pkt.reciever);
+		flow.pkt.recievetime = CloudSim.clock();
+		((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).receivePacket(flow.pkt);
+		if (dc.getWorkflowEngine() != null) {
+			dc.getWorkflowEngine().wake(vm.getId(), 0);
+		}
+	}
+
+}
@@ -24,6 +24,7 @@ import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.distributions.UniformDistr;
 import org.cloudbus.cloudsim.lists.VmList;
+import org.cloudbus.cloudsim.util.IdMap;
 
 /**
  * NetDatacentreBroker represents a broker acting on behalf of Datacenter provider. It hides VM
@@ -36,6 +37,8 @@ import org.cloudbus.cloudsim.lists.VmList;
  */
 public class NetDatacenterBroker extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	// TODO: remove unnecessary variables
 
 	/** The vm list. */
@@ -116,8 +119,8 @@ public class NetDatacenterBroker extends SimEntity {
 
 		setDatacenterIdsList(new LinkedList<Integer>());
 		setDatacenterRequestedIdsList(new ArrayList<Integer>());
-		setVmsToDatacentersMap(new HashMap<Integer, Integer>());
-		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+		setVmsToDatacentersMap(new IdMap<Integer>());
+		setDatacenterCharacteristicsList(new IdMap<DatacenterCharacteristics>());
 
 	}
 
@@ -221,7 +224,7 @@ public class NetDatacenterBroker extends SimEntity {
 
 	protected void processResourceCharacteristicsRequest(SimEvent ev) {
 		setDatacenterIdsList(CloudSim.getCloudResourceList());
-		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+		setDatacenterCharacteristicsList(new IdMap<DatacenterCharacteristics>());
 
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloud Resource List received with "
 				+ getDatacenterIdsList().size() + " resource(s)");
@@ -300,12 +303,6 @@ public class NetDatacenterBroker extends SimEntity {
 		// next one
 		int requestedVms = 0;
 
-		// All host will have two VMs (assumption) VM is the minimum unit
-		if (createvmflag) {
-			CreateVMs(datacenterId);
-			createvmflag = false;
-		}
-
 		// generate Application execution Requests
 		for (int i = 0; i < 100; i++) {
 			this.getAppCloudletList().add(
@@ -315,11 +312,14 @@ public class NetDatacenterBroker extends SimEntity {
 		}
 		int k = 0;
 
-		// schedule the application on VMs
+		// bind the applications to VMs, before the VMs are created so that their traffic is known
+		// to the placement
+		int numVms = createvmflag
+				? linkDC.getHostList().size() * NetworkConstants.maxhostVM
+				: linkDC.getVmList().size();
 		for (AppCloudlet app : this.getAppCloudletList()) {
 
 			List<Integer> vmids = new ArrayList<Integer>();
-			int numVms = linkDC.getVmList().size();
 			UniformDistr ufrnd = new UniformDistr(0, numVms, 5);
 			for (int i = 0; i < app.numbervm; i++) {
 
@@ -327,11 +327,21 @@ public class NetDatacenterBroker extends SimEntity {
 				vmids.add(vmid);
 
 			}
+			app.createCloudletList(vmids);
+		}
 
-			if (vmids != null) {
-				if (!vmids.isEmpty()) {
+		// All host will have two VMs (assumption) VM is the minimum unit
+		if (createvmflag) {
+			CreateVMs(datacenterId);
+			createvmflag = false;
+		}
+
+		// schedule the application on VMs
+		for (AppCloudlet app : this.getAppCloudletList()) {
+
+			if (app.clist != null) {
+				if (!app.clist.isEmpty()) {
 
-					app.createCloudletList(vmids);
 					for (int i = 0; i < app.numbervm; i++) {
 						app.clist.get(i).setUserId(getId());
 						appCloudletRecieved.put(app.appID, app.numbervm);
@@ -363,6 +373,7 @@ public class NetDatacenterBroker extends SimEntity {
 	private void CreateVMs(int datacenterId) {
 		// two VMs per host
 		int numVM = linkDC.getHostList().size() * NetworkConstants.maxhostVM;
+		List<NetworkVm> vms = new ArrayList<NetworkVm>();
 		for (int i = 0; i < numVM; i++) {
 			int vmid = i;
 			int mips = 1;
@@ -383,11 +394,23 @@ public class NetDatacenterBroker extends SimEntity {
 					size,
 					vmm,
 					new NetworkCloudletSpaceSharedScheduler());
-			linkDC.processVmCreateNetwork(vm);
+			vms.add(vm);
+		}
+
+		// the traffic of the applications guides a traffic-aware placement
+		if (linkDC.getVmAllocationPolicy() instanceof TrafficAwareVmAllocationPolicy) {
+			TrafficAwareVmAllocationPolicy policy = (TrafficAwareVmAllocationPolicy) linkDC.getVmAllocationPolicy();
+			for (AppCloudlet app : getAppCloudletList()) {
+				policy.addTraffic(app);
+			}
+		}
+		linkDC.processVmCreateNetwork(vms);
+
+		for (NetworkVm vm : vms) {
 			// add the VM to the vmList
 			getVmList().add(vm);
-			getVmsToDatacentersMap().put(vmid, datacenterId);
-			getVmsCreatedList().add(VmList.getById(getVmList(), vmid));
+			getVmsToDatacentersMap().put(vm.getId(), datacenterId);
+			getVmsCreatedList().add(VmList.getById(getVmList(), vm.getId()));
 		}
 	}
 
@@ -9,16 +9,19 @@
 package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.ResCloudlet;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.util.IntHashMap;
 
 /**
  * CloudletSchedulerSpaceShared implements a policy of scheduling performed by a virtual machine. It
@@ -33,6 +36,8 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
  */
 public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The cloudlet waiting list. */
 	private List<? extends ResCloudlet> cloudletWaitingList;
 
@@ -53,9 +58,91 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
 	// for network
 
-	public Map<Integer, List<HostPacket>> pkttosend;
+	// packets sent by the VM of this scheduler
+	public List<HostPacket> pkttosend;
+
+	// packets received by the VM of this scheduler, by sending VM
+	public IntHashMap<PacketQueue> pktrecv;
+
+	/** A cloudlet not registered in any queue. */
+	private static final int IDLE = 0;
+
+	/** A cloudlet starting at the next update. */
+	private static final int READY = 1;
+
+	/** A cloudlet in an EXECUTION stage. */
+	private static final int EXECUTING = 2;
+
+	/** A cloudlet in a WAIT_RECV stage, waiting for a packet. */
+	private static final int WAITING = 3;
+
+	/**
+	 * The stage of a cloudlet in execution, and the queue where the cloudlet waits for the stage
+	 * to end. There is one per cloudlet, reused from stage to stage.
+	 */
+	private static class StageEntry {
+
+		/** The cloudlet. */
+		final ResCloudlet rcl;
+
+		/** The network cloudlet. */
+		final NetworkCloudlet cl;
+
+		/** The position of the cloudlet in the exec list, as the order of activation. */
+		final long order;
+
+		/** The queue of the cloudlet: IDLE, READY, EXECUTING or WAITING. */
+		int state;
+
+		/** The time when the EXECUTION stage of the cloudlet ends. */
+		double due;
+
+		StageEntry(ResCloudlet rcl, long order) {
+			this.rcl = rcl;
+			this.order = order;
+			cl = (NetworkCloudlet) rcl.getCloudlet();
+		}
+
+	}
+
+	/** The stages of the cloudlets in execution, by cloudlet id. */
+	private IntHashMap<StageEntry> stageEntries;
+
+	/** The cloudlets in an EXECUTION stage, by end of the stage. */
+	private PriorityQueue<StageEntry> executionStages;
+
+	/** The cloudlets in a WAIT_RECV stage, by sending VM, in exec list order. */
+	private IntHashMap<PriorityQueue<StageEntry>> waitingStages;
+
+	/** The sending VMs whose packets may be consumed at the next update. */
+	private int[] pendingPeers;
+
+	/** The number of pending sending VMs. */
+	private int pendingCount;
+
+	/** The cloudlets starting at the next update. */
+	private ArrayList<StageEntry> readyStages;
+
+	/** The cloudlets whose stage progresses at the current update, reused between updates. */
+	private ArrayList<StageEntry> currentStages;
+
+	/** The cloudlets finished at the current update, reused between updates. */
+	private ArrayList<ResCloudlet> finishedCloudlets;
+
+	/** The number of cloudlets activated so far. */
+	private long activations;
 
-	public Map<Integer, List<HostPacket>> pktrecv;
+	/** The id of the VM of this scheduler, learned from its cloudlets and packets, or -1. */
+	private int vmId = -1;
+
+	/** Orders the stages by position of their cloudlet in the exec list. */
+	private static final Comparator<StageEntry> EXEC_ORDER = new Comparator<StageEntry>() {
+
+		@Override
+		public int compare(StageEntry a, StageEntry b) {
+			return a.order < b.order ? -1 : a.order == b.order ? 0 : 1;
+		}
+	};
 
 	/**
 	 * Creates a new CloudletSchedulerSpaceShared object. This method must be invoked before
@@ -72,8 +159,54 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		cloudletFinishedList = new ArrayList<ResCloudlet>();
 		usedPes = 0;
 		currentCpus = 0;
-		pkttosend = new HashMap<Integer, List<HostPacket>>();
-		pktrecv = new HashMap<Integer, List<HostPacket>>();
+		pkttosend = new ArrayList<HostPacket>();
+		pktrecv = new IntHashMap<PacketQueue>();
+		stageEntries = new IntHashMap<StageEntry>();
+		executionStages = new PriorityQueue<StageEntry>(11, new Comparator<StageEntry>() {
+
+			@Override
+			public int compare(StageEntry a, StageEntry b) {
+				return Double.compare(a.due, b.due);
+			}
+		});
+		waitingStages = new IntHashMap<PriorityQueue<StageEntry>>();
+		pendingPeers = new int[8];
+		readyStages = new ArrayList<StageEntry>();
+		currentStages = new ArrayList<StageEntry>();
+		finishedCloudlets = new ArrayList<ResCloudlet>();
+	}
+
+	/**
+	 * Inserts a packet delivered to this VM in the queue of its sender.
+	 * 
+	 * @param pkt the packet
+	 */
+	public void receivePacket(HostPacket pkt) {
+		receivePacket(pkt.sender, pkt.reciever, pkt.sendtime);
+	}
+
+	/**
+	 * Inserts a packet of a train delivered to this VM in the queue of its sender.
+	 * 
+	 * @param train the train
+	 * @param i the index of the packet in the train
+	 */
+	public void receivePacket(PacketTrain train, int i) {
+		receivePacket(train.getSender(i), train.getReciever(i), train.getSendtime(i));
+	}
+
+	/**
+	 * Inserts a packet delivered to this VM in the queue of its sender, to be consumed at the
+	 * next update.
+	 * 
+	 * @param sender the sending VM
+	 * @param reciever this VM
+	 * @param sendtime the send time of the packet
+	 */
+	private void receivePacket(int sender, int reciever, double sendtime) {
+		vmId = reciever;
+		getPacketQueue(sender).add(sendtime);
+		setPending(sender);
 	}
 
 	/**
@@ -102,73 +235,33 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		currentCpus = cpus;
 		capacity /= cpus; // average capacity of each cpu
 
-		for (ResCloudlet rcl : getCloudletExecList()) { // each machine in the
-			// exec list has the
-			// same amount of cpu
-
-			NetworkCloudlet cl = (NetworkCloudlet) rcl.getCloudlet();
-
-			// check status
-			// if execution stage
-			// update the cloudlet finishtime
-			// CHECK WHETHER IT IS WAITING FOR THE PACKET
-			// if packet received change the status of job and update the time.
-			//
-			if ((cl.currStagenum != -1)) {
-				if (cl.currStagenum == NetworkConstants.FINISH) {
-					break;
-				}
-				TaskStage st = cl.stages.get(cl.currStagenum);
-				if (st.type == NetworkConstants.EXECUTION) {
-
-					// update the time
-					cl.timespentInStage = Math.round(CloudSim.clock() - cl.timetostartStage);
-					if (cl.timespentInStage >= st.time) {
-						changetonextstage(cl, st);
-						// change the stage
-					}
-				}
-				if (st.type == NetworkConstants.WAIT_RECV) {
-					List<HostPacket> pktlist = pktrecv.get(st.peer);
-					List<HostPacket> pkttoremove = new ArrayList<HostPacket>();
-					if (pktlist != null) {
-						Iterator<HostPacket> it = pktlist.iterator();
-						HostPacket pkt = null;
-						if (it.hasNext()) {
-							pkt = it.next();
-							// Asumption packet will not arrive in the same cycle
-							if (pkt.reciever == cl.getVmId()) {
-								pkt.recievetime = CloudSim.clock();
-								st.time = CloudSim.clock() - pkt.sendtime;
-								changetonextstage(cl, st);
-								pkttoremove.add(pkt);
-							}
-						}
-						pktlist.removeAll(pkttoremove);
-						// if(pkt!=null)
-						// else wait for recieving the packet
-					}
-				}
-
-			} else {
-				cl.currStagenum = 0;
-				cl.timetostartStage = CloudSim.clock();
-
-				if (cl.stages.get(0).type == NetworkConstants.EXECUTION) {
-					NetDatacenterBroker.linkDC.schedule(
-							NetDatacenterBroker.linkDC.getId(),
-							cl.stages.get(0).time,
-							CloudSimTags.VM_DATACENTER_EVENT);
-				} else {
-					NetDatacenterBroker.linkDC.schedule(
-							NetDatacenterBroker.linkDC.getId(),
-							0.0001,
-							CloudSimTags.VM_DATACENTER_EVENT);
-					// /sendstage///
-				}
+		// the stages that end now, progressed in exec list order; the stages entered meanwhile are
+		// checked at the next update
+		ArrayList<StageEntry> stages = readyStages;
+		readyStages = currentStages;
+		currentStages = stages;
+		while (!executionStages.isEmpty() && isStageOver(executionStages.peek())) {
+			stages.add(executionStages.poll());
+		}
+		for (int i = 0; i < pendingCount; i++) {
+			PacketQueue queue = pktrecv.get(pendingPeers[i]);
+			queue.pending = false;
+			PriorityQueue<StageEntry> waiting = waitingStages.get(pendingPeers[i]);
+			// the first waiting cloudlets each get one of the received packets
+			for (int packets = queue.size(); packets > 0 && waiting != null && !waiting.isEmpty(); packets--) {
+				StageEntry entry = waiting.poll();
+				entry.state = IDLE;
+				stages.add(entry);
 			}
-
 		}
+		pendingCount = 0;
+		if (stages.size() > 1) {
+			Collections.sort(stages, EXEC_ORDER);
+		}
+		for (int i = 0; i < stages.size(); i++) {
+			progress(stages.get(i));
+		}
+		stages.clear();
 
 		if (getCloudletExecList().size() == 0 && getCloudletWaitingList().size() == 0) { // no
 			// more cloudlets in this scheduler
@@ -177,27 +270,25 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		}
 
 		// update each cloudlet
-		int finished = 0;
-		List<ResCloudlet> toRemove = new ArrayList<ResCloudlet>();
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			// rounding issue...
-			if (((NetworkCloudlet) (rcl.getCloudlet())).currStagenum == NetworkConstants.FINISH) {
-				// stage is changed and packet to send
-				((NetworkCloudlet) (rcl.getCloudlet())).finishtime = CloudSim.clock();
-				toRemove.add(rcl);
-				cloudletFinish(rcl);
-				finished++;
-			}
+		int finished = finishedCloudlets.size();
+		for (int i = 0; i < finished; i++) {
+			ResCloudlet rcl = finishedCloudlets.get(i);
+			// stage is changed and packet to send
+			((NetworkCloudlet) (rcl.getCloudlet())).finishtime = CloudSim.clock();
+			stageEntries.remove(rcl.getCloudletId());
+			getCloudletExecList().remove(rcl);
+			cloudletFinish(rcl);
 		}
-		getCloudletExecList().removeAll(toRemove);
+		finishedCloudlets.clear();
 		// add all the CloudletExecList in waitingList.
 		// sort the waitinglist
 
 		// for each finished cloudlet, add a new one from the waiting list
 		if (!getCloudletWaitingList().isEmpty()) {
 			for (int i = 0; i < finished; i++) {
-				toRemove.clear();
-				for (ResCloudlet rcl : getCloudletWaitingList()) {
+				Iterator<ResCloudlet> it = getCloudletWaitingList().iterator();
+				while (it.hasNext()) {
+					ResCloudlet rcl = it.next();
 					if ((currentCpus - usedPes) >= rcl.getNumberOfPes()) {
 						rcl.setCloudletStatus(Cloudlet.INEXEC);
 						for (int k = 0; k < rcl.getNumberOfPes(); k++) {
@@ -205,14 +296,19 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 						}
 						getCloudletExecList().add(rcl);
 						usedPes += rcl.getNumberOfPes();
-						toRemove.add(rcl);
+						activate(rcl);
+						it.remove();
 						break;
 					}
 				}
-				getCloudletWaitingList().removeAll(toRemove);
 			}// for(cont)
 		}
 
+		// the stages that became ready meanwhile progress at the next update
+		if (!readyStages.isEmpty() || pendingCount > 0) {
+			wake();
+		}
+
 		// estimate finish time of cloudlets in the execution queue
 		double nextEvent = Double.MAX_VALUE;
 		for (ResCloudlet rcl : getCloudletExecList()) {
@@ -229,7 +325,57 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		return nextEvent;
 	}
 
-	private void changetonextstage(NetworkCloudlet cl, TaskStage st) {
+	/**
+	 * Progresses the stage of a cloudlet: starts its first stage, ends its EXECUTION stage, or
+	 * consumes a packet received for its WAIT_RECV stage.
+	 * 
+	 * @param entry the stage of the cloudlet
+	 */
+	private void progress(StageEntry entry) {
+		entry.state = IDLE;
+		NetworkCloudlet cl = entry.cl;
+
+		if (cl.currStagenum == -1) {
+			cl.currStagenum = 0;
+			cl.timetostartStage = CloudSim.clock();
+
+			if (cl.stages.get(0).type == NetworkConstants.EXECUTION) {
+				scheduleStage(cl.stages.get(0).time);
+			} else if (getWorkflowEngine() == null) {
+				NetDatacenterBroker.linkDC.schedule(
+						NetDatacenterBroker.linkDC.getId(),
+						0.0001,
+						CloudSimTags.VM_DATACENTER_EVENT);
+				// /sendstage///
+			}
+			register(entry);
+			return;
+		}
+
+		TaskStage st = cl.stages.get(cl.currStagenum);
+		if (st.type == NetworkConstants.EXECUTION) {
+			// update the time
+			cl.timespentInStage = Math.round(CloudSim.clock() - cl.timetostartStage);
+			changetonextstage(entry);
+		} else if (st.type == NetworkConstants.WAIT_RECV) {
+			st.time = CloudSim.clock() - pktrecv.get(st.peer).poll();
+			changetonextstage(entry);
+		}
+	}
+
+	/**
+	 * Checks whether the EXECUTION stage of a cloudlet is over.
+	 * 
+	 * @param entry the stage of the cloudlet
+	 * @return true if the stage is over
+	 */
+	private boolean isStageOver(StageEntry entry) {
+		NetworkCloudlet cl = entry.cl;
+		return Math.round(CloudSim.clock() - cl.timetostartStage) >= cl.stages.get(cl.currStagenum).time;
+	}
+
+	private void changetonextstage(StageEntry entry) {
+		NetworkCloudlet cl = entry.cl;
 		cl.timespentInStage = 0;
 		cl.timetostartStage = CloudSim.clock();
 		int currstage = cl.currStagenum;
@@ -248,36 +394,175 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 							-1,
 							cl.getCloudletId(),
 							cl.stages.get(i).vpeer);
-					List<HostPacket> pktlist = pkttosend.get(cl.getVmId());
-					if (pktlist == null) {
-						pktlist = new ArrayList<HostPacket>();
-					}
-					pktlist.add(pkt);
-					pkttosend.put(cl.getVmId(), pktlist);
+					pkttosend.add(pkt);
 
 				} else {
 					break;
 				}
 
 			}
-			NetDatacenterBroker.linkDC.schedule(
-					NetDatacenterBroker.linkDC.getId(),
-					0.0001,
-					CloudSimTags.VM_DATACENTER_EVENT);
+			if (getWorkflowEngine() == null) {
+				NetDatacenterBroker.linkDC.schedule(
+						NetDatacenterBroker.linkDC.getId(),
+						0.0001,
+						CloudSimTags.VM_DATACENTER_EVENT);
+			}
 			if (i == cl.stages.size()) {
 				cl.currStagenum = NetworkConstants.FINISH;
 			} else {
 				cl.currStagenum = i;
 				if (cl.stages.get(i).type == NetworkConstants.EXECUTION) {
-					NetDatacenterBroker.linkDC.schedule(
-							NetDatacenterBroker.linkDC.getId(),
-							cl.stages.get(i).time,
-							CloudSimTags.VM_DATACENTER_EVENT);
+					scheduleStage(cl.stages.get(i).time);
 				}
 
 			}
 		}
 
+		if (cl.currStagenum == NetworkConstants.FINISH) {
+			finishedCloudlets.add(entry.rcl);
+		} else {
+			register(entry);
+		}
+	}
+
+	/**
+	 * Registers a cloudlet entering the exec list, so that its stages progress.
+	 * 
+	 * @param rcl the cloudlet
+	 */
+	private void activate(ResCloudlet rcl) {
+		StageEntry entry = new StageEntry(rcl, activations++);
+		deactivate(rcl.getCloudletId());
+		stageEntries.put(rcl.getCloudletId(), entry);
+		register(entry);
+		vmId = rcl.getCloudlet().getVmId();
+		wake();
+	}
+
+	/**
+	 * Unregisters a cloudlet leaving the exec list.
+	 * 
+	 * @param cloudletId the id of the cloudlet
+	 */
+	private void deactivate(int cloudletId) {
+		StageEntry entry = stageEntries.remove(cloudletId);
+		if (entry == null) {
+			return;
+		}
+		if (entry.state == READY) {
+			readyStages.remove(entry);
+		} else if (entry.state == EXECUTING) {
+			executionStages.remove(entry);
+		} else if (entry.state == WAITING) {
+			waitingStages.get(entry.cl.stages.get(entry.cl.currStagenum).peer).remove(entry);
+		}
+		entry.state = IDLE;
+	}
+
+	/**
+	 * Puts a cloudlet in the queue of its current stage: the ready queue for a cloudlet to start,
+	 * the queue of the EXECUTION stages, or the queue of the peer for a WAIT_RECV stage. A
+	 * cloudlet whose current stage is WAIT_SEND stays idle.
+	 * 
+	 * @param entry the stage of the cloudlet
+	 */
+	private void register(StageEntry entry) {
+		NetworkCloudlet cl = entry.cl;
+		if (cl.currStagenum == -1) {
+			entry.state = READY;
+			readyStages.add(entry);
+			return;
+		}
+
+		TaskStage st = cl.stages.get(cl.currStagenum);
+		if (st.type == NetworkConstants.EXECUTION) {
+			// Math.round(elapsed) >= time once elapsed >= ceil(time) - 0.5
+			entry.due = cl.timetostartStage + Math.ceil(st.time) - 0.5;
+			entry.state = EXECUTING;
+			executionStages.add(entry);
+		} else if (st.type == NetworkConstants.WAIT_RECV) {
+			PriorityQueue<StageEntry> waiting = waitingStages.get(st.peer);
+			if (waiting == null) {
+				waiting = new PriorityQueue<StageEntry>(11, EXEC_ORDER);
+				waitingStages.put(st.peer, waiting);
+			}
+			entry.state = WAITING;
+			waiting.add(entry);
+			if (!getPacketQueue(st.peer).isEmpty()) {
+				setPending(st.peer);
+			}
+		}
+	}
+
+	/**
+	 * Marks the packets received from a peer to be consumed at the next update.
+	 * 
+	 * @param peer the sending VM
+	 */
+	private void setPending(int peer) {
+		PacketQueue queue = getPacketQueue(peer);
+		if (queue.pending) {
+			return;
+		}
+		queue.pending = true;
+		if (pendingCount == pendingPeers.length) {
+			pendingPeers = Arrays.copyOf(pendingPeers, 2 * pendingCount);
+		}
+		pendingPeers[pendingCount++] = peer;
+	}
+
+	/**
+	 * Schedules the update at the end of an EXECUTION stage: one event of the workflow engine,
+	 * or a datacenter update.
+	 * 
+	 * @param time the time of the stage
+	 */
+	private void scheduleStage(double time) {
+		WorkflowEngine engine = getWorkflowEngine();
+		if (engine != null) {
+			// the stage is over once Math.round(elapsed) >= time
+			engine.scheduleStage(vmId, Math.ceil(time));
+		} else {
+			NetDatacenterBroker.linkDC.schedule(
+					NetDatacenterBroker.linkDC.getId(),
+					time,
+					CloudSimTags.VM_DATACENTER_EVENT);
+		}
+	}
+
+	/**
+	 * Wakes up the host of the VM through the workflow engine, for the stages ready to progress.
+	 * Without the engine, they progress at the next datacenter update.
+	 */
+	private void wake() {
+		WorkflowEngine engine = getWorkflowEngine();
+		if (engine != null && vmId != -1) {
+			engine.wake(vmId, 0.0001);
+		}
+	}
+
+	/**
+	 * Gets the workflow engine of the datacenter.
+	 * 
+	 * @return the workflow engine, or null if the stages progress at the datacenter updates
+	 */
+	private static WorkflowEngine getWorkflowEngine() {
+		return NetDatacenterBroker.linkDC == null ? null : NetDatacenterBroker.linkDC.getWorkflowEngine();
+	}
+
+	/**
+	 * Gets the queue of the packets received from a peer, creating it the first time.
+	 * 
+	 * @param peer the sending VM
+	 * @return the queue
+	 */
+	private PacketQueue getPacketQueue(int peer) {
+		PacketQueue queue = pktrecv.get(peer);
+		if (queue == null) {
+			queue = new PacketQueue();
+			pktrecv.put(peer, queue);
+		}
+		return queue;
 	}
 
 	/**
@@ -302,6 +587,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		for (ResCloudlet rcl : getCloudletExecList()) {
 			if (rcl.getCloudletId() == cloudletId) {
 				getCloudletExecList().remove(rcl);
+				deactivate(cloudletId);
 				if (rcl.getRemainingCloudletLength() == 0.0) {
 					cloudletFinish(rcl);
 				} else {
@@ -357,6 +643,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		if (found) {
 			// moves to the paused list
 			ResCloudlet rgl = getCloudletExecList().remove(position);
+			deactivate(cloudletId);
 			if (rgl.getRemainingCloudletLength() == 0.0) {
 				cloudletFinish(rgl);
 			} else {
@@ -447,6 +734,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
 				getCloudletExecList().add(rcl);
 				usedPes += rcl.getNumberOfPes();
+				activate(rcl);
 
 				// calculate the expected time for cloudlet completion
 				double capacity = 0.0;
@@ -505,6 +793,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
 			getCloudletExecList().add(rcl);
 			usedPes += cloudlet.getNumberOfPes();
+			activate(rcl);
 		} else {// no enough free PEs: go to the waiting queue
 			ResCloudlet rcl = new ResCloudlet(cloudlet);
 			rcl.setCloudletStatus(Cloudlet.QUEUED);
@@ -639,6 +928,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 	@Override
 	public Cloudlet migrateCloudlet() {
 		ResCloudlet rcl = getCloudletExecList().remove(0);
+		deactivate(rcl.getCloudletId());
 		rcl.finalizeCloudlet();
 		Cloudlet cl = rcl.getCloudlet();
 		usedPes -= cl.getNumberOfPes();
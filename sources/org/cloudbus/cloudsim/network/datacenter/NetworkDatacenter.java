@@ -25,6 +25,7 @@ import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.util.IdMap;
 
 /**
  * NetworkDatacenter class is a Datacenter whose hostList are virtualized and networked. It contains
@@ -45,6 +46,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class NetworkDatacenter extends Datacenter {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Allocates a new NetworkDatacenter object.
 	 * 
@@ -74,9 +77,9 @@ public class NetworkDatacenter extends Datacenter {
 			List<Storage> storageList,
 			double schedulingInterval) throws Exception {
 		super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
-		VmToSwitchid = new HashMap<Integer, Integer>();
-		HostToSwitchid = new HashMap<Integer, Integer>();
-		VmtoHostlist = new HashMap<Integer, Integer>();
+		VmToSwitchid = new IdMap<Integer>();
+		HostToSwitchid = new IdMap<Integer>();
+		VmtoHostlist = new IdMap<Integer>();
 		Switchlist = new HashMap<Integer, Switch>();
 	}
 
@@ -88,6 +91,76 @@ public class NetworkDatacenter extends Datacenter {
 
 	public Map<Integer, Integer> VmtoHostlist;
 
+	/** The flow-level network, or null if the packets are forwarded through the switches. */
+	private FlowNetwork flowNetwork;
+
+	/** The workflow engine, or null if the stages progress at the datacenter updates. */
+	private WorkflowEngine workflowEngine;
+
+	/**
+	 * Sets whether the transfers between VMs are simulated as flows sharing the bandwidth of the
+	 * links max-min fairly, instead of packets forwarded through the switches.
+	 * 
+	 * @param enabled true to simulate the transfers as flows
+	 */
+	public void setFlowNetworkEnabled(boolean enabled) {
+		if (!enabled) {
+			flowNetwork = null;
+		} else if (flowNetwork == null) {
+			flowNetwork = new FlowNetwork(this);
+		}
+	}
+
+	/**
+	 * Checks whether the transfers between VMs are simulated as flows.
+	 * 
+	 * @return true if the transfers are simulated as flows
+	 */
+	public boolean isFlowNetworkEnabled() {
+		return flowNetwork != null;
+	}
+
+	/**
+	 * Gets the flow-level network.
+	 * 
+	 * @return the flow-level network, or null if the packets are forwarded through the switches
+	 */
+	public FlowNetwork getFlowNetwork() {
+		return flowNetwork;
+	}
+
+	/**
+	 * Sets whether the stages of the cloudlets are driven by the events of a workflow engine,
+	 * instead of datacenter update cycles.
+	 * 
+	 * @param enabled true to drive the stages by events
+	 */
+	public void setWorkflowEngineEnabled(boolean enabled) {
+		if (!enabled) {
+			workflowEngine = null;
+		} else if (workflowEngine == null) {
+			workflowEngine = new WorkflowEngine(this);
+		}
+	}
+
+	/**
+	 * Checks whether the stages of the cloudlets are driven by the events of a workflow engine.
+	 * 
+	 * @return true if the stages are driven by events
+	 */
+	public boolean isWorkflowEngineEnabled() {
+		return workflowEngine != null;
+	}
+
+	/**
+	 * Gets the workflow engine.
+	 * 
+	 * @return the workflow engine, or null if the stages progress at the datacenter updates
+	 */
+	public WorkflowEngine getWorkflowEngine() {
+		return workflowEngine;
+	}
+
 	/**
 	 * Get list of all EdgeSwitches in the Datacenter network One can design similar functions for
 	 * other type of switches.
@@ -127,6 +200,27 @@ public class NetworkDatacenter extends Datacenter {
 		return result;
 	}
 
+	/**
+	 * Creates a batch of VMs within the NetworkDatacenter. When the VmAllocationPolicy is a
+	 * {@link TrafficAwareVmAllocationPolicy}, the VMs are placed together according to their
+	 * traffic.
+	 * 
+	 * @param vms the VMs
+	 * @return the number of VMs created
+	 */
+	public int processVmCreateNetwork(List<? extends Vm> vms) {
+		if (getVmAllocationPolicy() instanceof TrafficAwareVmAllocationPolicy) {
+			((TrafficAwareVmAllocationPolicy) getVmAllocationPolicy()).planPlacement(vms);
+		}
+		int created = 0;
+		for (Vm vm : vms) {
+			if (processVmCreateNetwork(vm)) {
+				created++;
+			}
+		}
+		return created;
+	}
+
 	/**
 	 * Processes a Cloudlet submission.
 	 * 
@@ -138,7 +232,9 @@ public class NetworkDatacenter extends Datacenter {
 	 */
 	@Override
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
-		updateCloudletProcessing();
+		if (workflowEngine == null) {
+			updateCloudletProcessing();
+		}
 
 		try {
 			// gets the Cloudlet object
@@ -188,7 +284,8 @@ public class NetworkDatacenter extends Datacenter {
 			CloudletScheduler scheduler = vm.getCloudletScheduler();
 			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
 
-			if (estimatedFinishTime > 0.0) { // if this cloudlet is in the exec
+			// with the workflow engine, the scheduler wakes up the host itself
+			if (estimatedFinishTime > 0.0 && workflowEngine == null) { // if this cloudlet is in the exec
 				// time to process the cloudlet
 				estimatedFinishTime += fileTransferTime;
 				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
@@ -218,4 +315,42 @@ public class NetworkDatacenter extends Datacenter {
 		checkCloudletCompletion();
 	}
 
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.Network_Event_Flow) {
+			// with the workflow engine, the delivered packets wake up their hosts
+			if (flowNetwork != null && flowNetwork.update() && workflowEngine == null) {
+				// the delivered packets may complete WAIT_RECV stages
+				updateCloudletProcessing();
+				checkCloudletCompletion();
+			}
+			return;
+		}
+		if (ev != null && ev.getTag() == CloudSimTags.Network_Event_Stage) {
+			if (workflowEngine != null) {
+				NetworkHost host = (NetworkHost) ev.getData();
+				workflowEngine.process(host);
+				checkCloudletCompletion(host);
+			}
+			return;
+		}
+		super.processOtherEvent(ev);
+	}
+
+	/**
+	 * Sends the finished cloudlets of the VMs of a host to their users.
+	 * 
+	 * @param host the host
+	 */
+	protected void checkCloudletCompletion(Host host) {
+		for (Vm vm : host.getVmList()) {
+			while (vm.getCloudletScheduler().isFinishedCloudlets()) {
+				Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
+				if (cl != null) {
+					sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+				}
+			}
+		}
+	}
+
 }
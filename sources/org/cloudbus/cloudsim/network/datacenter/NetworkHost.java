@@ -10,7 +10,6 @@ package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Pe;
@@ -40,12 +39,19 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  */
 public class NetworkHost extends Host {
 
+	private static final long serialVersionUID = 1L;
+
 	public List<NetworkPacket> packetTosendLocal;
 
 	public List<NetworkPacket> packetTosendGlobal;
 
 	public List<NetworkPacket> packetrecieved;
 
+	public List<PacketTrain> trainsrecieved;
+
+	// packets to other hosts, sent as trains when the switches have routing tables
+	private PacketTrain trainTosend;
+
 	public double memory;
 
 	public Switch sw; // Edge switch in general
@@ -69,6 +75,8 @@ public class NetworkHost extends Host {
 		packetrecieved = new ArrayList<NetworkPacket>();
 		packetTosendGlobal = new ArrayList<NetworkPacket>();
 		packetTosendLocal = new ArrayList<NetworkPacket>();
+		trainsrecieved = new ArrayList<PacketTrain>();
+		trainTosend = new PacketTrain(16);
 
 	}
 
@@ -114,20 +122,18 @@ public class NetworkHost extends Host {
 
 			// insertthe packet in recievedlist of VM
 			Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
-			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
-					.get(hs.pkt.sender);
+			((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).receivePacket(hs.pkt);
 
-			if (pktlist == null) {
-				pktlist = new ArrayList<HostPacket>();
-				((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv.put(
-						hs.pkt.sender,
-						pktlist);
+		}
+		packetrecieved.clear();
 
+		for (PacketTrain train : trainsrecieved) {
+			for (int i = 0; i < train.size(); i++) {
+				Vm vm = VmList.getById(getVmList(), train.getReciever(i));
+				((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).receivePacket(train, i);
 			}
-			pktlist.add(hs.pkt);
-
 		}
-		packetrecieved.clear();
+		trainsrecieved.clear();
 	}
 
 	/**
@@ -136,23 +142,28 @@ public class NetworkHost extends Host {
 	 * 
 	 */
 	private void sendpackets() {
+		NetworkDatacenter dc = (NetworkDatacenter) getDatacenter();
+		boolean trains = sw != null && sw.routingTable != null && dc.getFlowNetwork() == null;
 
 		for (Vm vm : super.getVmList()) {
-			for (Entry<Integer, List<HostPacket>> es : ((NetworkCloudletSpaceSharedScheduler) vm
-					.getCloudletScheduler()).pkttosend.entrySet()) {
-				List<HostPacket> pktlist = es.getValue();
-				for (HostPacket pkt : pktlist) {
-					NetworkPacket hpkt = new NetworkPacket(getId(), pkt, vm.getId(), pkt.sender);
-					Vm vm2 = VmList.getById(this.getVmList(), hpkt.recievervmid);
-					if (vm2 != null) {
-						packetTosendLocal.add(hpkt);
-					} else {
-						packetTosendGlobal.add(hpkt);
-					}
+			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pkttosend;
+			for (HostPacket pkt : pktlist) {
+				if (trains && VmList.getById(this.getVmList(), pkt.reciever) == null) {
+					// no NetworkPacket, the packet travels in a train
+					trainTosend.add(pkt.sender, pkt.reciever, dc.VmtoHostlist.get(pkt.reciever), pkt.data, pkt.sendtime);
+					continue;
+				}
+				NetworkPacket hpkt = new NetworkPacket(getId(), pkt, vm.getId(), pkt.sender);
+				Vm vm2 = VmList.getById(this.getVmList(), hpkt.recievervmid);
+				if (vm2 != null) {
+					packetTosendLocal.add(hpkt);
+				} else {
+					// resolved once here, the switches route on the host id
+					hpkt.recieverhostid = dc.VmtoHostlist.get(hpkt.recievervmid);
+					packetTosendGlobal.add(hpkt);
 				}
-				pktlist.clear();
-
 			}
+			pktlist.clear();
 
 		}
 
@@ -164,26 +175,44 @@ public class NetworkHost extends Host {
 			hs.pkt.recievetime = CloudSim.clock();
 			// insertthe packet in recievedlist
 			Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
-
-			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
-					.get(hs.pkt.sender);
-			if (pktlist == null) {
-				pktlist = new ArrayList<HostPacket>();
-				((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv.put(
-						hs.pkt.sender,
-						pktlist);
-			}
-			pktlist.add(hs.pkt);
+			((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).receivePacket(hs.pkt);
 
 		}
 		if (flag) {
+			boolean queued = false;
 			for (Vm vm : super.getVmList()) {
 				vm.updateVmProcessing(CloudSim.clock(), getVmScheduler().getAllocatedMipsForVm(vm));
+				queued |= !((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pkttosend.isEmpty();
+			}
+			// the delivered packets may have let stages queue new packets, which are sent at the
+			// next update of the host
+			WorkflowEngine engine = dc.getWorkflowEngine();
+			if (queued && engine != null) {
+				engine.wake(this, 0.0001);
 			}
 		}
 
 		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
 		packetTosendLocal.clear();
+		if (!trainTosend.isEmpty()) {
+			// one event per packet size, the packets of a size arrive together
+			double avband = bandwidth / trainTosend.size();
+			for (PacketTrain train : trainTosend.split()) {
+				double delay = (1000 * train.getData(0)) / avband;
+				NetworkConstants.totaldatatransfer += train.getData(0) * train.size();
+				CloudSim.send(dc.getId(), sw.getId(), delay, CloudSimTags.Network_Event_UP, train);
+			}
+		}
+		FlowNetwork flowNetwork = dc.getFlowNetwork();
+		if (flowNetwork != null) {
+			// the flows share the bandwidth of the links max-min fairly
+			for (NetworkPacket hs : packetTosendGlobal) {
+				NetworkConstants.totaldatatransfer += hs.pkt.data;
+				flowNetwork.startFlow(hs);
+			}
+			packetTosendGlobal.clear();
+			return;
+		}
 		double avband = bandwidth / packetTosendGlobal.size();
 		for (NetworkPacket hs : packetTosendGlobal) {
 			double delay = (1000 * hs.pkt.data) / avband;
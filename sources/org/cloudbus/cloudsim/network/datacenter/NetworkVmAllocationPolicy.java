@@ -17,6 +17,7 @@ import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmHostTable;
 import org.cloudbus.cloudsim.core.CloudSim;
 
 /**
@@ -30,6 +31,8 @@ import org.cloudbus.cloudsim.core.CloudSim;
  */
 public class NetworkVmAllocationPolicy extends VmAllocationPolicy {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The vm table. */
 	private Map<String, Host> vmTable;
 
@@ -56,7 +59,7 @@ public class NetworkVmAllocationPolicy extends VmAllocationPolicy {
 
 		}
 
-		setVmTable(new HashMap<String, Host>());
+		setVmTable(new VmHostTable());
 		setUsedPes(new HashMap<String, Integer>());
 	}
 
@@ -168,7 +171,7 @@ public class NetworkVmAllocationPolicy extends VmAllocationPolicy {
 	 */
 	@Override
 	public Host getHost(Vm vm) {
-		return getVmTable().get(vm.getUid());
+		return VmHostTable.getHost(getVmTable(), vm);
 	}
 
 	/**
@@ -184,7 +187,7 @@ public class NetworkVmAllocationPolicy extends VmAllocationPolicy {
 	 */
 	@Override
 	public Host getHost(int vmId, int userId) {
-		return getVmTable().get(Vm.getUid(userId, vmId));
+		return VmHostTable.getHost(getVmTable(), vmId, userId);
 	}
 
 	/**
@@ -0,0 +1,108 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.io.Serializable;
+
+/**
+ * PacketQueue is the FIFO queue of the packets received by a VM from one peer VM. A WAIT_RECV stage
+ * only needs the send time of the packet it consumes, so the queue keeps the send times in a
+ * growable ring buffer and receiving or consuming a packet does not allocate.
+ */
+public class PacketQueue implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The send times of the packets, from head, wrapping around. */
+	private double[] sendtimes = new double[4];
+
+	/** The position of the first packet. */
+	private int head;
+
+	/** The number of packets. */
+	private int size;
+
+	/** Whether the packets may be consumed at the next update of the receiving VM. */
+	boolean pending;
+
+	/**
+	 * Adds a packet at the end of the queue.
+	 *
+	 * @param sendtime the send time of the packet
+	 */
+	public void add(double sendtime) {
+		if (size == sendtimes.length) {
+			double[] grown = new double[2 * size];
+			for (int i = 0; i < size; i++) {
+				grown[i] = sendtimes[(head + i) % size];
+			}
+			sendtimes = grown;
+			head = 0;
+		}
+		sendtimes[(head + size) % sendtimes.length] = sendtime;
+		size++;
+	}
+
+	/**
+	 * Removes the first packet of the queue.
+	 *
+	 * @return the send time of the packet
+	 * @throws IllegalStateException if the queue is empty
+	 */
+	public double poll() {
+		if (size == 0) {
+			throw new IllegalStateException("The packet queue is empty");
+		}
+		double sendtime = sendtimes[head];
+		head = (head + 1) % sendtimes.length;
+		size--;
+		return sendtime;
+	}
+
+	/**
+	 * Gets the send time of the first packet of the queue.
+	 *
+	 * @return the send time of the packet
+	 * @throws IllegalStateException if the queue is empty
+	 */
+	public double peek() {
+		if (size == 0) {
+			throw new IllegalStateException("The packet queue is empty");
+		}
+		return sendtimes[head];
+	}
+
+	/**
+	 * Gets the number of packets in the queue.
+	 *
+	 * @return the number of packets
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the queue has no packets.
+	 *
+	 * @return true if the queue is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+}
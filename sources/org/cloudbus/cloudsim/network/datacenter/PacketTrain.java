@@ -0,0 +1,209 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * PacketTrain is a batch of packets travelling together to the same next hop, where they arrive
+ * at the same time. The packets are stored in primitive arrays (sending VM, receiving VM,
+ * receiving host, size and send time), so a train of any length is carried by a single event and
+ * no object is created per packet and hop.
+ * <p>
+ * Switches also use trains as growable queues of the packets waiting for an output port.
+ */
+public class PacketTrain implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The number of packets. */
+	private int size;
+
+	/** The sending VM of every packet. */
+	private int[] sender;
+
+	/** The receiving VM of every packet. */
+	private int[] reciever;
+
+	/** The receiving host of every packet. */
+	private int[] recieverhostid;
+
+	/** The size of every packet. */
+	private double[] data;
+
+	/** The send time of every packet. */
+	private double[] sendtime;
+
+	/**
+	 * Creates an empty train.
+	 *
+	 * @param capacity the initial number of packets the train can hold
+	 */
+	public PacketTrain(int capacity) {
+		capacity = Math.max(capacity, 1);
+		sender = new int[capacity];
+		reciever = new int[capacity];
+		recieverhostid = new int[capacity];
+		data = new double[capacity];
+		sendtime = new double[capacity];
+	}
+
+	/**
+	 * Adds a packet to the train.
+	 *
+	 * @param sender the sending VM
+	 * @param reciever the receiving VM
+	 * @param recieverhostid the receiving host
+	 * @param data the size of the packet
+	 * @param sendtime the send time of the packet
+	 */
+	public void add(int sender, int reciever, int recieverhostid, double data, double sendtime) {
+		if (size == this.sender.length) {
+			int capacity = 2 * size;
+			this.sender = Arrays.copyOf(this.sender, capacity);
+			this.reciever = Arrays.copyOf(this.reciever, capacity);
+			this.recieverhostid = Arrays.copyOf(this.recieverhostid, capacity);
+			this.data = Arrays.copyOf(this.data, capacity);
+			this.sendtime = Arrays.copyOf(this.sendtime, capacity);
+		}
+		this.sender[size] = sender;
+		this.reciever[size] = reciever;
+		this.recieverhostid[size] = recieverhostid;
+		this.data[size] = data;
+		this.sendtime[size] = sendtime;
+		size++;
+	}
+
+	/**
+	 * Adds a packet of another train to this train.
+	 *
+	 * @param train the other train
+	 * @param i the index of the packet in the other train
+	 */
+	public void add(PacketTrain train, int i) {
+		add(train.sender[i], train.reciever[i], train.recieverhostid[i], train.data[i], train.sendtime[i]);
+	}
+
+	/**
+	 * Removes all the packets, keeping the arrays for reuse.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Splits the train in trains of packets of the same size, which take the same time on a link.
+	 * The train is left empty.
+	 *
+	 * @return the trains, in order of the first packet of every size
+	 */
+	public PacketTrain[] split() {
+		int count = 0;
+		PacketTrain[] trains = new PacketTrain[1];
+		double[] sizes = new double[1];
+		for (int i = 0; i < size; i++) {
+			int t = 0;
+			while (t < count && sizes[t] != data[i]) {
+				t++;
+			}
+			if (t == count) {
+				if (count == trains.length) {
+					trains = Arrays.copyOf(trains, 2 * count);
+					sizes = Arrays.copyOf(sizes, 2 * count);
+				}
+				// the first size usually takes the whole train
+				sizes[count] = data[i];
+				trains[count] = new PacketTrain(count == 0 ? size - i : 4);
+				count++;
+			}
+			trains[t].add(this, i);
+		}
+		clear();
+		return Arrays.copyOf(trains, count);
+	}
+
+	/**
+	 * Gets the number of packets.
+	 *
+	 * @return the number of packets
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the train has no packets.
+	 *
+	 * @return true if the train is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the sending VM of a packet.
+	 *
+	 * @param i the index of the packet
+	 * @return the sending VM
+	 */
+	public int getSender(int i) {
+		return sender[i];
+	}
+
+	/**
+	 * Gets the receiving VM of a packet.
+	 *
+	 * @param i the index of the packet
+	 * @return the receiving VM
+	 */
+	public int getReciever(int i) {
+		return reciever[i];
+	}
+
+	/**
+	 * Gets the receiving host of a packet.
+	 *
+	 * @param i the index of the packet
+	 * @return the receiving host
+	 */
+	public int getRecieverHostId(int i) {
+		return recieverhostid[i];
+	}
+
+	/**
+	 * Gets the size of a packet.
+	 *
+	 * @param i the index of the packet
+	 * @return the size
+	 */
+	public double getData(int i) {
+		return data[i];
+	}
+
+	/**
+	 * Gets the send time of a packet.
+	 *
+	 * @param i the index of the packet
+	 * @return the send time
+	 */
+	public double getSendtime(int i) {
+		return sendtime[i];
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.io.Serializable;
+
+/**
+ * RoutingTable is the compiled forwarding table of a {@link Switch}. For every destination host it
+ * gives the set of output ports on the shortest paths towards the edge switch of the host. The
+ * table is stored in int arrays, so routing a packet is an array lookup per hop, and when there
+ * are several equal-cost ports one of them is chosen by hashing the flow of the packet (ECMP), so
+ * that the packets of a flow follow the same path and stay in order.
+ * <p>
+ * The tables are built by {@link DatacenterTopologyBuilder#compileRoutingTables(NetworkDatacenter)}.
+ */
+public class RoutingTable implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The port returned when the destination host is connected to this switch. */
+	public static final int LOCAL = -1;
+
+	/** The port returned when there is no route to the destination host. */
+	public static final int NO_ROUTE = -2;
+
+	/** The index of the edge switch of every host, by host id, or -1. Shared by all the tables. */
+	private final int[] hostEdge;
+
+	/** The index of this switch among the edge switches, or -1 if it is not an edge switch. */
+	private final int edgeIndex;
+
+	/** The switches connected to the output ports. */
+	private final Switch[] ports;
+
+	/** Whether every output port is an uplink. */
+	private final boolean[] uplinks;
+
+	/** The start of the port set of every destination edge switch in portSets. */
+	private final int[] offsets;
+
+	/** The port sets of the destination edge switches, one after the other. */
+	private final int[] portSets;
+
+	/** The seed of the ECMP hash, different for every switch so that the choices are independent. */
+	private final int seed;
+
+	/**
+	 * Creates a routing table.
+	 *
+	 * @param hostEdge the index of the edge switch of every host, by host id
+	 * @param edgeIndex the index of this switch among the edge switches, or -1
+	 * @param ports the switches connected to the output ports
+	 * @param uplinks whether every output port is an uplink
+	 * @param offsets the start of the port set of every destination edge switch, plus the end of
+	 *        the last one
+	 * @param portSets the port sets of the destination edge switches
+	 * @param seed the seed of the ECMP hash
+	 */
+	RoutingTable(
+			int[] hostEdge,
+			int edgeIndex,
+			Switch[] ports,
+			boolean[] uplinks,
+			int[] offsets,
+			int[] portSets,
+			int seed) {
+		this.hostEdge = hostEdge;
+		this.edgeIndex = edgeIndex;
+		this.ports = ports;
+		this.uplinks = uplinks;
+		this.offsets = offsets;
+		this.portSets = portSets;
+		this.seed = seed;
+	}
+
+	/**
+	 * Gets the output port towards a host.
+	 *
+	 * @param hostId the id of the destination host
+	 * @param flowHash the hash of the flow of the packet, see {@link #flowHash(int, int)}
+	 * @return the port, {@link #LOCAL} if the host is connected to this switch or
+	 *         {@link #NO_ROUTE} if the host cannot be reached
+	 */
+	public int getPort(int hostId, int flowHash) {
+		if (hostId < 0 || hostId >= hostEdge.length) {
+			return NO_ROUTE;
+		}
+		int edge = hostEdge[hostId];
+		if (edge < 0) {
+			return NO_ROUTE;
+		}
+		if (edge == edgeIndex) {
+			return LOCAL;
+		}
+
+		int start = offsets[edge];
+		int count = offsets[edge + 1] - start;
+		if (count == 0) {
+			return NO_ROUTE;
+		}
+		if (count == 1) {
+			return portSets[start];
+		}
+		return portSets[start + (mix(flowHash ^ seed) & Integer.MAX_VALUE) % count];
+	}
+
+	/**
+	 * Gets the switch connected to an output port.
+	 *
+	 * @param port the port
+	 * @return the switch
+	 */
+	public Switch getSwitch(int port) {
+		return ports[port];
+	}
+
+	/**
+	 * Checks whether an output port is an uplink.
+	 *
+	 * @param port the port
+	 * @return true if the port leads to an upper level switch
+	 */
+	public boolean isUplink(int port) {
+		return uplinks[port];
+	}
+
+	/**
+	 * Gets the number of output ports.
+	 *
+	 * @return the number of ports
+	 */
+	public int getNumberOfPorts() {
+		return ports.length;
+	}
+
+	/**
+	 * Gets the number of equal-cost ports towards a host.
+	 *
+	 * @param hostId the id of the destination host
+	 * @return the number of ports, 0 if the host is connected to this switch or cannot be reached
+	 */
+	public int getNumberOfPaths(int hostId) {
+		if (hostId < 0 || hostId >= hostEdge.length || hostEdge[hostId] < 0 || hostEdge[hostId] == edgeIndex) {
+			return 0;
+		}
+		return offsets[hostEdge[hostId] + 1] - offsets[hostEdge[hostId]];
+	}
+
+	/**
+	 * Computes the hash of a flow, identified by its sending and receiving VMs.
+	 *
+	 * @param sendervmid the id of the sending VM
+	 * @param recievervmid the id of the receiving VM
+	 * @return the hash
+	 */
+	public static int flowHash(int sendervmid, int recievervmid) {
+		return mix(sendervmid * 0x9E3779B9 + recievervmid);
+	}
+
+	/**
+	 * Mixes the bits of a hash.
+	 *
+	 * @param h the hash
+	 * @return the mixed hash
+	 */
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+}
@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +28,8 @@ import org.cloudbus.cloudsim.lists.VmList;
 
 public class Switch extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	// switch level
 	public int id;
 
@@ -72,6 +75,16 @@ public class Switch extends SimEntity {
 
 	public Map<Integer, NetworkVm> Vmlist;
 
+	// compiled forwarding table, null to route with the switch tree
+	public RoutingTable routingTable;
+
+	// packets waiting for the output ports, by next hop, when routing with the table
+	public Map<Integer, PacketTrain> uplinktrains;
+
+	public Map<Integer, PacketTrain> downlinktrains;
+
+	public Map<Integer, PacketTrain> hosttrains;
+
 	public Switch(String name, int level, NetworkDatacenter dc) {
 		super(name);
 		this.level = level;
@@ -91,11 +104,19 @@ public class Switch extends SimEntity {
 		// Resource characteristics request
 			case CloudSimTags.Network_Event_UP:
 				// process the packet from down switch or host
-				processpacket_up(ev);
+				if (ev.getData() instanceof PacketTrain) {
+					processtrain((PacketTrain) ev.getData(), switching_delay);
+				} else {
+					processpacket_up(ev);
+				}
 				break;
 			case CloudSimTags.Network_Event_DOWN:
 				// process the packet from uplink
-				processpacket_down(ev);
+				if (ev.getData() instanceof PacketTrain) {
+					processtrain((PacketTrain) ev.getData(), latency);
+				} else {
+					processpacket_down(ev);
+				}
 				break;
 			case CloudSimTags.Network_Event_send:
 				processpacketforward(ev);
@@ -117,9 +138,29 @@ public class Switch extends SimEntity {
 
 	protected void processhostpacket(SimEvent ev) {
 		// Send packet to host
+		if (ev.getData() instanceof PacketTrain) {
+			PacketTrain train = (PacketTrain) ev.getData();
+			NetworkHost hs = hostlist.get(train.getRecieverHostId(0));
+			hs.trainsrecieved.add(train);
+			wake(hs);
+			return;
+		}
 		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		NetworkHost hs = hostlist.get(hspkt.recieverhostid);
 		hs.packetrecieved.add(hspkt);
+		wake(hs);
+	}
+
+	/**
+	 * Wakes up a host receiving packets through the workflow engine of the datacenter, if any.
+	 * 
+	 * @param hs the host
+	 */
+	protected void wake(NetworkHost hs) {
+		WorkflowEngine engine = dc.getWorkflowEngine();
+		if (engine != null) {
+			engine.wake(hs, 0);
+		}
 	}
 
 	protected void processpacket_down(SimEvent ev) {
@@ -131,8 +172,11 @@ public class Switch extends SimEntity {
 		// int src=ev.getSource();
 		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
+		CloudSim.cancelAll(getId(), PredicateType.of(CloudSimTags.Network_Event_send));
 		schedule(getId(), latency, CloudSimTags.Network_Event_send);
+		if (routepacket(hspkt)) {
+			return;
+		}
 		if (level == NetworkConstants.EDGE_LEVEL) {
 			// packet is to be recieved by host
 			int hostid = dc.VmtoHostlist.get(recvVMid);
@@ -169,8 +213,11 @@ public class Switch extends SimEntity {
 		// int src=ev.getSource();
 		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
+		CloudSim.cancelAll(getId(), PredicateType.of(CloudSimTags.Network_Event_send));
 		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
+		if (routepacket(hspkt)) {
+			return;
+		}
 		if (level == NetworkConstants.EDGE_LEVEL) {
 			// packet is recieved from host
 			// packet is to be sent to aggregate level or to another host in the
@@ -258,6 +305,135 @@ public class Switch extends SimEntity {
 		}
 	}
 
+	/**
+	 * Queues a packet for its output port using the routing table of the switch.
+	 * 
+	 * @param hspkt the packet, with the id of its receiving host
+	 * @return true if the switch has a routing table, false if the packet is still to be routed
+	 */
+	protected boolean routepacket(NetworkPacket hspkt) {
+		if (routingTable == null) {
+			return false;
+		}
+		PacketTrain train = getoutputtrain(
+				hspkt.recieverhostid,
+				RoutingTable.flowHash(hspkt.sendervmid, hspkt.recievervmid));
+		if (train != null) {
+			train.add(hspkt.pkt.sender, hspkt.pkt.reciever, hspkt.recieverhostid, hspkt.pkt.data, hspkt.pkt.sendtime);
+		}
+		return true;
+	}
+
+	/**
+	 * Queues the packets of a train for their output ports using the routing table of the switch.
+	 * 
+	 * @param train the train
+	 * @param delay the delay before the queued packets are forwarded
+	 * @throws IllegalStateException if the switch has no routing table, the hosts send trains
+	 *             only when the topology has routing tables
+	 */
+	protected void processtrain(PacketTrain train, double delay) {
+		if (routingTable == null) {
+			throw new IllegalStateException(getName() + ": packet trains need a routing table on every switch");
+		}
+		CloudSim.cancelAll(getId(), PredicateType.of(CloudSimTags.Network_Event_send));
+		schedule(getId(), delay, CloudSimTags.Network_Event_send);
+		for (int i = 0; i < train.size(); i++) {
+			PacketTrain out = getoutputtrain(
+					train.getRecieverHostId(i),
+					RoutingTable.flowHash(train.getSender(i), train.getReciever(i)));
+			if (out != null) {
+				out.add(train, i);
+			}
+		}
+	}
+
+	/**
+	 * Gets the queue of the output port towards a host, chosen with the routing table of the
+	 * switch.
+	 * 
+	 * @param recieverhostid the receiving host
+	 * @param flowHash the hash of the flow of the packet
+	 * @return the queue, or null if there is no route to the host
+	 */
+	protected PacketTrain getoutputtrain(int recieverhostid, int flowHash) {
+		int port = routingTable.getPort(recieverhostid, flowHash);
+		if (port == RoutingTable.NO_ROUTE) {
+			System.out.println(" No destination for this packet");
+			return null;
+		}
+
+		Map<Integer, PacketTrain> trains;
+		int tosend;
+		if (port == RoutingTable.LOCAL) {
+			if (hosttrains == null) {
+				hosttrains = new HashMap<Integer, PacketTrain>();
+			}
+			trains = hosttrains;
+			tosend = recieverhostid;
+		} else if (routingTable.isUplink(port)) {
+			if (uplinktrains == null) {
+				uplinktrains = new HashMap<Integer, PacketTrain>();
+			}
+			trains = uplinktrains;
+			tosend = routingTable.getSwitch(port).getId();
+		} else {
+			if (downlinktrains == null) {
+				downlinktrains = new HashMap<Integer, PacketTrain>();
+			}
+			trains = downlinktrains;
+			tosend = routingTable.getSwitch(port).getId();
+		}
+
+		PacketTrain train = trains.get(tosend);
+		if (train == null) {
+			train = new PacketTrain(16);
+			trains.put(tosend, train);
+		}
+		return train;
+	}
+
+	/**
+	 * Sends the queued packets of all the output ports, one event per next hop and packet size,
+	 * sharing the bandwidth of every port between its packets.
+	 */
+	protected void forwardtrains() {
+		forwardtrains(uplinktrains, uplinkbandwidth, CloudSimTags.Network_Event_UP);
+		forwardtrains(downlinktrains, downlinkbandwidth, CloudSimTags.Network_Event_DOWN);
+		if (hosttrains != null) {
+			for (PacketTrain pending : hosttrains.values()) {
+				if (!pending.isEmpty()) {
+					double avband = downlinkbandwidth / pending.size();
+					for (PacketTrain train : pending.split()) {
+						this.send(getId(), train.getData(0) / avband, CloudSimTags.Network_Event_Host, train);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends the queued packets of a set of output ports.
+	 * 
+	 * @param trains the queues, by next hop
+	 * @param bandwidth the bandwidth of the ports
+	 * @param tag the tag of the events
+	 */
+	private void forwardtrains(Map<Integer, PacketTrain> trains, double bandwidth, int tag) {
+		if (trains == null) {
+			return;
+		}
+		for (Entry<Integer, PacketTrain> es : trains.entrySet()) {
+			PacketTrain pending = es.getValue();
+			if (!pending.isEmpty()) {
+				double avband = bandwidth / pending.size();
+				for (PacketTrain train : pending.split()) {
+					this.send(es.getKey(), 1000 * train.getData(0) / avband, tag, train);
+				}
+			}
+		}
+	}
+
 	private void registerHost(SimEvent ev) {
 		NetworkHost hs = (NetworkHost) ev.getData();
 		hostlist.put(hs.getId(), (NetworkHost) ev.getData());
@@ -265,7 +441,7 @@ public class Switch extends SimEntity {
 
 	protected void processpacket(SimEvent ev) {
 		// send packet to itself with switching delay (discarding other)
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_UP));
+		CloudSim.cancelAll(getId(), PredicateType.of(CloudSimTags.Network_Event_UP));
 		schedule(getId(), switching_delay, CloudSimTags.Network_Event_UP);
 		pktlist.add((NetworkPacket) ev.getData());
 
@@ -331,6 +507,8 @@ public class Switch extends SimEntity {
 			}
 		}
 
+		forwardtrains();
+
 		// or to switch at next level.
 		// clear the list
 
@@ -0,0 +1,323 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * TrafficAwareVmAllocationPolicy is a NetworkVmAllocationPolicy that places the VMs that exchange
+ * a lot of data close to each other in the datacenter network. The traffic between VMs is taken
+ * from the stages of the submitted {@link AppCloudlet}s, and a batch of VMs is placed by
+ * partitioning their communication graph along the network hierarchy with the
+ * {@link TrafficPartitioner}: first over the groups of edge switches sharing their aggregate
+ * switches, then over the edge switches of every group, then over the hosts of every edge switch,
+ * under the free PEs and RAM of the hosts.
+ * <p>
+ * A VM that was not planned, or does not fit in its planned host, falls back to the host with
+ * less PEs in use. The traffic with the VMs outside the batch is not considered.
+ */
+public class TrafficAwareVmAllocationPolicy extends NetworkVmAllocationPolicy {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The traffic between every pair of VMs, keyed by the VM ids, the lower one first. */
+	private Map<Long, Double> traffic;
+
+	/** The hosts planned for the VMs of the last batch, by VM uid. */
+	private Map<String, Host> plannedHosts;
+
+	/**
+	 * HostGroup is a set of hosts under the same switch, split in the groups under the switches
+	 * of the next level.
+	 */
+	private static class HostGroup {
+
+		/** The indexes of the hosts in the host list. */
+		final List<Integer> hosts = new ArrayList<Integer>();
+
+		/** The groups of the next level, or null for a single host. */
+		List<HostGroup> children;
+
+	}
+
+	/**
+	 * Creates the new TrafficAwareVmAllocationPolicy object.
+	 *
+	 * @param list the list of hosts
+	 */
+	public TrafficAwareVmAllocationPolicy(List<? extends Host> list) {
+		super(list);
+		traffic = new HashMap<Long, Double>();
+		plannedHosts = new HashMap<String, Host>();
+	}
+
+	/**
+	 * Adds traffic between two VMs.
+	 *
+	 * @param vmA the id of a VM
+	 * @param vmB the id of the other VM
+	 * @param data the data exchanged
+	 */
+	public void addTraffic(int vmA, int vmB, double data) {
+		if (vmA == vmB || data <= 0) {
+			return;
+		}
+		Long key = getKey(vmA, vmB);
+		Double previous = traffic.get(key);
+		traffic.put(key, previous == null ? data : previous + data);
+	}
+
+	/**
+	 * Adds the traffic of the send stages of the cloudlets of an application, whose VMs are set.
+	 *
+	 * @param app the application
+	 */
+	public void addTraffic(AppCloudlet app) {
+		for (NetworkCloudlet cl : app.clist) {
+			for (TaskStage st : cl.stages) {
+				if (st.type == NetworkConstants.WAIT_SEND) {
+					addTraffic(cl.getVmId(), st.peer, st.data);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the traffic between two VMs.
+	 *
+	 * @param vmA the id of a VM
+	 * @param vmB the id of the other VM
+	 * @return the data exchanged
+	 */
+	public double getTraffic(int vmA, int vmB) {
+		Double data = traffic.get(getKey(vmA, vmB));
+		return data == null ? 0 : data;
+	}
+
+	/**
+	 * Removes all the traffic.
+	 */
+	public void clearTraffic() {
+		traffic.clear();
+	}
+
+	/**
+	 * Allocates hosts for a batch of VMs, placed together according to their traffic.
+	 *
+	 * @param vms the VMs
+	 * @return $true if all the VMs were allocated; $false otherwise
+	 */
+	@Override
+	public boolean allocateHostsForVms(List<? extends Vm> vms) {
+		planPlacement(vms);
+		return super.allocateHostsForVms(vms);
+	}
+
+	/**
+	 * Plans the hosts of a batch of VMs, which are then used by {@link #allocateHostForVm(Vm)}.
+	 *
+	 * @param vms the VMs
+	 */
+	public void planPlacement(List<? extends Vm> vms) {
+		plannedHosts.clear();
+		if (vms.isEmpty() || getHostList().isEmpty()) {
+			return;
+		}
+
+		// the communication graph of the VMs
+		Map<Integer, Integer> index = new HashMap<Integer, Integer>();
+		int[] pes = new int[vms.size()];
+		int[] ram = new int[vms.size()];
+		for (int i = 0; i < vms.size(); i++) {
+			Vm vm = vms.get(i);
+			index.put(vm.getId(), i);
+			pes[i] = vm.getNumberOfPes();
+			ram[i] = vm.getRam();
+		}
+		int[] from = new int[traffic.size()];
+		int[] to = new int[traffic.size()];
+		double[] data = new double[traffic.size()];
+		int edges = 0;
+		for (Entry<Long, Double> entry : traffic.entrySet()) {
+			Integer a = index.get((int) (entry.getKey() >>> 32));
+			Integer b = index.get((int) (entry.getKey() & 0xFFFFFFFFL));
+			if (a != null && b != null) {
+				from[edges] = a;
+				to[edges] = b;
+				data[edges++] = entry.getValue();
+			}
+		}
+		TrafficPartitioner.Graph graph = TrafficPartitioner.Graph.create(pes, ram, from, to, data, edges);
+
+		int[] vertices = new int[vms.size()];
+		int[] hostOf = new int[vms.size()];
+		for (int i = 0; i < vms.size(); i++) {
+			vertices[i] = i;
+			hostOf[i] = TrafficPartitioner.UNASSIGNED;
+		}
+		place(graph, vertices, getHierarchy(), hostOf);
+
+		for (int i = 0; i < vms.size(); i++) {
+			if (hostOf[i] != TrafficPartitioner.UNASSIGNED) {
+				plannedHosts.put(vms.get(i).getUid(), getHostList().get(hostOf[i]));
+			}
+		}
+	}
+
+	/**
+	 * Allocates the planned host for a VM, or the host with less PEs in use.
+	 *
+	 * @param vm VM specification
+	 *
+	 * @return $true if the host could be allocated; $false otherwise
+	 */
+	@Override
+	public boolean allocateHostForVm(Vm vm) {
+		Host host = plannedHosts.remove(vm.getUid());
+		if (host != null && !getVmTable().containsKey(vm.getUid()) && allocateHostForVm(vm, host)) {
+			return true;
+		}
+		return super.allocateHostForVm(vm);
+	}
+
+	/**
+	 * Places VMs in a group of hosts, by partitioning them over the groups of the next level.
+	 *
+	 * @param graph the communication graph of all the VMs
+	 * @param vertices the VMs to place
+	 * @param group the group of hosts
+	 * @param hostOf filled with the index of the host of every VM
+	 */
+	private void place(TrafficPartitioner.Graph graph, int[] vertices, HostGroup group, int[] hostOf) {
+		if (vertices.length == 0) {
+			return;
+		}
+		if (group.children == null) {
+			for (int v : vertices) {
+				hostOf[v] = group.hosts.get(0);
+			}
+			return;
+		}
+		if (group.children.size() == 1) {
+			place(graph, vertices, group.children.get(0), hostOf);
+			return;
+		}
+
+		int k = group.children.size();
+		int[] capPes = new int[k];
+		int[] capRam = new int[k];
+		for (int p = 0; p < k; p++) {
+			for (int i : group.children.get(p).hosts) {
+				capPes[p] += getFreePes().get(i);
+				capRam[p] += getHostList().get(i).getRamProvisioner().getAvailableRam();
+			}
+		}
+		int[] parts = TrafficPartitioner.partition(graph.subgraph(vertices), capPes, capRam);
+
+		int[] counts = new int[k];
+		for (int part : parts) {
+			if (part != TrafficPartitioner.UNASSIGNED) {
+				counts[part]++;
+			}
+		}
+		int[][] members = new int[k][];
+		for (int p = 0; p < k; p++) {
+			members[p] = new int[counts[p]];
+			counts[p] = 0;
+		}
+		for (int i = 0; i < vertices.length; i++) {
+			if (parts[i] != TrafficPartitioner.UNASSIGNED) {
+				members[parts[i]][counts[parts[i]]++] = vertices[i];
+			}
+		}
+		for (int p = 0; p < k; p++) {
+			place(graph, members[p], group.children.get(p), hostOf);
+		}
+	}
+
+	/**
+	 * Gets the hierarchy of the hosts: the groups of edge switches sharing their first aggregate
+	 * switch, the edge switches and the hosts. The hosts without switch form a group of their own.
+	 *
+	 * @return the group of all the hosts
+	 */
+	private HostGroup getHierarchy() {
+		Map<Integer, HostGroup> edges = new LinkedHashMap<Integer, HostGroup>();
+		Map<Integer, HostGroup> pods = new LinkedHashMap<Integer, HostGroup>();
+		for (int i = 0; i < getHostList().size(); i++) {
+			Switch sw = this.<NetworkHost> getHostList().get(i).sw;
+			int edgeId = sw != null ? sw.getId() : -1;
+			HostGroup edge = edges.get(edgeId);
+			if (edge == null) {
+				edge = new HostGroup();
+				edge.children = new ArrayList<HostGroup>();
+				edges.put(edgeId, edge);
+
+				int podId = -1;
+				if (sw != null && sw.uplinkswitches != null) {
+					for (Switch up : sw.uplinkswitches) {
+						podId = podId == -1 ? up.getId() : Math.min(podId, up.getId());
+					}
+				}
+				HostGroup pod = pods.get(podId);
+				if (pod == null) {
+					pod = new HostGroup();
+					pod.children = new ArrayList<HostGroup>();
+					pods.put(podId, pod);
+				}
+				pod.children.add(edge);
+			}
+			HostGroup host = new HostGroup();
+			host.hosts.add(i);
+			edge.children.add(host);
+			edge.hosts.add(i);
+		}
+
+		HostGroup root = new HostGroup();
+		root.children = new ArrayList<HostGroup>(pods.values());
+		for (HostGroup pod : pods.values()) {
+			for (HostGroup edge : pod.children) {
+				pod.hosts.addAll(edge.hosts);
+			}
+			root.hosts.addAll(pod.hosts);
+		}
+		return root;
+	}
+
+	/**
+	 * Gets the key of a pair of VMs in the traffic map.
+	 *
+	 * @param vmA the id of a VM
+	 * @param vmB the id of the other VM
+	 * @return the key
+	 */
+	private static Long getKey(int vmA, int vmB) {
+		int low = Math.min(vmA, vmB);
+		int high = Math.max(vmA, vmB);
+		return ((long) low << 32) | (high & 0xFFFFFFFFL);
+	}
+
+}
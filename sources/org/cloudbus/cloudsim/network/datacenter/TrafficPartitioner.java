@@ -0,0 +1,455 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TrafficPartitioner splits the communication graph of a set of VMs into parts of bounded capacity
+ * so that little traffic crosses the parts. It is a multilevel min-cut heuristic: the graph is
+ * coarsened by merging the VMs joined by the heaviest edges, the coarsest graph is partitioned by
+ * greedy growing, and the partition is projected back level by level, moving at every level the
+ * VMs to the part they exchange the most traffic with.
+ * <p>
+ * Every VM weighs its PEs and its RAM, and a part never holds more than its capacity of either.
+ * The VMs that fit in no part are left unassigned.
+ */
+public class TrafficPartitioner {
+
+	/** The part of a VM that fits in no part. */
+	public static final int UNASSIGNED = -1;
+
+	/** The graph is not coarsened below this number of vertices per part. */
+	private static final int COARSEST_VERTICES_PER_PART = 16;
+
+	/** The maximum number of refinement passes at every level. */
+	private static final int REFINEMENT_PASSES = 8;
+
+	/**
+	 * Graph is an undirected weighted graph of VMs, stored as adjacency arrays.
+	 */
+	public static class Graph {
+
+		/** The number of vertices. */
+		final int n;
+
+		/** The start of the neighbours of every vertex in adj, plus the end of the last one. */
+		final int[] start;
+
+		/** The neighbours of the vertices, one after the other. */
+		final int[] adj;
+
+		/** The traffic of every edge in adj. */
+		final double[] weight;
+
+		/** The PEs of every vertex. */
+		final int[] pes;
+
+		/** The RAM of every vertex. */
+		final int[] ram;
+
+		Graph(int n, int[] start, int[] adj, double[] weight, int[] pes, int[] ram) {
+			this.n = n;
+			this.start = start;
+			this.adj = adj;
+			this.weight = weight;
+			this.pes = pes;
+			this.ram = ram;
+		}
+
+		/**
+		 * Creates a graph from a list of edges. Every pair of vertices must appear at most once.
+		 *
+		 * @param pes the PEs of every vertex
+		 * @param ram the RAM of every vertex
+		 * @param from the first vertex of every edge
+		 * @param to the second vertex of every edge
+		 * @param traffic the traffic of every edge
+		 * @param edges the number of edges
+		 * @return the graph
+		 */
+		public static Graph create(int[] pes, int[] ram, int[] from, int[] to, double[] traffic, int edges) {
+			int n = pes.length;
+			int[] start = new int[n + 1];
+			for (int e = 0; e < edges; e++) {
+				if (from[e] != to[e] && traffic[e] > 0) {
+					start[from[e] + 1]++;
+					start[to[e] + 1]++;
+				}
+			}
+			for (int v = 0; v < n; v++) {
+				start[v + 1] += start[v];
+			}
+			int[] fill = Arrays.copyOf(start, n);
+			int[] adj = new int[start[n]];
+			double[] weight = new double[start[n]];
+			for (int e = 0; e < edges; e++) {
+				if (from[e] != to[e] && traffic[e] > 0) {
+					adj[fill[from[e]]] = to[e];
+					weight[fill[from[e]]++] = traffic[e];
+					adj[fill[to[e]]] = from[e];
+					weight[fill[to[e]]++] = traffic[e];
+				}
+			}
+			return new Graph(n, start, adj, weight, pes, ram);
+		}
+
+		/**
+		 * Creates the subgraph induced by some vertices.
+		 *
+		 * @param vertices the vertices, which become the vertices 0, 1, ... of the subgraph
+		 * @return the subgraph
+		 */
+		public Graph subgraph(int[] vertices) {
+			int[] local = new int[n];
+			Arrays.fill(local, -1);
+			for (int i = 0; i < vertices.length; i++) {
+				local[vertices[i]] = i;
+			}
+			int[] subStart = new int[vertices.length + 1];
+			int[] subPes = new int[vertices.length];
+			int[] subRam = new int[vertices.length];
+			for (int i = 0; i < vertices.length; i++) {
+				int v = vertices[i];
+				subPes[i] = pes[v];
+				subRam[i] = ram[v];
+				subStart[i + 1] = subStart[i];
+				for (int e = start[v]; e < start[v + 1]; e++) {
+					if (local[adj[e]] != -1) {
+						subStart[i + 1]++;
+					}
+				}
+			}
+			int[] subAdj = new int[subStart[vertices.length]];
+			double[] subWeight = new double[subAdj.length];
+			int size = 0;
+			for (int v : vertices) {
+				for (int e = start[v]; e < start[v + 1]; e++) {
+					if (local[adj[e]] != -1) {
+						subAdj[size] = local[adj[e]];
+						subWeight[size++] = weight[e];
+					}
+				}
+			}
+			return new Graph(vertices.length, subStart, subAdj, subWeight, subPes, subRam);
+		}
+
+		/**
+		 * Gets the number of vertices.
+		 *
+		 * @return the number of vertices
+		 */
+		public int getNumberOfVertices() {
+			return n;
+		}
+
+	}
+
+	/**
+	 * Partitions a graph.
+	 *
+	 * @param g the graph
+	 * @param capPes the PEs available in every part
+	 * @param capRam the RAM available in every part
+	 * @return the part of every vertex, or {@link #UNASSIGNED}
+	 */
+	public static int[] partition(Graph g, int[] capPes, int[] capRam) {
+		int k = capPes.length;
+		int maxPes = 0;
+		int maxRam = 0;
+		for (int p = 0; p < k; p++) {
+			maxPes = Math.max(maxPes, capPes[p]);
+			maxRam = Math.max(maxRam, capRam[p]);
+		}
+
+		// coarsening, while it shrinks the graph
+		List<Graph> graphs = new ArrayList<Graph>();
+		List<int[]> maps = new ArrayList<int[]>();
+		Graph cur = g;
+		while (cur.n > COARSEST_VERTICES_PER_PART * k) {
+			int[] map = new int[cur.n];
+			Graph coarse = coarsen(cur, map, maxPes, maxRam);
+			if (coarse.n * 10 > cur.n * 9) {
+				break;
+			}
+			graphs.add(cur);
+			maps.add(map);
+			cur = coarse;
+		}
+
+		int[] parts = grow(cur, capPes, capRam);
+		refine(cur, parts, capPes, capRam);
+
+		// uncoarsening
+		for (int level = graphs.size() - 1; level >= 0; level--) {
+			Graph fine = graphs.get(level);
+			int[] map = maps.get(level);
+			int[] fineParts = new int[fine.n];
+			for (int v = 0; v < fine.n; v++) {
+				fineParts[v] = parts[map[v]];
+			}
+			parts = fineParts;
+			refine(fine, parts, capPes, capRam);
+		}
+		return parts;
+	}
+
+	/**
+	 * Computes the traffic between different parts.
+	 *
+	 * @param g the graph
+	 * @param parts the part of every vertex
+	 * @return the traffic of the edges whose vertices are in different parts, or unassigned
+	 */
+	public static double getCut(Graph g, int[] parts) {
+		double cut = 0;
+		for (int v = 0; v < g.n; v++) {
+			for (int e = g.start[v]; e < g.start[v + 1]; e++) {
+				if (v < g.adj[e] && (parts[v] != parts[g.adj[e]] || parts[v] == UNASSIGNED)) {
+					cut += g.weight[e];
+				}
+			}
+		}
+		return cut;
+	}
+
+	/**
+	 * Coarsens a graph by heavy-edge matching: every vertex is merged with the unmatched neighbour
+	 * it exchanges the most traffic with, as long as both fit together in a part.
+	 *
+	 * @param g the graph
+	 * @param map filled with the coarse vertex of every vertex
+	 * @param maxPes the PEs of the largest part
+	 * @param maxRam the RAM of the largest part
+	 * @return the coarse graph
+	 */
+	private static Graph coarsen(Graph g, int[] map, int maxPes, int maxRam) {
+		Arrays.fill(map, -1);
+		int n = 0;
+		for (int v = 0; v < g.n; v++) {
+			if (map[v] != -1) {
+				continue;
+			}
+			int match = -1;
+			for (int e = g.start[v]; e < g.start[v + 1]; e++) {
+				int u = g.adj[e];
+				if (map[u] == -1
+						&& u != v
+						&& g.pes[v] + g.pes[u] <= maxPes
+						&& g.ram[v] + g.ram[u] <= maxRam
+						&& (match == -1 || g.weight[e] > g.weight[match])) {
+					match = e;
+				}
+			}
+			map[v] = n;
+			if (match != -1) {
+				map[g.adj[match]] = n;
+			}
+			n++;
+		}
+
+		// the vertices of every coarse vertex
+		int[] memberStart = new int[n + 1];
+		for (int v = 0; v < g.n; v++) {
+			memberStart[map[v] + 1]++;
+		}
+		for (int c = 0; c < n; c++) {
+			memberStart[c + 1] += memberStart[c];
+		}
+		int[] fill = Arrays.copyOf(memberStart, n);
+		int[] members = new int[g.n];
+		for (int v = 0; v < g.n; v++) {
+			members[fill[map[v]]++] = v;
+		}
+
+		int[] pes = new int[n];
+		int[] ram = new int[n];
+		int[] start = new int[n + 1];
+		int[] adj = new int[g.adj.length];
+		double[] weight = new double[g.adj.length];
+		double[] acc = new double[n];
+		int[] mark = new int[n];
+		Arrays.fill(mark, -1);
+		int[] touched = new int[n];
+		int size = 0;
+		for (int c = 0; c < n; c++) {
+			int count = 0;
+			for (int i = memberStart[c]; i < memberStart[c + 1]; i++) {
+				int v = members[i];
+				pes[c] += g.pes[v];
+				ram[c] += g.ram[v];
+				for (int e = g.start[v]; e < g.start[v + 1]; e++) {
+					int u = map[g.adj[e]];
+					if (u == c) {
+						continue;
+					}
+					if (mark[u] != c) {
+						mark[u] = c;
+						acc[u] = 0;
+						touched[count++] = u;
+					}
+					acc[u] += g.weight[e];
+				}
+			}
+			for (int i = 0; i < count; i++) {
+				adj[size] = touched[i];
+				weight[size++] = acc[touched[i]];
+			}
+			start[c + 1] = size;
+		}
+		return new Graph(n, start, Arrays.copyOf(adj, size), Arrays.copyOf(weight, size), pes, ram);
+	}
+
+	/**
+	 * Partitions a graph by greedy growing: the vertex most connected to the assigned vertices is
+	 * assigned next, to the part it exchanges the most traffic with, or to the least loaded part.
+	 *
+	 * @param g the graph
+	 * @param capPes the PEs available in every part
+	 * @param capRam the RAM available in every part
+	 * @return the part of every vertex
+	 */
+	private static int[] grow(Graph g, int[] capPes, int[] capRam) {
+		int k = capPes.length;
+		int[] freePes = capPes.clone();
+		int[] freeRam = capRam.clone();
+		int[] parts = new int[g.n];
+		Arrays.fill(parts, UNASSIGNED);
+		boolean[] done = new boolean[g.n];
+		double[] conn = new double[g.n];
+		double[] partConn = new double[k];
+		for (int step = 0; step < g.n; step++) {
+			int v = -1;
+			for (int u = 0; u < g.n; u++) {
+				if (!done[u] && (v == -1 || conn[u] > conn[v] || conn[u] == conn[v] && g.pes[u] > g.pes[v])) {
+					v = u;
+				}
+			}
+			done[v] = true;
+
+			Arrays.fill(partConn, 0);
+			for (int e = g.start[v]; e < g.start[v + 1]; e++) {
+				int p = parts[g.adj[e]];
+				if (p != UNASSIGNED) {
+					partConn[p] += g.weight[e];
+				}
+				conn[g.adj[e]] += g.weight[e];
+			}
+			int best = UNASSIGNED;
+			for (int p = 0; p < k; p++) {
+				if (g.pes[v] <= freePes[p]
+						&& g.ram[v] <= freeRam[p]
+						&& (best == UNASSIGNED
+								|| partConn[p] > partConn[best]
+								|| partConn[p] == partConn[best] && freePes[p] > freePes[best])) {
+					best = p;
+				}
+			}
+			if (best != UNASSIGNED) {
+				parts[v] = best;
+				freePes[best] -= g.pes[v];
+				freeRam[best] -= g.ram[v];
+			}
+		}
+		return parts;
+	}
+
+	/**
+	 * Refines a partition by moving every vertex to the part it exchanges the most traffic with,
+	 * when the part has room for it, until no move reduces the cut. Unassigned vertices are also
+	 * assigned to the least loaded part with room for them.
+	 *
+	 * @param g the graph
+	 * @param parts the part of every vertex, updated
+	 * @param capPes the PEs available in every part
+	 * @param capRam the RAM available in every part
+	 */
+	private static void refine(Graph g, int[] parts, int[] capPes, int[] capRam) {
+		int k = capPes.length;
+		int[] freePes = capPes.clone();
+		int[] freeRam = capRam.clone();
+		for (int v = 0; v < g.n; v++) {
+			if (parts[v] != UNASSIGNED) {
+				freePes[parts[v]] -= g.pes[v];
+				freeRam[parts[v]] -= g.ram[v];
+			}
+		}
+
+		double[] partConn = new double[k];
+		boolean[] seen = new boolean[k];
+		int[] touched = new int[k];
+		for (int pass = 0; pass < REFINEMENT_PASSES; pass++) {
+			boolean moved = false;
+			for (int v = 0; v < g.n; v++) {
+				int count = 0;
+				for (int e = g.start[v]; e < g.start[v + 1]; e++) {
+					int p = parts[g.adj[e]];
+					if (p == UNASSIGNED) {
+						continue;
+					}
+					if (!seen[p]) {
+						seen[p] = true;
+						partConn[p] = 0;
+						touched[count++] = p;
+					}
+					partConn[p] += g.weight[e];
+				}
+
+				int from = parts[v];
+				double current = from != UNASSIGNED && seen[from] ? partConn[from] : 0;
+				int best = UNASSIGNED;
+				for (int i = 0; i < count; i++) {
+					int p = touched[i];
+					if (p != from
+							&& g.pes[v] <= freePes[p]
+							&& g.ram[v] <= freeRam[p]
+							&& partConn[p] > (best == UNASSIGNED ? current : partConn[best])) {
+						best = p;
+					}
+					seen[p] = false;
+				}
+				if (best == UNASSIGNED && from == UNASSIGNED) {
+					for (int p = 0; p < k; p++) {
+						if (g.pes[v] <= freePes[p]
+								&& g.ram[v] <= freeRam[p]
+								&& (best == UNASSIGNED || freePes[p] > freePes[best])) {
+							best = p;
+						}
+					}
+				}
+
+				if (best != UNASSIGNED) {
+					if (from != UNASSIGNED) {
+						freePes[from] += g.pes[v];
+						freeRam[from] += g.ram[v];
+					}
+					parts[v] = best;
+					freePes[best] -= g.pes[v];
+					freeRam[best] -= g.ram[v];
+					moved = true;
+				}
+			}
+			if (!moved) {
+				break;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.util.IntHashMap;
+
+/**
+ * WorkflowEngine drives the stages of the {@link NetworkCloudlet}s of a {@link NetworkDatacenter}
+ * with events instead of datacenter update cycles. The stages of the cloudlets form a DAG: every
+ * stage depends on the previous stage of its cloudlet, and a WAIT_RECV stage also depends on the
+ * message sent by the WAIT_SEND stage of its peer. The {@link NetworkCloudletSpaceSharedScheduler}
+ * keeps the stages whose dependencies are met in its ready queue, the EXECUTION stages in a queue
+ * by end time, and the WAIT_RECV stages in the queue of their peer until a message arrives.
+ * <p>
+ * With the engine, the schedulers do not schedule VM_DATACENTER_EVENTs. An EXECUTION stage
+ * schedules exactly one event, at its end, and the arrival of a message or a ready stage wakes up
+ * the host of the VM, once per host and time. These events update a single host, so the cost of a
+ * simulation grows with the number of stages and messages, not with the number of updates times
+ * the number of cloudlets.
+ */
+public class WorkflowEngine {
+
+	/** The datacenter. */
+	private final NetworkDatacenter dc;
+
+	/** The hosts, by id. */
+	private final IntHashMap<NetworkHost> hosts;
+
+	/** The time of the earliest pending wake-up of every host, by host id, or -1. */
+	private double[] wakeTimes;
+
+	/** The number of stage events scheduled. */
+	private long stageEvents;
+
+	/** The number of wake-up events scheduled. */
+	private long wakeEvents;
+
+	/**
+	 * Creates the workflow engine of a datacenter.
+	 *
+	 * @param dc the datacenter
+	 */
+	public WorkflowEngine(NetworkDatacenter dc) {
+		this.dc = dc;
+		hosts = new IntHashMap<NetworkHost>();
+		wakeTimes = new double[0];
+	}
+
+	/**
+	 * Schedules the event at the end of an EXECUTION stage.
+	 *
+	 * @param vmId the VM of the cloudlet
+	 * @param delay the time to the end of the stage
+	 */
+	public void scheduleStage(int vmId, double delay) {
+		NetworkHost host = getHost(vmId);
+		if (host == null) {
+			return;
+		}
+		stageEvents++;
+		dc.schedule(dc.getId(), delay, CloudSimTags.Network_Event_Stage, host);
+	}
+
+	/**
+	 * Wakes up the host of a VM, unless it is already woken up earlier or at the same time.
+	 *
+	 * @param vmId the VM
+	 * @param delay the time to the wake-up
+	 */
+	public void wake(int vmId, double delay) {
+		NetworkHost host = getHost(vmId);
+		if (host != null) {
+			wake(host, delay);
+		}
+	}
+
+	/**
+	 * Wakes up a host, unless it is already woken up earlier or at the same time.
+	 *
+	 * @param host the host
+	 * @param delay the time to the wake-up
+	 */
+	public void wake(NetworkHost host, double delay) {
+		if (host.getId() >= wakeTimes.length) {
+			int length = wakeTimes.length;
+			wakeTimes = Arrays.copyOf(wakeTimes, Math.max(2 * length, host.getId() + 1));
+			Arrays.fill(wakeTimes, length, wakeTimes.length, -1);
+		}
+		double time = CloudSim.clock() + delay;
+		double pending = wakeTimes[host.getId()];
+		if (pending >= CloudSim.clock() && pending <= time) {
+			return;
+		}
+		wakeTimes[host.getId()] = time;
+		wakeEvents++;
+		dc.schedule(dc.getId(), delay, CloudSimTags.Network_Event_Stage, host);
+	}
+
+	/**
+	 * Updates a host at one of its events: progresses the stages of its VMs and sends their
+	 * packets.
+	 *
+	 * @param host the host
+	 */
+	public void process(NetworkHost host) {
+		if (host.getId() < wakeTimes.length && wakeTimes[host.getId()] <= CloudSim.clock()) {
+			wakeTimes[host.getId()] = -1;
+		}
+		host.updateVmsProcessing(CloudSim.clock());
+	}
+
+	/**
+	 * Gets the number of stage events scheduled.
+	 *
+	 * @return the number of events
+	 */
+	public long getNumberOfStageEvents() {
+		return stageEvents;
+	}
+
+	/**
+	 * Gets the number of wake-up events scheduled.
+	 *
+	 * @return the number of events
+	 */
+	public long getNumberOfWakeEvents() {
+		return wakeEvents;
+	}
+
+	/**
+	 * Gets the host of a VM.
+	 *
+	 * @param vmId the VM
+	 * @return the host, or null if the VM is not created
+	 */
+	private NetworkHost getHost(int vmId) {
+		Integer hostId = dc.VmtoHostlist.get(vmId);
+		if (hostId == null) {
+			return null;
+		}
+		NetworkHost host = hosts.get(hostId);
+		if (host == null) {
+			for (Host h : dc.getHostList()) {
+				hosts.put(h.getId(), (NetworkHost) h);
+			}
+			host = hosts.get(hostId);
+		}
+		return host;
+	}
+
+}
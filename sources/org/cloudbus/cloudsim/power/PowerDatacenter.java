@@ -21,10 +21,12 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.List;
 
 import java.util.Map;
 
+import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Log;
@@ -37,6 +39,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
 import org.cloudbus.cloudsim.examples.power.Constants;
 import org.cloudbus.cloudsim.failures.model.HostFailure;
+import org.cloudbus.cloudsim.util.PhaseProfiler;
 import org.cloudbus.cloudsim.cost.model.CostEstimation;
 
 
@@ -56,6 +59,8 @@ import org.cloudbus.cloudsim.cost.model.CostEstimation;
  */
 public class PowerDatacenter extends Datacenter {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The power. */
 	private double power;
 
@@ -94,6 +99,13 @@ public class PowerDatacenter extends Datacenter {
 	private int times;
 	
 	private int[] points = new int[4];
+
+	/**
+	 * The slots of the VMs created for the arrivals of a workload whose cloudlets have not been
+	 * submitted yet, which are not removed as completed VMs although they request no MIPS.
+	 */
+	private final BitSet vmsAwaitingCloudlets = new BitSet();
+
 	/**
 	 * Instantiates a new datacenter.
 	 * 
@@ -359,7 +371,7 @@ public class PowerDatacenter extends Datacenter {
 	@Override
 	protected void updateCloudletProcessing() {
 		if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == CloudSim.clock()) {
-			CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+			CloudSim.cancelAll(getId(), PredicateType.of(CloudSimTags.VM_DATACENTER_EVENT));
 			schedule(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			return;
 		}
@@ -382,8 +394,11 @@ public class PowerDatacenter extends Datacenter {
 				if(Constants.multiDatacenter) {
 					if(CloudSim.clock() > 100) { //Uncomment if considering power
 						
+						PhaseProfiler.start(PhaseProfiler.OPTIMIZE);
 						List<Map<String, Object>> powerMigrationMap = getVmAllocationPolicy().optimizeAllocationPower(
 								getVmList());				
+						PhaseProfiler.end(PhaseProfiler.OPTIMIZE);
+						PhaseProfiler.start(PhaseProfiler.MIGRATION_DISPATCH);
 						if (powerMigrationMap != null) {
 							System.out.println(CloudSim.clock() + ": Migration Process starts...");
 							for (Map<String, Object> migrate : powerMigrationMap) {
@@ -407,6 +422,7 @@ public class PowerDatacenter extends Datacenter {
 		
 								targetHost.addMigratingInVm(vm);
 								incrementMigrationCount();
+								PhaseProfiler.increment(PhaseProfiler.MIGRATIONS);
 		
 								send(
 										getId(),
@@ -415,19 +431,23 @@ public class PowerDatacenter extends Datacenter {
 										migrate);
 							}
 						}
+						PhaseProfiler.end(PhaseProfiler.MIGRATION_DISPATCH);
 					}
 				}
 				else {
 				
 					// Uncomment for normal simulation
+					PhaseProfiler.start(PhaseProfiler.OPTIMIZE);
 					List<Map<String, Object>> migrationMap = getVmAllocationPolicy().optimizeAllocation(
 							getVmList());
+					PhaseProfiler.end(PhaseProfiler.OPTIMIZE);
 					
 	//				// Uncomment for random data generation
 	//				List<Map<String, Object>> migrationMap = getVmAllocationPolicy().optimizeAllocationRandom(
 	//						getVmList());
 					
 	//				System.out.println(CloudSim.clock() + ": Migration Process starts...");
+					PhaseProfiler.start(PhaseProfiler.MIGRATION_DISPATCH);
 					if (migrationMap != null) {
 						for (Map<String, Object> migrate : migrationMap) {
 							Vm vm = (Vm) migrate.get("vm");
@@ -446,6 +466,7 @@ public class PowerDatacenter extends Datacenter {
 	
 							targetHost.addMigratingInVm(vm);
 							incrementMigrationCount();
+							PhaseProfiler.increment(PhaseProfiler.MIGRATIONS);
 	
 							send(
 									getId(),
@@ -454,13 +475,14 @@ public class PowerDatacenter extends Datacenter {
 									migrate);
 						}
 					}
+					PhaseProfiler.end(PhaseProfiler.MIGRATION_DISPATCH);
 				}
 			}
 			
 			
 			// schedules an event to the next time
 			if (minTime != Double.MAX_VALUE) {
-				CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+				CloudSim.cancelAll(getId(), PredicateType.of(CloudSimTags.VM_DATACENTER_EVENT));
 				send(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			}
 
@@ -577,6 +599,9 @@ public class PowerDatacenter extends Datacenter {
 		/** Remove completed VMs **/
 		for (PowerHost host : this.<PowerHost> getHostList()) {
 			for (Vm vm : host.getCompletedVms()) {
+				if (isAwaitingCloudlets(vm)) {
+					continue;
+				}
 				getVmAllocationPolicy().deallocateHostForVm(vm);
 				getVmList().remove(vm);
 				Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
@@ -622,7 +647,7 @@ public class PowerDatacenter extends Datacenter {
 	protected void processVmMigrate(SimEvent ev, boolean ack) {
 		updateCloudetProcessingWithoutSchedulingFutureEvents();
 		super.processVmMigrate(ev, ack);
-		SimEvent event = CloudSim.findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
+		SimEvent event = CloudSim.findFirstDeferred(getId(), PredicateType.of(CloudSimTags.VM_MIGRATE));
 		if (event == null || event.eventTime() > CloudSim.clock()) {
 			updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 		}
@@ -636,6 +661,44 @@ public class PowerDatacenter extends Datacenter {
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
 		super.processCloudletSubmit(ev, ack);
 		setCloudletSubmitted(CloudSim.clock());
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		vmsAwaitingCloudlets.clear(Vm.getSlot(cloudlet.getUserId(), cloudlet.getVmId()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processArrivalVmCreate(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processArrivalVmCreate(SimEvent ev) {
+		super.processArrivalVmCreate(ev);
+		Vm vm = (Vm) ev.getData();
+		if (getVmAllocationPolicy().getHost(vm) != null) {
+			vmsAwaitingCloudlets.set(vm.getSlot());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processVmDestroy(org.cloudbus.cloudsim.core.SimEvent,
+	 * boolean)
+	 */
+	@Override
+	protected void processVmDestroy(SimEvent ev, boolean ack) {
+		super.processVmDestroy(ev, ack);
+		vmsAwaitingCloudlets.clear(((Vm) ev.getData()).getSlot());
+	}
+
+	/**
+	 * Checks whether a VM is created but its cloudlets have not been submitted yet, as the VMs
+	 * created by a broker during the simulation until their cloudlets arrive. These VMs are not
+	 * completed, although they request no MIPS.
+	 * 
+	 * @param vm the vm
+	 * @return true if the VM is waiting for its cloudlets
+	 */
+	protected boolean isAwaitingCloudlets(Vm vm) {
+		return vmsAwaitingCloudlets.get(vm.getSlot());
 	}
 
 	/**
@@ -29,6 +29,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class PowerDatacenterBroker extends DatacenterBroker {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Instantiates a new power datacenter broker.
 	 * 
@@ -41,22 +43,16 @@ public class PowerDatacenterBroker extends DatacenterBroker {
 
 	/*
 	 * (non-Javadoc)
-	 * @see
-	 * org.cloudbus.cloudsim.DatacenterBroker#processVmCreate(org.cloudbus.cloudsim.core.SimEvent)
+	 * @see org.cloudbus.cloudsim.DatacenterBroker#processVmCreate(int, int, int)
 	 */
 	@Override
-	protected void processVmCreate(SimEvent ev) {
-		int[] data = (int[]) ev.getData();
-		int result = data[2];
-
-		if (result != CloudSimTags.TRUE) {
-			int datacenterId = data[0];
-			int vmId = data[1];
+	protected void processVmCreate(int datacenterId, int vmId, int result) {
+		if (result != CloudSimTags.TRUE && !isPendingArrival(vmId)) {
 			System.out.println(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
 					+ " failed in Datacenter #" + datacenterId);
 			System.exit(0);
 		}
-		super.processVmCreate(ev);
+		super.processVmCreate(datacenterId, vmId, result);
 	}
 
 }
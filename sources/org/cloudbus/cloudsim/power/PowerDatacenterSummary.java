@@ -0,0 +1,398 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.power;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.cost.model.CostEstimation;
+import org.cloudbus.cloudsim.examples.power.Constants;
+
+/**
+ * PowerDatacenterSummary is a compact view of one datacenter used by the first level of the
+ * hierarchical VM placement. It keeps a histogram of the free CPU capacity of the hosts, the free
+ * RAM, the current energy price, the fraction of green energy and the cost of migrating a VM into
+ * the datacenter from another one. The global policy ranks datacenters using only these summaries,
+ * so that only the host lists of the selected datacenters have to be searched.
+ */
+public class PowerDatacenterSummary implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The number of buckets of the free capacity histogram. */
+	public static final int BUCKETS = 10;
+
+	/** The executor shared by the parallel updates. */
+	private static ExecutorService executor;
+
+	/** The datacenter id. */
+	private final int datacenterId;
+
+	/** The hosts of the datacenter. */
+	private final List<PowerHost> hostList;
+
+	/** The number of hosts per bucket of free MIPS, relative to the largest host. */
+	private final int[] freeCapacityHistogram = new int[BUCKETS];
+
+	/** The largest total MIPS among the hosts. */
+	private double maxHostMips;
+
+	/** The total free MIPS. */
+	private double freeMips;
+
+	/** The largest free RAM among the hosts. */
+	private int maxFreeRam;
+
+	/** The number of hosts running at least one VM. */
+	private int activeHosts;
+
+	/** The energy price, or a negative value to follow Constants.ENERGY_PRICE. */
+	private double energyPrice = -1;
+
+	/** The fraction of the energy that comes from green sources. */
+	private double greenFraction;
+
+	/**
+	 * The cost per MB of RAM of migrating a VM into this datacenter from another one, or a negative
+	 * value to use the SLA migration penalty of the cost model.
+	 */
+	private double migrationCost = -1;
+
+	/**
+	 * Instantiates a new datacenter summary.
+	 *
+	 * @param datacenterId the datacenter id
+	 * @param hostList the hosts of the datacenter
+	 */
+	public PowerDatacenterSummary(int datacenterId, List<PowerHost> hostList) {
+		this.datacenterId = datacenterId;
+		this.hostList = hostList;
+		update();
+	}
+
+	/**
+	 * Recomputes the summary from the current state of the hosts.
+	 */
+	public void update() {
+		double maxMips = 0;
+		for (PowerHost host : getHostList()) {
+			if (host.getTotalMips() > maxMips) {
+				maxMips = host.getTotalMips();
+			}
+		}
+
+		for (int i = 0; i < BUCKETS; i++) {
+			freeCapacityHistogram[i] = 0;
+		}
+		double free = 0;
+		int maxRam = 0;
+		int active = 0;
+		for (PowerHost host : getHostList()) {
+			double availableMips = host.getAvailableMips();
+			free += availableMips;
+			freeCapacityHistogram[getBucket(availableMips, maxMips)]++;
+
+			int availableRam = host.getRamProvisioner().getAvailableRam();
+			if (availableRam > maxRam) {
+				maxRam = availableRam;
+			}
+			if (!host.getVmList().isEmpty()) {
+				active++;
+			}
+		}
+
+		maxHostMips = maxMips;
+		freeMips = free;
+		maxFreeRam = maxRam;
+		activeHosts = active;
+	}
+
+	/**
+	 * Updates the summary after the free MIPS of one host changed, without scanning the other
+	 * hosts. The largest free RAM is kept as an upper bound until the next full update.
+	 *
+	 * @param previousAvailableMips the free mips of the host before the change
+	 * @param availableMips the free mips of the host after the change
+	 */
+	public void updateHost(double previousAvailableMips, double availableMips) {
+		freeCapacityHistogram[getBucket(previousAvailableMips, maxHostMips)]--;
+		freeCapacityHistogram[getBucket(availableMips, maxHostMips)]++;
+		freeMips += availableMips - previousAvailableMips;
+	}
+
+	/**
+	 * Recomputes the given summaries. Summaries of different datacenters cover disjoint host
+	 * lists, so they are updated in parallel.
+	 *
+	 * @param summaries the summaries
+	 */
+	public static void updateAll(List<PowerDatacenterSummary> summaries) {
+		if (summaries.size() < 2) {
+			for (PowerDatacenterSummary summary : summaries) {
+				summary.update();
+			}
+			return;
+		}
+
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (final PowerDatacenterSummary summary : summaries) {
+			tasks.add(new Callable<Object>() {
+
+				@Override
+				public Object call() {
+					summary.update();
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Object> future : getExecutor().invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Gets the executor used to update the summaries, creating it on first use.
+	 *
+	 * @return the executor
+	 */
+	protected static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(
+					Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "PowerDatacenterSummary");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return executor;
+	}
+
+	/**
+	 * Checks whether at least one host of the datacenter may have room for the VM. The check is
+	 * conservative with respect to the histogram resolution, the final decision is taken by the
+	 * host level search.
+	 *
+	 * @param vm the vm
+	 * @return true, if the datacenter may host the vm
+	 */
+	public boolean mayHost(Vm vm) {
+		if (maxFreeRam < vm.getCurrentRequestedRam()) {
+			return false;
+		}
+		double requestedMips = vm.getCurrentRequestedTotalMips();
+		if (requestedMips > freeMips) {
+			return false;
+		}
+		for (int i = getBucket(requestedMips, maxHostMips); i < BUCKETS; i++) {
+			if (freeCapacityHistogram[i] > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the relative cost of placing the VM in this datacenter: the brown energy price of the
+	 * requested MIPS over one scheduling interval, plus the migration cost if the VM comes from
+	 * another datacenter.
+	 *
+	 * @param vm the vm
+	 * @param sourceDatacenterId the id of the datacenter the VM is migrated from, -1 if none
+	 * @return the placement cost
+	 */
+	public double getPlacementCost(Vm vm, int sourceDatacenterId) {
+		double cost = getBrownEnergyPrice() * vm.getCurrentRequestedTotalMips() * Constants.SCHEDULING_INTERVAL;
+		if (sourceDatacenterId >= 0 && sourceDatacenterId != getDatacenterId()) {
+			cost += getMigrationCost(vm);
+		}
+		return cost;
+	}
+
+	/**
+	 * Gets the bucket of the histogram for the given amount of MIPS.
+	 *
+	 * @param mips the mips
+	 * @param maxMips the largest host mips
+	 * @return the bucket
+	 */
+	protected static int getBucket(double mips, double maxMips) {
+		if (maxMips <= 0) {
+			return 0;
+		}
+		int bucket = (int) (mips / maxMips * BUCKETS);
+		if (bucket < 0) {
+			return 0;
+		}
+		return Math.min(bucket, BUCKETS - 1);
+	}
+
+	/**
+	 * Gets the datacenter id.
+	 *
+	 * @return the datacenter id
+	 */
+	public int getDatacenterId() {
+		return datacenterId;
+	}
+
+	/**
+	 * Gets the host list.
+	 *
+	 * @return the host list
+	 */
+	public List<PowerHost> getHostList() {
+		return hostList;
+	}
+
+	/**
+	 * Gets the free capacity histogram.
+	 *
+	 * @return the free capacity histogram
+	 */
+	public int[] getFreeCapacityHistogram() {
+		return freeCapacityHistogram;
+	}
+
+	/**
+	 * Gets the total free MIPS.
+	 *
+	 * @return the free mips
+	 */
+	public double getFreeMips() {
+		return freeMips;
+	}
+
+	/**
+	 * Gets the largest free RAM among the hosts.
+	 *
+	 * @return the max free ram
+	 */
+	public int getMaxFreeRam() {
+		return maxFreeRam;
+	}
+
+	/**
+	 * Gets the number of hosts running at least one VM.
+	 *
+	 * @return the active hosts
+	 */
+	public int getActiveHosts() {
+		return activeHosts;
+	}
+
+	/**
+	 * Gets the energy price.
+	 *
+	 * @return the energy price
+	 */
+	public double getEnergyPrice() {
+		if (energyPrice < 0) {
+			return Constants.ENERGY_PRICE;
+		}
+		return energyPrice;
+	}
+
+	/**
+	 * Sets the energy price. A negative value makes the summary follow Constants.ENERGY_PRICE.
+	 *
+	 * @param energyPrice the new energy price
+	 */
+	public void setEnergyPrice(double energyPrice) {
+		this.energyPrice = energyPrice;
+	}
+
+	/**
+	 * Gets the price of the energy that does not come from green sources.
+	 *
+	 * @return the brown energy price
+	 */
+	public double getBrownEnergyPrice() {
+		return getEnergyPrice() * (1 - getGreenFraction());
+	}
+
+	/**
+	 * Gets the green fraction.
+	 *
+	 * @return the green fraction
+	 */
+	public double getGreenFraction() {
+		return greenFraction;
+	}
+
+	/**
+	 * Sets the green fraction.
+	 *
+	 * @param greenFraction the new green fraction, between 0 and 1
+	 */
+	public void setGreenFraction(double greenFraction) {
+		this.greenFraction = greenFraction;
+	}
+
+	/**
+	 * Gets the inter-datacenter migration cost per MB of RAM.
+	 *
+	 * @return the migration cost
+	 */
+	public double getMigrationCost() {
+		return migrationCost;
+	}
+
+	/**
+	 * Gets the cost of migrating the VM into this datacenter from another one. Unless a cost per
+	 * MB of RAM is set, this is the SLA penalty of the time slots the migration lasts.
+	 *
+	 * @param vm the vm
+	 * @return the migration cost
+	 */
+	public double getMigrationCost(Vm vm) {
+		if (migrationCost < 0) {
+			return vm.getMigrationSlotNumber(vm.getRam()) * CostEstimation.getSLAVMigration(vm);
+		}
+		return migrationCost * vm.getRam();
+	}
+
+	/**
+	 * Sets the inter-datacenter migration cost per MB of RAM. A negative value makes the summary
+	 * use the SLA migration penalty of the cost model.
+	 *
+	 * @param migrationCost the new migration cost
+	 */
+	public void setMigrationCost(double migrationCost) {
+		this.migrationCost = migrationCost;
+	}
+
+}
@@ -8,7 +8,6 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +16,7 @@ import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmHostTable;
 import org.cloudbus.cloudsim.core.CloudSim;
 
 /**
@@ -35,8 +35,10 @@ import org.cloudbus.cloudsim.core.CloudSim;
  */
 public abstract class PowerVmAllocationPolicyAbstract extends VmAllocationPolicy {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The vm table. */
-	private final Map<String, Host> vmTable = new HashMap<String, Host>();
+	private final VmHostTable vmTable = new VmHostTable();
 
 	/**
 	 * Instantiates a new power vm allocation policy abstract.
@@ -119,7 +121,7 @@ public abstract class PowerVmAllocationPolicyAbstract extends VmAllocationPolicy
 	 */
 	@Override
 	public Host getHost(Vm vm) {
-		return getVmTable().get(vm.getUid());
+		return vmTable.getHost(vm);
 	}
 
 	/*
@@ -128,7 +130,7 @@ public abstract class PowerVmAllocationPolicyAbstract extends VmAllocationPolicy
 	 */
 	@Override
 	public Host getHost(int vmId, int userId) {
-		return getVmTable().get(Vm.getUid(userId, vmId));
+		return vmTable.getHost(vmId, userId);
 	}
 
 	/**
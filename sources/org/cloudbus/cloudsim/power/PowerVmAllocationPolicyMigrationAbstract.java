@@ -11,6 +11,7 @@ package org.cloudbus.cloudsim.power;
 import java.util.ArrayList;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -26,7 +27,7 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.power.lists.PowerVmList;
-import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
+import org.cloudbus.cloudsim.util.PhaseProfiler;
 import org.cloudbus.cloudsim.examples.power.Constants;
 import org.cloudbus.cloudsim.cost.model.CostEstimation;
 import org.cloudbus.cloudsim.power.PowerHost;
@@ -48,6 +49,8 @@ import org.cloudbus.cloudsim.power.PowerHost;
  */
 public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAllocationPolicyAbstract {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
 
@@ -63,17 +66,17 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The time history. */
 	private final Map<Integer, List<Double>> timeHistory = new HashMap<Integer, List<Double>>();
 
-	/** The execution time history vm selection. */
-	private final List<Double> executionTimeHistoryVmSelection = new LinkedList<Double>();
+	/** The datacenter summaries used by the hierarchical placement, empty for a flat search. */
+	private final List<PowerDatacenterSummary> datacenterSummaries = new ArrayList<PowerDatacenterSummary>();
 
-	/** The execution time history host selection. */
-	private final List<Double> executionTimeHistoryHostSelection = new LinkedList<Double>();
+	/** The datacenter summaries by datacenter id. */
+	private final Map<Integer, PowerDatacenterSummary> datacenterSummaryMap = new HashMap<Integer, PowerDatacenterSummary>();
 
-	/** The execution time history vm reallocation. */
-	private final List<Double> executionTimeHistoryVmReallocation = new LinkedList<Double>();
+	/** The datacenters the VMs selected for migration are leaving, by vm. */
+	private final Map<Vm, Integer> sourceDatacenters = new HashMap<Vm, Integer>();
 
-	/** The execution time history total. */
-	private final List<Double> executionTimeHistoryTotal = new LinkedList<Double>();
+	/** The maximum number of datacenters searched per VM by the hierarchical placement. */
+	private int maxTargetDatacenters = 2;
 
 	/**
 	 * Instantiates a new power vm allocation policy migration abstract.
@@ -130,21 +133,20 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	@Override
 	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
 		
-		ExecutionTimeMeasurer.start("optimizeAllocationTotal");
+		PhaseProfiler.start(PhaseProfiler.OPTIMIZE_TOTAL);
 
-		ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");
+		PhaseProfiler.start(PhaseProfiler.HOST_SELECTION);
 		List<PowerHostUtilizationHistory> overUtilizedHosts = getOverUtilizedHosts();
-		getExecutionTimeHistoryHostSelection().add(
-				ExecutionTimeMeasurer.end("optimizeAllocationHostSelection"));
+		PhaseProfiler.end(PhaseProfiler.HOST_SELECTION);
 
 		printOverUtilizedHosts(overUtilizedHosts);
 		
 		saveAllocation();
 
-		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
+		PhaseProfiler.start(PhaseProfiler.VM_SELECTION);
 		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
 		
-		getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
+		PhaseProfiler.end(PhaseProfiler.VM_SELECTION);
 
 		// Log.printLine("Reallocation of VMs from the over-utilized hosts:");
 		// ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
@@ -157,12 +159,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		// migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
 
 		System.out.println("Start calculating magrationMap for VMs and the OVER-utilized hosts:");
-		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
+		PhaseProfiler.start(PhaseProfiler.VM_REALLOCATION);
 		List<Map<String, Object>> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
 				overUtilizedHosts));
+		getSourceDatacenters().clear();
 		if (migrationMap.isEmpty()) {System.out.println("No VMs are attached with such Hosts!");}
-		getExecutionTimeHistoryVmReallocation().add(
-				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
+		PhaseProfiler.end(PhaseProfiler.VM_REALLOCATION);
 //		System.out.println();
 
 		System.out.println("Start calculating magrationMap for VMs and the UNDER-utilized hosts:");
@@ -170,7 +172,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		restoreAllocation();
 
-		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
+		PhaseProfiler.end(PhaseProfiler.OPTIMIZE_TOTAL);
 
 		return migrationMap;
 	}
@@ -192,6 +194,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			
 			List<Map<String, Object>> migrationMap = getNewVmPlacementPower(vmsToMigrate, new HashSet<Host>(
 					brownPoweredHosts));
+			getSourceDatacenters().clear();
 			
 			if (migrationMap.isEmpty()) {System.out.println("No VMs are attached with such Hosts!");}
 			
@@ -311,13 +314,16 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		PowerHost allocatedHost = null;
 		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
+		updateDatacenterSummaries();
 		for (Vm vm : vmsToMigrate) {
-			if (Constants.DVFS == 1)
+			if (isHierarchicalPlacement())
+				allocatedHost = findHostForVmHierarchical(vm, excludedHosts);
+			else if (Constants.DVFS == 1)
 				allocatedHost = frequencyAwarePlacement(vm, excludedHosts);
 			else
 				allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				createVmInDatacenterSummary(allocatedHost, vm);
 				
 				if (Constants.MY_POLICIES == 1) {
 				}
@@ -345,6 +351,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
+				getSourceDatacenters().put(vm, host.getDatacenter().getId());
 				host.vmDestroy(vm);
 				if (!isBrownPowered(host)) {
 					break;
@@ -376,6 +383,25 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return false;
 	}
 
+	/**
+	 * Gets the fraction of the given hosts that are not brown-powered.
+	 *
+	 * @param hosts the hosts
+	 * @return the green fraction
+	 */
+	public double getGreenFraction(List<PowerHost> hosts) {
+		if (hosts.isEmpty()) {
+			return 0;
+		}
+		int green = 0;
+		for (PowerHost host : hosts) {
+			if (!isBrownPowered(host)) {
+				green++;
+			}
+		}
+		return (double) green / hosts.size();
+	}
+
 	/**
 	 * Gets the migration map from under utilized hosts.
 	 * 
@@ -492,6 +518,18 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the power host
 	 */
 	public PowerHost findHostForVm(Vm vm, Set<? extends Host> excludedHosts) {
+		return findHostForVm(vm, excludedHosts, this.<PowerHost> getHostList());
+	}
+
+	/**
+	 * Find host for vm among the given candidate hosts.
+	 * 
+	 * @param vm the vm
+	 * @param excludedHosts the excluded hosts
+	 * @param candidateHosts the hosts to search
+	 * @return the power host
+	 */
+	protected PowerHost findHostForVm(Vm vm, Set<? extends Host> excludedHosts, List<PowerHost> candidateHosts) {
 		PowerHost allocatedHost = null;
 		double minCost = Double.MAX_VALUE;
 		double diffpriority = Double.MAX_VALUE;
@@ -501,7 +539,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		int vm_priority = 0;
 		double rating = 0;
 
-		for (PowerHost host : this.<PowerHost> getHostList()) { 
+		for (PowerHost host : candidateHosts) {
 			if (excludedHosts.contains(host)) {
 				continue;
 			}
@@ -603,17 +641,136 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		}
 		return hosts;
 	}
-	
+
+	/**
+	 * Find host for vm with the two-level placement: the datacenters are ranked using their
+	 * summaries and only the hosts of the best ranked datacenters are searched.
+	 *
+	 * @param vm the vm
+	 * @param excludedHosts the excluded hosts
+	 * @return the power host
+	 */
+	protected PowerHost findHostForVmHierarchical(Vm vm, Set<? extends Host> excludedHosts) {
+		for (PowerDatacenterSummary summary : getTargetDatacenters(vm)) {
+			PowerHost host;
+			if (Constants.DVFS == 1)
+				host = frequencyAwarePlacement(vm, excludedHosts, summary.getHostList());
+			else
+				host = findHostForVm(vm, excludedHosts, summary.getHostList());
+			if (host != null) {
+				return host;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the datacenters to search for the VM, cheapest first. Datacenters whose summary shows
+	 * no room for the VM are skipped.
+	 *
+	 * @param vm the vm
+	 * @return the target datacenters
+	 */
+	protected List<PowerDatacenterSummary> getTargetDatacenters(final Vm vm) {
+		final int sourceDatacenterId = getSourceDatacenterId(vm);
+		List<PowerDatacenterSummary> targets = new ArrayList<PowerDatacenterSummary>();
+		for (PowerDatacenterSummary summary : getDatacenterSummaries()) {
+			if (summary.mayHost(vm)) {
+				targets.add(summary);
+			}
+		}
+		Collections.sort(targets, new Comparator<PowerDatacenterSummary>() {
+
+			@Override
+			public int compare(PowerDatacenterSummary a, PowerDatacenterSummary b) {
+				return Double.compare(
+						a.getPlacementCost(vm, sourceDatacenterId),
+						b.getPlacementCost(vm, sourceDatacenterId));
+			}
+		});
+		if (targets.size() > getMaxTargetDatacenters()) {
+			return targets.subList(0, getMaxTargetDatacenters());
+		}
+		return targets;
+	}
+
+	/**
+	 * Gets the id of the datacenter the VM is migrated from.
+	 *
+	 * @param vm the vm
+	 * @return the source datacenter id, -1 if the VM is not placed yet
+	 */
+	protected int getSourceDatacenterId(Vm vm) {
+		Integer sourceDatacenterId = getSourceDatacenters().get(vm);
+		if (sourceDatacenterId != null) {
+			return sourceDatacenterId;
+		}
+		if (vm.getHost() != null && vm.getHost().getDatacenter() != null) {
+			return vm.getHost().getDatacenter().getId();
+		}
+		return -1;
+	}
+
+	/**
+	 * Creates the VM on the host and keeps the summary of the host's datacenter up to date.
+	 *
+	 * @param host the host
+	 * @param vm the vm
+	 */
+	protected void createVmInDatacenterSummary(PowerHost host, Vm vm) {
+		double availableMips = host.getAvailableMips();
+		host.vmCreate(vm);
+		PowerDatacenterSummary summary = getDatacenterSummaryMap().get(host.getDatacenter().getId());
+		if (summary != null) {
+			summary.updateHost(availableMips, host.getAvailableMips());
+		}
+	}
+
+	/**
+	 * Refreshes the summaries of all datacenters, in parallel when there is more than one.
+	 */
+	protected void updateDatacenterSummaries() {
+		if (isHierarchicalPlacement()) {
+			PowerDatacenterSummary.updateAll(getDatacenterSummaries());
+		}
+	}
+
+	/**
+	 * Adds the summary of a datacenter and enables the hierarchical placement.
+	 *
+	 * @param summary the datacenter summary
+	 */
+	public void addDatacenterSummary(PowerDatacenterSummary summary) {
+		getDatacenterSummaries().add(summary);
+		getDatacenterSummaryMap().put(summary.getDatacenterId(), summary);
+	}
+
+	/**
+	 * Checks if the hierarchical placement is enabled.
+	 *
+	 * @return true, if at least one datacenter summary has been added
+	 */
+	public boolean isHierarchicalPlacement() {
+		return !getDatacenterSummaries().isEmpty();
+	}
+
 	protected PowerHost frequencyAwarePlacement (
 			Vm vm,
 			Set<? extends Host> excludedHosts) {
+		return frequencyAwarePlacement(vm, excludedHosts, this.<PowerHost> getHostList());
+	}
+
+	protected PowerHost frequencyAwarePlacement (
+			Vm vm,
+			Set<? extends Host> excludedHosts,
+			List<PowerHost> candidateHosts) {
 		double bestPlacement = -10000000;
 		PowerHost bestHost = null;
 		int bestOperatingPoint = Constants.POINTS - 1;
 		double finalUtilization = 0;
 		double finalLoad = 0;                                                                               
 	
-		for (PowerHost host : this.<PowerHost> getHostList()) {
+		for (PowerHost host : candidateHosts) {
 			if (excludedHosts.contains(host)) {
 				continue;
 			}
@@ -695,13 +852,16 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		PowerHost allocatedHost = null;
 		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
+		updateDatacenterSummaries();
 		for (Vm vm : vmsToMigrate) {
-			if (Constants.DVFS == 1)
+			if (isHierarchicalPlacement())
+				allocatedHost = findHostForVmHierarchical(vm, excludedHosts);
+			else if (Constants.DVFS == 1)
 				allocatedHost = frequencyAwarePlacement(vm, excludedHosts);
 			else
 				allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				createVmInDatacenterSummary(allocatedHost, vm);
 				
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
@@ -727,13 +887,16 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
 		PowerHost allocatedHost = null;
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
+		updateDatacenterSummaries();
 		for (Vm vm : vmsToMigrate) {
-			if (Constants.DVFS == 1)
+			if (isHierarchicalPlacement())
+				allocatedHost = findHostForVmHierarchical(vm, excludedHosts);
+			else if (Constants.DVFS == 1)
 				allocatedHost = frequencyAwarePlacement(vm, excludedHosts);
 			else
 				allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				createVmInDatacenterSummary(allocatedHost, vm);
 
 				// Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 				System.out.print("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
@@ -774,6 +937,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
+				getSourceDatacenters().put(vm, host.getDatacenter().getId());
 				host.vmDestroy(vm);
 				if (!isHostOverUtilized(host)) {
 					break;
@@ -1162,39 +1326,48 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Gets the execution time history vm selection.
-	 * 
-	 * @return the execution time history vm selection
+	 * Gets the datacenter summaries.
+	 *
+	 * @return the datacenter summaries
 	 */
-	public List<Double> getExecutionTimeHistoryVmSelection() {
-		return executionTimeHistoryVmSelection;
+	public List<PowerDatacenterSummary> getDatacenterSummaries() {
+		return datacenterSummaries;
 	}
 
 	/**
-	 * Gets the execution time history host selection.
-	 * 
-	 * @return the execution time history host selection
+	 * Gets the datacenter summaries by datacenter id.
+	 *
+	 * @return the datacenter summary map
 	 */
-	public List<Double> getExecutionTimeHistoryHostSelection() {
-		return executionTimeHistoryHostSelection;
+	protected Map<Integer, PowerDatacenterSummary> getDatacenterSummaryMap() {
+		return datacenterSummaryMap;
 	}
 
 	/**
-	 * Gets the execution time history vm reallocation.
-	 * 
-	 * @return the execution time history vm reallocation
+	 * Gets the source datacenters of the VMs selected for migration.
+	 *
+	 * @return the source datacenters
 	 */
-	public List<Double> getExecutionTimeHistoryVmReallocation() {
-		return executionTimeHistoryVmReallocation;
+	protected Map<Vm, Integer> getSourceDatacenters() {
+		return sourceDatacenters;
 	}
 
 	/**
-	 * Gets the execution time history total.
-	 * 
-	 * @return the execution time history total
+	 * Gets the maximum number of datacenters searched per VM.
+	 *
+	 * @return the max target datacenters
+	 */
+	public int getMaxTargetDatacenters() {
+		return maxTargetDatacenters;
+	}
+
+	/**
+	 * Sets the maximum number of datacenters searched per VM.
+	 *
+	 * @param maxTargetDatacenters the new max target datacenters
 	 */
-	public List<Double> getExecutionTimeHistoryTotal() {
-		return executionTimeHistoryTotal;
+	public void setMaxTargetDatacenters(int maxTargetDatacenters) {
+		this.maxTargetDatacenters = maxTargetDatacenters;
 	}
 
 }
@@ -31,6 +31,8 @@ import org.cloudbus.cloudsim.examples.power.Constants;
  */
 public class PowerVmAllocationPolicyMigrationStaticThreshold extends PowerVmAllocationPolicyMigrationAbstract {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The utilization threshold. */
 	private double utilizationThreshold = 0.9;
 
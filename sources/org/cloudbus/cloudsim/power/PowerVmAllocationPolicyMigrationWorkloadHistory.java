@@ -21,6 +21,8 @@ import org.cloudbus.cloudsim.util.MathUtil;
 
 public class PowerVmAllocationPolicyMigrationWorkloadHistory extends PowerVmAllocationPolicyMigrationAbstract {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
@@ -22,6 +22,8 @@ import org.cloudbus.cloudsim.examples.power.Constants;
 public class PowerVmAllocationPolicyNodeIndependantHistory extends
 		PowerVmAllocationPolicyMigrationAbstract {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The safety parameter. */
 	private double utilizationThreshold = 1.0;
 	
@@ -8,11 +8,14 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.CapacityIndex;
 
 /**
  * This a simple class representing a simple VM allocation policy that does not perform any
@@ -31,6 +34,11 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class PowerVmAllocationPolicySimple extends PowerVmAllocationPolicyAbstract {
 
+	private static final long serialVersionUID = 1L;
+
+	/** Whether the batches of VMs are allocated first-fit decreasing instead of in batch order. */
+	private boolean firstFitDecreasing;
+
 	/**
 	 * Instantiates a new power vm allocation policy simple.
 	 * 
@@ -49,6 +57,79 @@ public class PowerVmAllocationPolicySimple extends PowerVmAllocationPolicyAbstra
 		// This policy does not optimize the VM allocation
 		return null;
 	}
+
+	/**
+	 * Allocates hosts for a batch of VMs. By default the VMs are allocated in batch order, as if
+	 * they were created one by one. If first-fit decreasing is enabled, the VMs are sorted by
+	 * decreasing requested MIPS, then every VM is placed in the first suitable host, as
+	 * {@link #findHostForVm(Vm)} does. The first hosts with enough available MIPS are looked up in
+	 * a {@link CapacityIndex} instead of scanning the hosts.
+	 * 
+	 * @param vms the VMs
+	 * @return $true if all the VMs were allocated; $false otherwise
+	 * @see #setFirstFitDecreasing(boolean)
+	 */
+	@Override
+	public boolean allocateHostsForVms(List<? extends Vm> vms) {
+		if (!isFirstFitDecreasing()) {
+			return super.allocateHostsForVms(vms);
+		}
+
+		final double[] mips = new double[vms.size()];
+		Integer[] order = new Integer[vms.size()];
+		for (int i = 0; i < vms.size(); i++) {
+			mips[i] = vms.get(i).getCurrentRequestedTotalMips();
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(mips[b], mips[a]);
+			}
+
+		});
+
+		List<PowerHost> hosts = this.<PowerHost> getHostList();
+		CapacityIndex capacities = new CapacityIndex(hosts.size());
+		for (int i = 0; i < hosts.size(); i++) {
+			capacities.set(i, hosts.get(i).getAvailableMips());
+		}
+
+		boolean result = true;
+		for (int position : order) {
+			Vm vm = vms.get(position);
+			int index = capacities.findFirst(0, mips[position]);
+			while (index >= 0 && !hosts.get(index).isSuitableForVm(vm)) {
+				index = capacities.findFirst(index + 1, mips[position]);
+			}
+			if (allocateHostForVm(vm, index < 0 ? null : hosts.get(index))) {
+				capacities.set(index, hosts.get(index).getAvailableMips());
+			} else {
+				result = false;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the batches of VMs are allocated first-fit decreasing.
+	 * 
+	 * @return true, if the batches are allocated first-fit decreasing
+	 */
+	public boolean isFirstFitDecreasing() {
+		return firstFitDecreasing;
+	}
+
+	/**
+	 * Sets whether the batches of VMs are allocated first-fit decreasing, which changes the initial
+	 * placement compared to the creation of the VMs one by one.
+	 * 
+	 * @param firstFitDecreasing true to allocate the batches first-fit decreasing
+	 */
+	public void setFirstFitDecreasing(boolean firstFitDecreasing) {
+		this.firstFitDecreasing = firstFitDecreasing;
+	}
 	
 	public void setVmHistory() {
 		
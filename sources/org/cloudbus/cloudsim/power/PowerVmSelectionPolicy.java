@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,7 +28,9 @@ import org.cloudbus.cloudsim.Vm;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
  */
-public abstract class PowerVmSelectionPolicy {
+public abstract class PowerVmSelectionPolicy implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Gets the vms to migrate.
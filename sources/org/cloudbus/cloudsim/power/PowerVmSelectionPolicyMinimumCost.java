@@ -21,6 +21,8 @@ import org.cloudbus.cloudsim.examples.power.Constants;
 
 public class PowerVmSelectionPolicyMinimumCost extends PowerVmSelectionPolicy {
 
+	private static final long serialVersionUID = 1L;
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -21,6 +21,8 @@ import org.cloudbus.cloudsim.examples.power.Constants;
  */
 public class PowerModelSpecPowerLenovoXeon1220 extends PowerModelSpecPower {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The power. */
 	
 	private static final double[] power = { 14.7, 18.7, 22.7, 26.7, 30.7, 34.7, 38.7, 43, 46.7, 50.7, 54.7 };
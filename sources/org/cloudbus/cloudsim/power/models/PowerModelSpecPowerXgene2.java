@@ -19,6 +19,8 @@ import org.cloudbus.cloudsim.examples.power.Constants;
  */
 public class PowerModelSpecPowerXgene2 extends PowerModelSpecPower {
 
+	private static final long serialVersionUID = 1L;
+
 	private static double[] power = { 14.7, 18.7, 22.7, 26.7, 30.7, 34.7, 38.7, 43, 46.7, 50.7, 54.7 };
 	private static final double[] frequency_list = {0.3, 1.0, 1.7, 2.4};
 	private static final double[] voltage_nominal_list = {0.980, 0.980, 0.980, 0.980};
@@ -19,6 +19,8 @@ import org.cloudbus.cloudsim.examples.power.Constants;
  */
 public class PowerModelSpecPowerXgene3 extends PowerModelSpecPower {
 
+	private static final long serialVersionUID = 1L;
+
 	private static double[] power = { 14.7, 18.7, 22.7, 26.7, 30.7, 34.7, 38.7, 43, 46.7, 50.7, 54.7 };
 	private static final double[] frequency_list = {0.4, 1.3, 2.2, 3.0};
 	private static final double[] voltage_nominal_list = {0.880, 0.880, 0.880, 0.880};
@@ -8,14 +8,18 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.SlotTable;
 
 /**
  * BwProvisionerSimple is a class that implements a simple best effort allocation policy: if there
- * is bw available to request, it allocates; otherwise, it fails.
+ * is bw available to request, it allocates; otherwise, it fails. The allocations are kept in an
+ * array, indexed by the slots of the VMs (see {@link Vm#getSlot()}).
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -23,8 +27,13 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class BwProvisionerSimple extends BwProvisioner {
 
-	/** The bw table. */
-	private Map<String, Long> bwTable;
+	private static final long serialVersionUID = 1L;
+
+	/** The indexes of the VMs holding bw, by slot. */
+	private final SlotTable slots;
+
+	/** The bw allocated to every VM, by index. */
+	private long[] allocatedBw;
 
 	/**
 	 * Instantiates a new bw provisioner simple.
@@ -33,7 +42,8 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	public BwProvisionerSimple(long bw) {
 		super(bw);
-		setBwTable(new HashMap<String, Long>());
+		slots = new SlotTable();
+		allocatedBw = new long[4];
 	}
 
 	/*
@@ -46,12 +56,12 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 		if (getAvailableBw() >= bw) {
 			setAvailableBw(getAvailableBw() - bw);
-			getBwTable().put(vm.getUid(), bw);
-			vm.setCurrentAllocatedBw(getAllocatedBwForVm(vm));
+			put(vm.getSlot(), bw);
+			vm.setCurrentAllocatedBw(bw);
 			return true;
 		}
 
-		vm.setCurrentAllocatedBw(getAllocatedBwForVm(vm));
+		vm.setCurrentAllocatedBw(0);
 		return false;
 	}
 
@@ -61,8 +71,9 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	@Override
 	public long getAllocatedBwForVm(Vm vm) {
-		if (getBwTable().containsKey(vm.getUid())) {
-			return getBwTable().get(vm.getUid());
+		int index = slots.indexOf(vm.getSlot());
+		if (index >= 0) {
+			return allocatedBw[index];
 		}
 		return 0;
 	}
@@ -73,9 +84,9 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	@Override
 	public void deallocateBwForVm(Vm vm) {
-		if (getBwTable().containsKey(vm.getUid())) {
-			long amountFreed = getBwTable().remove(vm.getUid());
-			setAvailableBw(getAvailableBw() + amountFreed);
+		int index = slots.remove(vm.getSlot());
+		if (index >= 0) {
+			setAvailableBw(getAvailableBw() + allocatedBw[index]);
 			vm.setCurrentAllocatedBw(0);
 		}
 	}
@@ -87,42 +98,69 @@ public class BwProvisionerSimple extends BwProvisioner {
 	@Override
 	public void deallocateBwForAllVms() {
 		super.deallocateBwForAllVms();
-		getBwTable().clear();
+		slots.clear();
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * @see
-	 * gridsim.virtualization.power.provisioners.BWProvisioner#isSuitableForVm(gridsim.virtualization
-	 * .power.VM, long)
+	/**
+	 * Checks if it is possible to change the current allocated bw for the VM to a new amount. The
+	 * answer is computed from the bw available and allocated to the VM, without allocating; as
+	 * before, a VM holding no bw does not hold an entry afterwards.
+	 * 
+	 * @param vm the vm
+	 * @param bw the bw
+	 * @return true, if is suitable for vm
 	 */
 	@Override
 	public boolean isSuitableForVm(Vm vm, long bw) {
-		long allocatedBw = getAllocatedBwForVm(vm);
-		boolean result = allocateBwForVm(vm, bw);
-		deallocateBwForVm(vm);
-		if (allocatedBw > 0) {
-			allocateBwForVm(vm, allocatedBw);
+		long allocated = getAllocatedBwForVm(vm);
+		boolean result = getAvailableBw() + allocated >= bw;
+		if (allocated == 0) {
+			slots.remove(vm.getSlot());
 		}
+		vm.setCurrentAllocatedBw(allocated);
 		return result;
 	}
 
 	/**
-	 * Gets the bw table.
+	 * Gets the bw table: a copy of the bw allocated to every VM, by uid.
 	 * 
 	 * @return the bw table
 	 */
 	protected Map<String, Long> getBwTable() {
-		return bwTable;
+		Map<String, Long> bwTable = new HashMap<String, Long>();
+		for (int index = 0; index < slots.capacity(); index++) {
+			int slot = slots.slotAt(index);
+			if (slot >= 0) {
+				bwTable.put(Vm.getSlotUid(slot), allocatedBw[index]);
+			}
+		}
+		return Collections.unmodifiableMap(bwTable);
 	}
 
 	/**
-	 * Sets the bw table.
+	 * Sets the bw table, replacing the bw allocated to every VM.
 	 * 
 	 * @param bwTable the bw table
 	 */
 	protected void setBwTable(Map<String, Long> bwTable) {
-		this.bwTable = bwTable;
+		slots.clear();
+		for (Map.Entry<String, Long> entry : bwTable.entrySet()) {
+			put(Vm.getSlot(entry.getKey()), entry.getValue());
+		}
+	}
+
+	/**
+	 * Sets the bw allocated to a VM.
+	 * 
+	 * @param slot the slot of the VM
+	 * @param bw the bw
+	 */
+	private void put(int slot, long bw) {
+		int index = slots.add(slot);
+		if (index == allocatedBw.length) {
+			allocatedBw = Arrays.copyOf(allocatedBw, 2 * index);
+		}
+		allocatedBw[index] = bw;
 	}
 
 }
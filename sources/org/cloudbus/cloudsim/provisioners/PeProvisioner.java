@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Vm;
@@ -18,7 +19,9 @@ import org.cloudbus.cloudsim.Vm;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
-public abstract class PeProvisioner {
+public abstract class PeProvisioner implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The mips. */
 	private double mips;
@@ -65,6 +68,22 @@ public abstract class PeProvisioner {
 	 */
 	public abstract boolean allocateMipsForVm(String vmUid, double mips);
 
+	/**
+	 * Allocates MIPS for a given VM, identified by its slot (see {@link Vm#getSlot()}). By default,
+	 * the MIPS are allocated by uid.
+	 * 
+	 * @param vmSlot the vm slot
+	 * @param mips the mips
+	 * 
+	 * @return $true if the MIPS could be allocated; $false otherwise
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	public boolean allocateMipsForVm(int vmSlot, double mips) {
+		return allocateMipsForVm(Vm.getSlotUid(vmSlot), mips);
+	}
+
 	/**
 	 * Allocates MIPS for a given VM.
 	 * 
@@ -9,22 +9,34 @@
 package org.cloudbus.cloudsim.provisioners;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.SlotTable;
 
 /**
- * The Class PeProvisionerSimple.
+ * The Class PeProvisionerSimple. The MIPS allocated to every VM are kept in arrays, indexed by the
+ * slots of the VMs (see {@link Vm#getSlot()}).
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
 public class PeProvisionerSimple extends PeProvisioner {
 
-	/** The pe table. */
-	private Map<String, List<Double>> peTable;
+	private static final long serialVersionUID = 1L;
+
+	/** The indexes of the VMs holding MIPS, by slot. */
+	private final SlotTable slots;
+
+	/** The MIPS allocated to every VM, by index. */
+	private double[][] allocatedMips;
+
+	/** The number of allocated MIPS of every VM, by index. */
+	private int[] counts;
 
 	/**
 	 * Creates the PeProvisionerSimple object.
@@ -36,7 +48,9 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	public PeProvisionerSimple(double availableMips) {
 		super(availableMips);
-		setPeTable(new HashMap<String, ArrayList<Double>>());
+		slots = new SlotTable();
+		allocatedMips = new double[4][];
+		counts = new int[4];
 	}
 
 	/*
@@ -45,7 +59,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public boolean allocateMipsForVm(Vm vm, double mips) {
-		return allocateMipsForVm(vm.getUid(), mips);
+		return allocateMipsForVm(vm.getSlot(), mips);
 	}
 
 	/*
@@ -54,22 +68,26 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public boolean allocateMipsForVm(String vmUid, double mips) {
+		return allocateMipsForVm(Vm.getSlot(vmUid), mips);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.provisioners.PeProvisioner#allocateMipsForVm(int, double)
+	 */
+	@Override
+	public boolean allocateMipsForVm(int vmSlot, double mips) {
 		if (getAvailableMips() < mips) {
 			return false;
 		}
 
-		List<Double> allocatedMips;
-
-		if (getPeTable().containsKey(vmUid)) {
-			allocatedMips = getPeTable().get(vmUid);
-		} else {
-			allocatedMips = new ArrayList<Double>();
+		int index = getIndex(vmSlot);
+		if (counts[index] == allocatedMips[index].length) {
+			allocatedMips[index] = Arrays.copyOf(allocatedMips[index], 2 * counts[index]);
 		}
-
-		allocatedMips.add(mips);
+		allocatedMips[index][counts[index]++] = mips;
 
 		setAvailableMips(getAvailableMips() - mips);
-		getPeTable().put(vmUid, allocatedMips);
 
 		return true;
 	}
@@ -92,7 +110,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 
 		setAvailableMips(getAvailableMips() + getTotalAllocatedMipsForVm(vm) - totalMipsToAllocate);
 
-		getPeTable().put(vm.getUid(), mips);
+		put(vm.getSlot(), mips);
 
 		return true;
 	}
@@ -104,7 +122,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	@Override
 	public void deallocateMipsForAllVms() {
 		super.deallocateMipsForAllVms();
-		getPeTable().clear();
+		slots.clear();
 	}
 
 	/*
@@ -115,11 +133,9 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public double getAllocatedMipsForVmByVirtualPeId(Vm vm, int peId) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			try {
-				return getPeTable().get(vm.getUid()).get(peId);
-			} catch (Exception e) {
-			}
+		int index = slots.indexOf(vm.getSlot());
+		if (index >= 0 && peId >= 0 && peId < counts[index]) {
+			return allocatedMips[index][peId];
 		}
 		return 0;
 	}
@@ -130,8 +146,9 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public List<Double> getAllocatedMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			return getPeTable().get(vm.getUid());
+		int index = slots.indexOf(vm.getSlot());
+		if (index >= 0) {
+			return toList(index);
 		}
 		return null;
 	}
@@ -142,10 +159,11 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public double getTotalAllocatedMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
+		int index = slots.indexOf(vm.getSlot());
+		if (index >= 0) {
 			double totalAllocatedMips = 0.0;
-			for (double mips : getPeTable().get(vm.getUid())) {
-				totalAllocatedMips += mips;
+			for (int i = 0; i < counts[index]; i++) {
+				totalAllocatedMips += allocatedMips[index][i];
 			}
 			return totalAllocatedMips;
 		}
@@ -158,31 +176,93 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	@Override
 	public void deallocateMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			for (double mips : getPeTable().get(vm.getUid())) {
-				setAvailableMips(getAvailableMips() + mips);
+		int index = slots.remove(vm.getSlot());
+		if (index >= 0) {
+			for (int i = 0; i < counts[index]; i++) {
+				setAvailableMips(getAvailableMips() + allocatedMips[index][i]);
 			}
-			getPeTable().remove(vm.getUid());
 		}
 	}
 
 	/**
-	 * Gets the pe table.
+	 * Gets the pe table: a copy of the MIPS allocated to every VM, by uid.
 	 * 
 	 * @return the peTable
 	 */
 	protected Map<String, List<Double>> getPeTable() {
-		return peTable;
+		Map<String, List<Double>> peTable = new HashMap<String, List<Double>>();
+		for (int index = 0; index < slots.capacity(); index++) {
+			int slot = slots.slotAt(index);
+			if (slot >= 0) {
+				peTable.put(Vm.getSlotUid(slot), toList(index));
+			}
+		}
+		return Collections.unmodifiableMap(peTable);
 	}
 
 	/**
-	 * Sets the pe table.
+	 * Sets the pe table, replacing the MIPS allocated to every VM.
 	 * 
 	 * @param peTable the peTable to set
 	 */
-	@SuppressWarnings("unchecked")
 	protected void setPeTable(Map<String, ? extends List<Double>> peTable) {
-		this.peTable = (Map<String, List<Double>>) peTable;
+		slots.clear();
+		for (Map.Entry<String, ? extends List<Double>> entry : peTable.entrySet()) {
+			put(Vm.getSlot(entry.getKey()), entry.getValue());
+		}
+	}
+
+	/**
+	 * Gets the index of a VM, adding the VM without MIPS if it does not hold any.
+	 * 
+	 * @param vmSlot the vm slot
+	 * @return the index
+	 */
+	private int getIndex(int vmSlot) {
+		int index = slots.indexOf(vmSlot);
+		if (index < 0) {
+			index = slots.add(vmSlot);
+			if (index == counts.length) {
+				allocatedMips = Arrays.copyOf(allocatedMips, 2 * index);
+				counts = Arrays.copyOf(counts, 2 * index);
+			}
+			if (allocatedMips[index] == null) {
+				allocatedMips[index] = new double[2];
+			}
+			counts[index] = 0;
+		}
+		return index;
+	}
+
+	/**
+	 * Replaces the MIPS allocated to a VM.
+	 * 
+	 * @param vmSlot the vm slot
+	 * @param mips the mips for each virtual Pe
+	 */
+	private void put(int vmSlot, List<Double> mips) {
+		int index = getIndex(vmSlot);
+		if (allocatedMips[index].length < mips.size()) {
+			allocatedMips[index] = new double[mips.size()];
+		}
+		counts[index] = 0;
+		for (double _mips : mips) {
+			allocatedMips[index][counts[index]++] = _mips;
+		}
+	}
+
+	/**
+	 * Gets the MIPS allocated to a VM as a list.
+	 * 
+	 * @param index the index of the VM
+	 * @return the mips for each virtual Pe
+	 */
+	private List<Double> toList(int index) {
+		List<Double> mips = new ArrayList<Double>(counts[index]);
+		for (int i = 0; i < counts[index]; i++) {
+			mips.add(allocatedMips[index][i]);
+		}
+		return mips;
 	}
 
 }
@@ -8,14 +8,18 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.SlotTable;
 
 /**
  * RamProvisionerSimple is an extension of RamProvisioner which uses a best-effort policy to
- * allocate memory to a VM.
+ * allocate memory to a VM. The allocations are kept in an array, indexed by the slots of the VMs
+ * (see {@link Vm#getSlot()}).
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -23,8 +27,13 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class RamProvisionerSimple extends RamProvisioner {
 
-	/** The RAM table. */
-	private Map<String, Integer> ramTable;
+	private static final long serialVersionUID = 1L;
+
+	/** The indexes of the VMs holding RAM, by slot. */
+	private final SlotTable slots;
+
+	/** The RAM allocated to every VM, by index. */
+	private int[] allocatedRam;
 
 	/**
 	 * Instantiates a new ram provisioner simple.
@@ -33,7 +42,8 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	public RamProvisionerSimple(int availableRam) {
 		super(availableRam);
-		setRamTable(new HashMap<String, Integer>());
+		slots = new SlotTable();
+		allocatedRam = new int[4];
 	}
 
 	/*
@@ -52,12 +62,12 @@ public class RamProvisionerSimple extends RamProvisioner {
 
 		if (getAvailableRam() >= ram) {
 			setAvailableRam(getAvailableRam() - ram);
-			getRamTable().put(vm.getUid(), ram);
-			vm.setCurrentAllocatedRam(getAllocatedRamForVm(vm));
+			put(vm.getSlot(), ram);
+			vm.setCurrentAllocatedRam(ram);
 			return true;
 		}
 
-		vm.setCurrentAllocatedRam(getAllocatedRamForVm(vm));
+		vm.setCurrentAllocatedRam(0);
 
 		return false;
 	}
@@ -68,8 +78,9 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	@Override
 	public int getAllocatedRamForVm(Vm vm) {
-		if (getRamTable().containsKey(vm.getUid())) {
-			return getRamTable().get(vm.getUid());
+		int index = slots.indexOf(vm.getSlot());
+		if (index >= 0) {
+			return allocatedRam[index];
 		}
 		return 0;
 	}
@@ -80,9 +91,9 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	@Override
 	public void deallocateRamForVm(Vm vm) {
-		if (getRamTable().containsKey(vm.getUid())) {
-			int amountFreed = getRamTable().remove(vm.getUid());
-			setAvailableRam(getAvailableRam() + amountFreed);
+		int index = slots.remove(vm.getSlot());
+		if (index >= 0) {
+			setAvailableRam(getAvailableRam() + allocatedRam[index]);
 			vm.setCurrentAllocatedRam(0);
 		}
 	}
@@ -94,40 +105,69 @@ public class RamProvisionerSimple extends RamProvisioner {
 	@Override
 	public void deallocateRamForAllVms() {
 		super.deallocateRamForAllVms();
-		getRamTable().clear();
+		slots.clear();
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * @see cloudsim.provisioners.RamProvisioner#isSuitableForVm(cloudsim.Vm, int)
+	/**
+	 * Checks if it is possible to change the current allocated RAM for the VM to a new amount. The
+	 * answer is computed from the RAM available and allocated to the VM, without allocating; as
+	 * before, a VM holding no RAM does not hold an entry afterwards.
+	 * 
+	 * @param vm the vm
+	 * @param ram the ram
+	 * @return true, if is suitable for vm
 	 */
 	@Override
 	public boolean isSuitableForVm(Vm vm, int ram) {
-		int allocatedRam = getAllocatedRamForVm(vm);
-		boolean result = allocateRamForVm(vm, ram);
-		deallocateRamForVm(vm);
-		if (allocatedRam > 0) {
-			allocateRamForVm(vm, allocatedRam);
+		int allocated = getAllocatedRamForVm(vm);
+		boolean result = getAvailableRam() + allocated >= Math.min(ram, vm.getRam());
+		if (allocated == 0) {
+			slots.remove(vm.getSlot());
 		}
+		vm.setCurrentAllocatedRam(allocated);
 		return result;
 	}
 
 	/**
-	 * Gets the ram table.
+	 * Gets the ram table: a copy of the RAM allocated to every VM, by uid.
 	 * 
 	 * @return the ram table
 	 */
 	protected Map<String, Integer> getRamTable() {
-		return ramTable;
+		Map<String, Integer> ramTable = new HashMap<String, Integer>();
+		for (int index = 0; index < slots.capacity(); index++) {
+			int slot = slots.slotAt(index);
+			if (slot >= 0) {
+				ramTable.put(Vm.getSlotUid(slot), allocatedRam[index]);
+			}
+		}
+		return Collections.unmodifiableMap(ramTable);
 	}
 
 	/**
-	 * Sets the ram table.
+	 * Sets the ram table, replacing the RAM allocated to every VM.
 	 * 
 	 * @param ramTable the ram table
 	 */
 	protected void setRamTable(Map<String, Integer> ramTable) {
-		this.ramTable = ramTable;
+		slots.clear();
+		for (Map.Entry<String, Integer> entry : ramTable.entrySet()) {
+			put(Vm.getSlot(entry.getKey()), entry.getValue());
+		}
+	}
+
+	/**
+	 * Sets the RAM allocated to a VM.
+	 * 
+	 * @param slot the slot of the VM
+	 * @param ram the ram
+	 */
+	private void put(int slot, int ram) {
+		int index = slots.add(slot);
+		if (index == allocatedRam.length) {
+			allocatedRam = Arrays.copyOf(allocatedRam, 2 * index);
+		}
+		allocatedRam[index] = ram;
 	}
 
 }
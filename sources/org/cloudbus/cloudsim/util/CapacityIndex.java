@@ -0,0 +1,125 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * CapacityIndex keeps a free capacity per host, by index in the host list, in a tree of maxima, so
+ * that a first-fit placement finds the first host with enough capacity in logarithmic time instead
+ * of scanning the hosts. The capacity is a necessary condition only: a host found can still be
+ * unsuitable for other resources, in which case the search goes on from the next host.
+ */
+public class CapacityIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The number of hosts. */
+	private final int size;
+
+	/** The number of leaves of the tree, a power of 2. */
+	private final int leaves;
+
+	/** The tree: the max. capacity of every node, the leaves last. */
+	private final double[] tree;
+
+	/**
+	 * Creates an index with no capacity.
+	 *
+	 * @param size the number of hosts
+	 */
+	public CapacityIndex(int size) {
+		this.size = size;
+		int leaves = 1;
+		while (leaves < size) {
+			leaves *= 2;
+		}
+		this.leaves = leaves;
+		tree = new double[2 * leaves];
+		Arrays.fill(tree, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Gets the number of hosts.
+	 *
+	 * @return the number of hosts
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the capacity of a host.
+	 *
+	 * @param index the index of the host
+	 * @return the capacity
+	 */
+	public double get(int index) {
+		return tree[leaves + index];
+	}
+
+	/**
+	 * Sets the capacity of a host.
+	 *
+	 * @param index the index of the host
+	 * @param capacity the capacity
+	 */
+	public void set(int index, double capacity) {
+		int node = leaves + index;
+		tree[node] = capacity;
+		for (node /= 2; node > 0; node /= 2) {
+			tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Finds the first host, from an index on, with at least a capacity.
+	 *
+	 * @param from the index of the first host to consider
+	 * @param capacity the capacity
+	 * @return the index of the host, or -1 if no host from the index on has the capacity
+	 */
+	public int findFirst(int from, double capacity) {
+		if (from >= size) {
+			return -1;
+		}
+		// climbs from the leaf until a node on the right of the path has the capacity
+		int node = leaves + from;
+		if (tree[node] < capacity) {
+			while (true) {
+				while (node % 2 == 1) {
+					if (node == 1) {
+						return -1;
+					}
+					node /= 2;
+				}
+				node++;
+				if (tree[node] >= capacity) {
+					break;
+				}
+			}
+		}
+		// descends to the leftmost leaf with the capacity
+		while (node < leaves) {
+			node = tree[2 * node] >= capacity ? 2 * node : 2 * node + 1;
+		}
+		return node - leaves < size ? node - leaves : -1;
+	}
+
+}
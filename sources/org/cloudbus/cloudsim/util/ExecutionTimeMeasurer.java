@@ -16,7 +16,9 @@ import java.util.Map;
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
+ * @deprecated use {@link PhaseProfiler}, which registers the phases once and does not allocate
  */
+@Deprecated
 public class ExecutionTimeMeasurer {
 
 	/** The execution times. */
@@ -0,0 +1,320 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * IdMap is a map keyed by the ids of the simulation entities: VMs, hosts, cloudlets and
+ * datacenters. These ids are mostly small and dense, so the values of the ids below a limit are
+ * kept in an array indexed by id, and the other ids (negative, or far beyond the number of entries)
+ * fall back to an {@link IntHashMap}. The limit grows with the number of entries.
+ * <p>
+ * The map is a {@link Map} with Integer keys, so it can replace the HashMaps keyed by id, and it
+ * also has int methods ({@link #get(int)}, {@link #put(int, Object)}, {@link #remove(int)},
+ * {@link #containsKey(int)}) that do not box the key. The values cannot be null: putting null
+ * removes the id.
+ *
+ * @param <V> the type of the values
+ */
+public class IdMap<V> extends AbstractMap<Integer, V> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The values of the ids below the length of the array, null for the absent ids. */
+	private Object[] dense;
+
+	/** The values of the other ids. */
+	private final IntHashMap<V> sparse;
+
+	/** The number of entries. */
+	private int size;
+
+	/**
+	 * Creates an empty map.
+	 */
+	public IdMap() {
+		dense = new Object[16];
+		sparse = new IntHashMap<V>(4);
+	}
+
+	/**
+	 * Gets the value of an id.
+	 *
+	 * @param id the id
+	 * @return the value, or null if the id is absent
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int id) {
+		if (id >= 0 && id < dense.length) {
+			return (V) dense[id];
+		}
+		return sparse.get(id);
+	}
+
+	/**
+	 * Checks whether an id is in the map.
+	 *
+	 * @param id the id
+	 * @return true if the id has a value
+	 */
+	public boolean containsKey(int id) {
+		return get(id) != null;
+	}
+
+	/**
+	 * Sets the value of an id.
+	 *
+	 * @param id the id
+	 * @param value the value, or null to remove the id
+	 * @return the previous value, or null if the id was absent
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int id, V value) {
+		if (value == null) {
+			return remove(id);
+		}
+		if (id >= dense.length && id < 2 * (size + 16)) {
+			grow(id);
+		}
+		V previous;
+		if (id >= 0 && id < dense.length) {
+			previous = (V) dense[id];
+			dense[id] = value;
+		} else {
+			previous = sparse.put(id, value);
+		}
+		if (previous == null) {
+			size++;
+		}
+		return previous;
+	}
+
+	/**
+	 * Removes an id.
+	 *
+	 * @param id the id
+	 * @return the value of the id, or null if the id was absent
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int id) {
+		V previous;
+		if (id >= 0 && id < dense.length) {
+			previous = (V) dense[id];
+			dense[id] = null;
+		} else {
+			previous = sparse.remove(id);
+		}
+		if (previous != null) {
+			size--;
+		}
+		return previous;
+	}
+
+	@Override
+	public V get(Object key) {
+		return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public V put(Integer key, V value) {
+		return put(key.intValue(), value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(dense, null);
+		sparse.clear();
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Set<Map.Entry<Integer, V>> entrySet() {
+		return new AbstractSet<Map.Entry<Integer, V>>() {
+
+			@Override
+			public Iterator<Map.Entry<Integer, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public void clear() {
+				IdMap.this.clear();
+			}
+
+		};
+	}
+
+	/**
+	 * Grows the array to hold an id, and moves the ids of the fallback map that now fit in it.
+	 *
+	 * @param id the id
+	 */
+	private void grow(int id) {
+		dense = Arrays.copyOf(dense, Math.max(id + 1, 2 * dense.length));
+		if (sparse.isEmpty()) {
+			return;
+		}
+		int[] moved = new int[sparse.size()];
+		int count = 0;
+		for (int slot = 0; slot < sparse.capacity(); slot++) {
+			if (sparse.isUsed(slot) && sparse.keyAt(slot) >= 0 && sparse.keyAt(slot) < dense.length) {
+				dense[sparse.keyAt(slot)] = sparse.valueAt(slot);
+				moved[count++] = sparse.keyAt(slot);
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			sparse.remove(moved[i]);
+		}
+	}
+
+	/**
+	 * EntryIterator visits the ids of the array in order, then the ids of the fallback map, which
+	 * are copied first so that the entries can be removed on the way.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+
+		/** The next id of the array to visit. */
+		private int next;
+
+		/** The ids of the fallback map, copied when the array is visited. */
+		private int[] sparseIds;
+
+		/** The next position in the ids of the fallback map. */
+		private int sparseNext;
+
+		/** The id of the last entry returned, to remove it. */
+		private Integer last;
+
+		@Override
+		public boolean hasNext() {
+			while (next < dense.length && dense[next] == null) {
+				next++;
+			}
+			if (next < dense.length) {
+				return true;
+			}
+			if (sparseIds == null) {
+				sparseIds = new int[sparse.size()];
+				int count = 0;
+				for (int slot = 0; slot < sparse.capacity(); slot++) {
+					if (sparse.isUsed(slot)) {
+						sparseIds[count++] = sparse.keyAt(slot);
+					}
+				}
+			}
+			return sparseNext < sparseIds.length;
+		}
+
+		@Override
+		public Map.Entry<Integer, V> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = next < dense.length ? next++ : sparseIds[sparseNext++];
+			return new IdEntry(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last == null) {
+				throw new IllegalStateException();
+			}
+			IdMap.this.remove(last.intValue());
+			last = null;
+		}
+
+	}
+
+	/**
+	 * IdEntry is an entry of the map, which reads and writes the map.
+	 */
+	private class IdEntry implements Map.Entry<Integer, V> {
+
+		/** The id. */
+		private final Integer id;
+
+		/**
+		 * Creates the entry of an id.
+		 *
+		 * @param id the id
+		 */
+		IdEntry(Integer id) {
+			this.id = id;
+		}
+
+		@Override
+		public Integer getKey() {
+			return id;
+		}
+
+		@Override
+		public V getValue() {
+			return get(id.intValue());
+		}
+
+		@Override
+		public V setValue(V value) {
+			return put(id.intValue(), value);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return id.equals(e.getKey()) && getValue() != null && getValue().equals(e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			V value = getValue();
+			return id.hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+	}
+
+}
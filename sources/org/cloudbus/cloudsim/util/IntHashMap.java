@@ -0,0 +1,256 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * IntHashMap is a hash map from int keys to objects, with open addressing and linear probing. The
+ * keys are kept in an int array, so unlike a {@link java.util.HashMap} with Integer keys, looking
+ * up or adding an entry does not box the key or allocate an entry object.
+ * <p>
+ * The slots of the map can be visited in order with {@link #capacity()}, {@link #isUsed(int)},
+ * {@link #keyAt(int)} and {@link #valueAt(int)}.
+ *
+ * @param <V> the type of the values
+ */
+public class IntHashMap<V> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The keys, by slot. */
+	private int[] keys;
+
+	/** The values, by slot, null for the free slots. */
+	private Object[] values;
+
+	/** The number of entries. */
+	private int size;
+
+	/**
+	 * Creates an empty map.
+	 */
+	public IntHashMap() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty map.
+	 *
+	 * @param expectedSize the number of entries the map holds before growing
+	 */
+	public IntHashMap(int expectedSize) {
+		int capacity = 4;
+		while (capacity * 3 < expectedSize * 4) {
+			capacity *= 2;
+		}
+		keys = new int[capacity];
+		values = new Object[capacity];
+	}
+
+	/**
+	 * Gets the value of a key.
+	 *
+	 * @param key the key
+	 * @return the value, or null if the map has no entry for the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return (V) values[slot];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether the map has an entry for a key.
+	 *
+	 * @param key the key
+	 * @return true if the map has an entry for the key
+	 */
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Sets the value of a key.
+	 *
+	 * @param key the key
+	 * @param value the value, not null
+	 * @return the previous value, or null if the map had no entry for the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("IntHashMap does not hold null values");
+		}
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		for (; values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				V previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size * 4 > keys.length * 3) {
+			resize(2 * keys.length);
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the entry of a key.
+	 *
+	 * @param key the key
+	 * @return the removed value, or null if the map had no entry for the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (values[slot] != null && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		if (values[slot] == null) {
+			return null;
+		}
+		V previous = (V) values[slot];
+		size--;
+
+		// moves back the following entries of the cluster that would not be found anymore
+		int free = slot;
+		for (slot = (slot + 1) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+			int home = hash(keys[slot]) & mask;
+			if (((slot - home) & mask) >= ((slot - free) & mask)) {
+				keys[free] = keys[slot];
+				values[free] = values[slot];
+				free = slot;
+			}
+		}
+		values[free] = null;
+		return previous;
+	}
+
+	/**
+	 * Removes all the entries.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the map has no entries.
+	 *
+	 * @return true if the map is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the number of slots.
+	 *
+	 * @return the number of slots
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Checks whether a slot holds an entry.
+	 *
+	 * @param slot the slot
+	 * @return true if the slot holds an entry
+	 */
+	public boolean isUsed(int slot) {
+		return values[slot] != null;
+	}
+
+	/**
+	 * Gets the key of a slot.
+	 *
+	 * @param slot the slot, which holds an entry
+	 * @return the key
+	 */
+	public int keyAt(int slot) {
+		return keys[slot];
+	}
+
+	/**
+	 * Gets the value of a slot.
+	 *
+	 * @param slot the slot
+	 * @return the value, or null if the slot is free
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int slot) {
+		return (V) values[slot];
+	}
+
+	/**
+	 * Moves the entries to new arrays.
+	 *
+	 * @param capacity the number of slots of the new arrays
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[capacity];
+		values = new Object[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of a key, so that consecutive keys do not form clusters.
+	 *
+	 * @param key the key
+	 * @return the hash
+	 */
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -0,0 +1,596 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * PhaseProfiler measures the wall time spent in the phases of the simulation with
+ * {@link System#nanoTime()}. Phases and counters are registered once, when the class is loaded,
+ * and are then addressed by their integer id, so that {@link #start(int)}, {@link #end(int)} and
+ * {@link #increment(int)} do not allocate. For every phase it keeps a latency histogram with
+ * power-of-two buckets, both for the current simulated interval and for the whole run. The
+ * interval statistics are written to the interval output, when one is set, each time the
+ * simulation clock crosses an interval boundary; the run statistics are available through
+ * {@link #getSummary()}.
+ *
+ * <p>
+ * A phase may be nested in a different phase, but not in itself.
+ * </p>
+ */
+public class PhaseProfiler {
+
+	/** The maximum number of phases. */
+	private static final int MAX_PHASES = 32;
+
+	/** The maximum number of counters. */
+	private static final int MAX_COUNTERS = 16;
+
+	/** The number of histogram buckets. Bucket i holds the latencies in [2^i, 2^(i+1)) ns. */
+	private static final int BUCKETS = 64;
+
+	/** The names of the phases. */
+	private static final String[] phaseNames = new String[MAX_PHASES];
+
+	/** The number of registered phases. */
+	private static int phases = 0;
+
+	/** The names of the counters. */
+	private static final String[] counterNames = new String[MAX_COUNTERS];
+
+	/** The number of registered counters. */
+	private static int counters = 0;
+
+	/** The start time of the running phases. */
+	private static final long[] startTimes = new long[MAX_PHASES];
+
+	/** The latency histograms of the current interval, by phase. */
+	private static final long[][] intervalHistograms = new long[MAX_PHASES][BUCKETS];
+
+	/** The number of executions in the current interval, by phase. */
+	private static final long[] intervalCounts = new long[MAX_PHASES];
+
+	/** The total time in the current interval, by phase. */
+	private static final long[] intervalTotals = new long[MAX_PHASES];
+
+	/** The longest execution in the current interval, by phase. */
+	private static final long[] intervalMaxima = new long[MAX_PHASES];
+
+	/** The latency histograms of the run, by phase. */
+	private static final long[][] runHistograms = new long[MAX_PHASES][BUCKETS];
+
+	/** The number of executions in the run, by phase. */
+	private static final long[] runCounts = new long[MAX_PHASES];
+
+	/** The total time in the run, by phase. */
+	private static final long[] runTotals = new long[MAX_PHASES];
+
+	/** The sum of the squared times in the run in seconds, by phase. */
+	private static final double[] runSquares = new double[MAX_PHASES];
+
+	/** The longest execution in the run, by phase. */
+	private static final long[] runMaxima = new long[MAX_PHASES];
+
+	/** The counter values of the current interval. */
+	private static final long[] intervalCounters = new long[MAX_COUNTERS];
+
+	/** The counter values of the run. */
+	private static final long[] runCounters = new long[MAX_COUNTERS];
+
+	/** The length of an interval in simulated seconds. */
+	private static double intervalLength = 300;
+
+	/** The simulation time at which the current interval ends. */
+	private static double intervalEnd = 300;
+
+	/** The output of the interval statistics, or null. */
+	private static PrintWriter intervalOutput;
+
+	/** Whether the profiler is enabled. */
+	private static boolean enabled = true;
+
+	/** One tick of the event loop: the entities and the events of one timestamp. */
+	public static final int EVENT_LOOP = registerPhase("eventLoop");
+
+	/** The configuration of the hosts' operating points of a datacenter. */
+	public static final int CONFIGURE = registerPhase("configure");
+
+	/** The estimation of the VM requests of a datacenter. */
+	public static final int ESTIMATE = registerPhase("estimate");
+
+	/** The energy and SLA accounting of a datacenter. */
+	public static final int UPDATE_COST = registerPhase("updateCost");
+
+	/** The initialization of the VM utilization of a datacenter. */
+	public static final int VM_INITIALIZATION = registerPhase("vmInitialization");
+
+	/** The VM history of a datacenter. */
+	public static final int VM_HISTORY = registerPhase("vmHistory");
+
+	/** The selection of the optimal operating points of a datacenter. */
+	public static final int OPTIMAL_POINT = registerPhase("optimalPoint");
+
+	/** The processing of the cloudlets of a datacenter, including optimization and migrations. */
+	public static final int CLOUDLET_PROCESSING = registerPhase("cloudletProcessing");
+
+	/** The check of the finished cloudlets of a datacenter. */
+	public static final int CLOUDLET_COMPLETION = registerPhase("cloudletCompletion");
+
+	/** The optimization of the VM allocation, as seen by the datacenter. */
+	public static final int OPTIMIZE = registerPhase("optimize");
+
+	/** The dispatch of the migrations returned by the optimization. */
+	public static final int MIGRATION_DISPATCH = registerPhase("migrationDispatch");
+
+	/** The selection of the over-utilized hosts by the allocation policy. */
+	public static final int HOST_SELECTION = registerPhase("hostSelection");
+
+	/** The selection of the VMs to migrate by the allocation policy. */
+	public static final int VM_SELECTION = registerPhase("vmSelection");
+
+	/** The placement of the VMs to migrate by the allocation policy. */
+	public static final int VM_REALLOCATION = registerPhase("vmReallocation");
+
+	/** The whole optimization of the allocation policy. */
+	public static final int OPTIMIZE_TOTAL = registerPhase("optimizeTotal");
+
+	/** The number of events processed by the event loop. */
+	public static final int EVENTS = registerCounter("events");
+
+	/** The number of migrations dispatched by the datacenters. */
+	public static final int MIGRATIONS = registerCounter("migrations");
+
+	/** The number of datacenter updates merged into an update at the same time. */
+	public static final int COALESCED_UPDATES = registerCounter("coalescedUpdates");
+
+	/**
+	 * Registers a phase. Phases should be registered in static initializers, before the
+	 * simulation starts.
+	 *
+	 * @param name the name of the phase
+	 * @return the id of the phase
+	 */
+	public static synchronized int registerPhase(String name) {
+		if (phases == MAX_PHASES) {
+			throw new IllegalStateException("Too many phases, cannot register " + name);
+		}
+		phaseNames[phases] = name;
+		return phases++;
+	}
+
+	/**
+	 * Registers a counter. Counters should be registered in static initializers, before the
+	 * simulation starts.
+	 *
+	 * @param name the name of the counter
+	 * @return the id of the counter
+	 */
+	public static synchronized int registerCounter(String name) {
+		if (counters == MAX_COUNTERS) {
+			throw new IllegalStateException("Too many counters, cannot register " + name);
+		}
+		counterNames[counters] = name;
+		return counters++;
+	}
+
+	/**
+	 * Starts a phase.
+	 *
+	 * @param phase the phase id
+	 */
+	public static void start(int phase) {
+		if (enabled) {
+			startTimes[phase] = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Ends a phase and records its duration.
+	 *
+	 * @param phase the phase id
+	 * @return the duration in nanoseconds
+	 */
+	public static long end(int phase) {
+		if (!enabled) {
+			return 0;
+		}
+		long time = System.nanoTime() - startTimes[phase];
+		if (time < 0) {
+			time = 0;
+		}
+		int bucket = time == 0 ? 0 : 63 - Long.numberOfLeadingZeros(time);
+
+		intervalHistograms[phase][bucket]++;
+		intervalCounts[phase]++;
+		intervalTotals[phase] += time;
+		if (time > intervalMaxima[phase]) {
+			intervalMaxima[phase] = time;
+		}
+
+		runHistograms[phase][bucket]++;
+		runCounts[phase]++;
+		runTotals[phase] += time;
+		double seconds = time / 1e9;
+		runSquares[phase] += seconds * seconds;
+		if (time > runMaxima[phase]) {
+			runMaxima[phase] = time;
+		}
+		return time;
+	}
+
+	/**
+	 * Increments a counter.
+	 *
+	 * @param counter the counter id
+	 */
+	public static void increment(int counter) {
+		add(counter, 1);
+	}
+
+	/**
+	 * Adds a value to a counter.
+	 *
+	 * @param counter the counter id
+	 * @param value the value
+	 */
+	public static void add(int counter, long value) {
+		if (enabled) {
+			intervalCounters[counter] += value;
+			runCounters[counter] += value;
+		}
+	}
+
+	/**
+	 * Notifies the profiler of the simulation clock. When the clock crosses the end of the current
+	 * interval, the interval statistics are written to the interval output and reset.
+	 *
+	 * @param clock the simulation clock
+	 */
+	public static void advance(double clock) {
+		if (clock < intervalEnd) {
+			return;
+		}
+		if (intervalOutput != null) {
+			writeInterval(intervalOutput, intervalEnd);
+		}
+		resetInterval();
+		intervalEnd = (Math.floor(clock / intervalLength) + 1) * intervalLength;
+	}
+
+	/**
+	 * Resets all the statistics. It is called when the simulation is initialised.
+	 */
+	public static void reset() {
+		resetInterval();
+		for (int i = 0; i < MAX_PHASES; i++) {
+			Arrays.fill(runHistograms[i], 0);
+		}
+		Arrays.fill(runCounts, 0);
+		Arrays.fill(runTotals, 0);
+		Arrays.fill(runSquares, 0);
+		Arrays.fill(runMaxima, 0);
+		Arrays.fill(runCounters, 0);
+		intervalEnd = intervalLength;
+	}
+
+	/**
+	 * Resets the statistics of the current interval.
+	 */
+	private static void resetInterval() {
+		for (int i = 0; i < phases; i++) {
+			if (intervalCounts[i] > 0) {
+				Arrays.fill(intervalHistograms[i], 0);
+			}
+		}
+		Arrays.fill(intervalCounts, 0);
+		Arrays.fill(intervalTotals, 0);
+		Arrays.fill(intervalMaxima, 0);
+		Arrays.fill(intervalCounters, 0);
+	}
+
+	/**
+	 * Writes the statistics of the current interval, one line per executed phase and one line
+	 * with the counters.
+	 *
+	 * @param output the output
+	 * @param time the end of the interval
+	 */
+	private static void writeInterval(PrintWriter output, double time) {
+		for (int i = 0; i < phases; i++) {
+			if (intervalCounts[i] > 0) {
+				output.println(String.format(
+						"%.1f %s %d %.3f %.3f %.3f %.3f",
+						time,
+						phaseNames[i],
+						intervalCounts[i],
+						intervalTotals[i] / 1e6,
+						getPercentile(intervalHistograms[i], intervalCounts[i], intervalMaxima[i], 0.5) / 1e3,
+						getPercentile(intervalHistograms[i], intervalCounts[i], intervalMaxima[i], 0.99) / 1e3,
+						intervalMaxima[i] / 1e3));
+			}
+		}
+		StringBuilder line = new StringBuilder(String.format("%.1f counters", time));
+		for (int i = 0; i < counters; i++) {
+			line.append(' ').append(counterNames[i]).append('=').append(intervalCounters[i]);
+		}
+		output.println(line);
+		output.flush();
+	}
+
+	/**
+	 * Gets an upper bound of a percentile from a histogram.
+	 *
+	 * @param histogram the histogram
+	 * @param count the number of samples
+	 * @param max the largest sample
+	 * @param percentile the percentile, between 0 and 1
+	 * @return the upper bound of the bucket holding the percentile, capped by the largest sample,
+	 *         in nanoseconds
+	 */
+	private static double getPercentile(long[] histogram, long count, long max, double percentile) {
+		long rank = (long) Math.ceil(percentile * count);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += histogram[i];
+			if (seen >= rank) {
+				return Math.min(Math.pow(2, i + 1), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Gets the run summary: for every executed phase the count, the total time and the mean,
+	 * median, 99th percentile and maximum latency, followed by the counters.
+	 *
+	 * @return the summary
+	 */
+	public static String getSummary() {
+		StringBuilder summary = new StringBuilder();
+		summary.append(String.format(
+				"%-20s %10s %12s %12s %12s %12s %12s%n",
+				"Phase",
+				"Count",
+				"Total (ms)",
+				"Mean (us)",
+				"p50 (us)",
+				"p99 (us)",
+				"Max (us)"));
+		for (int i = 0; i < phases; i++) {
+			if (runCounts[i] > 0) {
+				summary.append(String.format(
+						"%-20s %10d %12.3f %12.3f %12.3f %12.3f %12.3f%n",
+						phaseNames[i],
+						runCounts[i],
+						runTotals[i] / 1e6,
+						runTotals[i] / 1e3 / runCounts[i],
+						getPercentile(runHistograms[i], runCounts[i], runMaxima[i], 0.5) / 1e3,
+						getPercentile(runHistograms[i], runCounts[i], runMaxima[i], 0.99) / 1e3,
+						runMaxima[i] / 1e3));
+			}
+		}
+		for (int i = 0; i < counters; i++) {
+			summary.append(String.format("%-20s %10d%n", counterNames[i], runCounters[i]));
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Gets the number of executions of a phase in the run.
+	 *
+	 * @param phase the phase id
+	 * @return the count
+	 */
+	public static long getCount(int phase) {
+		return runCounts[phase];
+	}
+
+	/**
+	 * Gets the mean execution time of a phase in the run.
+	 *
+	 * @param phase the phase id
+	 * @return the mean in seconds
+	 */
+	public static double getMean(int phase) {
+		if (runCounts[phase] == 0) {
+			return 0;
+		}
+		return runTotals[phase] / 1e9 / runCounts[phase];
+	}
+
+	/**
+	 * Gets the standard deviation of the execution time of a phase in the run.
+	 *
+	 * @param phase the phase id
+	 * @return the standard deviation in seconds
+	 */
+	public static double getStDev(int phase) {
+		long n = runCounts[phase];
+		if (n < 2) {
+			return 0;
+		}
+		double mean = getMean(phase);
+		double variance = (runSquares[phase] - n * mean * mean) / (n - 1);
+		return Math.sqrt(Math.max(0, variance));
+	}
+
+	/**
+	 * Gets the value of a counter in the run.
+	 *
+	 * @param counter the counter id
+	 * @return the value
+	 */
+	public static long getCounter(int counter) {
+		return runCounters[counter];
+	}
+
+	/**
+	 * Gets the name of a phase.
+	 *
+	 * @param phase the phase id
+	 * @return the name
+	 */
+	public static String getPhaseName(int phase) {
+		return phaseNames[phase];
+	}
+
+	/**
+	 * Takes a copy of the interval and run statistics, e.g. to checkpoint them with the simulation.
+	 * The registered phases and counters, the running phases and the settings are not part of it.
+	 *
+	 * @return the snapshot
+	 */
+	public static Snapshot snapshot() {
+		Snapshot snapshot = new Snapshot();
+		snapshot.intervalHistograms = copy(intervalHistograms);
+		snapshot.intervalCounts = intervalCounts.clone();
+		snapshot.intervalTotals = intervalTotals.clone();
+		snapshot.intervalMaxima = intervalMaxima.clone();
+		snapshot.runHistograms = copy(runHistograms);
+		snapshot.runCounts = runCounts.clone();
+		snapshot.runTotals = runTotals.clone();
+		snapshot.runSquares = runSquares.clone();
+		snapshot.runMaxima = runMaxima.clone();
+		snapshot.intervalCounters = intervalCounters.clone();
+		snapshot.runCounters = runCounters.clone();
+		snapshot.intervalLength = intervalLength;
+		snapshot.intervalEnd = intervalEnd;
+		return snapshot;
+	}
+
+	/**
+	 * Replaces the interval and run statistics with a copy of the ones of a snapshot.
+	 *
+	 * @param snapshot the snapshot
+	 */
+	public static void restore(Snapshot snapshot) {
+		for (int i = 0; i < MAX_PHASES; i++) {
+			System.arraycopy(snapshot.intervalHistograms[i], 0, intervalHistograms[i], 0, BUCKETS);
+			System.arraycopy(snapshot.runHistograms[i], 0, runHistograms[i], 0, BUCKETS);
+		}
+		System.arraycopy(snapshot.intervalCounts, 0, intervalCounts, 0, MAX_PHASES);
+		System.arraycopy(snapshot.intervalTotals, 0, intervalTotals, 0, MAX_PHASES);
+		System.arraycopy(snapshot.intervalMaxima, 0, intervalMaxima, 0, MAX_PHASES);
+		System.arraycopy(snapshot.runCounts, 0, runCounts, 0, MAX_PHASES);
+		System.arraycopy(snapshot.runTotals, 0, runTotals, 0, MAX_PHASES);
+		System.arraycopy(snapshot.runSquares, 0, runSquares, 0, MAX_PHASES);
+		System.arraycopy(snapshot.runMaxima, 0, runMaxima, 0, MAX_PHASES);
+		System.arraycopy(snapshot.intervalCounters, 0, intervalCounters, 0, MAX_COUNTERS);
+		System.arraycopy(snapshot.runCounters, 0, runCounters, 0, MAX_COUNTERS);
+		intervalLength = snapshot.intervalLength;
+		intervalEnd = snapshot.intervalEnd;
+	}
+
+	/**
+	 * Copies the histograms of all the phases.
+	 *
+	 * @param histograms the histograms
+	 * @return the copy
+	 */
+	private static long[][] copy(long[][] histograms) {
+		long[][] copy = new long[histograms.length][];
+		for (int i = 0; i < histograms.length; i++) {
+			copy[i] = histograms[i].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Sets the length of the intervals of the interval statistics.
+	 *
+	 * @param length the interval length in simulated seconds
+	 */
+	public static void setIntervalLength(double length) {
+		intervalLength = length;
+		intervalEnd = length;
+	}
+
+	/**
+	 * Sets the output of the interval statistics. Each line is
+	 * "time phase count total(ms) p50(us) p99(us) max(us)".
+	 *
+	 * @param output the output, or null to disable it
+	 */
+	public static void setIntervalOutput(PrintWriter output) {
+		intervalOutput = output;
+	}
+
+	/**
+	 * Checks if the profiler is enabled.
+	 *
+	 * @return true, if enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the profiler.
+	 *
+	 * @param enabled the new state
+	 */
+	public static void setEnabled(boolean enabled) {
+		PhaseProfiler.enabled = enabled;
+	}
+
+	/**
+	 * The statistics of the profiler at some point of the simulation.
+	 *
+	 * @see PhaseProfiler#snapshot()
+	 */
+	public static class Snapshot implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private long[][] intervalHistograms;
+
+		private long[] intervalCounts;
+
+		private long[] intervalTotals;
+
+		private long[] intervalMaxima;
+
+		private long[][] runHistograms;
+
+		private long[] runCounts;
+
+		private long[] runTotals;
+
+		private double[] runSquares;
+
+		private long[] runMaxima;
+
+		private long[] intervalCounters;
+
+		private long[] runCounters;
+
+		private double intervalLength;
+
+		private double intervalEnd;
+
+		/**
+		 * Instantiates a new snapshot, filled by {@link PhaseProfiler#snapshot()}.
+		 */
+		private Snapshot() {
+		}
+
+	}
+
+}
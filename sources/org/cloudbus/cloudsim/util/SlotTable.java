@@ -0,0 +1,224 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * SlotTable gives a dense index to every VM slot (see {@link org.cloudbus.cloudsim.Vm#getSlot()})
+ * that holds a resource, so that the allocations can be stored in primitive arrays indexed by it.
+ * The indexes of the removed slots are kept in a free-list and reused, so the arrays only grow to
+ * the largest number of VMs holding the resource at the same time.
+ * <p>
+ * The indexes in use are visited with {@link #capacity()} and {@link #slotAt(int)}.
+ */
+public class SlotTable implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The slots of the hash table, plus 1, or 0 for the free cells. */
+	private int[] keys;
+
+	/** The index of every cell of the hash table. */
+	private int[] values;
+
+	/** The slot of every index, or -1 for the free indexes. */
+	private int[] slots;
+
+	/** The free indexes, as a stack. */
+	private int[] free;
+
+	/** The number of free indexes. */
+	private int freeCount;
+
+	/** The number of indexes given so far, in use or free. */
+	private int capacity;
+
+	/** The number of slots. */
+	private int size;
+
+	/**
+	 * Creates an empty table.
+	 */
+	public SlotTable() {
+		keys = new int[8];
+		values = new int[8];
+		slots = new int[4];
+		free = new int[4];
+	}
+
+	/**
+	 * Gets the index of a slot.
+	 *
+	 * @param slot the slot
+	 * @return the index, or -1 if the slot is not in the table
+	 */
+	public int indexOf(int slot) {
+		int mask = keys.length - 1;
+		for (int cell = hash(slot) & mask; keys[cell] != 0; cell = (cell + 1) & mask) {
+			if (keys[cell] == slot + 1) {
+				return values[cell];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the index of a slot, adding the slot if it is not in the table.
+	 *
+	 * @param slot the slot
+	 * @return the index
+	 */
+	public int add(int slot) {
+		int mask = keys.length - 1;
+		int cell = hash(slot) & mask;
+		for (; keys[cell] != 0; cell = (cell + 1) & mask) {
+			if (keys[cell] == slot + 1) {
+				return values[cell];
+			}
+		}
+
+		int index;
+		if (freeCount > 0) {
+			index = free[--freeCount];
+		} else {
+			if (capacity == slots.length) {
+				slots = Arrays.copyOf(slots, 2 * capacity);
+			}
+			index = capacity++;
+		}
+		slots[index] = slot;
+		keys[cell] = slot + 1;
+		values[cell] = index;
+		if (++size * 4 > keys.length * 3) {
+			rehash(2 * keys.length);
+		}
+		return index;
+	}
+
+	/**
+	 * Removes a slot. Its index is reused by the next added slot.
+	 *
+	 * @param slot the slot
+	 * @return the index of the slot, or -1 if the slot was not in the table
+	 */
+	public int remove(int slot) {
+		int mask = keys.length - 1;
+		int cell = hash(slot) & mask;
+		while (keys[cell] != 0 && keys[cell] != slot + 1) {
+			cell = (cell + 1) & mask;
+		}
+		if (keys[cell] == 0) {
+			return -1;
+		}
+		int index = values[cell];
+		slots[index] = -1;
+		if (freeCount == free.length) {
+			free = Arrays.copyOf(free, 2 * freeCount);
+		}
+		free[freeCount++] = index;
+		size--;
+
+		// moves back the following cells of the cluster that would not be found anymore
+		int empty = cell;
+		for (cell = (cell + 1) & mask; keys[cell] != 0; cell = (cell + 1) & mask) {
+			int home = hash(keys[cell] - 1) & mask;
+			if (((cell - home) & mask) >= ((cell - empty) & mask)) {
+				keys[empty] = keys[cell];
+				values[empty] = values[cell];
+				empty = cell;
+			}
+		}
+		keys[empty] = 0;
+		return index;
+	}
+
+	/**
+	 * Removes all the slots, and all the indexes.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		freeCount = 0;
+		capacity = 0;
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of slots.
+	 *
+	 * @return the number of slots
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of indexes given so far: the indexes in use or free are below it.
+	 *
+	 * @return the number of indexes
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the slot of an index.
+	 *
+	 * @param index the index, below {@link #capacity()}
+	 * @return the slot, or -1 if the index is free
+	 */
+	public int slotAt(int index) {
+		return slots[index];
+	}
+
+	/**
+	 * Moves the cells to a new hash table.
+	 *
+	 * @param length the number of cells of the new table
+	 */
+	private void rehash(int length) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new int[length];
+		values = new int[length];
+		int mask = length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int cell = hash(oldKeys[i] - 1) & mask;
+				while (keys[cell] != 0) {
+					cell = (cell + 1) & mask;
+				}
+				keys[cell] = oldKeys[i];
+				values[cell] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Spreads the bits of a slot, so that consecutive slots do not form clusters.
+	 *
+	 * @param slot the slot
+	 * @return the hash
+	 */
+	private static int hash(int slot) {
+		int h = slot * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+/*
+	Extended by the Computer Systems Lab, University of Thessaly (https://csl.e-ce.uth.gr)
+	for the MLSysOps project (https://mlsysops.eu)
+
+	Copyright (c) 2024, The University of Thessaly, Greece
+
+	Contact: Bowen Sun bsun@uth.gr
+	         Christos Antonopoulos  cda@uth.gr
+*/
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * TraceResampler resamples the utilization traces (PlanetLab, and the Google and Azure traces
+ * converted to the same format: one sample per line) from their own interval to the interval of
+ * the simulation, once, before the simulation. A sample of the new interval is:
+ * <ul>
+ * <li>{@link #LINEAR}: the trace, linearly interpolated between its samples, at the time of the
+ * sample;</li>
+ * <li>{@link #AVERAGE}: the average of the interpolated trace over the interval starting at the
+ * sample;</li>
+ * <li>{@link #MAX}: the maximum of the interpolated trace over the interval starting at the
+ * sample.</li>
+ * </ul>
+ */
+public class TraceResampler {
+
+	/** The samples are interpolated. */
+	public static final int LINEAR = 0;
+
+	/** The samples are averaged over their interval. */
+	public static final int AVERAGE = 1;
+
+	/** The samples are the maximum over their interval. */
+	public static final int MAX = 2;
+
+	/**
+	 * Reads a trace with one sample per line.
+	 * 
+	 * @param inputPath the input path
+	 * @param maxSamples the maximum number of samples to read, or 0 to read the whole trace
+	 * @return the samples
+	 * @throws NumberFormatException the number format exception
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static double[] read(String inputPath, int maxSamples) throws NumberFormatException, IOException {
+		double[] samples = new double[maxSamples > 0 ? maxSamples : 1024];
+		int count = 0;
+		BufferedReader input = new BufferedReader(new FileReader(inputPath));
+		try {
+			String line;
+			while ((maxSamples <= 0 || count < maxSamples) && (line = input.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				if (count == samples.length) {
+					samples = Arrays.copyOf(samples, 2 * count);
+				}
+				samples[count++] = Double.valueOf(line);
+			}
+		} finally {
+			input.close();
+		}
+		return Arrays.copyOf(samples, count);
+	}
+
+	/**
+	 * Resamples a trace to a new interval. The new trace covers the same time span: its samples are
+	 * at the times of the new interval up to the time of the last sample of the trace.
+	 * 
+	 * @param samples the samples of the trace
+	 * @param sourceInterval the interval of the trace
+	 * @param interval the new interval
+	 * @param method the method: {@link #LINEAR}, {@link #AVERAGE} or {@link #MAX}
+	 * @return the samples of the new trace
+	 */
+	public static double[] resample(double[] samples, double sourceInterval, double interval, int method) {
+		if (samples.length == 0 || sourceInterval <= 0 || interval <= 0) {
+			throw new IllegalArgumentException("Empty trace or invalid interval");
+		}
+		double end = (samples.length - 1) * sourceInterval;
+		int length = (int) Math.floor(end / interval + 1e-9) + 1;
+		double[] resampled = new double[length];
+		double[] areas = method == AVERAGE ? cumulativeAreas(samples, sourceInterval) : null;
+		for (int k = 0; k < length; k++) {
+			double from = k * interval;
+			double to = Math.min(from + interval, end);
+			switch (method) {
+				case LINEAR:
+					resampled[k] = interpolate(samples, sourceInterval, from);
+					break;
+				case AVERAGE:
+					resampled[k] = to > from
+							? (area(samples, sourceInterval, areas, to) - area(samples, sourceInterval, areas, from))
+									/ (to - from)
+							: interpolate(samples, sourceInterval, from);
+					break;
+				case MAX:
+					double max = Math.max(
+							interpolate(samples, sourceInterval, from),
+							interpolate(samples, sourceInterval, to));
+					for (int j = (int) Math.ceil(from / sourceInterval); j * sourceInterval < to; j++) {
+						max = Math.max(max, samples[j]);
+					}
+					resampled[k] = max;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown resampling method: " + method);
+			}
+		}
+		return resampled;
+	}
+
+	/**
+	 * Interpolates a trace linearly between its samples.
+	 * 
+	 * @param samples the samples
+	 * @param interval the interval of the samples
+	 * @param time the time, within the trace
+	 * @return the value of the trace
+	 */
+	private static double interpolate(double[] samples, double interval, double time) {
+		int index = (int) Math.floor(time / interval);
+		if (index >= samples.length - 1) {
+			return samples[samples.length - 1];
+		}
+		double fraction = time / interval - index;
+		return samples[index] + (samples[index + 1] - samples[index]) * fraction;
+	}
+
+	/**
+	 * Computes the area under the interpolated trace up to each sample.
+	 * 
+	 * @param samples the samples
+	 * @param interval the interval of the samples
+	 * @return the areas
+	 */
+	private static double[] cumulativeAreas(double[] samples, double interval) {
+		double[] areas = new double[samples.length];
+		for (int j = 1; j < samples.length; j++) {
+			areas[j] = areas[j - 1] + (samples[j - 1] + samples[j]) * interval / 2;
+		}
+		return areas;
+	}
+
+	/**
+	 * Gets the area under the interpolated trace up to a time.
+	 * 
+	 * @param samples the samples
+	 * @param interval the interval of the samples
+	 * @param areas the areas up to each sample
+	 * @param time the time, within the trace
+	 * @return the area
+	 */
+	private static double area(double[] samples, double interval, double[] areas, double time) {
+		int index = (int) Math.floor(time / interval);
+		if (index >= samples.length - 1) {
+			return areas[samples.length - 1];
+		}
+		double width = time - index * interval;
+		return areas[index] + (samples[index] + interpolate(samples, interval, time)) * width / 2;
+	}
+
+}
@@ -8,17 +8,31 @@
 
 package org.cloudbus.cloudsim.util;
 
-import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
@@ -53,6 +67,12 @@ import org.cloudbus.cloudsim.UtilizationModelFull;
  * <li> {@link #setComment(String)}
  * <li> {@link #setField(int, int, int, int, int)}
  * </ul>
+ * <p>
+ * A text trace is split in chunks of lines, which are parsed in parallel (see
+ * {@link #setThreads(int)}), without building a string per line or field. A compressed trace is
+ * parsed as a stream, which {@link #streamWorkload()} also gives job by job, without keeping the
+ * whole workload in memory. The parsed jobs can be kept in a binary index next to the trace, so
+ * that the next runs skip the parsing (see {@link #setIndexCache(boolean)}).
  * 
  * @author Anthony Sulistio and Marcos Dias de Assuncao
  * @since 5.0
@@ -96,7 +116,15 @@ public class WorkloadFileReader implements WorkloadModel {
 	// comment
 	private static final int IRRELEVANT = -1; // irrelevant number
 
-	private String[] fieldArray = null; // a temp array storing all the fields
+	private int threads = Runtime.getRuntime().availableProcessors(); // number of parsing threads
+
+	private boolean indexCache = false; // whether to keep the parsed jobs in an index
+
+	private static final int CHUNK_SIZE = 16 << 20; // max. size of a chunk of a text trace
+
+	private static final int INDEX_MAGIC = 0x53574649; // magic number of the index
+
+	private static final int INDEX_VERSION = 1; // version of the index format
 
 	/**
 	 * Create a new {@link WorkloadFileReader} object.
@@ -139,16 +167,19 @@ public class WorkloadFileReader implements WorkloadModel {
 		if (jobs == null) {
 			jobs = new ArrayList<Cloudlet>();
 
-			// create a temp array
-			fieldArray = new String[MAX_FIELD];
-
 			try {
-				if (file.getName().endsWith(".gz")) {
-					readGZIPFile(file);
-				} else if (file.getName().endsWith(".zip")) {
-					readZipFile(file);
-				} else {
-					readFile(file);
+				JobRecords records = indexCache ? readIndex() : null;
+				if (records == null) {
+					records = isCompressed() ? parseStream() : parseChunks();
+					if (indexCache) {
+						writeIndex(records);
+					}
+				}
+
+				jobs.ensureCapacity(records.size());
+				final UtilizationModel utilizationModel = new UtilizationModelFull();
+				for (int i = 0; i < records.size(); i++) {
+					jobs.add(createJob(records, i, i, utilizationModel));
 				}
 			} catch (final FileNotFoundException e) {
 			} catch (final IOException e) {
@@ -158,6 +189,62 @@ public class WorkloadFileReader implements WorkloadModel {
 		return jobs;
 	}
 
+	/**
+	 * Reads the jobs from the file one at a time, as they are iterated. Unlike
+	 * {@link #generateWorkload()}, the jobs are not kept, so a large trace can be replayed without
+	 * holding it in memory. The file is read on the calling thread, whatever its format.
+	 * 
+	 * @return an iterator over the jobs of the file; the iteration stops at the first read error
+	 */
+	public Iterator<Cloudlet> streamWorkload() {
+		final UtilizationModel utilizationModel = new UtilizationModelFull();
+		return new Iterator<Cloudlet>() {
+
+			/** The reader, created with the first job. */
+			private RecordReader reader;
+
+			/** The next job, if read. */
+			private final JobRecords next = new JobRecords(1);
+
+			/** The number of jobs returned. */
+			private int count;
+
+			@Override
+			public boolean hasNext() {
+				if (next.size() > 0) {
+					return true;
+				}
+				try {
+					if (reader == null) {
+						reader = new RecordReader(openStream());
+					}
+					return reader.next(next);
+				} catch (final IOException e) {
+					if (reader != null) {
+						reader.close();
+					}
+					return false;
+				}
+			}
+
+			@Override
+			public Cloudlet next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				final Cloudlet job = createJob(next, 0, count++, utilizationModel);
+				next.clear();
+				return job;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+	}
+
 	/**
 	 * Identifies the start of a comment line.
 	 * 
@@ -246,250 +333,723 @@ public class WorkloadFileReader implements WorkloadModel {
 		return true;
 	}
 
+	/**
+	 * Sets the number of threads parsing a text trace. The trace is read by one thread if it is
+	 * compressed, whatever the number of threads.
+	 * 
+	 * @param threads the number of threads
+	 * @throws IllegalArgumentException if the number of threads is not positive
+	 * @pre threads > 0
+	 * @post $none
+	 */
+	public void setThreads(final int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Number of threads must be > 0.");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets whether the parsed jobs are kept in a binary index next to the trace (see
+	 * {@link #getIndexFile()}). The index is read instead of the trace when it was written for the
+	 * same trace file, size, modification time and fields, and rewritten otherwise.
+	 * 
+	 * @param indexCache <code>true</code> to read and write the index
+	 */
+	public void setIndexCache(final boolean indexCache) {
+		this.indexCache = indexCache;
+	}
+
+	/**
+	 * Gets the index of the parsed jobs.
+	 * 
+	 * @return the index file: the trace file name with <tt>.idx</tt> appended
+	 */
+	public File getIndexFile() {
+		return new File(file.getPath() + ".idx");
+	}
+
 	// ------------------- PRIVATE METHODS -------------------
 
 	/**
-	 * Creates a Gridlet with the given information and adds to the list
+	 * Creates a Gridlet from a parsed job.
 	 * 
-	 * @param id a Gridlet ID
-	 * @param submitTime Gridlet's submit time
-	 * @param runTime Gridlet's run time
-	 * @param numProc number of processors
-	 * @param reqRunTime user estimated run time
-	 * @param userID user id
-	 * @param groupID user's group id
-	 * @pre id >= 0
-	 * @pre submitTime >= 0
-	 * @pre runTime >= 0
-	 * @pre numProc > 0
-	 * @post $none
+	 * @param records the parsed jobs
+	 * @param record the index of the job in the records
+	 * @param position the position of the job in the workload, giving its id if the job number is
+	 *        irrelevant
+	 * @param utilizationModel the utilization model, shared by the jobs
+	 * @return the Gridlet
 	 */
-	private void createJob(
-			final int id,
-			final long submitTime,
-			final int runTime,
-			final int numProc,
-			final int reqRunTime,
-			final int userID,
-			final int groupID) {
-		// create the cloudlet
-		final int len = runTime * rating;
-		UtilizationModel utilizationModel = new UtilizationModelFull();
-		final Cloudlet wgl = new Cloudlet(
+	private Cloudlet createJob(
+			final JobRecords records,
+			final int record,
+			final int position,
+			final UtilizationModel utilizationModel) {
+		final int id = JOB_NUM == IRRELEVANT ? position + 1 : records.getId(record);
+		final int len = records.getRunTime(record) * rating;
+		return new Cloudlet(
 				id,
 				len,
-				numProc,
+				records.getNumProc(record),
 				0,
 				0,
 				utilizationModel,
 				utilizationModel,
 				utilizationModel);
-		jobs.add(wgl);
 	}
 
 	/**
-	 * Extracts relevant information from a given array
+	 * Checks whether the file is compressed.
 	 * 
-	 * @param array an array of String
-	 * @param line a line number
-	 * @pre array != null
-	 * @pre line > 0
+	 * @return <code>true</code> if the file is a gzip or zip file
 	 */
-	private void extractField(final String[] array, final int line) {
-		try {
-			Integer obj = null;
-
-			// get the job number
-			int id = 0;
-			if (JOB_NUM == IRRELEVANT) {
-				id = jobs.size() + 1;
-			} else {
-				obj = new Integer(array[JOB_NUM].trim());
-				id = obj.intValue();
-			}
+	private boolean isCompressed() {
+		return file.getName().endsWith(".gz") || file.getName().endsWith(".zip");
+	}
 
-			// get the submit time
-			final Long l = new Long(array[SUBMIT_TIME].trim());
-			final long submitTime = l.intValue();
+	/**
+	 * Opens the file, uncompressing it if needed. The entries of a zip file are read one after the
+	 * other.
+	 * 
+	 * @return the content of the file
+	 * @throws IOException if the there was any error opening the file
+	 */
+	private InputStream openStream() throws IOException {
+		if (file.getName().endsWith(".gz")) {
+			return new GZIPInputStream(new FileInputStream(file), 1 << 16);
+		} else if (file.getName().endsWith(".zip")) {
+			return new ZipEntriesInputStream(new ZipInputStream(new FileInputStream(file)));
+		}
+		return new FileInputStream(file);
+	}
 
-			// get the user estimated run time
-			obj = new Integer(array[REQ_RUN_TIME].trim());
-			final int reqRunTime = obj.intValue();
+	/**
+	 * Parses the whole file as a stream, on this thread.
+	 * 
+	 * @return the parsed jobs
+	 * @throws IOException if the there was any error reading the file
+	 */
+	private JobRecords parseStream() throws IOException {
+		final JobRecords records = new JobRecords(1024);
+		final RecordReader reader = new RecordReader(openStream());
+		try {
+			while (reader.next(records)) {
+				// reads all the records
+			}
+		} finally {
+			reader.close();
+		}
+		return records;
+	}
 
-			// if the required run time field is ignored, then use
-			// the actual run time
-			obj = new Integer(array[RUN_TIME].trim());
-			int runTime = obj.intValue();
+	/**
+	 * Parses a text file in chunks of lines, in parallel. Every chunk is a byte range of the file
+	 * extended to whole lines: a line belongs to the chunk where it starts.
+	 * 
+	 * @return the parsed jobs, in the order of the file
+	 * @throws IOException if the there was any error reading the file
+	 */
+	private JobRecords parseChunks() throws IOException {
+		final long length = file.length();
+		final int chunks = (int) Math.max(
+				Math.min(threads, Math.max(1, length / (1 << 16))),
+				(length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		if (chunks <= 1) {
+			return parseStream();
+		}
 
-			final int userID = new Integer(array[USER_ID].trim()).intValue();
-			final int groupID = new Integer(array[GROUP_ID].trim()).intValue();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks));
+		try {
+			final List<Future<JobRecords>> futures = new ArrayList<Future<JobRecords>>(chunks);
+			for (int i = 0; i < chunks; i++) {
+				final long from = length * i / chunks;
+				final long to = length * (i + 1) / chunks;
+				futures.add(executor.submit(new Callable<JobRecords>() {
+
+					@Override
+					public JobRecords call() throws IOException {
+						return parseChunk(from, to);
+					}
+
+				}));
+			}
 
-			// according to the SWF manual, runtime of 0 is possible due
-			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
-			if (runTime <= 0) {
-				runTime = 1; // change to 1 second
+			int size = 0;
+			final List<JobRecords> parsed = new ArrayList<JobRecords>(chunks);
+			for (final Future<JobRecords> future : futures) {
+				final JobRecords records = future.get();
+				parsed.add(records);
+				size += records.size();
+			}
+			final JobRecords records = new JobRecords(size);
+			for (final JobRecords chunk : parsed) {
+				records.addAll(chunk);
 			}
+			return records;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing " + file, e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Cannot parse " + file, e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
 
-			// get the number of allocated processors
-			obj = new Integer(array[REQ_NUM_PROC].trim());
-			int numProc = obj.intValue();
+	/**
+	 * Parses the lines of the file that start in a byte range.
+	 * 
+	 * @param from the first byte of the range
+	 * @param to the byte after the range
+	 * @return the parsed jobs
+	 * @throws IOException if the there was any error reading the file
+	 */
+	private JobRecords parseChunk(final long from, final long to) throws IOException {
+		final RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = input.getChannel();
+			final long begin = from == 0 ? 0 : lineEnd(channel, from - 1);
+			final long end = lineEnd(channel, to - 1);
+			final JobRecords records = new JobRecords((int) ((end - begin) / 64) + 16);
+			if (end <= begin) {
+				return records;
+			}
 
-			// if the required num of allocated processors field is ignored
-			// or zero, then use the actual field
-			if (numProc == IRRELEVANT || numProc == 0) {
-				obj = new Integer(array[NUM_PROC].trim());
-				numProc = obj.intValue();
+			final ByteBuffer buffer = ByteBuffer.allocate((int) (end - begin));
+			while (buffer.hasRemaining() && channel.read(buffer, begin + buffer.position()) > 0) {
+				// reads the whole range
+			}
+			final byte[] bytes = buffer.array();
+			final LineParser parser = new LineParser();
+			int lineStart = 0;
+			for (int i = 0; i < buffer.position(); i++) {
+				if (bytes[i] == '\n') {
+					parser.parse(bytes, lineStart, i, records);
+					lineStart = i + 1;
+				}
+			}
+			if (lineStart < buffer.position()) {
+				parser.parse(bytes, lineStart, buffer.position(), records);
 			}
+			return records;
+		} finally {
+			input.close();
+		}
+	}
 
-			// finally, check if the num of PEs required is valid or not
-			if (numProc <= 0) {
-				numProc = 1;
+	/**
+	 * Finds the end of the line containing a byte: the position after the first new line at or
+	 * after it, or the end of the file.
+	 * 
+	 * @param channel the file
+	 * @param position the position of the byte
+	 * @return the end of the line
+	 * @throws IOException if the there was any error reading the file
+	 */
+	private static long lineEnd(final FileChannel channel, long position) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(4096);
+		while (true) {
+			buffer.clear();
+			final int read = channel.read(buffer, position);
+			if (read <= 0) {
+				return position;
 			}
-			createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
-		} catch (final Exception e) {
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+	}
+
+	/**
+	 * Gets the hash of the fields to look in the trace, which the index depends on.
+	 * 
+	 * @return the hash
+	 */
+	private int getLayoutHash() {
+		return Arrays.hashCode(new int[] { JOB_NUM, SUBMIT_TIME, RUN_TIME, NUM_PROC, REQ_NUM_PROC,
+				REQ_RUN_TIME, USER_ID, GROUP_ID, MAX_FIELD, COMMENT.hashCode() });
+	}
 
+	/**
+	 * Reads the jobs from the index, if it matches the trace.
+	 * 
+	 * @return the jobs, or <code>null</code> if there is no index matching the trace
+	 */
+	private JobRecords readIndex() {
+		final File index = getIndexFile();
+		if (!index.exists()) {
+			return null;
+		}
+		try {
+			final RandomAccessFile input = new RandomAccessFile(index, "r");
+			try {
+				if (input.length() > Integer.MAX_VALUE) {
+					return null;
+				}
+				final ByteBuffer buffer = ByteBuffer.allocate((int) input.length());
+				final FileChannel channel = input.getChannel();
+				while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+					// reads the whole index
+				}
+				buffer.flip();
+				if (buffer.remaining() < 32 || buffer.getInt() != INDEX_MAGIC
+						|| buffer.getInt() != INDEX_VERSION || buffer.getLong() != file.length()
+						|| buffer.getLong() != file.lastModified() || buffer.getInt() != getLayoutHash()) {
+					return null;
+				}
+				final int size = buffer.getInt();
+				if (buffer.remaining() != 12L * size) {
+					return null;
+				}
+				final JobRecords records = new JobRecords(size);
+				final IntBuffer ints = buffer.asIntBuffer();
+				ints.get(records.data, 0, 3 * size);
+				records.size = size;
+				return records;
+			} finally {
+				input.close();
+			}
+		} catch (final IOException e) {
+			return null;
 		}
 	}
 
 	/**
-	 * Breaks a line of string into many fields.
+	 * Writes the jobs to the index. The index is written to a temporary file first, then renamed.
 	 * 
-	 * @param line a line of string
-	 * @param lineNum a line number
-	 * @pre line != null
-	 * @pre lineNum > 0
-	 * @post $none
+	 * @param records the jobs
 	 */
-	private void parseValue(final String line, final int lineNum) {
-		// skip a comment line
-		if (line.startsWith(COMMENT)) {
-			return;
+	private void writeIndex(final JobRecords records) {
+		final File index = getIndexFile();
+		final File temp = new File(index.getPath() + ".tmp");
+		try {
+			final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(temp),
+					1 << 16));
+			try {
+				output.writeInt(INDEX_MAGIC);
+				output.writeInt(INDEX_VERSION);
+				output.writeLong(file.length());
+				output.writeLong(file.lastModified());
+				output.writeInt(getLayoutHash());
+				output.writeInt(records.size());
+				for (int i = 0; i < 3 * records.size(); i++) {
+					output.writeInt(records.data[i]);
+				}
+			} finally {
+				output.close();
+			}
+			if (!temp.renameTo(index)) {
+				index.delete();
+				temp.renameTo(index);
+			}
+		} catch (final IOException e) {
+			temp.delete();
 		}
+	}
+
+	/**
+	 * JobRecords is a list of parsed jobs, stored as the id, the run time and the number of
+	 * processors of every job in an int array.
+	 */
+	private static class JobRecords {
 
-		final String[] sp = line.split("\\s+"); // split the fields based on a
-		// space
-		int len = 0; // length of a string
-		int index = 0; // the index of an array
+		/** The id, run time and number of processors of every job. */
+		private int[] data;
 
-		// check for each field in the array
-		for (final String elem : sp) {
-			len = elem.length(); // get the length of a string
+		/** The number of jobs. */
+		private int size;
 
-			// if it is empty then ignore
-			if (len == 0) {
-				continue;
+		/**
+		 * Creates an empty list.
+		 * 
+		 * @param capacity the initial capacity, in jobs
+		 */
+		JobRecords(final int capacity) {
+			data = new int[3 * Math.max(capacity, 1)];
+		}
+
+		/**
+		 * Adds a job.
+		 * 
+		 * @param id the job id
+		 * @param runTime the run time
+		 * @param numProc the number of processors
+		 */
+		void add(final int id, final int runTime, final int numProc) {
+			if (3 * size == data.length) {
+				data = Arrays.copyOf(data, 2 * data.length);
+			}
+			data[3 * size] = id;
+			data[3 * size + 1] = runTime;
+			data[3 * size + 2] = numProc;
+			size++;
+		}
+
+		/**
+		 * Adds the jobs of another list.
+		 * 
+		 * @param records the jobs
+		 */
+		void addAll(final JobRecords records) {
+			if (3 * (size + records.size) > data.length) {
+				data = Arrays.copyOf(data, Math.max(2 * data.length, 3 * (size + records.size)));
 			}
-			fieldArray[index] = elem;
-			index++;
+			System.arraycopy(records.data, 0, data, 3 * size, 3 * records.size);
+			size += records.size;
+		}
+
+		/**
+		 * Removes all the jobs.
+		 */
+		void clear() {
+			size = 0;
 		}
 
-		if (index == MAX_FIELD) {
-			extractField(fieldArray, lineNum);
+		int size() {
+			return size;
 		}
+
+		int getId(final int index) {
+			return data[3 * index];
+		}
+
+		int getRunTime(final int index) {
+			return data[3 * index + 1];
+		}
+
+		int getNumProc(final int index) {
+			return data[3 * index + 2];
+		}
+
 	}
 
 	/**
-	 * Reads a text file one line at the time
-	 * 
-	 * @param fl a file name
-	 * @return <code>true</code> if successful, <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
+	 * LineParser parses the lines of the trace, given as bytes, without building strings: the line
+	 * is split in fields at the whitespaces, and the numeric fields are parsed in place. A line
+	 * gives a job if it is not a comment, it has exactly the max. number of fields, and the fields
+	 * looked at are integer numbers.
 	 */
-	private boolean readFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(fl)));
+	private class LineParser {
+
+		/** The start of every field of the line. */
+		private final int[] starts = new int[MAX_FIELD];
+
+		/** The end of every field of the line. */
+		private final int[] ends = new int[MAX_FIELD];
+
+		/** The comment, as bytes. */
+		private final byte[] comment = COMMENT.getBytes();
+
+		/** Whether the last number parsed is valid. */
+		private boolean valid;
+
+		/**
+		 * Parses a line.
+		 * 
+		 * @param bytes the bytes
+		 * @param from the start of the line
+		 * @param to the end of the line, excluding the new line
+		 * @param records the jobs, where the job of the line is added
+		 * @return <code>true</code> if the line gives a job
+		 */
+		boolean parse(final byte[] bytes, final int from, final int to, final JobRecords records) {
+			valid = true;
+
+			// skip a comment line
+			if (to - from >= comment.length) {
+				int i = 0;
+				while (i < comment.length && bytes[from + i] == comment[i]) {
+					i++;
+				}
+				if (i == comment.length) {
+					return false;
+				}
+			}
 
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
+			// split the fields based on the whitespaces
+			int count = 0;
+			int i = from;
+			while (i < to) {
+				while (i < to && isWhitespace(bytes[i])) {
+					i++;
+				}
+				if (i == to) {
+					break;
+				}
+				if (count == MAX_FIELD) {
+					return false;
+				}
+				starts[count] = i;
+				while (i < to && !isWhitespace(bytes[i])) {
+					i++;
+				}
+				ends[count++] = i;
+			}
+			if (count != MAX_FIELD) {
+				return false;
 			}
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+			// get the job number
+			int id = 0;
+			if (JOB_NUM != IRRELEVANT) {
+				id = parseInt(bytes, JOB_NUM);
+			}
+
+			// the submit time, user estimated run time, user and group must be numbers too
+			parseNumber(bytes, SUBMIT_TIME, Long.MIN_VALUE, Long.MAX_VALUE);
+			if (!valid) {
+				return false;
+			}
+			parseInt(bytes, REQ_RUN_TIME);
+			int runTime = parseInt(bytes, RUN_TIME);
+			parseInt(bytes, USER_ID);
+			parseInt(bytes, GROUP_ID);
+			if (!valid) {
+				return false;
+			}
+
+			// according to the SWF manual, runtime of 0 is possible due
+			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
+			if (runTime <= 0) {
+				runTime = 1; // change to 1 second
+			}
+
+			// if the required num of allocated processors field is ignored
+			// or zero, then use the actual field
+			int numProc = parseInt(bytes, REQ_NUM_PROC);
+			if (valid && (numProc == IRRELEVANT || numProc == 0)) {
+				numProc = parseInt(bytes, NUM_PROC);
+			}
+			if (!valid) {
+				return false;
 			}
+
+			// finally, check if the num of PEs required is valid or not
+			if (numProc <= 0) {
+				numProc = 1;
+			}
+			records.add(id, runTime, numProc);
+			return true;
+		}
+
+		/**
+		 * Parses an int field. The result is only meaningful while {@link #valid} is true: a field
+		 * that is not an int makes it false until the next line.
+		 * 
+		 * @param bytes the bytes of the line
+		 * @param field the field
+		 * @return the value
+		 */
+		private int parseInt(final byte[] bytes, final int field) {
+			return (int) parseNumber(bytes, field, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		}
+
+		/**
+		 * Parses an integer field, as {@link Long#parseLong(String)} does.
+		 * 
+		 * @param bytes the bytes of the line
+		 * @param field the field
+		 * @param min the min. value
+		 * @param max the max. value
+		 * @return the value
+		 */
+		private long parseNumber(final byte[] bytes, final int field, final long min, final long max) {
+			if (field < 0 || field >= MAX_FIELD) {
+				valid = false;
+				return 0;
+			}
+			int i = starts[field];
+			final int end = ends[field];
+			final boolean negative = bytes[i] == '-';
+			if (negative || bytes[i] == '+') {
+				i++;
+			}
+			if (i == end) {
+				valid = false;
+				return 0;
+			}
+			long value = 0;
+			for (; i < end; i++) {
+				final int digit = bytes[i] - '0';
+				if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+					valid = false;
+					return 0;
+				}
+				value = value * 10 + digit;
+			}
+			value = negative ? -value : value;
+			if (value < min || value > max) {
+				valid = false;
+				return 0;
+			}
+			return value;
 		}
 
-		return success;
 	}
 
 	/**
-	 * Reads a gzip file one line at the time
+	 * Checks whether a byte is a whitespace, as the <code>\s</code> class of the regular expressions.
 	 * 
-	 * @param fl a gzip file name
-	 * @return <code>true</code> if successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
+	 * @param b the byte
+	 * @return <code>true</code> if the byte is a whitespace
 	 */
-	private boolean readGZIPFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(fl))));
+	private static boolean isWhitespace(final byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+	}
+
+	/**
+	 * RecordReader parses the jobs of a stream, line by line.
+	 */
+	private class RecordReader {
+
+		/** The stream. */
+		private final InputStream input;
+
+		/** The bytes read. */
+		private final byte[] buffer = new byte[1 << 16];
+
+		/** The position in the bytes read. */
+		private int position;
+
+		/** The number of bytes read. */
+		private int limit;
+
+		/** The current line. */
+		private byte[] line = new byte[256];
+
+		/** The parser. */
+		private final LineParser parser = new LineParser();
+
+		/** Whether the stream is closed. */
+		private boolean closed;
 
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
+		/**
+		 * Creates a reader.
+		 * 
+		 * @param input the stream
+		 */
+		RecordReader(final InputStream input) {
+			this.input = input;
+		}
+
+		/**
+		 * Parses the lines up to the next job.
+		 * 
+		 * @param records the jobs, where the next job is added
+		 * @return <code>true</code> if a job was found, <code>false</code> at the end of the stream
+		 * @throws IOException if the there was any error reading the stream
+		 */
+		boolean next(final JobRecords records) throws IOException {
+			while (!closed) {
+				int length = 0;
+				boolean read = false;
+				while (true) {
+					if (position == limit) {
+						limit = input.read(buffer);
+						position = 0;
+						if (limit <= 0) {
+							limit = 0;
+							close();
+							break;
+						}
+					}
+					read = true;
+					final byte b = buffer[position++];
+					if (b == '\n') {
+						break;
+					}
+					if (length == line.length) {
+						line = Arrays.copyOf(line, 2 * length);
+					}
+					line[length++] = b;
+				}
+				if (read && parser.parse(line, 0, length, records)) {
+					return true;
+				}
 			}
+			return false;
+		}
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+		/**
+		 * Closes the stream.
+		 */
+		void close() {
+			if (!closed) {
+				closed = true;
+				try {
+					input.close();
+				} catch (final IOException e) {
+				}
 			}
 		}
 
-		return success;
 	}
 
 	/**
-	 * Reads a Zip file.
-	 * 
-	 * @param fl a zip file name
-	 * @return <code>true</code> if reading a file is successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
+	 * ZipEntriesInputStream reads the entries of a zip file one after the other, as one stream.
 	 */
-	private boolean readZipFile(final File fl) throws IOException {
-		boolean success = false;
-		ZipFile zipFile = null;
-		try {
-			BufferedReader reader = null;
-
-			// ZipFile offers an Enumeration of all the files in the file
-			zipFile = new ZipFile(fl);
-			final Enumeration<? extends ZipEntry> e = zipFile.entries();
-			while (e.hasMoreElements()) {
-				success = false; // reset the value again
-				final ZipEntry zipEntry = e.nextElement();
-
-				reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry)));
-
-				// read one line at the time
-				int line = 1;
-				while (reader.ready()) {
-					parseValue(reader.readLine(), line);
-					line++;
-				}
+	private static class ZipEntriesInputStream extends InputStream {
 
-				reader.close();
-				success = true;
-			}
-		} finally {
-			if (zipFile != null) {
-				zipFile.close();
+		/** The zip file. */
+		private final ZipInputStream input;
+
+		/** Whether an entry is open. */
+		private boolean inEntry;
+
+		/**
+		 * Creates a stream.
+		 * 
+		 * @param input the zip file
+		 */
+		ZipEntriesInputStream(final ZipInputStream input) {
+			this.input = input;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) == 1 ? b[0] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			while (true) {
+				if (!inEntry) {
+					ZipEntry entry = input.getNextEntry();
+					while (entry != null && entry.isDirectory()) {
+						entry = input.getNextEntry();
+					}
+					if (entry == null) {
+						return -1;
+					}
+					inEntry = true;
+					// every entry starts on a new line
+					if (len > 0) {
+						b[off] = '\n';
+						return 1;
+					}
+				}
+				final int read = input.read(b, off, len);
+				if (read > 0) {
+					return read;
+				}
+				inEntry = false;
 			}
 		}
 
-		return success;
+		@Override
+		public void close() throws IOException {
+			input.close();
+		}
+
 	}
+
 }